@@ -62,7 +62,7 @@ public class HashUtil {
         return new HashValue(messageDigest.digest());
     }
 
-    private static MessageDigest createMessageDigest(String algorithm) {
+    public static MessageDigest createMessageDigest(String algorithm) {
         try {
             return MessageDigest.getInstance(algorithm);
         } catch (NoSuchAlgorithmException e) {
@@ -216,4 +216,88 @@ class CopyTaskIntegrationSpec extends AbstractIntegrationSpec {
         and:
         file("out/nested/b.txt").text == "bar"
     }
+
+    def "only copies changed files when sources change"() {
+        given:
+        file("src/one.txt") << "one"
+        file("src/two.txt") << "two"
+        buildScript """
+            task copy(type: Copy) {
+                from 'src'
+                into 'dest'
+            }
+        """
+
+        when:
+        run "copy"
+        file("dest/one.txt").lastModified = file("dest/one.txt").lastModified() - 10000
+        def unchanged = file("dest/one.txt").snapshot()
+        file("src/two.txt").text = "changed"
+        file("src/three.txt") << "three"
+        run "copy"
+
+        then:
+        file("dest/one.txt").assertHasNotChangedSince(unchanged)
+        file("dest/two.txt").text == "changed"
+        file("dest/three.txt").text == "three"
+    }
+
+    def "copies all files when the task has a filter"() {
+        given:
+        file("src/one.txt") << "one"
+        file("src/two.txt") << "two"
+        buildScript """
+            task copy(type: Copy) {
+                from 'src'
+                into 'dest'
+                filter { it.toUpperCase() }
+            }
+        """
+
+        when:
+        run "copy"
+        file("dest/one.txt").lastModified = file("dest/one.txt").lastModified() - 10000
+        def original = file("dest/one.txt").snapshot()
+        file("src/two.txt").text = "changed"
+        run "copy"
+
+        then:
+        file("dest/one.txt").assertHasChangedSince(original)
+        file("dest/one.txt").text == "ONE"
+        file("dest/two.txt").text == "CHANGED"
+    }
+
+    def "runs copy method overridden by subclass"() {
+        given:
+        file("src/one.txt") << "one"
+        buildScript """
+            class CustomCopy extends Copy {
+                @Override
+                protected void copy() {
+                    println "custom copy"
+                    super.copy()
+                }
+            }
+
+            task copy(type: CustomCopy) {
+                from 'src'
+                into 'dest'
+            }
+        """
+
+        when:
+        run "copy"
+
+        then:
+        output.contains("custom copy")
+        file("dest/one.txt").text == "one"
+
+        when:
+        file("src/two.txt") << "two"
+        run "copy"
+
+        then:
+        output.contains("custom copy")
+        file("dest/two.txt").text == "two"
+    }
 }
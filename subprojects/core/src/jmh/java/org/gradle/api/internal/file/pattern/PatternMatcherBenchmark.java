@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern;
+
+import org.apache.tools.ant.DirectoryScanner;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares matching a path against a set of patterns one pattern at a time with matching against the combined, indexed matcher.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatternMatcherBenchmark {
+    @Param({"defaultExcludes", "sourceIncludes", "manyExcludes"})
+    public String patternSet;
+
+    private Spec<RelativePath> individual;
+    private Spec<RelativePath> combined;
+    private final List<RelativePath> paths = new ArrayList<RelativePath>();
+
+    @Setup
+    public void setup() {
+        List<String> patterns = patterns();
+        boolean include = patternSet.equals("sourceIncludes");
+        List<Spec<RelativePath>> specs = new ArrayList<Spec<RelativePath>>();
+        for (String pattern : patterns) {
+            specs.add(PatternMatcherFactory.getPatternMatcher(include, true, pattern));
+        }
+        individual = Specs.or(include, specs);
+        combined = PatternMatcherFactory.getPatternsMatcher(include, true, patterns);
+
+        for (String dir : Arrays.asList("src/main/java/org/gradle/api", "src/main/resources/META-INF", "src/test/groovy/org/gradle", "build/classes/main/org/gradle/api/internal")) {
+            for (String file : Arrays.asList("Project.java", "DefaultProject.groovy", "plugin.properties", "Task.class", "package-info.java")) {
+                paths.add(RelativePath.parse(true, dir + "/" + file));
+            }
+            paths.add(RelativePath.parse(false, dir));
+        }
+    }
+
+    private List<String> patterns() {
+        if (patternSet.equals("defaultExcludes")) {
+            return Arrays.asList(DirectoryScanner.getDefaultExcludes());
+        }
+        if (patternSet.equals("sourceIncludes")) {
+            return Arrays.asList("**/*.java", "**/*.groovy", "**/*.properties", "META-INF/**", "org/gradle/**/*.xml");
+        }
+        List<String> patterns = new ArrayList<String>(Arrays.asList(DirectoryScanner.getDefaultExcludes()));
+        for (int i = 0; i < 20; i++) {
+            patterns.add("build/tmp" + i + "/**");
+            patterns.add("**/generated" + i + "/**");
+            patterns.add("src/*/gen" + i + "?/*.java");
+        }
+        return patterns;
+    }
+
+    @Benchmark
+    public void matchIndividually(Blackhole blackhole) {
+        for (RelativePath path : paths) {
+            blackhole.consume(individual.isSatisfiedBy(path));
+        }
+    }
+
+    @Benchmark
+    public void matchCombined(Blackhole blackhole) {
+        for (RelativePath path : paths) {
+            blackhole.consume(combined.isSatisfiedBy(path));
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.gradle.api.internal.file.CachingFileVisitDetails;
 import org.gradle.api.internal.file.FileTreeInternal;
 import org.gradle.api.internal.file.collections.*;
 import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.profile.BuildOperationTrace;
 import org.gradle.util.ChangeListener;
 import org.gradle.util.NoOpChangeListener;
 
@@ -50,7 +51,16 @@ public class DefaultFileCollectionSnapshotter implements FileCollectionSnapshott
         return new FileCollectionSnapshotImpl(new HashMap<String, IncrementalFileSnapshot>());
     }
 
-    public FileCollectionSnapshot snapshot(final FileCollection input) {
+    public FileCollectionSnapshot snapshot(FileCollection input) {
+        Object span = BuildOperationTrace.startSpan("snapshot", "Snapshot", input);
+        try {
+            return createSnapshot(input);
+        } finally {
+            BuildOperationTrace.finishSpan(span);
+        }
+    }
+
+    private FileCollectionSnapshot createSnapshot(FileCollection input) {
         final List<FileVisitDetails> allFileVisitDetails = visitFiles(input);
 
         if (allFileVisitDetails.isEmpty()) {
@@ -26,18 +26,25 @@ import org.gradle.internal.resource.CharsetUtil;
 import java.nio.charset.Charset;
 
 public class DefaultDirectoryWalkerFactory implements Factory<DirectoryWalker> {
+    /**
+     * When set to {@code true}, directories are read concurrently on Java 7 and later. Useful for network file systems and very wide trees.
+     */
+    public static final String PARALLEL_WALKER_PROPERTY = "org.gradle.internal.file.parallelDirectoryWalker";
+
     private final ClassLoader classLoader;
     private final JavaVersion javaVersion;
+    private final boolean parallel;
     private DirectoryWalker instance;
 
-    DefaultDirectoryWalkerFactory(ClassLoader classLoader, JavaVersion javaVersion) {
+    DefaultDirectoryWalkerFactory(ClassLoader classLoader, JavaVersion javaVersion, boolean parallel) {
         this.javaVersion = javaVersion;
         this.classLoader = classLoader;
+        this.parallel = parallel;
         reset();
     }
 
     DefaultDirectoryWalkerFactory() {
-        this(DefaultDirectoryWalkerFactory.class.getClassLoader(), JavaVersion.current());
+        this(DefaultDirectoryWalkerFactory.class.getClassLoader(), JavaVersion.current(), Boolean.getBoolean(PARALLEL_WALKER_PROPERTY));
     }
 
     public DirectoryWalker create() {
@@ -50,17 +57,21 @@ public class DefaultDirectoryWalkerFactory implements Factory<DirectoryWalker> {
 
     private DirectoryWalker createInstance() {
         if (javaVersion.isJava8Compatible() || (javaVersion.isJava7Compatible() && defaultEncodingContainsPlatformEncoding())) {
-            try {
-                Class clazz = classLoader.loadClass("org.gradle.api.internal.file.collections.jdk7.Jdk7DirectoryWalker");
-                return Cast.uncheckedCast(DirectInstantiator.instantiate(clazz));
-            } catch (ClassNotFoundException e) {
-                throw UncheckedException.throwAsUncheckedException(e);
-            }
+            return loadWalker(parallel ? "ParallelDirectoryWalker" : "Jdk7DirectoryWalker");
         } else {
             return new DefaultDirectoryWalker();
         }
     }
 
+    private DirectoryWalker loadWalker(String className) {
+        try {
+            Class clazz = classLoader.loadClass("org.gradle.api.internal.file.collections.jdk7." + className);
+            return Cast.uncheckedCast(DirectInstantiator.instantiate(clazz));
+        } catch (ClassNotFoundException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     private boolean defaultEncodingContainsPlatformEncoding() {
         // sun.jnu.encoding is the platform encoding used to decode/encode file paths, command line arguments, etc.
         // it's derived from LANG/LC_ALL/LC_CTYPE on Unixes and should not be set by the user
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.collections.jdk7;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.file.FileVisitDetailsWithAttributes;
+import org.gradle.api.internal.file.collections.DirectoryWalker;
+import org.gradle.api.specs.Spec;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link DirectoryWalker} which reads directories concurrently using a fork/join pool.
+ *
+ * <p>The contents of every subdirectory that the spec accepts are read as soon as its parent directory has been read, so the reads
+ * for independent subtrees overlap. Subdirectories that the spec rejects are never read. The spec and the visitor are only called
+ * from the calling thread, and in the same order as {@link org.gradle.api.internal.file.collections.DefaultDirectoryWalker}: all
+ * files in a directory are visited before any child directory is visited.</p>
+ */
+public class ParallelDirectoryWalker implements DirectoryWalker {
+    private static final ForkJoinPool POOL = new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+    private final StringInterner relativePathStringInterner = new StringInterner();
+
+    @Override
+    public void walkDir(File rootDir, RelativePath rootPath, FileVisitor visitor, Spec<FileTreeElement> spec, AtomicBoolean stopFlag, FileSystem fileSystem, boolean postfix) {
+        Path root = rootDir.toPath();
+        Set<Object> ancestors = new HashSet<Object>();
+        Object rootKey = fileKey(root);
+        if (rootKey != null) {
+            ancestors.add(rootKey);
+        }
+        walkDir(list(root), rootPath, visitor, spec, stopFlag, fileSystem, postfix, ancestors);
+    }
+
+    private void walkDir(ForkJoinTask<Listing> listing, RelativePath path, FileVisitor visitor, Spec<FileTreeElement> spec, AtomicBoolean stopFlag, FileSystem fileSystem, boolean postfix, Set<Object> ancestors) {
+        List<Entry> children = listing.join().getEntries();
+        List<FileVisitDetails> dirs = new ArrayList<FileVisitDetails>();
+        List<Entry> dirEntries = new ArrayList<Entry>();
+        List<ForkJoinTask<Listing>> dirListings = new ArrayList<ForkJoinTask<Listing>>();
+        try {
+            for (int i = 0; !stopFlag.get() && i < children.size(); i++) {
+                Entry child = children.get(i);
+                RelativePath childPath = path.append(!child.directory, relativePathStringInterner.intern(child.file.getName()));
+                FileVisitDetails details = new FileVisitDetailsWithAttributes(child.file, childPath, stopFlag, fileSystem, fileSystem, child.directory, child.lastModified, child.size);
+                if (!spec.isSatisfiedBy(details)) {
+                    continue;
+                }
+                if (!child.directory) {
+                    visitor.visitFile(details);
+                } else if (child.key == null || !ancestors.contains(child.key)) {
+                    dirs.add(details);
+                    dirEntries.add(child);
+                    dirListings.add(list(child.file.toPath()));
+                }
+            }
+
+            // now handle dirs
+            for (int i = 0; !stopFlag.get() && i < dirs.size(); i++) {
+                FileVisitDetails dir = dirs.get(i);
+                Object key = dirEntries.get(i).key;
+                if (key != null) {
+                    ancestors.add(key);
+                }
+                if (postfix) {
+                    walkDir(dirListings.get(i), dir.getRelativePath(), visitor, spec, stopFlag, fileSystem, postfix, ancestors);
+                    visitor.visitDir(dir);
+                } else {
+                    visitor.visitDir(dir);
+                    walkDir(dirListings.get(i), dir.getRelativePath(), visitor, spec, stopFlag, fileSystem, postfix, ancestors);
+                }
+                if (key != null) {
+                    ancestors.remove(key);
+                }
+            }
+        } finally {
+            for (ForkJoinTask<Listing> dirListing : dirListings) {
+                dirListing.cancel(false);
+            }
+        }
+    }
+
+    private static ForkJoinTask<Listing> list(final Path dir) {
+        return POOL.submit(new Callable<Listing>() {
+            @Override
+            public Listing call() {
+                List<Entry> entries = new ArrayList<Entry>();
+                try {
+                    DirectoryStream<Path> stream = Files.newDirectoryStream(dir);
+                    try {
+                        for (Path child : stream) {
+                            Entry entry = readEntry(child);
+                            if (entry != null) {
+                                entries.add(entry);
+                            }
+                        }
+                    } finally {
+                        stream.close();
+                    }
+                } catch (IOException e) {
+                    return new Listing(null, new GradleException(String.format("Could not list contents of directory '%s'.", dir), e));
+                } catch (RuntimeException e) {
+                    return new Listing(null, e);
+                }
+                return new Listing(entries, null);
+            }
+        });
+    }
+
+    private static Entry readEntry(Path path) {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            if (Files.isSymbolicLink(path)) {
+                throw new GradleException(String.format("Could not list contents of '%s'. Couldn't follow symbolic link.", path));
+            }
+            // Has been removed while we're visiting
+            return null;
+        } catch (IOException e) {
+            throw new GradleException(String.format("Could not read path '%s'.", path), e);
+        }
+        return new Entry(path.toFile(), attrs.isDirectory(), attrs.lastModifiedTime().toMillis(), attrs.size(), attrs.isDirectory() ? attrs.fileKey() : null);
+    }
+
+    private static Object fileKey(Path dir) {
+        try {
+            return Files.readAttributes(dir, BasicFileAttributes.class).fileKey();
+        } catch (IOException e) {
+            throw new GradleException(String.format("Could not read directory path '%s'.", dir), e);
+        }
+    }
+
+    /**
+     * The result of reading a directory. Failures are carried back to the calling thread, rather than thrown in the pool, so that they are rethrown unchanged.
+     */
+    private static class Listing {
+        private final List<Entry> entries;
+        private final RuntimeException failure;
+
+        Listing(List<Entry> entries, RuntimeException failure) {
+            this.entries = entries;
+            this.failure = failure;
+        }
+
+        List<Entry> getEntries() {
+            if (failure != null) {
+                throw failure;
+            }
+            return entries;
+        }
+    }
+
+    private static class Entry {
+        final File file;
+        final boolean directory;
+        final long lastModified;
+        final long size;
+        final Object key;
+
+        Entry(File file, boolean directory, long lastModified, long size, Object key) {
+            this.file = file;
+            this.directory = directory;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.key = key;
+        }
+    }
+}
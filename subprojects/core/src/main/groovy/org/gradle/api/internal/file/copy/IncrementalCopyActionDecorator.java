@@ -0,0 +1,64 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.copy;
+
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.tasks.WorkResult;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@link CopyAction} which only passes on those files whose source has changed since the last execution, or whose target does not exist.
+ * Directories are always passed on. Once a target path has been copied, any later file that maps to the same path is also passed on, so that the
+ * outcome for duplicate paths is the same as for a full copy.
+ */
+public class IncrementalCopyActionDecorator implements CopyAction {
+    private final Set<File> outOfDateSources;
+    private final FileResolver destinationResolver;
+    private final CopyAction delegate;
+
+    public IncrementalCopyActionDecorator(Set<File> outOfDateSources, FileResolver destinationResolver, CopyAction delegate) {
+        this.outOfDateSources = outOfDateSources;
+        this.destinationResolver = destinationResolver;
+        this.delegate = delegate;
+    }
+
+    public WorkResult execute(final CopyActionProcessingStream stream) {
+        final Set<RelativePath> copiedPaths = new HashSet<RelativePath>();
+
+        return delegate.execute(new CopyActionProcessingStream() {
+            public void process(final CopyActionProcessingStreamAction action) {
+                stream.process(new CopyActionProcessingStreamAction() {
+                    public void processFile(FileCopyDetailsInternal details) {
+                        if (details.isDirectory()) {
+                            action.processFile(details);
+                            return;
+                        }
+                        RelativePath path = details.getRelativePath();
+                        if (copiedPaths.contains(path) || outOfDateSources.contains(details.getFile()) || !destinationResolver.resolve(path.getPathString()).isFile()) {
+                            copiedPaths.add(path);
+                            action.processFile(details);
+                        }
+                    }
+                });
+            }
+        });
+    }
+}
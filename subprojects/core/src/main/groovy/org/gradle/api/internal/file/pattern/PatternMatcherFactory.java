@@ -18,8 +18,7 @@ package org.gradle.api.internal.file.pattern;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.specs.Spec;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 public class PatternMatcherFactory {
 
@@ -30,17 +29,57 @@ public class PatternMatcherFactory {
         return new PathMatcherBackedSpec(partialMatchDirs, pathMatcher);
     }
 
+    /**
+     * Returns a spec that is satisfied by a path when any of the given patterns matches it. The patterns are compiled once, and indexed so that
+     * the cost of matching a path does not grow with the number of patterns that start with a fixed segment or have the form {@code **}{@code /name}
+     * or {@code **}{@code /name/**}.
+     */
+    public static Spec<RelativePath> getPatternsMatcher(boolean partialMatchDirs, boolean caseSensitive, Collection<String> patterns) {
+        Map<String, List<PathMatcher>> byFirstSegment = new HashMap<String, List<PathMatcher>>();
+        Set<String> anySegmentNames = new HashSet<String>();
+        Set<String> lastSegmentNames = new HashSet<String>();
+        List<PathMatcher> others = new ArrayList<PathMatcher>();
+        for (String pattern : new LinkedHashSet<String>(patterns)) {
+            String[] parts = split(pattern);
+            if (caseSensitive && parts.length == 2 && parts[0].equals("**") && isLiteral(parts[1])) {
+                lastSegmentNames.add(parts[1]);
+            } else if (caseSensitive && parts.length == 3 && parts[0].equals("**") && isLiteral(parts[1]) && parts[2].equals("**")) {
+                anySegmentNames.add(parts[1]);
+            } else if (caseSensitive && parts.length > 0 && isLiteral(parts[0])) {
+                List<PathMatcher> matchers = byFirstSegment.get(parts[0]);
+                if (matchers == null) {
+                    matchers = new ArrayList<PathMatcher>();
+                    byFirstSegment.put(parts[0], matchers);
+                }
+                matchers.add(compile(parts, 0, caseSensitive));
+            } else {
+                others.add(compile(caseSensitive, pattern));
+            }
+        }
+        return new IndexedPathMatchersBackedSpec(partialMatchDirs, byFirstSegment, anySegmentNames, lastSegmentNames, others);
+    }
+
+    private static boolean isLiteral(String part) {
+        return part.length() > 0 && part.indexOf('*') < 0 && part.indexOf('?') < 0;
+    }
+
     private static PathMatcher compile(boolean caseSensitive, String pattern) {
         if (pattern.length() == 0) {
             return END_OF_PATH_MATCHER;
         }
+        return compile(split(pattern), 0, caseSensitive);
+    }
+
+    private static String[] split(String pattern) {
+        if (pattern.length() == 0) {
+            return new String[0];
+        }
 
         // trailing / or \ assumes **
         if (pattern.endsWith("/") || pattern.endsWith("\\")) {
             pattern = pattern + "**";
         }
-        String[] parts = pattern.split("\\\\|/");
-        return compile(parts, 0, caseSensitive);
+        return pattern.split("\\\\|/");
     }
 
     private static PathMatcher compile(String[] parts, int startIndex, boolean caseSensitive) {
@@ -79,4 +118,88 @@ public class PatternMatcherFactory {
             }
         }
     }
+
+    private static class IndexedPathMatchersBackedSpec implements Spec<RelativePath> {
+        private static final PathMatcher[] NO_MATCHERS = new PathMatcher[0];
+        private final boolean partialMatchDirs;
+        private final Map<String, PathMatcher[]> byFirstSegment;
+        private final Set<String> anySegmentNames;
+        private final Set<String> lastSegmentNames;
+        private final PathMatcher[] others;
+
+        public IndexedPathMatchersBackedSpec(boolean partialMatchDirs, Map<String, List<PathMatcher>> byFirstSegment, Set<String> anySegmentNames, Set<String> lastSegmentNames, List<PathMatcher> others) {
+            this.partialMatchDirs = partialMatchDirs;
+            this.byFirstSegment = new HashMap<String, PathMatcher[]>(byFirstSegment.size());
+            for (Map.Entry<String, List<PathMatcher>> entry : byFirstSegment.entrySet()) {
+                this.byFirstSegment.put(entry.getKey(), entry.getValue().toArray(NO_MATCHERS));
+            }
+            this.anySegmentNames = anySegmentNames;
+            this.lastSegmentNames = lastSegmentNames;
+            this.others = others.toArray(NO_MATCHERS);
+        }
+
+        public boolean isSatisfiedBy(RelativePath element) {
+            if (element.isFile() || !partialMatchDirs) {
+                return matches(element.getSegments());
+            } else {
+                return isPrefix(element.getSegments());
+            }
+        }
+
+        private boolean matches(String[] segments) {
+            if (segments.length > 0) {
+                if (!anySegmentNames.isEmpty()) {
+                    for (String segment : segments) {
+                        if (anySegmentNames.contains(segment)) {
+                            return true;
+                        }
+                    }
+                }
+                if (lastSegmentNames.contains(segments[segments.length - 1])) {
+                    return true;
+                }
+                PathMatcher[] matchers = byFirstSegment.get(segments[0]);
+                if (matchers != null) {
+                    for (PathMatcher matcher : matchers) {
+                        if (matcher.matches(segments, 0)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            for (PathMatcher matcher : others) {
+                if (matcher.matches(segments, 0)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isPrefix(String[] segments) {
+            // A pattern starting with '**' can match some descendant of any directory
+            if (!anySegmentNames.isEmpty() || !lastSegmentNames.isEmpty()) {
+                return true;
+            }
+            if (segments.length == 0) {
+                if (!byFirstSegment.isEmpty()) {
+                    return true;
+                }
+            } else {
+                PathMatcher[] matchers = byFirstSegment.get(segments[0]);
+                if (matchers != null) {
+                    for (PathMatcher matcher : matchers) {
+                        if (matcher.isPrefix(segments, 0)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            for (PathMatcher matcher : others) {
+                if (matcher.isPrefix(segments, 0)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
 }
@@ -23,12 +23,12 @@ public class PatternStepFactory {
             return new FixedPatternStep(source, caseSensitive);
         }
 
-        // Here, we try to avoid using the reg exp backed pattern step, as it is expensive in terms of performance and heap usage.
+        // Here, we try to avoid using the general wildcard pattern step, as the specialised steps are cheaper to match.
         // There are 3 special cases we handle here:
         // 1. '*'
         // 2. '*' <literal>
         // 3. <literal>
-        // Everything else uses a reg exp.
+        // Everything else uses general wildcard matching.
 
         // Handle '**' and '*some-pattern' special cases
         char ch = source.charAt(0);
@@ -43,8 +43,8 @@ public class PatternStepFactory {
             for (int i = pos; i < source.length(); i++) {
                 ch = source.charAt(i);
                 if (ch == '?' || ch == '*') {
-                    // Too complicated - fall back to regexp
-                    return new RegExpPatternStep(source, caseSensitive);
+                    // Too complicated - fall back to general wildcard matching
+                    return new WildcardPatternStep(source, caseSensitive);
                 }
             }
             return new WildcardPrefixPatternStep(source.substring(pos), caseSensitive);
@@ -53,8 +53,8 @@ public class PatternStepFactory {
         for (int i = 0; i < source.length(); i++) {
             ch = source.charAt(i);
             if (ch == '?' || ch == '*') {
-                // Too complicated - fall back to regexp
-                return new RegExpPatternStep(source, caseSensitive);
+                // Too complicated - fall back to general wildcard matching
+                return new WildcardPatternStep(source, caseSensitive);
             }
         }
         return new FixedPatternStep(source, caseSensitive);
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern;
+
+/**
+ * A pattern step for an arbitrary pattern segment containing '*' and '?' wildcards. Matches without allocating.
+ */
+public class WildcardPatternStep implements PatternStep {
+    private final String pattern;
+    private final boolean caseSensitive;
+
+    public WildcardPatternStep(String pattern, boolean caseSensitive) {
+        this.pattern = pattern;
+        this.caseSensitive = caseSensitive;
+    }
+
+    public boolean matches(String candidate) {
+        int patternLength = pattern.length();
+        int candidateLength = candidate.length();
+        int patternPos = 0;
+        int candidatePos = 0;
+        // Position of the last '*' seen, and of the candidate character it is currently expected to consume up to
+        int starPos = -1;
+        int starCandidatePos = 0;
+        while (candidatePos < candidateLength) {
+            if (patternPos < patternLength) {
+                char next = pattern.charAt(patternPos);
+                if (next == '*') {
+                    starPos = patternPos++;
+                    starCandidatePos = candidatePos;
+                    continue;
+                }
+                if (next == '?' || charsMatch(next, candidate.charAt(candidatePos))) {
+                    patternPos++;
+                    candidatePos++;
+                    continue;
+                }
+            }
+            if (starPos < 0) {
+                return false;
+            }
+            // Backtrack: let the last '*' consume one more character
+            patternPos = starPos + 1;
+            candidatePos = ++starCandidatePos;
+        }
+        while (patternPos < patternLength && pattern.charAt(patternPos) == '*') {
+            patternPos++;
+        }
+        return patternPos == patternLength;
+    }
+
+    private boolean charsMatch(char a, char b) {
+        if (a == b) {
+            return true;
+        }
+        return !caseSensitive && (Character.toUpperCase(a) == Character.toUpperCase(b) || Character.toLowerCase(a) == Character.toLowerCase(b));
+    }
+}
@@ -23,13 +23,15 @@ import org.gradle.api.internal.file.FileLookup;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.copy.*;
 import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.api.tasks.incremental.InputFileDetails;
 import org.gradle.internal.nativeplatform.filesystem.FileSystem;
 import org.gradle.internal.reflect.Instantiator;
 
 import javax.inject.Inject;
+import java.io.File;
 import java.io.FilterReader;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.regex.Pattern;
 
 /**
@@ -39,6 +41,7 @@ public abstract class AbstractCopyTask extends ConventionTask implements CopySpe
 
     private final CopySpecInternal rootSpec;
     private final CopySpecInternal mainSpec;
+    private IncrementalTaskInputs incrementalInputs;
 
     protected AbstractCopyTask() {
         this.rootSpec = createRootSpec();
@@ -84,6 +87,53 @@ public abstract class AbstractCopyTask extends ConventionTask implements CopySpe
         setDidWork(didWork.getDidWork());
     }
 
+    /**
+     * Runs {@link #copy()} with the given input changes available to {@link #copyOutOfDateFilesOnly(FileResolver, CopyAction)}. Subclasses that
+     * override {@link #copy()} therefore still take part in an incremental execution.
+     */
+    void copyWithInputChanges(IncrementalTaskInputs inputs) {
+        incrementalInputs = inputs;
+        try {
+            copy();
+        } finally {
+            incrementalInputs = null;
+        }
+    }
+
+    /**
+     * Decorates the given file copy action so that it only copies the files that are out-of-date, when the input changes allow this.
+     * Falls back to the given action, and so to a full copy, when the task is not being executed incrementally or when the spec has
+     * any actions or modes whose changes cannot be detected, such as filters or rename rules.
+     */
+    CopyAction copyOutOfDateFilesOnly(FileResolver destinationResolver, CopyAction fileCopyAction) {
+        IncrementalTaskInputs inputs = incrementalInputs;
+        if (inputs == null || !inputs.isIncremental() || !canCopyIncrementally()) {
+            return fileCopyAction;
+        }
+        final Set<File> outOfDateSources = new HashSet<File>();
+        inputs.outOfDate(new Action<InputFileDetails>() {
+            public void execute(InputFileDetails details) {
+                outOfDateSources.add(details.getFile());
+            }
+        });
+        return new IncrementalCopyActionDecorator(outOfDateSources, destinationResolver, fileCopyAction);
+    }
+
+    private boolean canCopyIncrementally() {
+        final List<CopySpecResolver> resolvers = new ArrayList<CopySpecResolver>();
+        rootSpec.walk(new Action<CopySpecResolver>() {
+            public void execute(CopySpecResolver resolver) {
+                resolvers.add(resolver);
+            }
+        });
+        for (CopySpecResolver resolver : resolvers) {
+            if (!resolver.getAllCopyActions().isEmpty() || resolver.getFileMode() != null || resolver.getDirMode() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns the source files for this task.
      * @return The source files. Never returns null.
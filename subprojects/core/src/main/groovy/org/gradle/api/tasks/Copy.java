@@ -22,6 +22,7 @@ import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.CopySpecInternal;
 import org.gradle.api.internal.file.copy.DestinationRootCopySpec;
 import org.gradle.api.internal.file.copy.FileCopyAction;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
@@ -72,11 +73,24 @@ public class Copy extends AbstractCopyTask {
 
     @Override
     protected CopyAction createCopyAction() {
+        FileResolver destinationResolver = getDestinationResolver();
+        return copyOutOfDateFilesOnly(destinationResolver, new FileCopyAction(destinationResolver));
+    }
+
+    /**
+     * Copies only the files that have changed since the last execution, when possible. Runs {@link #copy()}, which this action replaces.
+     */
+    @TaskAction
+    protected void copy(IncrementalTaskInputs inputs) {
+        copyWithInputChanges(inputs);
+    }
+
+    private FileResolver getDestinationResolver() {
         File destinationDir = getDestinationDir();
         if (destinationDir == null) {
             throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
         }
-        return new FileCopyAction(getFileLookup().getFileResolver(destinationDir));
+        return getFileLookup().getFileResolver(destinationDir);
     }
 
     @Override
@@ -19,6 +19,7 @@ package org.gradle.api.tasks;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.copy.*;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
@@ -30,11 +31,26 @@ public class Sync extends AbstractCopyTask {
 
     @Override
     protected CopyAction createCopyAction() {
+        File destinationDir = getValidDestinationDir();
+        FileResolver destinationResolver = getFileLookup().getFileResolver(destinationDir);
+        return new SyncCopyActionDecorator(destinationDir, copyOutOfDateFilesOnly(destinationResolver, new FileCopyAction(destinationResolver)));
+    }
+
+    /**
+     * Copies only the files that have changed since the last execution, when possible, and then removes stale files from the destination directory.
+     * Runs {@link #copy()}, which this action replaces.
+     */
+    @TaskAction
+    protected void copy(IncrementalTaskInputs inputs) {
+        copyWithInputChanges(inputs);
+    }
+
+    private File getValidDestinationDir() {
         File destinationDir = getDestinationDir();
         if (destinationDir == null) {
             throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
         }
-        return new SyncCopyActionDecorator(destinationDir, new FileCopyAction(getFileLookup().getFileResolver(destinationDir)));
+        return destinationDir;
     }
 
     @Override
@@ -66,13 +66,11 @@ public class PatternSpecFactory {
     }
 
     protected Spec<FileTreeElement> createSpec(Collection<String> patterns, boolean include, boolean caseSensitive) {
-        List<Spec<FileTreeElement>> matchers = new ArrayList<Spec<FileTreeElement>>(patterns.size());
-
-        for (String pattern : patterns) {
-            Spec<RelativePath> patternMatcher = PatternMatcherFactory.getPatternMatcher(include, caseSensitive, pattern);
-            matchers.add(new RelativePathSpec(patternMatcher));
+        if (patterns.isEmpty()) {
+            return include ? Specs.<FileTreeElement>satisfyAll() : Specs.<FileTreeElement>satisfyNone();
         }
 
-        return Specs.or(include, matchers);
+        Spec<RelativePath> patternsMatcher = PatternMatcherFactory.getPatternsMatcher(include, caseSensitive, patterns);
+        return new RelativePathSpec(patternsMatcher);
     }
 }
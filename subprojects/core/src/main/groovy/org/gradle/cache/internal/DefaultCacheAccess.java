@@ -28,6 +28,7 @@ import org.gradle.internal.Factory;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.serialize.Serializer;
+import org.gradle.profile.BuildOperationTrace;
 
 import java.io.File;
 import java.util.HashSet;
@@ -208,7 +209,11 @@ public class DefaultCacheAccess implements CacheCoordinator {
 
     private void takeOwnership(String operationDisplayName) {
         lock.lock();
+        Object span = null;
         try {
+            if (owner != null && owner != Thread.currentThread()) {
+                span = BuildOperationTrace.startSpan("lock", "Wait for", cacheDisplayName);
+            }
             while (owner != null && owner != Thread.currentThread()) {
                 try {
                     condition.await();
@@ -216,6 +221,7 @@ public class DefaultCacheAccess implements CacheCoordinator {
                     throw UncheckedException.throwAsUncheckedException(e);
                 }
             }
+            BuildOperationTrace.finishSpan(span);
             owner = Thread.currentThread();
             operations.pushCacheAction(operationDisplayName);
         } finally {
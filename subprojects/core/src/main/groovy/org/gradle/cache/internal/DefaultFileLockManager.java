@@ -24,6 +24,7 @@ import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.id.RandomLongIdGenerator;
+import org.gradle.profile.BuildOperationTrace;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
@@ -123,12 +124,15 @@ public class DefaultFileLockManager implements FileLockManager {
 
             LockStateSerializer stateProtocol = options.isUseCrossVersionImplementation() ? new Version1LockStateSerializer() : new DefaultLockStateSerializer();
             lockFileAccess = new LockFileAccess(lockFile, new LockStateAccess(stateProtocol));
+            Object span = BuildOperationTrace.startSpan("lock", "Lock", displayName);
             try {
                 lockState = lock(options.getMode());
             } catch (Throwable t) {
                 // Also releases any locks
                 lockFileAccess.close();
                 throw t;
+            } finally {
+                BuildOperationTrace.finishSpan(span);
             }
 
             this.mode = lock.isShared() ? LockMode.Shared : LockMode.Exclusive;
@@ -27,6 +27,7 @@ import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.hash.HashUtil;
 import org.gradle.logging.ProgressLogger;
 import org.gradle.logging.ProgressLoggerFactory;
+import org.gradle.profile.BuildOperationTrace;
 
 import java.io.Closeable;
 import java.io.File;
@@ -108,7 +109,12 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         public void execute(PersistentCache cache) {
             File classesDir = classesDir(cache);
             File metadataDir = metadataDir(cache);
-            scriptCompilationHandler.compileToDir(source, classLoader, classesDir, metadataDir, transformer, scriptBaseClass, verifier);
+            Object span = BuildOperationTrace.startSpan("compile", "Compile", source.getDisplayName());
+            try {
+                scriptCompilationHandler.compileToDir(source, classLoader, classesDir, metadataDir, transformer, scriptBaseClass, verifier);
+            } finally {
+                BuildOperationTrace.finishSpan(span);
+            }
         }
     }
 
@@ -42,10 +42,13 @@ import org.gradle.invocation.DefaultGradle;
 import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.logging.ProgressLoggerFactory;
 import org.gradle.logging.StyledTextOutputFactory;
+import org.gradle.profile.BuildOperationTrace;
 import org.gradle.profile.ProfileEventAdapter;
 import org.gradle.profile.ReportGeneratingProfileListener;
 import org.gradle.util.DeprecationLogger;
 
+import java.io.File;
+
 public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
     private final ServiceRegistry sharedServices;
     private final NestedBuildTracker tracker;
@@ -129,6 +132,16 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         if (startParameter.isProfile()) {
             listenerManager.addListener(new ReportGeneratingProfileListener());
         }
+        String tracePath = System.getProperty(BuildOperationTrace.TRACE_FILE_PROPERTY);
+        if (tracePath != null && tracker.getCurrentBuild() == null) {
+            File traceFile = new File(tracePath);
+            if (!traceFile.isAbsolute()) {
+                traceFile = new File(startParameter.getCurrentDir(), tracePath);
+            }
+            BuildOperationTrace trace = new BuildOperationTrace(traceFile);
+            listenerManager.addListener(trace);
+            trace.attach();
+        }
         ScriptUsageLocationReporter usageLocationReporter = new ScriptUsageLocationReporter();
         listenerManager.addListener(usageLocationReporter);
         DeprecationLogger.useLocationReporter(usageLocationReporter);
@@ -111,9 +111,9 @@ public class PathKeyFileStore implements FileStore<String>, FileStoreSearcher<St
         return doAdd(destination, error, new Action<File>() {
             public void execute(File file) {
                 if (isMove) {
-                    GFileUtils.moveFile(source, destination);
+                    GFileUtils.moveFile(source, file);
                 } else {
-                    GFileUtils.copyFile(source, destination);
+                    GFileUtils.copyFile(source, file);
                 }
             }
         });
@@ -18,15 +18,28 @@ package org.gradle.internal.resource.local;
 
 import org.apache.commons.io.FileUtils;
 import org.gradle.api.Action;
+import org.gradle.api.GradleException;
+import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
 
 /**
  * Assumes that files do not need to be replaced in the filestore.
  *
  * Can be used as an optimisation if path contains a checksum of the file, as there is no point to perform the replace in that circumstance.
+ * <p>
+ * Unlike {@link PathKeyFileStore}, this file store may be written to concurrently by several threads and processes without any locking. An entry is written
+ * to a uniquely named temporary file next to its final location, which is then renamed into place. An entry is therefore either absent or complete, and when
+ * two writers race to add the same entry, one of them wins and the other one discards its copy.
  */
 public class UniquePathKeyFileStore extends PathKeyFileStore {
+    /*
+        Entries are written to a file with this suffix, then renamed to their final name. Such a file is
+        only left behind by a crash, and never matches the name of an entry.
+     */
+    public static final String IN_PROGRESS_FILE_SUFFIX = ".part";
 
     public UniquePathKeyFileStore(File baseDir) {
         super(baseDir);
@@ -46,6 +59,21 @@ public class UniquePathKeyFileStore extends PathKeyFileStore {
         if (destination.exists()) {
             return entryAt(destination);
         }
-        return super.doAdd(destination, failureDescription, action);
+        try {
+            GFileUtils.parentMkdirs(destination);
+            File inProgressFile = new File(destination.getParentFile(), destination.getName() + "." + UUID.randomUUID() + IN_PROGRESS_FILE_SUFFIX);
+            try {
+                action.execute(inProgressFile);
+                // Some platforms do not replace an existing file on rename. This is fine here, as the entry is then already complete
+                if (!inProgressFile.renameTo(destination) && !destination.exists()) {
+                    throw new IOException(String.format("Could not rename '%s' to '%s'.", inProgressFile, destination));
+                }
+            } finally {
+                FileUtils.deleteQuietly(inProgressFile);
+            }
+        } catch (Throwable t) {
+            throw new GradleException(failureDescription, t);
+        }
+        return entryAt(destination);
     }
 }
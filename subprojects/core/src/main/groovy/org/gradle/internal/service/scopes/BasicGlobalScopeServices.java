@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.service.scopes;
+
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.cache.internal.DefaultFileLockManager;
+import org.gradle.cache.internal.DefaultProcessMetaDataProvider;
+import org.gradle.cache.internal.FileLockManager;
+import org.gradle.cache.internal.locklistener.DefaultFileLockContentionHandler;
+import org.gradle.cache.internal.locklistener.FileLockContentionHandler;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.event.DefaultListenerManager;
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.nativeintegration.ProcessEnvironment;
+import org.gradle.messaging.remote.internal.inet.InetAddressFactory;
+
+/**
+ * Defines the basic global services of a given process. These are the services required by a process that does not run builds itself, such as the
+ * Gradle CLI when it runs builds in a daemon. Unlike {@link GlobalScopeServices}, these services do not require the plugin modules to be inspected.
+ */
+public class BasicGlobalScopeServices {
+    ListenerManager createListenerManager() {
+        return new DefaultListenerManager();
+    }
+
+    DocumentationRegistry createDocumentationRegistry() {
+        return new DocumentationRegistry();
+    }
+
+    ExecutorFactory createExecutorFactory() {
+        return new DefaultExecutorFactory();
+    }
+
+    FileLockManager createFileLockManager(ProcessEnvironment processEnvironment, FileLockContentionHandler fileLockContentionHandler) {
+        return new DefaultFileLockManager(
+            new DefaultProcessMetaDataProvider(
+                processEnvironment),
+            fileLockContentionHandler);
+    }
+
+    DefaultFileLockContentionHandler createFileLockContentionHandler(ExecutorFactory executorFactory) {
+        return new DefaultFileLockContentionHandler(
+            executorFactory,
+            new InetAddressFactory()
+        );
+    }
+}
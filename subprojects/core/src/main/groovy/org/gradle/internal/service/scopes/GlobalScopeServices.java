@@ -30,7 +30,6 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.cache.internal.*;
 import org.gradle.cache.internal.locklistener.DefaultFileLockContentionHandler;
-import org.gradle.cache.internal.locklistener.FileLockContentionHandler;
 import org.gradle.cli.CommandLineConverter;
 import org.gradle.configuration.DefaultImportsReader;
 import org.gradle.configuration.ImportsReader;
@@ -39,14 +38,10 @@ import org.gradle.internal.classloader.ClassLoaderFactory;
 import org.gradle.internal.classloader.DefaultClassLoaderFactory;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.classpath.DefaultClassPath;
-import org.gradle.internal.concurrent.DefaultExecutorFactory;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.environment.GradleBuildEnvironment;
-import org.gradle.internal.event.DefaultListenerManager;
-import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.filewatch.DefaultFileWatcherFactory;
 import org.gradle.internal.filewatch.FileWatcherFactory;
-import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.internal.reflect.DirectInstantiator;
 import org.gradle.internal.reflect.Instantiator;
@@ -69,7 +64,7 @@ import java.util.List;
 /**
  * Defines the global services shared by all services in a given process. This includes the Gradle CLI, daemon and tooling API provider.
  */
-public class GlobalScopeServices {
+public class GlobalScopeServices extends BasicGlobalScopeServices {
 
     private static final Logger LOGGER = Logging.getLogger(GlobalScopeServices.class);
     private final ClassPath additionalModuleClassPath;
@@ -128,10 +123,6 @@ public class GlobalScopeServices {
         return new DefaultGradleDistributionLocator();
     }
 
-    DocumentationRegistry createDocumentationRegistry() {
-        return new DocumentationRegistry();
-    }
-
     PluginModuleRegistry createPluginModuleRegistry(ModuleRegistry moduleRegistry) {
         return new DefaultPluginModuleRegistry(moduleRegistry);
     }
@@ -144,10 +135,6 @@ public class GlobalScopeServices {
         return new DefaultClassLoaderRegistry(classPathRegistry, classLoaderFactory);
     }
 
-    ListenerManager createListenerManager() {
-        return new DefaultListenerManager();
-    }
-
     ClassLoaderFactory createClassLoaderFactory() {
         return new DefaultClassLoaderFactory();
     }
@@ -168,17 +155,6 @@ public class GlobalScopeServices {
         return new ClassGeneratorBackedInstantiator(classGenerator, DirectInstantiator.INSTANCE);
     }
 
-    ExecutorFactory createExecutorFactory() {
-        return new DefaultExecutorFactory();
-    }
-
-    FileLockManager createFileLockManager(ProcessEnvironment processEnvironment, FileLockContentionHandler fileLockContentionHandler) {
-        return new DefaultFileLockManager(
-            new DefaultProcessMetaDataProvider(
-                processEnvironment),
-            fileLockContentionHandler);
-    }
-
     InMemoryTaskArtifactCache createInMemoryTaskArtifactCache() {
         return new InMemoryTaskArtifactCache();
     }
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.logging.internal;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.progress.OperationIdentifier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Renders output events to a console from a dedicated thread, so that the threads generating output do not have to wait for the console.
+ *
+ * <p>Events are queued and rendered in batches, at most one batch every {@link #FRAME_INTERVAL_MILLIS}. A progress event that is superseded by a later
+ * progress event for the same operation before it is rendered is discarded, so that the status bar is redrawn at most once per frame. Events are otherwise
+ * rendered in the order they were queued.</p>
+ */
+public class AsyncConsoleRenderer implements OutputEventListener, Stoppable {
+    static final long FRAME_INTERVAL_MILLIS = 50;
+    // When this many events are queued, the thread generating output renders them itself, so that a slow console applies back-pressure
+    static final int MAX_QUEUED_EVENTS = 10000;
+
+    private final OutputEventListener renderer;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final Object renderLock = new Object();
+    private final Thread thread;
+    private List<OutputEvent> queue = new ArrayList<OutputEvent>();
+    private final Map<OperationIdentifier, Integer> queuedProgress = new HashMap<OperationIdentifier, Integer>();
+    private int queued;
+    private long lastFrame;
+    private boolean stopped;
+    private Throwable failure;
+
+    public AsyncConsoleRenderer(OutputEventListener renderer) {
+        this.renderer = renderer;
+        lastFrame = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(FRAME_INTERVAL_MILLIS);
+        thread = new Thread(new Runnable() {
+            public void run() {
+                while (waitForFrame()) {
+                    renderInBackground();
+                }
+                renderInBackground();
+            }
+        }, "Console renderer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void onOutput(OutputEvent event) {
+        boolean full;
+        lock.lock();
+        try {
+            rethrowFailure();
+            if (event instanceof ProgressEvent) {
+                Integer superseded = queuedProgress.put(((ProgressEvent) event).getOperationId(), queue.size());
+                if (superseded != null) {
+                    queue.set(superseded, null);
+                    queued--;
+                }
+            } else if (event instanceof ProgressCompleteEvent) {
+                queuedProgress.remove(((ProgressCompleteEvent) event).getOperationId());
+            }
+            queue.add(event);
+            queued++;
+            full = stopped || queued >= MAX_QUEUED_EVENTS;
+            if (queued == 1) {
+                condition.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Renders all queued events. Blocks until the events have been rendered, including those that are being rendered by the render thread.
+     */
+    public void flush() {
+        synchronized (renderLock) {
+            List<OutputEvent> events;
+            lock.lock();
+            try {
+                rethrowFailure();
+                if (queued == 0) {
+                    return;
+                }
+                events = takeQueued();
+            } finally {
+                lock.unlock();
+            }
+            render(events);
+        }
+    }
+
+    private void renderInBackground() {
+        synchronized (renderLock) {
+            List<OutputEvent> events;
+            lock.lock();
+            try {
+                lastFrame = System.nanoTime();
+                if (queued == 0) {
+                    return;
+                }
+                events = takeQueued();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                render(events);
+            } catch (Throwable t) {
+                // Report the failure to the next thread that generates output
+                lock.lock();
+                try {
+                    failure = t;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private List<OutputEvent> takeQueued() {
+        List<OutputEvent> events = queue;
+        queue = new ArrayList<OutputEvent>();
+        queuedProgress.clear();
+        queued = 0;
+        return events;
+    }
+
+    private void render(List<OutputEvent> events) {
+        for (OutputEvent event : events) {
+            if (event != null) {
+                renderer.onOutput(event);
+            }
+        }
+    }
+
+    private void rethrowFailure() {
+        if (failure != null) {
+            Throwable t = failure;
+            failure = null;
+            throw UncheckedException.throwAsUncheckedException(t);
+        }
+    }
+
+    /**
+     * Waits until there are events to render and the next frame is due. Events that arrive in the meantime are rendered with the frame.
+     *
+     * @return false when stopped.
+     */
+    private boolean waitForFrame() {
+        lock.lock();
+        try {
+            while (!stopped && queued == 0) {
+                condition.await();
+            }
+            long nextFrame = lastFrame + TimeUnit.MILLISECONDS.toNanos(FRAME_INTERVAL_MILLIS);
+            while (!stopped) {
+                long remaining = nextFrame - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                condition.awaitNanos(remaining);
+            }
+            return !stopped;
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Renders any queued events and stops the render thread. Blocks until the events have been rendered.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        flush();
+    }
+}
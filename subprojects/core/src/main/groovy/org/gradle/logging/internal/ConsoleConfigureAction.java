@@ -52,13 +52,13 @@ public class ConsoleConfigureAction implements Action<OutputEventRenderer> {
             OutputStream originalStdOut = renderer.getOriginalStdOut();
             OutputStreamWriter outStr = new OutputStreamWriter(force ? originalStdOut : org.fusesource.jansi.AnsiConsole.wrapOutputStream(originalStdOut));
             Console console = new AnsiConsole(outStr, outStr, renderer.getColourMap(), force);
-            renderer.addConsole(console, true, stdErrIsTerminal, consoleMetaData);
+            renderer.addConsole(console, true, stdErrIsTerminal, consoleMetaData, true);
         } else if (stdErrIsTerminal) {
             // Only stderr is connected to a terminal
             OutputStream originalStdErr = renderer.getOriginalStdErr();
             OutputStreamWriter errStr = new OutputStreamWriter(force ? originalStdErr : org.fusesource.jansi.AnsiConsole.wrapOutputStream(originalStdErr));
             Console console = new AnsiConsole(errStr, errStr, renderer.getColourMap(), force);
-            renderer.addConsole(console, false, true, consoleMetaData);
+            renderer.addConsole(console, false, true, consoleMetaData, true);
         }
     }
 }
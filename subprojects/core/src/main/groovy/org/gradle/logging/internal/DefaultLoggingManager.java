@@ -172,6 +172,10 @@ public class DefaultLoggingManager implements LoggingManagerInternal, Closeable
         loggingOutput.removeAllOutputEventListeners();
     }
 
+    public void flush() {
+        loggingOutput.flush();
+    }
+
     public void attachProcessConsole(ConsoleOutput consoleOutput) {
         loggingOutput.attachProcessConsole(consoleOutput);
     }
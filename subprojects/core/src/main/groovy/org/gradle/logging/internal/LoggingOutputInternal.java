@@ -71,4 +71,9 @@ public interface LoggingOutputInternal extends LoggingOutput {
      * Removes all non-standard output event listeners (also the ones attached with attachConsole)
      */
     void removeAllOutputEventListeners();
+
+    /**
+     * Blocks until all output generated so far has been written to the logging destinations. Output is written to the process console asynchronously.
+     */
+    void flush();
 }
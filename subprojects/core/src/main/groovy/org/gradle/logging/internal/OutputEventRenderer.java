@@ -26,6 +26,8 @@ import org.gradle.logging.ConsoleOutput;
 
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A {@link org.gradle.logging.internal.OutputEventListener} implementation which renders output events to various
@@ -37,6 +39,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<StandardOutputListener> stdoutListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final ListenerBroadcast<StandardOutputListener> stderrListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
+    private final List<AsyncConsoleRenderer> asyncConsoles = new ArrayList<AsyncConsoleRenderer>();
     private final Object lock = new Object();
     private final DefaultColorMap colourMap = new DefaultColorMap();
     private LogLevel logLevel = LogLevel.LIFECYCLE;
@@ -151,16 +154,43 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     public void removeAllOutputEventListeners() {
         synchronized (lock) {
             formatters.removeAll();
+            for (AsyncConsoleRenderer asyncConsole : asyncConsoles) {
+                asyncConsole.stop();
+            }
+            asyncConsoles.clear();
+        }
+    }
+
+    public void flush() {
+        List<AsyncConsoleRenderer> consoles;
+        synchronized (lock) {
+            consoles = new ArrayList<AsyncConsoleRenderer>(asyncConsoles);
+        }
+        for (AsyncConsoleRenderer asyncConsole : consoles) {
+            asyncConsole.flush();
         }
     }
 
     public OutputEventRenderer addConsole(Console console, boolean stdout, boolean stderr, ConsoleMetaData consoleMetaData) {
-        final OutputEventListener consoleChain = new ConsoleBackedProgressRenderer(
+        return addConsole(console, stdout, stderr, consoleMetaData, false);
+    }
+
+    /**
+     * Adds the given console as a logging destination. When {@code renderAsynchronously} is true, the console is written to from a dedicated thread
+     * and {@link #flush()} must be called to wait for the output to be written.
+     */
+    public OutputEventRenderer addConsole(Console console, boolean stdout, boolean stderr, ConsoleMetaData consoleMetaData, boolean renderAsynchronously) {
+        OutputEventListener consoleChain = new ConsoleBackedProgressRenderer(
                 new ProgressLogEventGenerator(
                         new StyledTextOutputBackedRenderer(console.getMainArea()), true),
                 console,
                 new DefaultStatusBarFormatter(consoleMetaData));
         synchronized (lock) {
+            if (renderAsynchronously) {
+                AsyncConsoleRenderer asyncConsole = new AsyncConsoleRenderer(consoleChain);
+                asyncConsoles.add(asyncConsole);
+                consoleChain = asyncConsole;
+            }
             if (stdout && stderr) {
                 formatters.add(consoleChain);
                 removeStandardOutputAndError();
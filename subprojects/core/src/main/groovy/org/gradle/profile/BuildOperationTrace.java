@@ -0,0 +1,314 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile;
+
+import org.gradle.api.Project;
+import org.gradle.api.ProjectEvaluationListener;
+import org.gradle.api.ProjectState;
+import org.gradle.api.artifacts.DependencyResolutionListener;
+import org.gradle.api.artifacts.ResolvableDependencies;
+import org.gradle.api.execution.internal.InternalTaskExecutionListener;
+import org.gradle.api.execution.internal.TaskOperationInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.initialization.BuildCompletionListener;
+import org.gradle.internal.progress.BuildOperationInternal;
+import org.gradle.internal.progress.InternalBuildListener;
+import org.gradle.internal.progress.OperationResult;
+import org.gradle.internal.progress.OperationStartEvent;
+import org.gradle.util.GFileUtils;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records a trace of the build operations, task executions, project configurations and dependency resolutions of a build, and writes the trace in the
+ * Chrome trace event format when the build completes. The trace can be viewed using chrome://tracing.
+ *
+ * <p>Each span records the thread it ran on, its duration and, where the JVM supports it, the number of bytes the thread allocated while it ran. Spans are
+ * buffered in memory and only written once the build has completed, to keep the cost of tracing low.</p>
+ *
+ * <p>Work that is not visible as a listener event, such as file snapshotting, waiting for cache locks and script compilation, is traced using {@link #startSpan}
+ * and {@link #finishSpan}. These spans are only recorded in the trace and are not forwarded to any other listener. When no trace is attached, they cost a
+ * volatile read.</p>
+ */
+public class BuildOperationTrace implements InternalBuildListener, InternalTaskExecutionListener, ProjectEvaluationListener, DependencyResolutionListener, BuildCompletionListener {
+    /**
+     * The system property that enables tracing. The value is the path of the file to write the trace to.
+     */
+    public static final String TRACE_FILE_PROPERTY = "org.gradle.internal.operations.trace";
+    private static final Logger LOGGER = Logging.getLogger(BuildOperationTrace.class);
+    private static volatile BuildOperationTrace current;
+
+    private final File traceFile;
+    private final long startNanos = System.nanoTime();
+    private final AllocationCounter allocationCounter = AllocationCounter.create();
+    private final Queue<Span> completed = new ConcurrentLinkedQueue<Span>();
+    private final ThreadLocal<Deque<Span>> running = new ThreadLocal<Deque<Span>>() {
+        @Override
+        protected Deque<Span> initialValue() {
+            return new ArrayDeque<Span>();
+        }
+    };
+
+    public BuildOperationTrace(File traceFile) {
+        this.traceFile = traceFile;
+    }
+
+    /**
+     * Starts a span for some work on the current thread, if a trace is attached. The name of the span is only calculated when a trace is attached.
+     *
+     * @return the span to pass to {@link #finishSpan}, or null when no trace is attached.
+     */
+    public static Object startSpan(String category, String action, Object subject) {
+        BuildOperationTrace trace = current;
+        if (trace == null) {
+            return null;
+        }
+        Object key = new Object();
+        trace.start(key, category, action + " " + subject);
+        return key;
+    }
+
+    /**
+     * Finishes a span started using {@link #startSpan}. Must be called from the thread that started the span. Does nothing when the span is null.
+     */
+    public static void finishSpan(Object span) {
+        BuildOperationTrace trace = current;
+        if (span == null || trace == null) {
+            return;
+        }
+        trace.finish(span, false);
+    }
+
+    /**
+     * Records spans started using {@link #startSpan} in this trace, until this trace completes.
+     */
+    public void attach() {
+        current = this;
+    }
+
+    public void started(BuildOperationInternal buildOperation, OperationStartEvent startEvent) {
+        start(buildOperation.getId(), "operation", buildOperation.getDisplayName());
+    }
+
+    public void finished(BuildOperationInternal buildOperation, OperationResult finishEvent) {
+        finish(buildOperation.getId(), finishEvent.getFailure() != null);
+    }
+
+    public void beforeExecute(TaskOperationInternal taskOperation, OperationStartEvent startEvent) {
+        start(taskOperation.getId(), "task", "Task " + taskOperation.getTask().getPath());
+    }
+
+    public void afterExecute(TaskOperationInternal taskOperation, OperationResult result) {
+        finish(taskOperation.getId(), result.getFailure() != null);
+    }
+
+    public void beforeEvaluate(Project project) {
+        start(project, "configure", "Configure project " + project.getPath());
+    }
+
+    public void afterEvaluate(Project project, ProjectState state) {
+        finish(project, state.getFailure() != null);
+    }
+
+    public void beforeResolve(ResolvableDependencies dependencies) {
+        start(dependencies, "resolve", "Resolve dependencies " + dependencies.getPath());
+    }
+
+    public void afterResolve(ResolvableDependencies dependencies) {
+        finish(dependencies, false);
+    }
+
+    private void start(Object key, String category, String name) {
+        Thread thread = Thread.currentThread();
+        running.get().push(new Span(key, category, name, thread, System.nanoTime(), allocationCounter.getAllocatedBytes(thread)));
+    }
+
+    private void finish(Object key, boolean failed) {
+        long endNanos = System.nanoTime();
+        Deque<Span> spans = running.get();
+        if (!containsKey(spans, key)) {
+            return;
+        }
+        // Discard any nested spans that were not finished, for example because a listener failed
+        Span span = spans.pop();
+        while (!span.key.equals(key)) {
+            span = spans.pop();
+        }
+        long allocatedBytes = allocationCounter.getAllocatedBytes(span.thread);
+        span.durationNanos = endNanos - span.startNanos;
+        span.allocatedBytes = span.allocatedBytes < 0 || allocatedBytes < 0 ? -1 : allocatedBytes - span.allocatedBytes;
+        span.failed = failed;
+        completed.add(span);
+    }
+
+    private static boolean containsKey(Deque<Span> spans, Object key) {
+        for (Span span : spans) {
+            if (span.key.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void completed() {
+        if (current == this) {
+            current = null;
+        }
+        try {
+            write();
+            LOGGER.info("Build operation trace written to {}.", traceFile);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write build operation trace to " + traceFile + ".", e);
+        }
+    }
+
+    private void write() throws IOException {
+        GFileUtils.mkdirs(traceFile.getAbsoluteFile().getParentFile());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(traceFile), "UTF-8"));
+        try {
+            writer.write("{\"traceEvents\":[");
+            Map<Long, String> threads = new LinkedHashMap<Long, String>();
+            boolean first = true;
+            for (Span span : completed) {
+                if (!first) {
+                    writer.write(",");
+                }
+                first = false;
+                threads.put(span.thread.getId(), span.thread.getName());
+                writer.write("\n{\"name\":");
+                writeString(writer, span.name);
+                writer.write(",\"cat\":\"");
+                writer.write(span.category);
+                writer.write("\",\"ph\":\"X\",\"pid\":1,\"tid\":");
+                writer.write(String.valueOf(span.thread.getId()));
+                writer.write(",\"ts\":");
+                writer.write(micros(span.startNanos - startNanos));
+                writer.write(",\"dur\":");
+                writer.write(micros(span.durationNanos));
+                writer.write(",\"args\":{");
+                if (span.allocatedBytes >= 0) {
+                    writer.write("\"allocatedBytes\":");
+                    writer.write(String.valueOf(span.allocatedBytes));
+                    writer.write(",");
+                }
+                writer.write("\"failed\":");
+                writer.write(String.valueOf(span.failed));
+                writer.write("}}");
+            }
+            for (Map.Entry<Long, String> thread : threads.entrySet()) {
+                if (!first) {
+                    writer.write(",");
+                }
+                first = false;
+                writer.write("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":");
+                writer.write(String.valueOf(thread.getKey()));
+                writer.write(",\"args\":{\"name\":");
+                writeString(writer, thread.getValue());
+                writer.write("}}");
+            }
+            writer.write("\n]}\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String micros(long nanos) {
+        return String.valueOf(nanos / 1000) + "." + String.valueOf(1000 + nanos % 1000).substring(1);
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                writer.write('\\');
+                writer.write(ch);
+            } else if (ch < 0x20) {
+                writer.write(String.format("\\u%04x", (int) ch));
+            } else {
+                writer.write(ch);
+            }
+        }
+        writer.write('"');
+    }
+
+    private static class Span {
+        final Object key;
+        final String category;
+        final String name;
+        final Thread thread;
+        final long startNanos;
+        long durationNanos;
+        long allocatedBytes;
+        boolean failed;
+
+        Span(Object key, String category, String name, Thread thread, long startNanos, long allocatedBytes) {
+            this.key = key;
+            this.category = category;
+            this.name = name;
+            this.thread = thread;
+            this.startNanos = startNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    /**
+     * Reads the number of bytes allocated by a thread, using the HotSpot specific {@code com.sun.management.ThreadMXBean} when available.
+     */
+    private static class AllocationCounter {
+        private final ThreadMXBean threadMXBean;
+        private final Method getThreadAllocatedBytes;
+
+        private AllocationCounter(ThreadMXBean threadMXBean, Method getThreadAllocatedBytes) {
+            this.threadMXBean = threadMXBean;
+            this.getThreadAllocatedBytes = getThreadAllocatedBytes;
+        }
+
+        static AllocationCounter create() {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            try {
+                Class<?> hotSpotType = Class.forName("com.sun.management.ThreadMXBean");
+                if (hotSpotType.isInstance(threadMXBean)) {
+                    return new AllocationCounter(threadMXBean, hotSpotType.getMethod("getThreadAllocatedBytes", long.class));
+                }
+            } catch (Exception e) {
+                // Not supported
+            }
+            return new AllocationCounter(threadMXBean, null);
+        }
+
+        /**
+         * Returns the number of bytes allocated by the given thread, or -1 when not supported.
+         */
+        long getAllocatedBytes(Thread thread) {
+            if (getThreadAllocatedBytes == null) {
+                return -1;
+            }
+            try {
+                return (Long) getThreadAllocatedBytes.invoke(threadMXBean, thread.getId());
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+    }
+}
@@ -110,7 +110,7 @@ class Jdk7DirectoryWalkerTest extends Specification {
         !visited.contains(doesNotExist.absolutePath)
 
         where:
-        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker()]
+        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker(), new ParallelDirectoryWalker()]
     }
 
     def "both DirectoryWalker implementations return same set of files and attributes"() {
@@ -128,6 +128,44 @@ class Jdk7DirectoryWalkerTest extends Specification {
         checkFileVisitDetailsEqual(visitedWithDefaultWalker, visitedWithJdk7Walker)
     }
 
+    @Unroll
+    def "parallel walker visits files in the same order as the default walker - postfix: #postfix"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        generateFilesAndSubDirectories(rootDir, 10, 5, 3, 1, new AtomicInteger(0))
+
+        when:
+        def visitedWithParallelWalker = walkFiles(rootDir, new ParallelDirectoryWalker(), postfix)
+        def visitedWithDefaultWalker = walkFiles(rootDir, new DefaultDirectoryWalker(), postfix)
+
+        then:
+        visitedWithParallelWalker.size() == 340
+        visitedWithParallelWalker*.relativePath == visitedWithDefaultWalker*.relativePath
+        checkFileVisitDetailsEqual(visitedWithDefaultWalker, visitedWithParallelWalker)
+
+        where:
+        postfix << [false, true]
+    }
+
+    def "parallel walker does not visit the contents of excluded directories"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        rootDir.createFile("a/1.txt")
+        rootDir.createFile("b/2.txt")
+        rootDir.createFile("b/c/3.txt")
+        def patterns = new PatternSet()
+        patterns.exclude("b")
+        def fileTree = new DirectoryFileTree(rootDir, patterns, { new ParallelDirectoryWalker() } as Factory)
+        def visited = []
+        def fileVisitor = [visitFile: { visited << it.relativePath.pathString }, visitDir: { visited << it.relativePath.pathString }] as FileVisitor
+
+        when:
+        fileTree.visit(fileVisitor)
+
+        then:
+        visited == ["a", "a/1.txt"]
+    }
+
     private void checkFileVisitDetailsEqual(List<FileVisitDetails> visitedWithDefaultWalker, List<FileVisitDetails> visitedWithJdk7Walker) {
         visitedWithDefaultWalker.each { FileVisitDetails details ->
             def detailsFromJdk7Walker = visitedWithJdk7Walker.find { it.file.absolutePath == details.file.absolutePath }
@@ -155,8 +193,11 @@ class Jdk7DirectoryWalkerTest extends Specification {
         }
     }
 
-    private List<FileVisitDetails> walkFiles(rootDir, walkerInstance) {
+    private List<FileVisitDetails> walkFiles(rootDir, walkerInstance, boolean postfix = false) {
         def fileTree = new DirectoryFileTree(rootDir, new PatternSet(), { walkerInstance } as Factory)
+        if (postfix) {
+            fileTree.postfix()
+        }
         def visited = []
         def visitClosure = { visited << it }
         def fileVisitor = [visitFile: visitClosure, visitDir: visitClosure] as FileVisitor
@@ -192,7 +233,7 @@ class Jdk7DirectoryWalkerTest extends Specification {
         link.delete()
 
         where:
-        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker()]
+        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker(), new ParallelDirectoryWalker()]
     }
 
     @Requires(TestPrecondition.SYMLINKS)
@@ -223,7 +264,7 @@ class Jdk7DirectoryWalkerTest extends Specification {
         link.delete()
 
         where:
-        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker()]
+        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker(), new ParallelDirectoryWalker()]
     }
 
     @Requires(TestPrecondition.SYMLINKS)
@@ -252,7 +293,7 @@ class Jdk7DirectoryWalkerTest extends Specification {
         link.delete()
 
         where:
-        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker()]
+        walkerInstance << [new DefaultDirectoryWalker(), new Jdk7DirectoryWalker(), new ParallelDirectoryWalker()]
     }
 
 
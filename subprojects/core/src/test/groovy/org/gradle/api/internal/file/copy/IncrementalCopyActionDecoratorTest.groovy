@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy
+
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.tasks.SimpleWorkResult
+import org.gradle.api.tasks.WorkResult
+import org.gradle.test.fixtures.file.WorkspaceTest
+
+class IncrementalCopyActionDecoratorTest extends WorkspaceTest {
+    final CopyActionProcessingStreamAction delegateAction = Mock()
+    final Set<File> outOfDate = []
+
+    def "passes on out-of-date files and files whose target is missing"() {
+        given:
+        file("dest/unchanged.txt").createFile()
+        file("dest/changed.txt").createFile()
+        def unchanged = file("src/unchanged.txt").createFile()
+        def changed = file("src/changed.txt").createFile()
+        def added = file("src/added.txt").createFile()
+        outOfDate << changed
+
+        when:
+        execute(details(unchanged, "unchanged.txt"), details(changed, "changed.txt"), details(added, "added.txt"))
+
+        then:
+        1 * delegateAction.processFile({ it.relativePath.pathString == "changed.txt" })
+        1 * delegateAction.processFile({ it.relativePath.pathString == "added.txt" })
+        0 * delegateAction._
+    }
+
+    def "always passes on directories"() {
+        given:
+        file("dest/dir").createDir()
+
+        when:
+        execute(dirDetails("dir"))
+
+        then:
+        1 * delegateAction.processFile({ it.relativePath.pathString == "dir" })
+        0 * delegateAction._
+    }
+
+    def "passes on later duplicates of a copied path"() {
+        given:
+        file("dest/file.txt").createFile()
+        def first = file("src1/file.txt").createFile()
+        def second = file("src2/file.txt").createFile()
+        outOfDate << first
+
+        when:
+        execute(details(first, "file.txt"), details(second, "file.txt"))
+
+        then:
+        2 * delegateAction.processFile({ it.relativePath.pathString == "file.txt" })
+        0 * delegateAction._
+    }
+
+    private void execute(FileCopyDetailsInternal... files) {
+        def delegate = new CopyAction() {
+            WorkResult execute(CopyActionProcessingStream stream) {
+                stream.process(delegateAction)
+                new SimpleWorkResult(true)
+            }
+        }
+        def decorator = new IncrementalCopyActionDecorator(outOfDate, TestFiles.resolver(file("dest")), delegate)
+        decorator.execute(new CopyActionProcessingStream() {
+            void process(CopyActionProcessingStreamAction action) {
+                files.each { action.processFile(it) }
+            }
+        })
+    }
+
+    private FileCopyDetailsInternal details(File source, String path) {
+        def details = Stub(FileCopyDetailsInternal)
+        details.directory >> false
+        details.file >> source
+        details.relativePath >> RelativePath.parse(true, path)
+        details
+    }
+
+    private FileCopyDetailsInternal dirDetails(String path) {
+        def details = Stub(FileCopyDetailsInternal)
+        details.directory >> true
+        details.relativePath >> RelativePath.parse(false, path)
+        details
+    }
+}
@@ -23,7 +23,12 @@ import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
 public class PatternMatcherFactoryTest {
@@ -304,6 +309,80 @@ public class PatternMatcherFactoryTest {
         assertThat(matcher, not(matchesDir("b", "a")));
     }
 
+    @Test public void testMultiplePatterns() {
+        matcher = PatternMatcherFactory.getPatternsMatcher(false, true, Arrays.asList("a/b", "a/*.txt", "**/CVS", "**/.git/**", "**/*.java", "c/"));
+        assertThat(matcher, matchesFile("a", "b"));
+        assertThat(matcher, matchesFile("a", "x.txt"));
+        assertThat(matcher, matchesFile("x", "y", "CVS"));
+        assertThat(matcher, matchesFile("CVS"));
+        assertThat(matcher, matchesFile(".git"));
+        assertThat(matcher, matchesFile("x", ".git", "y"));
+        assertThat(matcher, matchesFile("x", "y", "Z.java"));
+        assertThat(matcher, matchesFile("c"));
+        assertThat(matcher, matchesFile("c", "d"));
+        assertThat(matcher, matchesDir("c", "d"));
+        assertThat(matcher, not(matchesFile()));
+        assertThat(matcher, not(matchesFile("a")));
+        assertThat(matcher, not(matchesFile("b", "a", "b")));
+        assertThat(matcher, not(matchesFile("a", "b", "x.txt")));
+        assertThat(matcher, not(matchesFile("x", "CVS", "y")));
+        assertThat(matcher, not(matchesFile("x", "y.txt")));
+        assertThat(matcher, not(matchesDir("a")));
+        assertThat(matcher, not(matchesDir("d")));
+
+        matcher = PatternMatcherFactory.getPatternsMatcher(false, false, Arrays.asList("a/b", "**/CVS"));
+        assertThat(matcher, matchesFile("A", "b"));
+        assertThat(matcher, matchesFile("x", "cvs"));
+        assertThat(matcher, not(matchesFile("a", "c")));
+    }
+
+    @Test public void testMultiplePatternsWithPartialMatchDirs() {
+        matcher = PatternMatcherFactory.getPatternsMatcher(true, true, Arrays.asList("a/b/*.txt", "c/**"));
+        assertThat(matcher, matchesDir());
+        assertThat(matcher, matchesDir("a"));
+        assertThat(matcher, matchesDir("a", "b"));
+        assertThat(matcher, matchesDir("c", "d", "e"));
+        assertThat(matcher, matchesFile("a", "b", "x.txt"));
+        assertThat(matcher, not(matchesDir("b")));
+        assertThat(matcher, not(matchesDir("a", "c")));
+        assertThat(matcher, not(matchesFile("a", "b")));
+
+        matcher = PatternMatcherFactory.getPatternsMatcher(true, true, Arrays.asList("a/b", "**/CVS"));
+        assertThat(matcher, matchesDir("x", "y"));
+
+        matcher = PatternMatcherFactory.getPatternsMatcher(true, true, Arrays.asList("*/b"));
+        assertThat(matcher, matchesDir("x"));
+        assertThat(matcher, matchesDir("x", "b"));
+        assertThat(matcher, not(matchesDir("x", "c")));
+    }
+
+    @Test public void testMultiplePatternsMatchLikeIndividualPatterns() {
+        List<String> patterns = Arrays.asList("", "a", "a/", "a/b", "*/b", "a/**/c", "**/b", "**/b/**", "**/*.c", "a?/b*", "**/x*y/**");
+        List<RelativePath> paths = new ArrayList<RelativePath>();
+        for (boolean isFile : new boolean[]{true, false}) {
+            paths.add(new RelativePath(isFile));
+            paths.add(new RelativePath(isFile, "a"));
+            paths.add(new RelativePath(isFile, "a", "b"));
+            paths.add(new RelativePath(isFile, "ab", "bc"));
+            paths.add(new RelativePath(isFile, "a", "x", "c"));
+            paths.add(new RelativePath(isFile, "b", "d.c"));
+            paths.add(new RelativePath(isFile, "q", "xzy", "r"));
+            paths.add(new RelativePath(isFile, "q", "r", "s"));
+        }
+        for (boolean partialMatchDirs : new boolean[]{true, false}) {
+            for (boolean caseSensitive : new boolean[]{true, false}) {
+                Spec<RelativePath> combined = PatternMatcherFactory.getPatternsMatcher(partialMatchDirs, caseSensitive, patterns);
+                for (RelativePath path : paths) {
+                    boolean expected = false;
+                    for (String pattern : patterns) {
+                        expected |= PatternMatcherFactory.getPatternMatcher(partialMatchDirs, caseSensitive, pattern).isSatisfiedBy(path);
+                    }
+                    assertEquals(String.format("%s (partial: %s, case sensitive: %s)", path, partialMatchDirs, caseSensitive), expected, combined.isSatisfiedBy(path));
+                }
+            }
+        }
+    }
+
     private Matcher<Spec<RelativePath>> matchesFile(String... paths) {
         return matches(new RelativePath(true, paths));
     }
@@ -54,14 +54,14 @@ class PatternStepFactoryTest extends Specification {
     def "creates step for wildcard segment"() {
         expect:
         def step1 = PatternStepFactory.getStep("a?c", true);
-        step1 instanceof RegExpPatternStep
+        step1 instanceof WildcardPatternStep
         step1.matches("abc")
         !step1.matches("ABC")
         !step1.matches("other")
 
         and:
         def step2 = PatternStepFactory.getStep("a*c", true);
-        step2 instanceof RegExpPatternStep
+        step2 instanceof WildcardPatternStep
         step2.matches("ac")
         step2.matches("abc")
         !step2.matches("ABC")
@@ -69,7 +69,7 @@ class PatternStepFactoryTest extends Specification {
 
         and:
         def step3 = PatternStepFactory.getStep("?bc", true);
-        step3 instanceof RegExpPatternStep
+        step3 instanceof WildcardPatternStep
         step3.matches("abc")
         step3.matches("Abc")
         !step3.matches("bc")
@@ -78,7 +78,7 @@ class PatternStepFactoryTest extends Specification {
 
         and:
         def step4 = PatternStepFactory.getStep("*?bc", true);
-        step4 instanceof RegExpPatternStep
+        step4 instanceof WildcardPatternStep
         step4.matches("abc")
         step4.matches("123abc")
         !step4.matches("bc")
@@ -87,7 +87,7 @@ class PatternStepFactoryTest extends Specification {
 
         and:
         def step5 = PatternStepFactory.getStep("*bc*", true);
-        step5 instanceof RegExpPatternStep
+        step5 instanceof WildcardPatternStep
         step5.matches("bc")
         step5.matches("abc")
         step5.matches("bcd")
@@ -99,7 +99,7 @@ class PatternStepFactoryTest extends Specification {
 
         and:
         def step6 = PatternStepFactory.getStep("?", true);
-        step6 instanceof RegExpPatternStep
+        step6 instanceof WildcardPatternStep
         step6.matches("a")
         !step6.matches("")
         !step6.matches("abc")
@@ -17,6 +17,7 @@
 package org.gradle.api.tasks.util.internal
 
 import org.gradle.api.file.FileTreeElement
+import org.gradle.api.internal.file.RelativePathSpec
 import org.gradle.api.specs.AndSpec
 import org.gradle.api.specs.NotSpec
 import org.gradle.api.specs.OrSpec
@@ -72,15 +73,20 @@ class CachingPatternSpecFactoryTest extends Specification {
         def patternSet = new PatternSet()
         patternSet.include("pattern")
         def spec = patternSet.getAsSpec()
+        def otherPatternSet = new PatternSet()
+        otherPatternSet.include("pattern")
+        def otherSpec = otherPatternSet.getAsSpec()
         expect:
         spec instanceof AndSpec
         spec.specs.size() == 2
         spec.specs[0] instanceof OrSpec
         spec.specs[0].specs.size() == 1
-        spec.specs[0].specs[0] instanceof CachingPatternSpecFactory.CachingSpec
+        spec.specs[0].specs[0] instanceof RelativePathSpec
+        spec.specs[0].specs[0].is(otherSpec.specs[0].specs[0])
         spec.specs[1] instanceof NotSpec
         spec.specs[1].sourceSpec instanceof OrSpec
         spec.specs[1].sourceSpec.specs.size() == 1
-        spec.specs[1].sourceSpec.specs[0] instanceof CachingPatternSpecFactory.CachingSpec
+        spec.specs[1].sourceSpec.specs[0] instanceof RelativePathSpec
+        spec.specs[1].sourceSpec.specs[0].is(otherSpec.specs[1].sourceSpec.specs[0])
     }
 }
@@ -17,11 +17,17 @@
 package org.gradle.internal.resource.local
 
 import org.gradle.api.Action
+import org.gradle.api.GradleException
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.UsesNativeServices
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
 @UsesNativeServices
 class UniquePathKeyFileStoreTest extends Specification {
     @Rule
@@ -42,7 +48,51 @@ class UniquePathKeyFileStoreTest extends Specification {
 
         then:
         fileInStore.file == file
-        1 * action.execute(file) >> { File f -> f.text = 'hi' }
+        file.text == 'hi'
+        1 * action.execute({ it.parentFile == file.parentFile }) >> { File f -> f.text = 'hi' }
+        file.parentFile.list() as List == ["a"]
+    }
+
+    def "add does not leave a partial file behind when action fails"() {
+        def file = temporaryFolder.file("fsbase/a/a");
+
+        when:
+        uniquePathKeyFileStore.add("a/a", action)
+
+        then:
+        thrown(GradleException)
+        1 * action.execute(_) >> { File f ->
+            f.text = 'partial'
+            throw new RuntimeException("broken")
+        }
+        !file.exists()
+        file.parentFile.list().length == 0
+    }
+
+    def "concurrent adds of the same entry all return the complete entry"() {
+        def file = temporaryFolder.file("fsbase/a/a");
+        def executor = Executors.newFixedThreadPool(4)
+        def started = new CountDownLatch(4)
+        def content = 'content' * 1000
+
+        when:
+        def results = executor.invokeAll((1..4).collect {
+            { ->
+                uniquePathKeyFileStore.add("a/a", { File f ->
+                    started.countDown()
+                    started.await(20, TimeUnit.SECONDS)
+                    f.text = content
+                } as Action<File>).file
+            } as Callable<File>
+        })*.get()
+
+        then:
+        results.every { it == file }
+        file.text == content
+        file.parentFile.list() as List == ["a"]
+
+        cleanup:
+        executor.shutdown()
     }
 
     def "add skips action if file already exists"() {
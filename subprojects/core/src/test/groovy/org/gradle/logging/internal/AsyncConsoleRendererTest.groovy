@@ -0,0 +1,159 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.logging.internal
+
+import org.gradle.api.logging.LogLevel
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class AsyncConsoleRendererTest extends OutputSpecification {
+    final rendered = new CopyOnWriteArrayList<OutputEvent>()
+    final renderStarted = new CountDownLatch(1)
+    final releaseRender = new CountDownLatch(1)
+    final renderedEvent = new CountDownLatch(1)
+    boolean blockFirstEvent
+    def renderer = new AsyncConsoleRenderer(new OutputEventListener() {
+        void onOutput(OutputEvent event) {
+            if (blockFirstEvent && rendered.empty) {
+                renderStarted.countDown()
+                releaseRender.await()
+            }
+            rendered << event
+            renderedEvent.countDown()
+        }
+    })
+
+    def cleanup() {
+        releaseRender.countDown()
+        renderer.stop()
+    }
+
+    def "renders events in order"() {
+        def events = [event('one'), start('operation'), event('two'), complete('done'), event('three', LogLevel.ERROR)]
+
+        when:
+        events.each { renderer.onOutput(it) }
+        renderer.flush()
+
+        then:
+        rendered == events
+    }
+
+    def "renders events from render thread"() {
+        def message = event('message')
+
+        when:
+        renderer.onOutput(message)
+
+        then:
+        renderedEvent.await(5, TimeUnit.SECONDS)
+        rendered == [message]
+    }
+
+    def "does not wait for console to render events"() {
+        blockFirstEvent = true
+        def first = event('first')
+        def second = event('second')
+
+        when:
+        renderer.onOutput(first)
+        renderStarted.await(5, TimeUnit.SECONDS)
+        renderer.onOutput(second)
+
+        then:
+        rendered.empty
+
+        when:
+        releaseRender.countDown()
+        renderer.flush()
+
+        then:
+        rendered == [first, second]
+    }
+
+    def "discards progress events that are superseded before they are rendered"() {
+        blockFirstEvent = true
+        def first = event('first')
+        def start = start('operation')
+        def log = event('log')
+        def last = progress('three')
+        def complete = complete('done')
+
+        when:
+        renderer.onOutput(first)
+        renderStarted.await(5, TimeUnit.SECONDS)
+        renderer.onOutput(start)
+        renderer.onOutput(progress('one'))
+        renderer.onOutput(progress('two'))
+        renderer.onOutput(log)
+        renderer.onOutput(last)
+        renderer.onOutput(complete)
+        releaseRender.countDown()
+        renderer.flush()
+
+        then:
+        rendered == [first, start, log, last, complete]
+    }
+
+    def "does not discard progress events of other operations"() {
+        def outer = start('outer')
+        def inner = start('inner')
+        def innerProgress = progress('inner progress')
+        def innerComplete = complete('inner done')
+        def outerProgress = progress('outer progress')
+
+        when:
+        [outer, inner, innerProgress, innerComplete, outerProgress].each { renderer.onOutput(it) }
+        renderer.flush()
+
+        then:
+        rendered == [outer, inner, innerProgress, innerComplete, outerProgress]
+    }
+
+    def "renders queued events on stop"() {
+        blockFirstEvent = true
+        def first = event('first')
+        def second = event('second')
+        renderer.onOutput(first)
+        renderStarted.await(5, TimeUnit.SECONDS)
+        renderer.onOutput(second)
+
+        when:
+        releaseRender.countDown()
+        renderer.stop()
+
+        then:
+        rendered == [first, second]
+    }
+
+    def "rethrows failure to render events"() {
+        def failure = new RuntimeException("broken")
+        def failingRenderer = new AsyncConsoleRenderer({ throw failure } as OutputEventListener)
+
+        when:
+        failingRenderer.onOutput(event('message'))
+        failingRenderer.flush()
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+
+        cleanup:
+        failingRenderer.stop()
+    }
+}
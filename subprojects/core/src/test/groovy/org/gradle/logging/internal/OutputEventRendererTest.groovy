@@ -218,6 +218,23 @@ class OutputEventRendererTest extends OutputSpecification {
         console.value.readLines() == ['description', 'info', '{error}error', '{normal}description {progressstatus}status{normal}']
     }
 
+    def rendersLogEventsToAsynchronousConsole() {
+        renderer.addConsole(console, true, true, metaData, true)
+
+        when:
+        renderer.onOutput(start(loggingHeader: 'description'))
+        renderer.onOutput(event('info', LogLevel.INFO))
+        renderer.onOutput(event('error', LogLevel.ERROR))
+        renderer.onOutput(complete('status'))
+        renderer.flush()
+
+        then:
+        console.value.readLines() == ['description', 'info', '{error}error', '{normal}description {progressstatus}status{normal}']
+
+        cleanup:
+        renderer.removeAllOutputEventListeners()
+    }
+
     def rendersLogEventsWhenOnlyStdOutIsConsole() {
         renderer.addConsole(console, true, false, metaData)
 
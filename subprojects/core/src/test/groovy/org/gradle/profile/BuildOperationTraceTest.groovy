@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile
+
+import groovy.json.JsonSlurper
+import org.gradle.api.Project
+import org.gradle.api.ProjectState
+import org.gradle.api.artifacts.ResolvableDependencies
+import org.gradle.api.execution.internal.TaskOperationInternal
+import org.gradle.api.internal.TaskInternal
+import org.gradle.internal.progress.BuildOperationInternal
+import org.gradle.internal.progress.OperationResult
+import org.gradle.internal.progress.OperationStartEvent
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class BuildOperationTraceTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def traceFile = tmpDir.file("out/trace.json")
+    def trace = new BuildOperationTrace(traceFile)
+
+    def "writes nested spans in chrome trace format"() {
+        def build = new BuildOperationInternal(1, null, "Run build")
+        def configure = new BuildOperationInternal(2, 1, "Configure \"build\"")
+        def project = Stub(Project) { getPath() >> ":a" }
+        def dependencies = Stub(ResolvableDependencies) { getPath() >> ":a:compile" }
+        def task = new TaskOperationInternal("task-1", 1, Stub(TaskInternal) { getPath() >> ":a:compileJava" })
+
+        when:
+        trace.started(build, new OperationStartEvent(0))
+        trace.started(configure, new OperationStartEvent(0))
+        trace.beforeEvaluate(project)
+        trace.beforeResolve(dependencies)
+        trace.afterResolve(dependencies)
+        trace.afterEvaluate(project, Stub(ProjectState))
+        trace.finished(configure, new OperationResult(0, 0, null))
+        trace.beforeExecute(task, new OperationStartEvent(0))
+        trace.afterExecute(task, new OperationResult(0, 0, new RuntimeException()))
+        trace.finished(build, new OperationResult(0, 0, null))
+        trace.completed()
+
+        then:
+        def events = new JsonSlurper().parse(traceFile).traceEvents
+        def spans = events.findAll { it.ph == "X" }
+        spans*.name == ["Resolve dependencies :a:compile", "Configure project :a", "Configure \"build\"", "Task :a:compileJava", "Run build"]
+        spans*.cat == ["resolve", "configure", "operation", "task", "operation"]
+        spans*.failed == [false, false, false, true, false]
+        spans.every { it.tid == Thread.currentThread().id && it.dur >= 0 }
+
+        and:
+        def root = spans.last()
+        spans.every { it.ts >= root.ts && it.ts + it.dur <= root.ts + root.dur }
+
+        and:
+        def threads = events.findAll { it.ph == "M" }
+        threads.size() == 1
+        threads[0].args.name == Thread.currentThread().name
+    }
+
+    def "records spans from multiple threads"() {
+        def task1 = new TaskOperationInternal("task-1", null, Stub(TaskInternal) { getPath() >> ":a" })
+        def task2 = new TaskOperationInternal("task-2", null, Stub(TaskInternal) { getPath() >> ":b" })
+
+        when:
+        trace.beforeExecute(task1, new OperationStartEvent(0))
+        def thread = new Thread({
+            trace.beforeExecute(task2, new OperationStartEvent(0))
+            trace.afterExecute(task2, new OperationResult(0, 0, null))
+        } as Runnable, "other")
+        thread.start()
+        thread.join()
+        trace.afterExecute(task1, new OperationResult(0, 0, null))
+        trace.completed()
+
+        then:
+        def events = new JsonSlurper().parse(traceFile).traceEvents
+        events.findAll { it.ph == "X" }*.name == ["Task :b", "Task :a"]
+        events.findAll { it.ph == "M" }*.args*.name as Set == ["other", Thread.currentThread().name] as Set
+    }
+
+    def "ignores finish of span that was not started"() {
+        def operation = new BuildOperationInternal(1, null, "operation")
+        def unknown = new BuildOperationInternal(2, null, "unknown")
+
+        when:
+        trace.started(operation, new OperationStartEvent(0))
+        trace.finished(unknown, new OperationResult(0, 0, null))
+        trace.finished(operation, new OperationResult(0, 0, null))
+        trace.completed()
+
+        then:
+        new JsonSlurper().parse(traceFile).traceEvents.findAll { it.ph == "X" }*.name == ["operation"]
+    }
+
+    def "records spans for work that is not a build operation when attached"() {
+        def task = new TaskOperationInternal("task-1", null, Stub(TaskInternal) { getPath() >> ":a" })
+
+        when:
+        trace.attach()
+        trace.beforeExecute(task, new OperationStartEvent(0))
+        def snapshot = BuildOperationTrace.startSpan("snapshot", "Snapshot", "input files")
+        def lock = BuildOperationTrace.startSpan("lock", "Lock", "task history cache")
+        BuildOperationTrace.finishSpan(lock)
+        BuildOperationTrace.finishSpan(snapshot)
+        trace.afterExecute(task, new OperationResult(0, 0, null))
+        trace.completed()
+
+        then:
+        def spans = new JsonSlurper().parse(traceFile).traceEvents.findAll { it.ph == "X" }
+        spans*.name == ["Lock task history cache", "Snapshot input files", "Task :a"]
+        spans*.cat == ["lock", "snapshot", "task"]
+    }
+
+    def "does not record spans for work that is not a build operation when not attached"() {
+        when:
+        def span = BuildOperationTrace.startSpan("snapshot", "Snapshot", "input files")
+        BuildOperationTrace.finishSpan(span)
+        trace.completed()
+
+        then:
+        span == null
+        new JsonSlurper().parse(traceFile).traceEvents.findAll { it.ph == "X" }.empty
+    }
+
+    def "detaches when completed"() {
+        given:
+        trace.attach()
+        trace.completed()
+
+        expect:
+        BuildOperationTrace.startSpan("snapshot", "Snapshot", "input files") == null
+    }
+}
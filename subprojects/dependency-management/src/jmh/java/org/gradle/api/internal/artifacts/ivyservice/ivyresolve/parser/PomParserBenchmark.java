@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.apache.ivy.util.XMLHelper;
+import org.openjdk.jmh.annotations.*;
+import org.w3c.dom.Document;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a POM into a DOM with reading it using the streaming {@link PomDomParser}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PomParserBenchmark {
+    private static final String SYSTEM_ID = "file:/benchmark/pom.xml";
+
+    @Param({"bom", "project"})
+    public String pomType;
+
+    private byte[] pom;
+
+    @Setup
+    public void setup() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        builder.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        builder.append("  <modelVersion>4.0.0</modelVersion>\n");
+        builder.append("  <groupId>org.benchmark</groupId><artifactId>").append(pomType).append("</artifactId><version>1.0</version>\n");
+        builder.append("  <description>A POM used to benchmark parsing &amp; &copy; entities</description>\n");
+        builder.append("  <properties><lib.version>2.0</lib.version><encoding>UTF-8</encoding></properties>\n");
+        if (pomType.equals("bom")) {
+            builder.append("  <dependencyManagement><dependencies>\n");
+            for (int i = 0; i < 300; i++) {
+                appendDependency(builder, i);
+            }
+            builder.append("  </dependencies></dependencyManagement>\n");
+        } else {
+            builder.append("  <dependencies>\n");
+            for (int i = 0; i < 30; i++) {
+                appendDependency(builder, i);
+            }
+            builder.append("  </dependencies>\n");
+            builder.append("  <build><plugins>\n");
+            for (int i = 0; i < 20; i++) {
+                builder.append("    <plugin><artifactId>plugin-").append(i).append("</artifactId><version>1.").append(i).append("</version>");
+                builder.append("<configuration><source>1.6</source><target>1.6</target><excludes><exclude>**/*.txt</exclude></excludes></configuration>");
+                builder.append("<executions><execution><id>default</id><phase>package</phase><goals><goal>run</goal></goals></execution></executions></plugin>\n");
+            }
+            builder.append("  </plugins></build>\n");
+            builder.append("  <repositories><repository><id>central</id><url>http://repo1.maven.org/maven2</url></repository></repositories>\n");
+        }
+        builder.append("</project>\n");
+        pom = builder.toString().getBytes("UTF-8");
+    }
+
+    private static void appendDependency(StringBuilder builder, int i) {
+        builder.append("    <dependency><groupId>org.benchmark.group").append(i % 10).append("</groupId>");
+        builder.append("<artifactId>module-").append(i).append("</artifactId><version>${lib.version}</version>");
+        builder.append("<exclusions><exclusion><groupId>org.excluded</groupId><artifactId>excluded</artifactId></exclusion></exclusions></dependency>\n");
+    }
+
+    @Benchmark
+    public Document parseToDom() throws Exception {
+        EntityResolver entityResolver = new EntityResolver() {
+            public InputSource resolveEntity(String publicId, String systemId) {
+                if ((systemId != null) && systemId.endsWith("m2-entities.ent")) {
+                    return new InputSource(org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent"));
+                }
+                return null;
+            }
+        };
+        return XMLHelper.getDocBuilder(entityResolver).parse(new PomDomParser.AddDTDFilterInputStream(new ByteArrayInputStream(pom)), SYSTEM_ID);
+    }
+
+    @Benchmark
+    public PomElement parseStreaming() throws Exception {
+        return PomDomParser.parse(new ByteArrayInputStream(pom), SYSTEM_ID);
+    }
+}
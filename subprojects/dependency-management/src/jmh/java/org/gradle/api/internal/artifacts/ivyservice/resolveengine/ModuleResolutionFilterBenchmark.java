@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import org.apache.ivy.core.module.descriptor.DefaultExcludeRule;
+import org.apache.ivy.core.module.descriptor.ExcludeRule;
+import org.apache.ivy.core.module.id.ArtifactId;
+import org.apache.ivy.plugins.matcher.ExactPatternMatcher;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.matcher.RegexpPatternMatcher;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.IvyUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges and evaluates exclude rules in the same way as {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphBuilder}
+ * does when traversing a graph where many dependencies declare exclude rules.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModuleResolutionFilterBenchmark {
+    private static final int NODES = 200;
+    private static final int INCOMING_EDGES = 5;
+    private static final int RULES_PER_EDGE = 20;
+
+    @Param({"exact", "mixed"})
+    public String rules;
+
+    private final List<List<ExcludeRule>> edgeExcludes = new ArrayList<List<ExcludeRule>>();
+    private final List<List<ExcludeRule>> nodeExcludes = new ArrayList<List<ExcludeRule>>();
+    private final List<ModuleIdentifier> dependencies = new ArrayList<ModuleIdentifier>();
+
+    @Setup
+    public void setup() {
+        for (int node = 0; node < NODES; node++) {
+            List<ExcludeRule> excludes = new ArrayList<ExcludeRule>();
+            for (int rule = 0; rule < RULES_PER_EDGE; rule++) {
+                int index = (node + rule) % (NODES / 2);
+                if (rule % 4 == 0) {
+                    excludes.add(excludeRule("org.group" + index, "*", ExactPatternMatcher.INSTANCE));
+                } else if (rules.equals("mixed") && rule % 4 == 1) {
+                    excludes.add(excludeRule("org.group" + index, "module-" + index + ".*", RegexpPatternMatcher.INSTANCE));
+                } else {
+                    excludes.add(excludeRule("org.group" + (index % 10), "module-" + index, ExactPatternMatcher.INSTANCE));
+                }
+            }
+            edgeExcludes.add(excludes);
+            nodeExcludes.add(node % 3 == 0 ? excludes.subList(0, 2) : Collections.<ExcludeRule>emptyList());
+            dependencies.add(DefaultModuleIdentifier.newId("org.group" + (node % 10), "module-" + node));
+        }
+    }
+
+    @Benchmark
+    public int traverseGraph() {
+        int accepted = 0;
+        ModuleResolutionFilter parentFilter = DefaultModuleResolutionFilter.all();
+        for (int node = 0; node < NODES; node++) {
+            ModuleResolutionFilter filter = null;
+            for (int edge = 0; edge < INCOMING_EDGES; edge++) {
+                ModuleResolutionFilter edgeFilter = DefaultModuleResolutionFilter.excludeAny(edgeExcludes.get((node + edge) % NODES)).intersect(parentFilter);
+                filter = filter == null ? edgeFilter : filter.union(edgeFilter);
+            }
+            filter = filter.intersect(DefaultModuleResolutionFilter.excludeAny(nodeExcludes.get(node)));
+            for (ModuleIdentifier dependency : dependencies) {
+                if (filter.acceptModule(dependency)) {
+                    accepted++;
+                }
+            }
+            parentFilter = filter;
+        }
+        return accepted;
+    }
+
+    private static ExcludeRule excludeRule(String group, String module, PatternMatcher matcher) {
+        ArtifactId artifactId = new ArtifactId(IvyUtil.createModuleId(group, module), PatternMatcher.ANY_EXPRESSION, PatternMatcher.ANY_EXPRESSION, PatternMatcher.ANY_EXPRESSION);
+        return new DefaultExcludeRule(artifactId, matcher, null);
+    }
+}
@@ -26,23 +26,28 @@ import org.gradle.api.artifacts.ResolvedModuleVersion;
 import java.util.*;
 
 public class DefaultResolvedDependency implements ResolvedDependency {
-    private final Set<ResolvedDependency> children = new LinkedHashSet<ResolvedDependency>();
-    private final Set<ResolvedDependency> parents = new LinkedHashSet<ResolvedDependency>();
-    private final Map<ResolvedDependency, Set<ResolvedArtifact>> parentArtifacts = new LinkedHashMap<ResolvedDependency, Set<ResolvedArtifact>>();
-    private final String name;
+    private static final Comparator<ResolvedArtifact> ARTIFACT_COMPARATOR = new ResolvedArtifactComparator();
+
+    // A resolved graph can contain many thousands of these, most of them leaves with a single parent, so the collections
+    // are only allocated once something is added to them
+    private Set<ResolvedDependency> children;
+    private Set<ResolvedDependency> parents;
+    private Map<ResolvedDependency, Set<ResolvedArtifact>> parentArtifacts;
     private final ResolvedConfigurationIdentifier id;
-    private final Set<ResolvedArtifact> moduleArtifacts;
-    private final Map<ResolvedDependency, Set<ResolvedArtifact>> allArtifactsCache = new HashMap<ResolvedDependency, Set<ResolvedArtifact>>();
+    private final Set<ResolvedArtifact> moduleArtifacts = new TreeSet<ResolvedArtifact>(ARTIFACT_COMPARATOR);
+    private Map<ResolvedDependency, Set<ResolvedArtifact>> allArtifactsCache;
     private Set<ResolvedArtifact> allModuleArtifactsCache;
 
     public DefaultResolvedDependency(ModuleVersionIdentifier moduleVersionIdentifier, String configuration) {
-        this.name = String.format("%s:%s:%s", moduleVersionIdentifier.getGroup(), moduleVersionIdentifier.getName(), moduleVersionIdentifier.getVersion());
-        id = new ResolvedConfigurationIdentifier(moduleVersionIdentifier, configuration);
-        this.moduleArtifacts = new TreeSet<ResolvedArtifact>(new ResolvedArtifactComparator());
+        this(new ResolvedConfigurationIdentifier(moduleVersionIdentifier, configuration));
+    }
+
+    public DefaultResolvedDependency(ResolvedConfigurationIdentifier id) {
+        this.id = id;
     }
 
     public String getName() {
-        return name;
+        return id.getModuleGroup() + ":" + id.getModuleName() + ":" + id.getModuleVersion();
     }
 
     public ResolvedConfigurationIdentifier getId() {
@@ -74,9 +79,16 @@ public class DefaultResolvedDependency implements ResolvedDependency {
     }
 
     public Set<ResolvedDependency> getChildren() {
+        if (children == null) {
+            children = new LinkedHashSet<ResolvedDependency>(4);
+        }
         return children;
     }
 
+    private Set<ResolvedDependency> children() {
+        return children == null ? Collections.<ResolvedDependency>emptySet() : children;
+    }
+
     public Set<ResolvedArtifact> getModuleArtifacts() {
         return moduleArtifacts;
     }
@@ -85,7 +97,7 @@ public class DefaultResolvedDependency implements ResolvedDependency {
         if (allModuleArtifactsCache == null) {
             Set<ResolvedArtifact> allArtifacts = new LinkedHashSet<ResolvedArtifact>();
             allArtifacts.addAll(getModuleArtifacts());
-            for (ResolvedDependency childResolvedDependency : getChildren()) {
+            for (ResolvedDependency childResolvedDependency : children()) {
                 allArtifacts.addAll(childResolvedDependency.getAllModuleArtifacts());
             }
             allModuleArtifactsCache = allArtifacts;
@@ -94,10 +106,10 @@ public class DefaultResolvedDependency implements ResolvedDependency {
     }
 
     public Set<ResolvedArtifact> getParentArtifacts(ResolvedDependency parent) {
-        if (!parents.contains(parent)) {
+        if (parents == null || !parents.contains(parent)) {
             throw new InvalidUserDataException("Provided dependency (" + parent + ") must be a parent of: " + this);
         }
-        Set<ResolvedArtifact> artifacts = parentArtifacts.get(parent);
+        Set<ResolvedArtifact> artifacts = parentArtifacts == null ? null : parentArtifacts.get(parent);
         return artifacts == null ? Collections.<ResolvedArtifact>emptySet() : artifacts;
     }
 
@@ -106,25 +118,32 @@ public class DefaultResolvedDependency implements ResolvedDependency {
     }
 
     public Set<ResolvedArtifact> getAllArtifacts(ResolvedDependency parent) {
-        if (allArtifactsCache.get(parent) == null) {
-            Set<ResolvedArtifact> allArtifacts = new LinkedHashSet<ResolvedArtifact>();
+        if (allArtifactsCache == null) {
+            allArtifactsCache = new HashMap<ResolvedDependency, Set<ResolvedArtifact>>(4);
+        }
+        Set<ResolvedArtifact> allArtifacts = allArtifactsCache.get(parent);
+        if (allArtifacts == null) {
+            allArtifacts = new LinkedHashSet<ResolvedArtifact>();
             allArtifacts.addAll(getArtifacts(parent));
-            for (ResolvedDependency childResolvedDependency : getChildren()) {
+            for (ResolvedDependency childResolvedDependency : children()) {
                 for (ResolvedDependency childParent : childResolvedDependency.getParents()) {
                     allArtifacts.addAll(childResolvedDependency.getAllArtifacts(childParent));
                 }
             }
             allArtifactsCache.put(parent, allArtifacts);
         }
-        return allArtifactsCache.get(parent);
+        return allArtifacts;
     }
 
     public Set<ResolvedDependency> getParents() {
+        if (parents == null) {
+            parents = new LinkedHashSet<ResolvedDependency>(4);
+        }
         return parents;
     }
 
     public String toString() {
-        return name + ";" + getConfiguration();
+        return getName() + ";" + getConfiguration();
     }
 
     @Override
@@ -146,14 +165,17 @@ public class DefaultResolvedDependency implements ResolvedDependency {
     }
 
     public void addChild(DefaultResolvedDependency child) {
-        children.add(child);
-        child.parents.add(this);
+        getChildren().add(child);
+        child.getParents().add(this);
     }
 
     public void addParentSpecificArtifacts(ResolvedDependency parent, Set<ResolvedArtifact> artifacts) {
+        if (this.parentArtifacts == null) {
+            this.parentArtifacts = new LinkedHashMap<ResolvedDependency, Set<ResolvedArtifact>>(4);
+        }
         Set<ResolvedArtifact> parentArtifacts = this.parentArtifacts.get(parent);
         if (parentArtifacts == null) {
-            parentArtifacts = new TreeSet<ResolvedArtifact>(new ResolvedArtifactComparator());
+            parentArtifacts = new TreeSet<ResolvedArtifact>(ARTIFACT_COMPARATOR);
             this.parentArtifacts.put(parent, parentArtifacts);
         }
         parentArtifacts.addAll(artifacts);
@@ -16,6 +16,8 @@
 
 package org.gradle.api.internal.artifacts;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
@@ -23,13 +25,20 @@ import org.gradle.internal.serialize.Serializer;
 
 import java.io.IOException;
 
+/**
+ * Identifiers that are read back are interned, so that the results of all configurations that resolve the same module share
+ * a single copy of its identifiers.
+ */
 public class ResolvedConfigurationIdentifierSerializer implements Serializer<ResolvedConfigurationIdentifier> {
+    private static final Interner<ModuleVersionIdentifier> MODULE_IDS = Interners.newWeakInterner();
+    private static final Interner<ResolvedConfigurationIdentifier> IDS = Interners.newWeakInterner();
+
     private final ModuleVersionIdentifierSerializer idSerializer = new ModuleVersionIdentifierSerializer();
 
     public ResolvedConfigurationIdentifier read(Decoder decoder) throws IOException {
-        ModuleVersionIdentifier id = idSerializer.read(decoder);
+        ModuleVersionIdentifier id = MODULE_IDS.intern(idSerializer.read(decoder));
         String configuration = decoder.readString();
-        return new ResolvedConfigurationIdentifier(id, configuration);
+        return IDS.intern(new ResolvedConfigurationIdentifier(id, configuration));
     }
 
     public void write(Encoder encoder, ResolvedConfigurationIdentifier value) throws IOException {
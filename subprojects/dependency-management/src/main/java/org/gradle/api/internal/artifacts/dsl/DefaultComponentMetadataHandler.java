@@ -97,6 +97,10 @@ public class DefaultComponentMetadataHandler implements ComponentMetadataHandler
         return new SpecRuleAction<ComponentMetadataDetails>(ruleAction, spec);
     }
 
+    public boolean hasRules() {
+        return !rules.isEmpty();
+    }
+
     public ComponentMetadataHandler all(Action<? super ComponentMetadataDetails> rule) {
         return addRule(createAllSpecRuleAction(ruleActionAdapter.createFromAction(rule)));
     }
@@ -57,6 +57,11 @@ public class DefaultDependencySubstitutions implements DependencySubstitutionsIn
         return hasDependencySubstitutionRule;
     }
 
+    @Override
+    public boolean hasRules() {
+        return !substitutionRules.isEmpty();
+    }
+
     @Override
     public Action<DependencySubstitution> getDependencySubstitutionRule() {
         return Actions.composite(substitutionRules);
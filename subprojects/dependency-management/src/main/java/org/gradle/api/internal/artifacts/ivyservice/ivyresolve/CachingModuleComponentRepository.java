@@ -40,6 +40,7 @@ import org.gradle.internal.resolve.result.BuildableArtifactResolveResult;
 import org.gradle.internal.resolve.result.BuildableArtifactSetResolveResult;
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult;
 import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult;
+import org.gradle.internal.resolve.result.DefaultBuildableModuleVersionListingResolveResult;
 import org.gradle.internal.resource.cached.CachedArtifact;
 import org.gradle.internal.resource.cached.CachedArtifactIndex;
 import org.gradle.internal.resource.cached.ivy.ArtifactAtRepositoryKey;
@@ -65,13 +66,14 @@ public class CachingModuleComponentRepository implements ModuleComponentReposito
     private final ModuleComponentRepository delegate;
     private final BuildCommencedTimeProvider timeProvider;
     private final ComponentMetadataProcessor metadataProcessor;
+    private final VersionListingExecutor versionListingExecutor;
     private LocateInCacheRepositoryAccess locateInCacheRepositoryAccess = new LocateInCacheRepositoryAccess();
     private ResolveAndCacheRepositoryAccess resolveAndCacheRepositoryAccess = new ResolveAndCacheRepositoryAccess();
 
     public CachingModuleComponentRepository(ModuleComponentRepository delegate, ModuleVersionsCache moduleVersionsCache, ModuleMetaDataCache moduleMetaDataCache,
                                             ModuleArtifactsCache moduleArtifactsCache, CachedArtifactIndex artifactAtRepositoryCachedResolutionIndex,
                                             CachePolicy cachePolicy, BuildCommencedTimeProvider timeProvider,
-                                            ComponentMetadataProcessor metadataProcessor) {
+                                            ComponentMetadataProcessor metadataProcessor, VersionListingExecutor versionListingExecutor) {
         this.delegate = delegate;
         this.moduleMetaDataCache = moduleMetaDataCache;
         this.moduleVersionsCache = moduleVersionsCache;
@@ -80,6 +82,7 @@ public class CachingModuleComponentRepository implements ModuleComponentReposito
         this.timeProvider = timeProvider;
         this.cachePolicy = cachePolicy;
         this.metadataProcessor = metadataProcessor;
+        this.versionListingExecutor = versionListingExecutor;
     }
 
     public String getId() {
@@ -140,10 +143,29 @@ public class CachingModuleComponentRepository implements ModuleComponentReposito
                     result.listed(versionList);
                     // When age == 0, verified since the start of this build, assume listing hasn't changed
                     result.setAuthoritative(cachedModuleVersionList.getAgeMillis() == 0);
+                    if (isDueForRefresh(moduleId, versions, cachedModuleVersionList.getAgeMillis())) {
+                        refreshInBackground(dependency, moduleId);
+                    }
                 }
             }
         }
 
+        /**
+         * A listing that has used up three quarters of its time to live is refreshed ahead of its expiry, so that a later build does not have to wait for the repository.
+         */
+        private boolean isDueForRefresh(ModuleIdentifier moduleId, Set<ModuleVersionIdentifier> versions, long ageMillis) {
+            return ageMillis > 0 && cachePolicy.mustRefreshVersionList(moduleId, versions, ageMillis + ageMillis / 3);
+        }
+
+        private void refreshInBackground(final DependencyMetaData dependency, ModuleIdentifier moduleId) {
+            LOGGER.debug("Version listing in dynamic revision cache is about to expire: will refresh '{}' in '{}' in the background", moduleId, delegate.getName());
+            versionListingExecutor.listInBackground(delegate.getId() + ":" + moduleId, new Runnable() {
+                public void run() {
+                    resolveAndCacheRepositoryAccess.listModuleVersions(dependency, new DefaultBuildableModuleVersionListingResolveResult());
+                }
+            });
+        }
+
         public void resolveComponentMetaData(ModuleComponentIdentifier moduleComponentIdentifier, ComponentOverrideMetadata requestMetaData, BuildableModuleComponentMetaDataResolveResult result) {
             // First try to determine the artifacts in-memory (e.g using the metadata): don't use the cache in this case
             delegate.getLocalAccess().resolveComponentMetaData(moduleComponentIdentifier, requestMetaData, result);
@@ -20,6 +20,7 @@ import org.gradle.api.Action;
 import org.gradle.api.Transformer;
 import org.gradle.api.artifacts.ModuleVersionSelector;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetaData;
 import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
@@ -43,10 +44,13 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
     private final List<String> repositoryNames = new ArrayList<String>();
     private final VersionedComponentChooser versionedComponentChooser;
     private final Transformer<ModuleComponentResolveMetaData, RepositoryChainModuleResolution> metaDataFactory;
+    private final VersionListingExecutor versionListingExecutor;
 
-    public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, Transformer<ModuleComponentResolveMetaData, RepositoryChainModuleResolution> metaDataFactory) {
+    public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, Transformer<ModuleComponentResolveMetaData, RepositoryChainModuleResolution> metaDataFactory,
+                                  VersionListingExecutor versionListingExecutor) {
         this.versionedComponentChooser = versionedComponentChooser;
         this.metaDataFactory = metaDataFactory;
+        this.versionListingExecutor = versionListingExecutor;
     }
 
     public void add(ModuleComponentRepository repository) {
@@ -102,12 +106,23 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
             return best;
         }
 
-        // Nothing found - do a second pass
+        // Nothing found - list the versions in the remaining repositories at the same time, then do a second pass
+        listVersionsConcurrently(missing);
         queue.addAll(missing);
         missing.clear();
         return findLatestModule(queue, failures, missing);
     }
 
+    private void listVersionsConcurrently(Collection<RepositoryResolveState> resolveStates) {
+        List<VersionListResult> listings = new ArrayList<VersionListResult>(resolveStates.size());
+        for (RepositoryResolveState resolveState : resolveStates) {
+            if (resolveState.canMakeFurtherAttempts()) {
+                listings.add(resolveState.versionListingResult);
+            }
+        }
+        versionListingExecutor.listConcurrently(listings);
+    }
+
     private RepositoryChainModuleResolution findLatestModule(LinkedList<RepositoryResolveState> queue, Collection<Throwable> failures, Collection<RepositoryResolveState> missing) {
         RepositoryChainModuleResolution best = null;
         while (!queue.isEmpty()) {
@@ -320,20 +335,35 @@ public class DynamicVersionResolver implements DependencyToComponentIdResolver {
         }
     }
 
-    private static class VersionListResult {
+    private static class VersionListResult implements Runnable {
         private final DefaultBuildableModuleVersionListingResolveResult result = new DefaultBuildableModuleVersionListingResolveResult();
         private final ModuleComponentRepository repository;
         private final DependencyMetaData dependency;
 
         private boolean searchedLocally;
         private boolean searchedRemotely;
+        private Throwable failure;
 
         public VersionListResult(DependencyMetaData dependency, ModuleComponentRepository repository) {
             this.dependency = dependency;
             this.repository = repository;
         }
 
+        /**
+         * Lists the versions ahead of {@link #resolve()}, possibly on another thread. A failure is kept to be rethrown by {@link #resolve()}.
+         */
+        public void run() {
+            try {
+                resolve();
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+
         void resolve() {
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
             if (!searchedLocally) {
                 searchedLocally = true;
                 process(dependency, repository.getLocalAccess());
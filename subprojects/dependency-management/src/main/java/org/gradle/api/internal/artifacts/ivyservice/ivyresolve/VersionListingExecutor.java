@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Lists the versions of modules using a pool of threads, so that slow repositories are queried at the same time rather than one after the other.
+ *
+ * <p>Each listing runs as a cache action, as it writes the result to the module versions cache. The cache lock is released while a listing talks
+ * to its repository, and by the calling thread while it waits for the listings to complete.
+ *
+ * <p>Background listings use a separate, smaller pool, so that they do not take threads from the listings that a resolution is waiting for.
+ */
+public class VersionListingExecutor implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VersionListingExecutor.class);
+    static final int MAX_CONCURRENT_LISTINGS = 8;
+    static final int MAX_BACKGROUND_LISTINGS = 2;
+
+    private final ExecutorFactory executorFactory;
+    private final CacheLockingManager cacheLockingManager;
+    private final List<Future<?>> backgroundListings = new ArrayList<Future<?>>();
+    private final Set<String> backgroundListingKeys = new HashSet<String>();
+    private StoppableExecutor executor;
+    private StoppableExecutor backgroundExecutor;
+    private volatile boolean stopped;
+
+    public VersionListingExecutor(ExecutorFactory executorFactory, CacheLockingManager cacheLockingManager) {
+        this.executorFactory = executorFactory;
+        this.cacheLockingManager = cacheLockingManager;
+    }
+
+    /**
+     * Runs the given listings concurrently, and blocks until all of them have completed. A failure of one listing does not prevent the others from completing.
+     */
+    public void listConcurrently(Collection<? extends Runnable> listings) {
+        if (listings.size() < 2) {
+            for (Runnable listing : listings) {
+                listing.run();
+            }
+            return;
+        }
+        final List<Future<?>> futures = new ArrayList<Future<?>>(listings.size());
+        for (Runnable listing : listings) {
+            futures.add(submit(listing));
+        }
+        Throwable failure = cacheLockingManager.longRunningOperation("Wait for version listings", new Factory<Throwable>() {
+            public Throwable create() {
+                return waitFor(futures);
+            }
+        });
+        if (failure != null) {
+            throw UncheckedException.throwAsUncheckedException(failure);
+        }
+    }
+
+    /**
+     * Starts the given listing in the background, unless a listing with the same key has already been started. A listing that has not started when this
+     * executor is stopped is abandoned, and a failure is logged and discarded.
+     */
+    public void listInBackground(String key, final Runnable listing) {
+        synchronized (backgroundListings) {
+            if (stopped || !backgroundListingKeys.add(key)) {
+                return;
+            }
+            if (backgroundExecutor == null) {
+                backgroundExecutor = executorFactory.create("Background version listing", MAX_BACKGROUND_LISTINGS);
+            }
+            Future<?> future = backgroundExecutor.submit(new Runnable() {
+                public void run() {
+                    if (stopped) {
+                        return;
+                    }
+                    try {
+                        cacheLockingManager.useCache("List module versions", listing);
+                    } catch (Throwable t) {
+                        LOGGER.debug("Background version listing failed.", t);
+                    }
+                }
+            });
+            for (Iterator<Future<?>> iterator = backgroundListings.iterator(); iterator.hasNext();) {
+                if (iterator.next().isDone()) {
+                    iterator.remove();
+                }
+            }
+            backgroundListings.add(future);
+        }
+    }
+
+    private Future<?> submit(final Runnable listing) {
+        return getExecutor().submit(new Runnable() {
+            public void run() {
+                cacheLockingManager.useCache("List module versions", listing);
+            }
+        });
+    }
+
+    private synchronized StoppableExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("Version listing", MAX_CONCURRENT_LISTINGS);
+        }
+        return executor;
+    }
+
+    private static Throwable waitFor(List<Future<?>> futures) {
+        Throwable failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Stops this executor. Background listings that have not started are abandoned. Waits for the background listings that are running, as these use the
+     * caches and transports of the build, which are closed once this executor has stopped.
+     */
+    public void stop() {
+        StoppableExecutor backgroundExecutor;
+        synchronized (backgroundListings) {
+            stopped = true;
+            for (Future<?> future : backgroundListings) {
+                future.cancel(false);
+            }
+            backgroundListings.clear();
+            backgroundExecutor = this.backgroundExecutor;
+            this.backgroundExecutor = null;
+        }
+        StoppableExecutor executor;
+        synchronized (this) {
+            executor = this.executor;
+            this.executor = null;
+        }
+        CompositeStoppable.stoppable(backgroundExecutor, executor).stop();
+    }
+}
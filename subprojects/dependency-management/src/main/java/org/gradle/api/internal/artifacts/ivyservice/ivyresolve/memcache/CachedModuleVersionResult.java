@@ -16,7 +16,9 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetaData;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult;
 
 import static org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult.State.Missing;
@@ -45,6 +47,20 @@ class CachedModuleVersionResult {
         return state == Missing || state == Resolved;
     }
 
+    public boolean isAuthoritative() {
+        return authoritative;
+    }
+
+    /**
+     * Checks whether this result, cached by an earlier build, is still acceptable for the given request.
+     */
+    public boolean canReuse(ModuleComponentIdentifier id, ComponentOverrideMetadata requestMetaData, InMemoryCachePolicy policy, long ageMillis) {
+        if (state == Missing) {
+            return policy.canReuseMissingModule(id, ageMillis);
+        }
+        return policy.canReuseModule(id, metaData.getId(), requestMetaData.isChanging() || metaData.isChanging(), ageMillis);
+    }
+
     public void supply(BuildableModuleComponentMetaDataResolveResult result) {
         assert isCacheable() : "Results are not cacheable, cannot supply the results.";
         if (state == Resolved) {
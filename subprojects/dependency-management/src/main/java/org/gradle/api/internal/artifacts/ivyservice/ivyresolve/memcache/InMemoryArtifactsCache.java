@@ -16,34 +16,41 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.gradle.api.artifacts.component.ComponentArtifactIdentifier;
+import org.gradle.api.internal.cache.HeapProportionalSizer;
 import org.gradle.internal.resolve.result.BuildableArtifactResolveResult;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
 
+/**
+ * Artifact files are only reused by the build that resolved them, as they are cheap to look up again from the persistent cache.
+ */
 class InMemoryArtifactsCache {
-    private final Map<ComponentArtifactIdentifier, File> artifacts = new HashMap<ComponentArtifactIdentifier, File>();
-    private InMemoryCacheStats stats;
+    static final int MAX_ARTIFACTS = 10000;
+
+    private final Cache<ComponentArtifactIdentifier, InMemoryCacheEntry<File>> artifacts;
+    private final InMemoryCacheStats stats;
 
     InMemoryArtifactsCache(InMemoryCacheStats stats) {
         this.stats = stats;
+        artifacts = CacheBuilder.newBuilder().maximumSize(new HeapProportionalSizer().scaleValue(MAX_ARTIFACTS)).softValues().build();
     }
 
-    public boolean supplyArtifact(ComponentArtifactIdentifier id, BuildableArtifactResolveResult result) {
-        File fromCache = artifacts.get(id);
-        if (fromCache != null) {
-            result.resolved(fromCache);
-            stats.artifactsServed++;
+    public boolean supplyArtifact(ComponentArtifactIdentifier id, BuildableArtifactResolveResult result, InMemoryCachePolicy policy) {
+        InMemoryCacheEntry<File> fromCache = artifacts.getIfPresent(id);
+        if (fromCache != null && fromCache.isCachedByCurrentBuild(policy)) {
+            result.resolved(fromCache.getValue());
+            stats.artifactServed();
             return true;
         }
         return false;
     }
 
-    public void newArtifact(ComponentArtifactIdentifier id, BuildableArtifactResolveResult result) {
+    public void newArtifact(ComponentArtifactIdentifier id, BuildableArtifactResolveResult result, InMemoryCachePolicy policy) {
         if (result.hasResult() && result.getFailure() == null) {
-            artifacts.put(id, result.getFile());
+            artifacts.put(id, new InMemoryCacheEntry<File>(result.getFile(), policy, true));
         }
     }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
+
+/**
+ * A value held by the in-memory cache, along with the build that cached it.
+ */
+class InMemoryCacheEntry<T> {
+    private final T value;
+    private final long cachedBy;
+    private final long cachedAt;
+    private final boolean shareable;
+    private final boolean ageKnown;
+
+    /**
+     * @param ageKnown true when the value was fresh when cached. Otherwise the value came from some other cache and its real age is unknown.
+     */
+    InMemoryCacheEntry(T value, InMemoryCachePolicy policy, boolean ageKnown) {
+        this.value = value;
+        this.cachedBy = policy.getBuildId();
+        this.cachedAt = policy.getBuildStartTime();
+        this.shareable = policy.isShareable();
+        this.ageKnown = ageKnown;
+    }
+
+    T getValue() {
+        return value;
+    }
+
+    boolean isCachedByCurrentBuild(InMemoryCachePolicy policy) {
+        return cachedBy == policy.getBuildId();
+    }
+
+    boolean isShareableWith(InMemoryCachePolicy policy) {
+        return shareable && policy.isShareable();
+    }
+
+    long getAgeMillis(InMemoryCachePolicy policy) {
+        return ageKnown ? policy.getBuildStartTime() - cachedAt : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
+
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.ResolvedModuleVersion;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.ComponentMetadataProcessor;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
+import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.DefaultResolvedModuleVersion;
+import org.gradle.util.BuildCommencedTimeProvider;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Decides whether a result held by the in-memory cache can be used by the current build.
+ *
+ * <p>Results cached by the current build are always reused. Results cached by an earlier build in the same process are only reused when both builds
+ * allowed sharing, and when the {@link CachePolicy} of the current build would have accepted a result of that age from the persistent cache.</p>
+ */
+public class InMemoryCachePolicy {
+    private final long buildId;
+    private final BuildCommencedTimeProvider timeProvider;
+    private final CachePolicy cachePolicy;
+
+    private InMemoryCachePolicy(long buildId, BuildCommencedTimeProvider timeProvider, CachePolicy cachePolicy) {
+        this.buildId = buildId;
+        this.timeProvider = timeProvider;
+        this.cachePolicy = cachePolicy;
+    }
+
+    /**
+     * Results are reused only by the build that cached them.
+     *
+     * @param buildId Identifies the current build. See {@link InMemoryCachedRepositoryFactory#newBuildId()}.
+     */
+    public static InMemoryCachePolicy currentBuildOnly(long buildId, BuildCommencedTimeProvider timeProvider) {
+        return new InMemoryCachePolicy(buildId, timeProvider, null);
+    }
+
+    /**
+     * Results may be reused by later builds, subject to the given cache policy. Falls back to {@link #currentBuildOnly} when the metadata
+     * processor has rules, as the rules may differ from one build to the next.
+     *
+     * @param buildId Identifies the current build. See {@link InMemoryCachedRepositoryFactory#newBuildId()}.
+     */
+    public static InMemoryCachePolicy acrossBuilds(long buildId, BuildCommencedTimeProvider timeProvider, CachePolicy cachePolicy, ComponentMetadataProcessor metadataProcessor) {
+        if (metadataProcessor.hasRules()) {
+            return currentBuildOnly(buildId, timeProvider);
+        }
+        return new InMemoryCachePolicy(buildId, timeProvider, cachePolicy);
+    }
+
+    long getBuildId() {
+        return buildId;
+    }
+
+    long getBuildStartTime() {
+        return timeProvider.getCurrentTime();
+    }
+
+    boolean isShareable() {
+        return cachePolicy != null;
+    }
+
+    boolean canReuseVersionListing(ModuleVersionSelector requested, Set<String> versions, long ageMillis) {
+        ModuleIdentifier moduleId = DefaultModuleIdentifier.newId(requested.getGroup(), requested.getName());
+        Set<ModuleVersionIdentifier> moduleVersions = new HashSet<ModuleVersionIdentifier>(versions.size());
+        for (String version : versions) {
+            moduleVersions.add(DefaultModuleVersionIdentifier.newId(moduleId.getGroup(), moduleId.getName(), version));
+        }
+        return !cachePolicy.mustRefreshVersionList(moduleId, moduleVersions, ageMillis);
+    }
+
+    boolean canReuseMissingModule(ModuleComponentIdentifier component, long ageMillis) {
+        return !cachePolicy.mustRefreshMissingModule(component, ageMillis);
+    }
+
+    boolean canReuseModule(ModuleComponentIdentifier component, ModuleVersionIdentifier moduleVersion, boolean changing, long ageMillis) {
+        ResolvedModuleVersion resolvedModuleVersion = new DefaultResolvedModuleVersion(moduleVersion);
+        if (changing) {
+            return !cachePolicy.mustRefreshChangingModule(component, resolvedModuleVersion, ageMillis);
+        }
+        return !cachePolicy.mustRefreshModule(component, resolvedModuleVersion, ageMillis);
+    }
+}
@@ -16,14 +16,75 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
-class InMemoryCacheStats {
-    int cacheInstances;
-    int reposWrapped;
-    int metadataServed;
-    int artifactsServed;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InMemoryCacheStats {
+    private final AtomicInteger cacheInstances = new AtomicInteger();
+    private final AtomicInteger reposWrapped = new AtomicInteger();
+    private final AtomicLong metadataRequests = new AtomicLong();
+    private final AtomicLong metadataServed = new AtomicLong();
+    private final AtomicLong metadataServedFromEarlierBuilds = new AtomicLong();
+    private final AtomicLong artifactsServed = new AtomicLong();
+
+    void cacheInstanceCreated() {
+        cacheInstances.incrementAndGet();
+    }
+
+    void repoWrapped() {
+        reposWrapped.incrementAndGet();
+    }
+
+    void metadataRequested() {
+        metadataRequests.incrementAndGet();
+    }
+
+    void metadataServed(boolean fromEarlierBuild) {
+        metadataServed.incrementAndGet();
+        if (fromEarlierBuild) {
+            metadataServedFromEarlierBuilds.incrementAndGet();
+        }
+    }
+
+    void artifactServed() {
+        artifactsServed.incrementAndGet();
+    }
+
+    public int getCacheInstances() {
+        return cacheInstances.get();
+    }
+
+    public int getReposWrapped() {
+        return reposWrapped.get();
+    }
+
+    public long getMetadataRequests() {
+        return metadataRequests.get();
+    }
+
+    public long getMetadataServed() {
+        return metadataServed.get();
+    }
+
+    public long getMetadataServedFromEarlierBuilds() {
+        return metadataServedFromEarlierBuilds.get();
+    }
+
+    public long getArtifactsServed() {
+        return artifactsServed.get();
+    }
+
+    /**
+     * Returns the fraction of module version listing and metadata requests that were served from the cache.
+     */
+    public double getMetadataHitRate() {
+        long requests = metadataRequests.get();
+        return requests == 0 ? 0 : (double) metadataServed.get() / requests;
+    }
+
     public String toString() {
         return String.format(
-                "Repos cached: %s, cache instances: %s, modules served from cache: %s, artifacts: %s",
-                reposWrapped, cacheInstances, metadataServed, artifactsServed);
+                "Repos cached: %s, cache instances: %s, modules served from cache: %s of %s (%.1f%%, %s from earlier builds), artifacts: %s",
+                reposWrapped, cacheInstances, metadataServed, metadataRequests, getMetadataHitRate() * 100, metadataServedFromEarlierBuilds, artifactsServed);
     }
 }
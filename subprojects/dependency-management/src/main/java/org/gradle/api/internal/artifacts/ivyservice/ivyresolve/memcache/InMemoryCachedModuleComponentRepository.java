@@ -28,12 +28,14 @@ import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveRe
 
 class InMemoryCachedModuleComponentRepository extends BaseModuleComponentRepository {
     final InMemoryCacheStats stats;
+    final InMemoryCachePolicy policy;
     private final ModuleComponentRepositoryAccess localAccess;
     private final ModuleComponentRepositoryAccess remoteAccess;
 
-    public InMemoryCachedModuleComponentRepository(InMemoryModuleComponentRepositoryCaches cache, ModuleComponentRepository delegate) {
+    public InMemoryCachedModuleComponentRepository(InMemoryModuleComponentRepositoryCaches cache, ModuleComponentRepository delegate, InMemoryCachePolicy policy) {
         super(delegate);
         this.stats = cache.stats;
+        this.policy = policy;
         this.localAccess = new CachedAccess(delegate.getLocalAccess(), cache.localArtifactsCache, cache.localMetaDataCache);
         this.remoteAccess = new CachedAccess(delegate.getRemoteAccess(), cache.remoteArtifactsCache, cache.remoteMetaDataCache);
     }
@@ -64,23 +66,23 @@ class InMemoryCachedModuleComponentRepository extends BaseModuleComponentReposit
         }
 
         public void listModuleVersions(DependencyMetaData dependency, BuildableModuleVersionListingResolveResult result) {
-            if(!metaDataCache.supplyModuleVersions(dependency.getRequested(), result)) {
+            if(!metaDataCache.supplyModuleVersions(dependency.getRequested(), result, policy)) {
                 super.listModuleVersions(dependency, result);
-                metaDataCache.newModuleVersions(dependency.getRequested(), result);
+                metaDataCache.newModuleVersions(dependency.getRequested(), result, policy);
             }
         }
 
         public void resolveComponentMetaData(ModuleComponentIdentifier moduleComponentIdentifier, ComponentOverrideMetadata requestMetaData, BuildableModuleComponentMetaDataResolveResult result) {
-            if(!metaDataCache.supplyMetaData(moduleComponentIdentifier, result)) {
+            if(!metaDataCache.supplyMetaData(moduleComponentIdentifier, requestMetaData, result, policy)) {
                 super.resolveComponentMetaData(moduleComponentIdentifier, requestMetaData, result);
-                metaDataCache.newDependencyResult(moduleComponentIdentifier, result);
+                metaDataCache.newDependencyResult(moduleComponentIdentifier, result, policy);
             }
         }
 
         public void resolveArtifact(ComponentArtifactMetaData artifact, ModuleSource moduleSource, BuildableArtifactResolveResult result) {
-            if (!artifactsCache.supplyArtifact(artifact.getId(), result)) {
+            if (!artifactsCache.supplyArtifact(artifact.getId(), result, policy)) {
                 super.resolveArtifact(artifact, moduleSource, result);
-                artifactsCache.newArtifact(artifact.getId(), result);
+                artifactsCache.newArtifact(artifact.getId(), result, policy);
             }
         }
     }
@@ -16,47 +16,70 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
-import com.google.common.collect.MapMaker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.concurrent.Stoppable;
 
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Caches the dependency metadata (descriptors, artifact files) in memory.
+ *
+ * <p>The caches live as long as the process, so that builds run by the same daemon can reuse the metadata resolved by earlier builds, as permitted by
+ * the {@link InMemoryCachePolicy} of each build. Caches are kept per repository id. The number of cached repositories and entries is bounded in proportion
+ * to the heap, and the entries are softly referenced, so that they are discarded before the process runs out of memory.</p>
  */
 public class InMemoryCachedRepositoryFactory implements Stoppable {
 
     public final static String TOGGLE_PROPERTY = "org.gradle.resolution.memorycache";
 
+    static final int MAX_REPOSITORIES = 50;
+
     private final static Logger LOG = Logging.getLogger(InMemoryCachedRepositoryFactory.class);
 
-    Map<String, InMemoryModuleComponentRepositoryCaches> cachePerRepo = new MapMaker().makeMap();
+    final Cache<String, InMemoryModuleComponentRepositoryCaches> cachePerRepo = CacheBuilder.newBuilder().maximumSize(MAX_REPOSITORIES).softValues().build();
 
     final InMemoryCacheStats stats = new InMemoryCacheStats();
 
-    public ModuleComponentRepository cached(ModuleComponentRepository input) {
+    private final AtomicLong buildIds = new AtomicLong();
+
+    /**
+     * Returns a new id for a build that uses the caches. Entries cached by a build are always reused by the same build, so the id must be distinct for each build run by the process.
+     */
+    public long newBuildId() {
+        return buildIds.incrementAndGet();
+    }
+
+    public ModuleComponentRepository cached(ModuleComponentRepository input, InMemoryCachePolicy policy) {
         if ("false".equalsIgnoreCase(System.getProperty(TOGGLE_PROPERTY))) {
             return input;
         }
 
-        InMemoryModuleComponentRepositoryCaches caches = cachePerRepo.get(input.getId());
-        stats.reposWrapped++;
-        if (caches == null) {
-            LOG.debug("Creating new in-memory cache for repo '{}' [{}].", input.getName(), input.getId());
-            caches = new InMemoryModuleComponentRepositoryCaches(stats);
-            stats.cacheInstances++;
-            cachePerRepo.put(input.getId(), caches);
-        } else {
-            LOG.debug("Reusing in-memory cache for repo '{}' [{}].", input.getName(), input.getId());
+        stats.repoWrapped();
+        InMemoryModuleComponentRepositoryCaches caches;
+        synchronized (cachePerRepo) {
+            caches = cachePerRepo.getIfPresent(input.getId());
+            if (caches == null) {
+                LOG.debug("Creating new in-memory cache for repo '{}' [{}].", input.getName(), input.getId());
+                caches = new InMemoryModuleComponentRepositoryCaches(stats);
+                stats.cacheInstanceCreated();
+                cachePerRepo.put(input.getId(), caches);
+            } else {
+                LOG.debug("Reusing in-memory cache for repo '{}' [{}].", input.getName(), input.getId());
+            }
         }
-        return new InMemoryCachedModuleComponentRepository(caches, input);
+        return new InMemoryCachedModuleComponentRepository(caches, input, policy);
+    }
+
+    public InMemoryCacheStats getStats() {
+        return stats;
     }
 
     public void stop() {
-        cachePerRepo.clear();
+        cachePerRepo.invalidateAll();
         LOG.debug("In-memory dependency metadata cache closed. {}", stats);
     }
 }
@@ -16,55 +16,79 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.gradle.api.artifacts.ModuleVersionSelector;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.cache.HeapProportionalSizer;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult;
 import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 
 import static org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult.State.Listed;
 
 class InMemoryMetaDataCache {
-    private final Map<ModuleVersionSelector, Set<String>> moduleVersionListing = new HashMap<ModuleVersionSelector, Set<String>>();
-    private final Map<ModuleComponentIdentifier, CachedModuleVersionResult> metaData = new HashMap<ModuleComponentIdentifier, CachedModuleVersionResult>();
-    private InMemoryCacheStats stats;
+    static final int MAX_VERSION_LISTINGS = 2000;
+    static final int MAX_MODULES = 10000;
+
+    private final Cache<ModuleVersionSelector, InMemoryCacheEntry<Set<String>>> moduleVersionListing;
+    private final Cache<ModuleComponentIdentifier, InMemoryCacheEntry<CachedModuleVersionResult>> metaData;
+    private final InMemoryCacheStats stats;
 
     InMemoryMetaDataCache(InMemoryCacheStats stats) {
         this.stats = stats;
+        HeapProportionalSizer sizer = new HeapProportionalSizer();
+        moduleVersionListing = CacheBuilder.newBuilder().maximumSize(sizer.scaleValue(MAX_VERSION_LISTINGS)).softValues().build();
+        metaData = CacheBuilder.newBuilder().maximumSize(sizer.scaleValue(MAX_MODULES)).softValues().build();
     }
 
-    public boolean supplyModuleVersions(ModuleVersionSelector requested, BuildableModuleVersionListingResolveResult result) {
-        Set<String> versions = moduleVersionListing.get(requested);
-        if (versions == null) {
+    public boolean supplyModuleVersions(ModuleVersionSelector requested, BuildableModuleVersionListingResolveResult result, InMemoryCachePolicy policy) {
+        stats.metadataRequested();
+        InMemoryCacheEntry<Set<String>> fromCache = moduleVersionListing.getIfPresent(requested);
+        if (fromCache == null) {
+            return false;
+        }
+        boolean fromEarlierBuild = !fromCache.isCachedByCurrentBuild(policy);
+        if (fromEarlierBuild
+                && !(fromCache.isShareableWith(policy) && policy.canReuseVersionListing(requested, fromCache.getValue(), fromCache.getAgeMillis(policy)))) {
             return false;
         }
-        result.listed(versions);
+        result.listed(fromCache.getValue());
+        stats.metadataServed(fromEarlierBuild);
         return true;
     }
 
-    public void newModuleVersions(ModuleVersionSelector requested, BuildableModuleVersionListingResolveResult result) {
+    public void newModuleVersions(ModuleVersionSelector requested, BuildableModuleVersionListingResolveResult result, InMemoryCachePolicy policy) {
         if (result.getState() == Listed) {
-            moduleVersionListing.put(requested, result.getVersions());
+            moduleVersionListing.put(requested, new InMemoryCacheEntry<Set<String>>(result.getVersions(), policy, result.isAuthoritative()));
         }
     }
 
-    boolean supplyMetaData(ModuleComponentIdentifier requested, BuildableModuleComponentMetaDataResolveResult result) {
-        CachedModuleVersionResult fromCache = metaData.get(requested);
+    boolean supplyMetaData(ModuleComponentIdentifier requested, ComponentOverrideMetadata requestMetaData, BuildableModuleComponentMetaDataResolveResult result, InMemoryCachePolicy policy) {
+        stats.metadataRequested();
+        InMemoryCacheEntry<CachedModuleVersionResult> fromCache = metaData.getIfPresent(requested);
         if (fromCache == null) {
             return false;
         }
-        fromCache.supply(result);
-        stats.metadataServed++;
+        boolean fromEarlierBuild = !fromCache.isCachedByCurrentBuild(policy);
+        if (fromEarlierBuild
+                && !(fromCache.isShareableWith(policy) && fromCache.getValue().canReuse(requested, requestMetaData, policy, fromCache.getAgeMillis(policy)))) {
+            return false;
+        }
+        fromCache.getValue().supply(result);
+        if (fromEarlierBuild) {
+            result.setAuthoritative(false);
+        }
+        stats.metadataServed(fromEarlierBuild);
         return true;
     }
 
-    void newDependencyResult(ModuleComponentIdentifier requested, BuildableModuleComponentMetaDataResolveResult result) {
+    void newDependencyResult(ModuleComponentIdentifier requested, BuildableModuleComponentMetaDataResolveResult result, InMemoryCachePolicy policy) {
         CachedModuleVersionResult cachedResult = new CachedModuleVersionResult(result);
         if (cachedResult.isCacheable()) {
-            metaData.put(requested, cachedResult);
+            metaData.put(requested, new InMemoryCacheEntry<CachedModuleVersionResult>(cachedResult, policy, cachedResult.isAuthoritative()));
         }
     }
-}
\ No newline at end of file
+}
@@ -1210,13 +1210,22 @@ public class IvyXmlModuleDescriptorParser extends AbstractModuleDescriptorParser
 
         static final String W3C_XML_SCHEMA = "http://www.w3.org/2001/XMLSchema";
 
-        private static SAXParser newSAXParser(URL schema, InputStream schemaStream)
-                throws ParserConfigurationException, SAXException {
-            if (schema == null) {
+        // Looking up the parser factory is expensive, so reuse the factory for non-validating parsers, which is the common case.
+        // Factories are not thread-safe, so keep one per thread
+        private static final ThreadLocal<SAXParserFactory> NON_VALIDATING_PARSER_FACTORY = new ThreadLocal<SAXParserFactory>() {
+            @Override
+            protected SAXParserFactory initialValue() {
                 SAXParserFactory parserFactory = SAXParserFactory.newInstance();
                 parserFactory.setValidating(false);
                 parserFactory.setNamespaceAware(true);
-                SAXParser parser = parserFactory.newSAXParser();
+                return parserFactory;
+            }
+        };
+
+        private static SAXParser newSAXParser(URL schema, InputStream schemaStream)
+                throws ParserConfigurationException, SAXException {
+            if (schema == null) {
+                SAXParser parser = NON_VALIDATING_PARSER_FACTORY.get().newSAXParser();
                 parser.getXMLReader().setFeature(XML_NAMESPACE_PREFIXES, true);
                 return parser;
             } else {
@@ -16,39 +16,146 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
 
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import com.google.common.collect.ImmutableSet;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Reads a POM into a tree of {@link PomElement}s using a streaming parser. Only the elements that are used to resolve a module are kept: the
+ * build, reporting and repository sections, and the other top level elements, of the POM and of its profiles are skipped without being
+ * retained.
+ */
 public final class PomDomParser {
+    private static final Set<String> PROJECT_CHILDREN = ImmutableSet.of("parent", "groupId", "artifactId", "version", "packaging", "url", "description",
+        "licenses", "distributionManagement", "dependencies", "dependencyManagement", "properties", "profiles");
+    private static final Set<String> PROFILE_CHILDREN = ImmutableSet.of("id", "activation", "properties", "dependencies", "dependencyManagement");
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
     private PomDomParser() {}
 
-    public static String getTextContent(Element element) {
-        StringBuilder result = new StringBuilder();
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, true);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+        factory.setXMLResolver(new XMLResolver() {
+            public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) {
+                if ((systemID != null) && systemID.endsWith("m2-entities.ent")) {
+                    return org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent");
+                }
+                return null;
+            }
+        });
+        return factory;
+    }
 
-        NodeList childNodes = element.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node child = childNodes.item(i);
+    /**
+     * Parses the given POM content, returning the root element.
+     */
+    public static PomElement parse(InputStream stream, String systemId) throws IOException, XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(systemId, new AddDTDFilterInputStream(stream));
+        try {
+            return readDocument(reader);
+        } finally {
+            reader.close();
+        }
+    }
 
-            switch (child.getNodeType()) {
-                case Node.CDATA_SECTION_NODE:
-                case Node.TEXT_NODE:
-                    result.append(child.getNodeValue());
+    private static PomElement readDocument(XMLStreamReader reader) throws XMLStreamException {
+        List<PomElement> elements = new ArrayList<PomElement>();
+        List<StringBuilder> texts = new ArrayList<StringBuilder>();
+        PomElement root = null;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    String name = getName(reader);
+                    if (!isRetained(elements, name)) {
+                        skipElement(reader);
+                        break;
+                    }
+                    PomElement element = new PomElement(name);
+                    if (elements.isEmpty()) {
+                        root = element;
+                    } else {
+                        elements.get(elements.size() - 1).addChild(element);
+                    }
+                    elements.add(element);
+                    texts.add(null);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    StringBuilder text = texts.remove(texts.size() - 1);
+                    PomElement completed = elements.remove(elements.size() - 1);
+                    if (text != null) {
+                        completed.setText(text.toString());
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (!elements.isEmpty()) {
+                        int index = texts.size() - 1;
+                        StringBuilder builder = texts.get(index);
+                        if (builder == null) {
+                            builder = new StringBuilder();
+                            texts.set(index, builder);
+                        }
+                        builder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
                     break;
                 default:
                     break;
             }
         }
+        return root;
+    }
 
-        return result.toString();
+    private static String getName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        String localName = reader.getLocalName();
+        return prefix == null || prefix.length() == 0 ? localName : prefix + ":" + localName;
     }
 
-    public static String getFirstChildText(Element parentElem, String name) {
-        Element node = getFirstChildElement(parentElem, name);
+    private static boolean isRetained(List<PomElement> openElements, String name) {
+        int depth = openElements.size();
+        if (depth == 1) {
+            return PROJECT_CHILDREN.contains(name);
+        }
+        if (depth == 3 && openElements.get(1).getName().equals("profiles") && openElements.get(2).getName().equals("profile")) {
+            return PROFILE_CHILDREN.contains(name);
+        }
+        return true;
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    public static String getTextContent(PomElement element) {
+        return element.getText();
+    }
+
+    public static String getFirstChildText(PomElement parentElem, String name) {
+        PomElement node = getFirstChildElement(parentElem, name);
         if (node != null) {
             return getTextContent(node);
         } else {
@@ -56,32 +163,23 @@ public final class PomDomParser {
         }
     }
 
-    public static Element getFirstChildElement(Element parentElem, String name) {
+    public static PomElement getFirstChildElement(PomElement parentElem, String name) {
         if (parentElem == null) {
             return null;
         }
-        NodeList childs = parentElem.getChildNodes();
-        for (int i = 0; i < childs.getLength(); i++) {
-            Node node = childs.item(i);
-            if (node instanceof Element && name.equals(node.getNodeName())) {
-                return (Element) node;
+        for (PomElement child : parentElem.getChildren()) {
+            if (name.equals(child.getName())) {
+                return child;
             }
         }
         return null;
     }
 
-    public static List<Element> getAllChilds(Element parent) {
-        List<Element> r = new LinkedList<Element>();
-        if (parent != null) {
-            NodeList childs = parent.getChildNodes();
-            for (int i = 0; i < childs.getLength(); i++) {
-                Node node = childs.item(i);
-                if (node instanceof Element) {
-                    r.add((Element) node);
-                }
-            }
+    public static List<PomElement> getAllChilds(PomElement parent) {
+        if (parent == null) {
+            return Collections.emptyList();
         }
-        return r;
+        return parent.getChildren();
     }
 
     public static final class AddDTDFilterInputStream extends FilterInputStream {
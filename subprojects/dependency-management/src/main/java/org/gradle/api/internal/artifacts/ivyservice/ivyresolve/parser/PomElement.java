@@ -0,0 +1,64 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An element of a POM, as read by {@link PomDomParser}. Only the name, the text and the child elements of an element are retained.
+ */
+public class PomElement {
+    private final String name;
+    private String text = "";
+    private List<PomElement> children = Collections.emptyList();
+
+    PomElement(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the text directly contained by this element, excluding the text of its child elements.
+     */
+    public String getText() {
+        return text;
+    }
+
+    public List<PomElement> getChildren() {
+        return children;
+    }
+
+    void setText(String text) {
+        this.text = text;
+    }
+
+    void addChild(PomElement child) {
+        if (children.isEmpty()) {
+            children = new ArrayList<PomElement>(4);
+        }
+        children.add(child);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,524 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.apache.ivy.core.module.descriptor.*;
+import org.apache.ivy.core.module.id.ArtifactId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
+import org.gradle.api.internal.artifacts.ivyservice.IvyUtil;
+import org.gradle.api.internal.artifacts.ivyservice.NamespaceId;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.ResolverStrategy;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.net.URL;
+import java.util.*;
+
+/**
+ * A compact binary form of the Ivy module descriptors held in the module meta-data cache, so that a cached descriptor can be read back without parsing its ivy.xml.
+ *
+ * <p>The descriptor is written using the public Ivy descriptor API only, and is rebuilt using the same Ivy types and in the same order as
+ * {@link org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser} builds it, so a descriptor read by this serializer is
+ * equivalent to the one that was written. Only descriptors that have been read from an ivy.xml, and whose dependency configuration mappings can be rebuilt from
+ * that API, are supported, see {@link #canSerialize(ModuleDescriptor)}.</p>
+ */
+public class ModuleDescriptorSerializer implements Serializer<ModuleDescriptor> {
+    private static final byte EXTRA_INFO_NAMESPACED = 0;
+    private static final byte EXTRA_INFO_PLAIN = 1;
+
+    private final ResolverStrategy resolverStrategy;
+
+    public ModuleDescriptorSerializer(ResolverStrategy resolverStrategy) {
+        this.resolverStrategy = resolverStrategy;
+    }
+
+    /**
+     * Returns true when the given descriptor can be written by this serializer without losing any information.
+     */
+    public boolean canSerialize(ModuleDescriptor md) {
+        if (!(md instanceof DefaultModuleDescriptor) || md.getInheritedDescriptors().length != 0) {
+            return false;
+        }
+        DefaultModuleDescriptor descriptor = (DefaultModuleDescriptor) md;
+        if (descriptor.getNamespace() != null && !descriptor.getNamespace().getName().equals("system")) {
+            return false;
+        }
+        for (Object key : md.getExtraInfo().keySet()) {
+            if (!(key instanceof NamespaceId) && !(key instanceof String)) {
+                return false;
+            }
+        }
+        Set<Artifact> attached = Collections.newSetFromMap(new IdentityHashMap<Artifact, Boolean>());
+        for (String conf : md.getConfigurationsNames()) {
+            attached.addAll(Arrays.asList(md.getArtifacts(conf)));
+        }
+        for (Artifact artifact : md.getAllArtifacts()) {
+            if (!(artifact instanceof MDArtifact) || artifact.getUrl() != null || !attached.contains(artifact)) {
+                return false;
+            }
+        }
+        for (ExcludeRule rule : md.getAllExcludeRules()) {
+            if (!isKnownMatcher(rule.getMatcher())) {
+                return false;
+            }
+        }
+        for (DependencyDescriptor dependency : md.getDependencies()) {
+            if (!(dependency instanceof DefaultDependencyDescriptor)) {
+                return false;
+            }
+            for (IncludeRule rule : dependency.getAllIncludeRules()) {
+                if (!isKnownMatcher(rule.getMatcher())) {
+                    return false;
+                }
+            }
+            for (ExcludeRule rule : dependency.getAllExcludeRules()) {
+                if (!isKnownMatcher(rule.getMatcher())) {
+                    return false;
+                }
+            }
+            if (!canRebuildConfigurationMappings(md, dependency)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The configuration mappings are written as {@link DependencyDescriptor#getDependencyConfigurations(String, String)} reports them, which has already
+     * merged in the wildcard mappings and replaced the '@' and '#' placeholders. Check that a dependency rebuilt from this view maps every configuration
+     * of the module to the same target configurations as the original, for every configuration that the mapping can be requested from.
+     */
+    private boolean canRebuildConfigurationMappings(ModuleDescriptor md, DependencyDescriptor dependency) {
+        DefaultDependencyDescriptor rebuilt = new DefaultDependencyDescriptor(md, dependency.getDependencyRevisionId(), false, false, true);
+        for (Map.Entry<String, String[]> entry : getConfigurationMappings(dependency).entrySet()) {
+            for (String dependencyConf : entry.getValue()) {
+                rebuilt.addDependencyConfiguration(entry.getKey(), dependencyConf);
+            }
+        }
+        Set<String> moduleConfs = new LinkedHashSet<String>(Arrays.asList(dependency.getModuleConfigurations()));
+        moduleConfs.addAll(Arrays.asList(md.getConfigurationsNames()));
+        for (String moduleConf : moduleConfs) {
+            for (String requestedConf : md.getConfigurationsNames()) {
+                if (!Arrays.equals(rebuilt.getDependencyConfigurations(moduleConf, requestedConf), dependency.getDependencyConfigurations(moduleConf, requestedConf))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private Map<String, String[]> getConfigurationMappings(DependencyDescriptor dependency) {
+        Map<String, String[]> mappings = new LinkedHashMap<String, String[]>();
+        for (String moduleConf : dependency.getModuleConfigurations()) {
+            mappings.put(moduleConf, dependency.getDependencyConfigurations(moduleConf, moduleConf));
+        }
+        return mappings;
+    }
+
+    private boolean isKnownMatcher(PatternMatcher matcher) {
+        return resolverStrategy.getPatternMatcher(matcher.getName()) == matcher;
+    }
+
+    public void write(Encoder encoder, ModuleDescriptor md) throws Exception {
+        writeModuleRevisionId(encoder, md.getModuleRevisionId());
+        boolean resolvedIdDiffers = !md.getResolvedModuleRevisionId().equals(md.getModuleRevisionId());
+        encoder.writeBoolean(resolvedIdDiffers);
+        if (resolvedIdDiffers) {
+            writeModuleRevisionId(encoder, md.getResolvedModuleRevisionId());
+        }
+        encoder.writeString(md.getStatus());
+        encoder.writeBoolean(md.isDefault());
+        encoder.writeBoolean(((DefaultModuleDescriptor) md).isMappingOverride());
+        writeDate(encoder, md.getPublicationDate());
+        writeDate(encoder, md.getResolvedPublicationDate());
+        encoder.writeNullableString(md.getHomePage());
+        encoder.writeNullableString(md.getDescription());
+
+        License[] licenses = md.getLicenses();
+        encoder.writeSmallInt(licenses.length);
+        for (License license : licenses) {
+            encoder.writeNullableString(license.getName());
+            encoder.writeNullableString(license.getUrl());
+        }
+
+        writeAttributes(encoder, md.getExtraAttributesNamespaces());
+
+        Map<?, ?> extraInfo = md.getExtraInfo();
+        encoder.writeSmallInt(extraInfo.size());
+        for (Map.Entry<?, ?> entry : extraInfo.entrySet()) {
+            if (entry.getKey() instanceof NamespaceId) {
+                NamespaceId id = (NamespaceId) entry.getKey();
+                encoder.writeByte(EXTRA_INFO_NAMESPACED);
+                encoder.writeNullableString(id.getNamespace());
+                encoder.writeString(id.getName());
+            } else {
+                encoder.writeByte(EXTRA_INFO_PLAIN);
+                encoder.writeString((String) entry.getKey());
+            }
+            encoder.writeNullableString((String) entry.getValue());
+        }
+
+        Configuration[] configurations = md.getConfigurations();
+        encoder.writeSmallInt(configurations.length);
+        for (Configuration configuration : configurations) {
+            encoder.writeString(configuration.getName());
+            encoder.writeString(configuration.getVisibility().toString());
+            encoder.writeNullableString(configuration.getDescription());
+            writeStrings(encoder, configuration.getExtends());
+            encoder.writeBoolean(configuration.isTransitive());
+            encoder.writeNullableString(configuration.getDeprecated());
+            writeAttributes(encoder, configuration.getQualifiedExtraAttributes());
+        }
+
+        Artifact[] artifacts = md.getAllArtifacts();
+        Map<Object, Integer> artifactIndexes = new IdentityHashMap<Object, Integer>();
+        encoder.writeSmallInt(artifacts.length);
+        for (Artifact artifact : artifacts) {
+            artifactIndexes.put(artifact, artifactIndexes.size());
+            encoder.writeString(artifact.getName());
+            encoder.writeString(artifact.getType());
+            encoder.writeString(artifact.getExt());
+            writeAttributes(encoder, artifact.getQualifiedExtraAttributes());
+            writeStrings(encoder, artifact.getConfigurations());
+        }
+        String[] configurationNames = md.getConfigurationsNames();
+        encoder.writeSmallInt(configurationNames.length);
+        for (String configurationName : configurationNames) {
+            encoder.writeString(configurationName);
+            writeIndexes(encoder, Arrays.asList(md.getArtifacts(configurationName)), artifactIndexes);
+        }
+
+        DependencyDescriptor[] dependencies = md.getDependencies();
+        encoder.writeSmallInt(dependencies.length);
+        for (DependencyDescriptor dependency : dependencies) {
+            writeDependency(encoder, dependency);
+        }
+
+        ExcludeRule[] excludeRules = md.getAllExcludeRules();
+        encoder.writeSmallInt(excludeRules.length);
+        for (ExcludeRule rule : excludeRules) {
+            writeRule(encoder, rule);
+        }
+    }
+
+    private void writeDependency(Encoder encoder, DependencyDescriptor dependency) throws Exception {
+        ModuleRevisionId revisionId = dependency.getDependencyRevisionId();
+        ModuleRevisionId dynamicId = dependency.getDynamicConstraintDependencyRevisionId();
+        writeModuleRevisionId(encoder, revisionId);
+        boolean dynamicIdDiffers = !dynamicId.equals(revisionId);
+        encoder.writeBoolean(dynamicIdDiffers);
+        if (dynamicIdDiffers) {
+            writeModuleRevisionId(encoder, dynamicId);
+        }
+        encoder.writeBoolean(dependency.isForce());
+        encoder.writeBoolean(dependency.isChanging());
+        encoder.writeBoolean(dependency.isTransitive());
+
+        Map<String, String[]> configMappings = getConfigurationMappings(dependency);
+        encoder.writeSmallInt(configMappings.size());
+        for (Map.Entry<String, String[]> entry : configMappings.entrySet()) {
+            encoder.writeString(entry.getKey());
+            writeStrings(encoder, entry.getValue());
+        }
+
+        // The parser adds each artifact and rule of a dependency to exactly the configurations that it declares, so these are not written separately
+        DependencyArtifactDescriptor[] artifacts = dependency.getAllDependencyArtifacts();
+        encoder.writeSmallInt(artifacts.length);
+        for (DependencyArtifactDescriptor artifact : artifacts) {
+            encoder.writeString(artifact.getName());
+            encoder.writeString(artifact.getType());
+            encoder.writeString(artifact.getExt());
+            encoder.writeNullableString(artifact.getUrl() == null ? null : artifact.getUrl().toExternalForm());
+            writeAttributes(encoder, artifact.getQualifiedExtraAttributes());
+            writeStrings(encoder, artifact.getConfigurations());
+        }
+
+        IncludeRule[] includeRules = dependency.getAllIncludeRules();
+        encoder.writeSmallInt(includeRules.length);
+        for (IncludeRule rule : includeRules) {
+            writeRule(encoder, rule);
+        }
+
+        ExcludeRule[] excludeRules = dependency.getAllExcludeRules();
+        encoder.writeSmallInt(excludeRules.length);
+        for (ExcludeRule rule : excludeRules) {
+            writeRule(encoder, rule);
+        }
+    }
+
+    private void writeRule(Encoder encoder, IncludeRule rule) throws Exception {
+        writeRule(encoder, rule.getId(), rule.getMatcher(), rule.getQualifiedExtraAttributes(), rule.getConfigurations());
+    }
+
+    private void writeRule(Encoder encoder, ExcludeRule rule) throws Exception {
+        writeRule(encoder, rule.getId(), rule.getMatcher(), rule.getQualifiedExtraAttributes(), rule.getConfigurations());
+    }
+
+    private void writeRule(Encoder encoder, ArtifactId id, PatternMatcher matcher, Map<?, ?> extraAttributes, String[] configurations) throws Exception {
+        encoder.writeString(id.getModuleId().getOrganisation());
+        encoder.writeString(id.getModuleId().getName());
+        encoder.writeString(id.getName());
+        encoder.writeString(id.getType());
+        encoder.writeString(id.getExt());
+        encoder.writeString(matcher.getName());
+        writeAttributes(encoder, extraAttributes);
+        writeStrings(encoder, configurations);
+    }
+
+    private void writeIndexes(Encoder encoder, Collection<?> items, Map<Object, Integer> indexes) throws Exception {
+        encoder.writeSmallInt(items.size());
+        for (Object item : items) {
+            encoder.writeSmallInt(indexes.get(item));
+        }
+    }
+
+    private void writeModuleRevisionId(Encoder encoder, ModuleRevisionId id) throws Exception {
+        encoder.writeString(id.getOrganisation());
+        encoder.writeString(id.getName());
+        encoder.writeNullableString(id.getBranch());
+        encoder.writeNullableString(id.getRevision());
+        writeAttributes(encoder, id.getQualifiedExtraAttributes());
+    }
+
+    private void writeAttributes(Encoder encoder, Map<?, ?> attributes) throws Exception {
+        encoder.writeSmallInt(attributes.size());
+        for (Map.Entry<?, ?> entry : attributes.entrySet()) {
+            encoder.writeString(entry.getKey().toString());
+            encoder.writeNullableString(entry.getValue() == null ? null : entry.getValue().toString());
+        }
+    }
+
+    private void writeStrings(Encoder encoder, String[] values) throws Exception {
+        encoder.writeSmallInt(values.length);
+        for (String value : values) {
+            encoder.writeString(value);
+        }
+    }
+
+    private void writeDate(Encoder encoder, Date date) throws Exception {
+        encoder.writeBoolean(date != null);
+        if (date != null) {
+            encoder.writeLong(date.getTime());
+        }
+    }
+
+    public ModuleDescriptor read(Decoder decoder) throws Exception {
+        DefaultModuleDescriptor md = new DefaultModuleDescriptor(XmlModuleDescriptorParser.getInstance(), null);
+        md.setModuleRevisionId(readModuleRevisionId(decoder));
+        if (decoder.readBoolean()) {
+            md.setResolvedModuleRevisionId(readModuleRevisionId(decoder));
+        }
+        md.setStatus(decoder.readString());
+        md.setDefault(decoder.readBoolean());
+        md.setMappingOverride(decoder.readBoolean());
+        Date publicationDate = readDate(decoder);
+        if (publicationDate != null) {
+            md.setPublicationDate(publicationDate);
+        }
+        Date resolvedPublicationDate = readDate(decoder);
+        if (resolvedPublicationDate != null) {
+            md.setResolvedPublicationDate(resolvedPublicationDate);
+        }
+        String homePage = decoder.readNullableString();
+        if (homePage != null) {
+            md.setHomePage(homePage);
+        }
+        String description = decoder.readNullableString();
+        if (description != null) {
+            md.setDescription(description);
+        }
+
+        int licenses = decoder.readSmallInt();
+        for (int i = 0; i < licenses; i++) {
+            md.addLicense(new License(decoder.readNullableString(), decoder.readNullableString()));
+        }
+
+        for (Map.Entry<String, String> namespace : readAttributes(decoder).entrySet()) {
+            md.addExtraAttributeNamespace(namespace.getKey(), namespace.getValue());
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<Object, String> extraInfo = md.getExtraInfo();
+        int extraInfoCount = decoder.readSmallInt();
+        for (int i = 0; i < extraInfoCount; i++) {
+            Object key;
+            if (decoder.readByte() == EXTRA_INFO_NAMESPACED) {
+                String namespace = decoder.readNullableString();
+                key = new NamespaceId(namespace, decoder.readString());
+            } else {
+                key = decoder.readString();
+            }
+            extraInfo.put(key, decoder.readNullableString());
+        }
+
+        int configurations = decoder.readSmallInt();
+        for (int i = 0; i < configurations; i++) {
+            String name = decoder.readString();
+            Configuration.Visibility visibility = Configuration.Visibility.getVisibility(decoder.readString());
+            String configurationDescription = decoder.readNullableString();
+            String[] extendsFrom = readStrings(decoder);
+            boolean transitive = decoder.readBoolean();
+            String deprecated = decoder.readNullableString();
+            Configuration configuration = new Configuration(name, visibility, configurationDescription, extendsFrom, transitive, deprecated);
+            for (Map.Entry<String, String> attribute : readAttributes(decoder).entrySet()) {
+                configuration.setExtraAttribute(attribute.getKey(), attribute.getValue());
+            }
+            md.addConfiguration(configuration);
+        }
+
+        MDArtifact[] artifacts = new MDArtifact[decoder.readSmallInt()];
+        for (int i = 0; i < artifacts.length; i++) {
+            String name = decoder.readString();
+            String type = decoder.readString();
+            String ext = decoder.readString();
+            artifacts[i] = new MDArtifact(md, name, type, ext, null, readAttributes(decoder));
+            for (String conf : readStrings(decoder)) {
+                artifacts[i].addConfiguration(conf);
+            }
+        }
+        int configurationsWithArtifacts = decoder.readSmallInt();
+        for (int i = 0; i < configurationsWithArtifacts; i++) {
+            String conf = decoder.readString();
+            int count = decoder.readSmallInt();
+            for (int j = 0; j < count; j++) {
+                md.addArtifact(conf, artifacts[decoder.readSmallInt()]);
+            }
+        }
+
+        int dependencies = decoder.readSmallInt();
+        for (int i = 0; i < dependencies; i++) {
+            md.addDependency(readDependency(decoder, md));
+        }
+
+        int excludeRules = decoder.readSmallInt();
+        for (int i = 0; i < excludeRules; i++) {
+            DefaultExcludeRule rule = readExcludeRule(decoder);
+            md.addExcludeRule(rule);
+        }
+        return md;
+    }
+
+    private DefaultDependencyDescriptor readDependency(Decoder decoder, DefaultModuleDescriptor md) throws Exception {
+        ModuleRevisionId revisionId = readModuleRevisionId(decoder);
+        ModuleRevisionId dynamicId = decoder.readBoolean() ? readModuleRevisionId(decoder) : revisionId;
+        boolean force = decoder.readBoolean();
+        boolean changing = decoder.readBoolean();
+        boolean transitive = decoder.readBoolean();
+        DefaultDependencyDescriptor dependency = new DefaultDependencyDescriptor(md, revisionId, dynamicId, force, changing, transitive);
+
+        int configMappings = decoder.readSmallInt();
+        for (int i = 0; i < configMappings; i++) {
+            String moduleConf = decoder.readString();
+            for (String dependencyConf : readStrings(decoder)) {
+                dependency.addDependencyConfiguration(moduleConf, dependencyConf);
+            }
+        }
+
+        int artifacts = decoder.readSmallInt();
+        for (int i = 0; i < artifacts; i++) {
+            String name = decoder.readString();
+            String type = decoder.readString();
+            String ext = decoder.readString();
+            String url = decoder.readNullableString();
+            DefaultDependencyArtifactDescriptor artifact = new DefaultDependencyArtifactDescriptor(dependency, name, type, ext, url == null ? null : new URL(url), readAttributes(decoder));
+            for (String conf : readStrings(decoder)) {
+                artifact.addConfiguration(conf);
+                dependency.addDependencyArtifact(conf, artifact);
+            }
+        }
+
+        int includeRules = decoder.readSmallInt();
+        for (int i = 0; i < includeRules; i++) {
+            DefaultIncludeRule rule = readIncludeRule(decoder);
+            for (String conf : rule.getConfigurations()) {
+                dependency.addIncludeRule(conf, rule);
+            }
+        }
+
+        int excludeRules = decoder.readSmallInt();
+        for (int i = 0; i < excludeRules; i++) {
+            DefaultExcludeRule rule = readExcludeRule(decoder);
+            for (String conf : rule.getConfigurations()) {
+                dependency.addExcludeRule(conf, rule);
+            }
+        }
+        return dependency;
+    }
+
+    private DefaultIncludeRule readIncludeRule(Decoder decoder) throws Exception {
+        ArtifactId id = readArtifactId(decoder);
+        PatternMatcher matcher = resolverStrategy.getPatternMatcher(decoder.readString());
+        DefaultIncludeRule rule = new DefaultIncludeRule(id, matcher, readAttributes(decoder));
+        for (String conf : readStrings(decoder)) {
+            rule.addConfiguration(conf);
+        }
+        return rule;
+    }
+
+    private DefaultExcludeRule readExcludeRule(Decoder decoder) throws Exception {
+        ArtifactId id = readArtifactId(decoder);
+        PatternMatcher matcher = resolverStrategy.getPatternMatcher(decoder.readString());
+        DefaultExcludeRule rule = new DefaultExcludeRule(id, matcher, readAttributes(decoder));
+        for (String conf : readStrings(decoder)) {
+            rule.addConfiguration(conf);
+        }
+        return rule;
+    }
+
+    private ArtifactId readArtifactId(Decoder decoder) throws Exception {
+        String org = decoder.readString();
+        String module = decoder.readString();
+        String name = decoder.readString();
+        String type = decoder.readString();
+        String ext = decoder.readString();
+        return new ArtifactId(IvyUtil.createModuleId(org, module), name, type, ext);
+    }
+
+    private ModuleRevisionId readModuleRevisionId(Decoder decoder) throws Exception {
+        String org = decoder.readString();
+        String name = decoder.readString();
+        String branch = decoder.readNullableString();
+        String revision = decoder.readNullableString();
+        return IvyUtil.createModuleRevisionId(org, name, branch, revision, readAttributes(decoder), false);
+    }
+
+    private Map<String, String> readAttributes(Decoder decoder) throws Exception {
+        int count = decoder.readSmallInt();
+        if (count == 0) {
+            return new HashMap<String, String>();
+        }
+        Map<String, String> attributes = new LinkedHashMap<String, String>(count * 2);
+        for (int i = 0; i < count; i++) {
+            attributes.put(decoder.readString(), decoder.readNullableString());
+        }
+        return attributes;
+    }
+
+    private String[] readStrings(Decoder decoder) throws Exception {
+        String[] values = new String[decoder.readSmallInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = decoder.readString();
+        }
+        return values;
+    }
+
+    private Date readDate(Decoder decoder) throws Exception {
+        return decoder.readBoolean() ? new Date(decoder.readLong()) : null;
+    }
+}
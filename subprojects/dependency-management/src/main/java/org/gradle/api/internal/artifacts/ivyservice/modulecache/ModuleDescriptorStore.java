@@ -25,29 +25,63 @@ import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModu
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.resource.local.LocallyAvailableResource;
 import org.gradle.internal.resource.local.PathKeyFileStore;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.math.BigInteger;
+import java.util.Arrays;
 
+/**
+ * Stores the descriptors of cached modules as ivy.xml files. Alongside each ivy.xml, a binary copy of the parsed descriptor is kept, which is much cheaper
+ * to read than the ivy.xml. The binary copy records the hash of the ivy.xml it was created from and is discarded when it does not match the current ivy.xml,
+ * so the ivy.xml remains the source of truth.
+ */
 public class ModuleDescriptorStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModuleDescriptorStore.class);
 
     public static final String FILE_PATH_PATTERN = "%s/%s/%s/%s/ivy.xml";
+    public static final String BINARY_FILE_PATH_PATTERN = "%s/%s/%s/%s/descriptor.bin";
+    private static final int BINARY_FORMAT_VERSION = 2;
     private final IvyXmlModuleDescriptorParser descriptorParser;
     private final PathKeyFileStore metaDataStore;
     private final IvyModuleDescriptorWriter descriptorWriter;
+    private final ModuleDescriptorSerializer descriptorSerializer;
 
-    public ModuleDescriptorStore(PathKeyFileStore metaDataStore, IvyModuleDescriptorWriter descriptorWriter, IvyXmlModuleDescriptorParser ivyXmlModuleDescriptorParser) {
+    public ModuleDescriptorStore(PathKeyFileStore metaDataStore, IvyModuleDescriptorWriter descriptorWriter, IvyXmlModuleDescriptorParser ivyXmlModuleDescriptorParser,
+                                 ModuleDescriptorSerializer descriptorSerializer) {
         this.metaDataStore = metaDataStore;
         this.descriptorWriter = descriptorWriter;
         this.descriptorParser = ivyXmlModuleDescriptorParser;
+        this.descriptorSerializer = descriptorSerializer;
     }
 
-    public ModuleDescriptor getModuleDescriptor(ModuleComponentRepository repository, ModuleComponentIdentifier moduleComponentIdentifier) {
+    /**
+     * Returns the cached descriptor of the given module, or null when there is none.
+     *
+     * @param descriptorHash The hash of the cached ivy.xml, as recorded when it was written. May be null, in which case the ivy.xml is always parsed.
+     */
+    public ModuleDescriptor getModuleDescriptor(ModuleComponentRepository repository, ModuleComponentIdentifier moduleComponentIdentifier, BigInteger descriptorHash) {
         String filePath = getFilePath(repository, moduleComponentIdentifier);
         final LocallyAvailableResource resource = metaDataStore.get(filePath);
-        if (resource != null) {
+        if (resource == null) {
+            return null;
+        }
+        if (descriptorHash == null) {
             return parseModuleDescriptorFile(resource.getFile());
         }
-        return null;
+        String binaryFilePath = getBinaryFilePath(repository, moduleComponentIdentifier);
+        ModuleDescriptor descriptor = readBinaryDescriptor(binaryFilePath, descriptorHash);
+        if (descriptor == null) {
+            descriptor = parseModuleDescriptorFile(resource.getFile());
+            writeBinaryDescriptor(binaryFilePath, descriptor, descriptorHash);
+        }
+        return descriptor;
     }
 
     public LocallyAvailableResource putModuleDescriptor(ModuleComponentRepository repository, ModuleComponentIdentifier moduleComponentIdentifier, final ModuleDescriptor moduleDescriptor) {
@@ -63,6 +97,58 @@ public class ModuleDescriptorStore {
         });
     }
 
+    private ModuleDescriptor readBinaryDescriptor(String binaryFilePath, BigInteger descriptorHash) {
+        LocallyAvailableResource resource = metaDataStore.get(binaryFilePath);
+        if (resource == null) {
+            return null;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(resource.getFile()));
+            try {
+                if (!isCurrent(decoder, descriptorHash)) {
+                    return null;
+                }
+                return descriptorSerializer.read(decoder);
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug(String.format("Could not read binary module descriptor %s. Parsing ivy.xml instead.", resource.getFile()), e);
+            return null;
+        }
+    }
+
+    private boolean isCurrent(Decoder decoder, BigInteger descriptorHash) throws Exception {
+        return decoder.readSmallInt() == BINARY_FORMAT_VERSION && Arrays.equals(decoder.readBinary(), descriptorHash.toByteArray());
+    }
+
+    private void writeBinaryDescriptor(String binaryFilePath, final ModuleDescriptor descriptor, final BigInteger descriptorHash) {
+        if (!descriptorSerializer.canSerialize(descriptor)) {
+            return;
+        }
+        try {
+            metaDataStore.add(binaryFilePath, new Action<File>() {
+                public void execute(File binaryFile) {
+                    try {
+                        KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(binaryFile));
+                        try {
+                            encoder.writeSmallInt(BINARY_FORMAT_VERSION);
+                            encoder.writeBinary(descriptorHash.toByteArray());
+                            descriptorSerializer.write(encoder, descriptor);
+                        } finally {
+                            encoder.close();
+                        }
+                    } catch (Exception e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            // The ivy.xml will simply be parsed again next time
+            LOGGER.debug("Could not write binary module descriptor " + binaryFilePath, e);
+        }
+    }
+
     private ModuleDescriptor parseModuleDescriptorFile(File moduleDescriptorFile) {
         DescriptorParseContext parserSettings = new CachedModuleDescriptorParseContext();
         return descriptorParser.parseMetaData(parserSettings, moduleDescriptorFile, false).getDescriptor();
@@ -71,4 +157,8 @@ public class ModuleDescriptorStore {
     private String getFilePath(ModuleComponentRepository repository, ModuleComponentIdentifier moduleComponentIdentifier) {
         return String.format(FILE_PATH_PATTERN, moduleComponentIdentifier.getGroup(), moduleComponentIdentifier.getModule(), moduleComponentIdentifier.getVersion(), repository.getId());
     }
+
+    private String getBinaryFilePath(ModuleComponentRepository repository, ModuleComponentIdentifier moduleComponentIdentifier) {
+        return String.format(BINARY_FILE_PATH_PATTERN, moduleComponentIdentifier.getGroup(), moduleComponentIdentifier.getModule(), moduleComponentIdentifier.getVersion(), repository.getId());
+    }
 }
\ No newline at end of file
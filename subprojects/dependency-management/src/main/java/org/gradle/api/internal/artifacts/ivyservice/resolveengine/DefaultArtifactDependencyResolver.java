@@ -18,30 +18,44 @@ package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
 import com.google.common.collect.Lists;
 import org.apache.ivy.Ivy;
 import org.gradle.api.Action;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
 import org.gradle.api.internal.artifacts.ArtifactDependencyResolver;
 import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
 import org.gradle.api.internal.artifacts.ResolveContext;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
 import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
 import org.gradle.api.internal.artifacts.ivyservice.ContextualArtifactResolver;
 import org.gradle.api.internal.artifacts.ivyservice.IvyContextManager;
 import org.gradle.api.internal.artifacts.ivyservice.clientmodule.ClientModuleResolver;
 import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionResolver;
+import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.DefaultResolvedModuleVersion;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ComponentResolvers;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ErrorHandlingArtifactResolver;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ResolveIvyFactory;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ResolverProviderFactory;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionComparator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.DependencyDescriptorFactory;
 import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.StrictConflictResolution;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvedArtifactsGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.CompositeDependencyArtifactsVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.CompositeDependencyGraphVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphRecorder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RecordedDependencyGraph;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.ConflictHandler;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultConflictHandler;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache;
 import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.internal.component.model.ComponentResolveMetaData;
 import org.gradle.internal.resolve.resolver.ArtifactResolver;
 import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
 import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
@@ -51,6 +65,7 @@ import org.gradle.internal.service.ServiceRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class DefaultArtifactDependencyResolver implements ArtifactDependencyResolver {
@@ -61,15 +76,22 @@ public class DefaultArtifactDependencyResolver implements ArtifactDependencyReso
     private final CacheLockingManager cacheLockingManager;
     private final IvyContextManager ivyContextManager;
     private final VersionComparator versionComparator;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final ResolvedGraphFingerprint graphFingerprint;
+    private final ResolvedGraphCache graphCache;
 
     public DefaultArtifactDependencyResolver(ServiceRegistry serviceRegistry, ResolveIvyFactory ivyFactory, DependencyDescriptorFactory dependencyDescriptorFactory,
-                                             CacheLockingManager cacheLockingManager, IvyContextManager ivyContextManager, VersionComparator versionComparator) {
+                                             CacheLockingManager cacheLockingManager, IvyContextManager ivyContextManager, VersionComparator versionComparator,
+                                             VersionSelectorScheme versionSelectorScheme, ResolvedGraphCache graphCache) {
         this.serviceRegistry = serviceRegistry;
         this.ivyFactory = ivyFactory;
         this.dependencyDescriptorFactory = dependencyDescriptorFactory;
         this.cacheLockingManager = cacheLockingManager;
         this.ivyContextManager = ivyContextManager;
         this.versionComparator = versionComparator;
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.graphFingerprint = new ResolvedGraphFingerprint(versionSelectorScheme);
+        this.graphCache = graphCache;
     }
 
     @Override
@@ -79,24 +101,88 @@ public class DefaultArtifactDependencyResolver implements ArtifactDependencyReso
             public void execute(Ivy ivy) {
                 LOGGER.debug("Resolving {}", resolveContext);
                 ComponentResolvers componentSource = createComponentSource(resolveContext, repositories, metadataHandler);
-                DependencyGraphBuilder builder = createDependencyGraphBuilder(componentSource, resolveContext.getResolutionStrategy(), metadataHandler);
-
                 ArtifactResolver artifactResolver = new ErrorHandlingArtifactResolver(new ContextualArtifactResolver(cacheLockingManager, ivyContextManager, componentSource.getArtifactResolver()));
-                DependencyGraphVisitor artifactsGraphVisitor = new ResolvedArtifactsGraphVisitor(artifactsVisitor, artifactResolver);
+                ComponentResolveMetaData rootComponent = resolveContext.toRootComponentMetaData();
+                ModuleReplacementsData moduleReplacements = metadataHandler.getModuleMetadataProcessor().getModuleReplacements();
+
+                String graphKey = null;
+                List<Dependency> firstLevelDependencies = null;
+                if (resolveContext instanceof ConfigurationInternal) {
+                    ConfigurationInternal configuration = (ConfigurationInternal) resolveContext;
+                    graphKey = graphFingerprint.calculate(configuration, rootComponent, repositories, metadataHandler);
+                    firstLevelDependencies = new ArrayList<Dependency>(configuration.getAllDependencies());
+                }
+                if (graphKey != null && replayCachedGraph(graphKey, resolveContext, firstLevelDependencies, repositories, moduleReplacements, artifactResolver, graphVisitor, artifactsVisitor)) {
+                    return;
+                }
+
+                DependencyGraphBuilder builder = createDependencyGraphBuilder(componentSource, resolveContext.getResolutionStrategy(), metadataHandler, rootComponent);
+                DependencyGraphRecorder recorder = null;
+                DependencyGraphVisitor artifactsGraphVisitor;
+                if (graphKey != null) {
+                    recorder = new DependencyGraphRecorder(firstLevelDependencies, moduleReplacements, versionSelectorScheme);
+                    artifactsGraphVisitor = new CompositeDependencyGraphVisitor(recorder, new ResolvedArtifactsGraphVisitor(new CompositeDependencyArtifactsVisitor(artifactsVisitor, recorder), artifactResolver));
+                } else {
+                    artifactsGraphVisitor = new ResolvedArtifactsGraphVisitor(artifactsVisitor, artifactResolver);
+                }
 
                 // Resolve the dependency graph
                 builder.resolve(resolveContext, new CompositeDependencyGraphVisitor(graphVisitor, artifactsGraphVisitor));
+
+                if (recorder != null && recorder.getRecording() != null) {
+                    graphCache.store(graphKey, recorder.getRecording());
+                }
             }
         });
     }
 
-    private DependencyGraphBuilder createDependencyGraphBuilder(ComponentResolvers componentSource, ResolutionStrategyInternal resolutionStrategy, GlobalDependencyResolutionRules metadataHandler) {
+    /**
+     * Visits the graph recorded for the given key, if there is one and the meta-data for all of its components is still up-to-date.
+     *
+     * @return true when the recorded graph has been visited.
+     */
+    private boolean replayCachedGraph(String graphKey, ResolveContext resolveContext, List<Dependency> firstLevelDependencies, List<? extends ResolutionAwareRepository> repositories,
+                                      ModuleReplacementsData moduleReplacements, ArtifactResolver artifactResolver, DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+        ResolvedGraphCache.CachedGraph cachedGraph = graphCache.get(graphKey);
+        if (cachedGraph == null) {
+            return false;
+        }
+        RecordedDependencyGraph graph;
+        try {
+            graph = RecordedDependencyGraph.read(cachedGraph.getGraph(), firstLevelDependencies, artifactResolver);
+        } catch (RuntimeException e) {
+            LOGGER.debug(String.format("Could not read cached dependency graph for %s.", resolveContext), e);
+            graphCache.remove(graphKey);
+            return false;
+        }
+        if (graph == null) {
+            return false;
+        }
+
+        CachePolicy cachePolicy = resolveContext.getResolutionStrategy().getCachePolicy();
+        long ageMillis = graphCache.getAgeMillis(cachedGraph);
+        for (ModuleComponentIdentifier component : graph.getComponents()) {
+            // When there are several repositories, a module that was missing from an earlier repository may since have been published there
+            if (cachePolicy.mustRefreshModule(component, new DefaultResolvedModuleVersion(DefaultModuleVersionIdentifier.newId(component)), ageMillis)
+                || (repositories.size() > 1 && cachePolicy.mustRefreshMissingModule(component, ageMillis))
+                || moduleReplacements.getReplacementFor(DefaultModuleIdentifier.newId(component.getGroup(), component.getModule())) != null) {
+                return false;
+            }
+        }
+
+        LOGGER.debug("Using cached dependency graph for {}", resolveContext);
+        graph.visit(graphVisitor, artifactsVisitor);
+        return true;
+    }
+
+    private DependencyGraphBuilder createDependencyGraphBuilder(ComponentResolvers componentSource, ResolutionStrategyInternal resolutionStrategy, GlobalDependencyResolutionRules metadataHandler,
+                                                               ComponentResolveMetaData rootComponent) {
 
         DependencyToComponentIdResolver componentIdResolver = new DependencySubstitutionResolver(componentSource.getComponentIdResolver(), resolutionStrategy.getDependencySubstitutionRule());
         ComponentMetaDataResolver componentMetaDataResolver = new ClientModuleResolver(componentSource.getComponentResolver(), dependencyDescriptorFactory);
 
         DependencyToConfigurationResolver dependencyToConfigurationResolver = new DefaultDependencyToConfigurationResolver();
-        ResolveContextToComponentResolver requestResolver = createResolveContextConverter();
+        ResolveContextToComponentResolver requestResolver = createResolveContextConverter(rootComponent);
         ConflictHandler conflictHandler = createConflictHandler(resolutionStrategy, metadataHandler);
 
         return new DependencyGraphBuilder(componentIdResolver, componentMetaDataResolver, requestResolver, dependencyToConfigurationResolver, conflictHandler);
@@ -115,8 +201,8 @@ public class DefaultArtifactDependencyResolver implements ArtifactDependencyReso
         return new ComponentResolversChain(resolvers);
     }
 
-    private ResolveContextToComponentResolver createResolveContextConverter() {
-        return new DefaultResolveContextToComponentResolver();
+    private ResolveContextToComponentResolver createResolveContextConverter(ComponentResolveMetaData rootComponent) {
+        return new DefaultResolveContextToComponentResolver(rootComponent);
     }
 
     private ConflictHandler createConflictHandler(ResolutionStrategyInternal resolutionStrategy, GlobalDependencyResolutionRules metadataHandler) {
@@ -135,9 +221,15 @@ public class DefaultArtifactDependencyResolver implements ArtifactDependencyReso
     }
 
     private static class DefaultResolveContextToComponentResolver implements ResolveContextToComponentResolver {
+        private final ComponentResolveMetaData rootComponent;
+
+        private DefaultResolveContextToComponentResolver(ComponentResolveMetaData rootComponent) {
+            this.rootComponent = rootComponent;
+        }
+
         @Override
         public void resolve(ResolveContext resolveContext, BuildableComponentResolveResult result) {
-            result.resolved(resolveContext.toRootComponentMetaData());
+            result.resolved(rootComponent);
         }
     }
 
@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.apache.ivy.core.module.descriptor.ExcludeRule;
 import org.apache.ivy.core.module.id.ArtifactId;
 import org.apache.ivy.core.module.id.ModuleId;
@@ -37,10 +39,16 @@ import java.util.*;
  * <p>Also, this class attempts to be quite accurate in determining if 2 specs will match exactly the same set of modules. {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphBuilder} uses this to avoid traversing the
  * dependency graph of a particular version that has already been traversed when a new incoming edge is added (eg a newly discovered dependency) and when an incoming edge is removed (eg a conflict
  * evicts a version that depends on the given version). </p>
+ *
+ * <p>Composite specs are interned, and the result of merging a spec with another spec is remembered by the spec. This way, the many edges that share the same
+ * exclude rules also share their merged specs, and repeated merges of the same specs are cheap. Exact match exclude rules are matched using hash lookups.</p>
  */
 public abstract class DefaultModuleResolutionFilter implements ModuleResolutionFilter {
     private static final AcceptAllSpec ALL_SPEC = new AcceptAllSpec();
     private static final String WILDCARD = "*";
+    private static final Interner<DefaultModuleResolutionFilter> INTERNER = Interners.newWeakInterner();
+
+    private MergeCache mergeCache;
 
     /**
      * Returns a spec that accepts everything.
@@ -56,7 +64,7 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
         if (excludeRules.length == 0) {
             return ALL_SPEC;
         }
-        return new ExcludeRuleBackedSpec(Arrays.asList(excludeRules));
+        return intern(new ExcludeRuleBackedSpec(Arrays.asList(excludeRules)));
     }
 
     /**
@@ -66,13 +74,20 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
         if (excludeRules.isEmpty()) {
             return ALL_SPEC;
         }
-        return new ExcludeRuleBackedSpec(excludeRules);
+        return intern(new ExcludeRuleBackedSpec(excludeRules));
     }
 
     private static boolean isWildcard(String attribute) {
         return WILDCARD.equals(attribute);
     }
 
+    private static DefaultModuleResolutionFilter intern(DefaultModuleResolutionFilter spec) {
+        if (spec == ALL_SPEC) {
+            return spec;
+        }
+        return INTERNER.intern(spec);
+    }
+
     public ModuleResolutionFilter union(ModuleResolutionFilter other) {
         if (other == this) {
             return this;
@@ -83,9 +98,20 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
         if (this == ALL_SPEC) {
             return this;
         }
+        DefaultModuleResolutionFilter otherSpec = (DefaultModuleResolutionFilter) other;
+        MergeCache mergeCache = getMergeCache();
+        DefaultModuleResolutionFilter union = mergeCache.getUnion(otherSpec);
+        if (union == null) {
+            union = intern(calculateUnion(otherSpec));
+            mergeCache.putUnion(otherSpec, union);
+        }
+        return union;
+    }
+
+    private DefaultModuleResolutionFilter calculateUnion(DefaultModuleResolutionFilter other) {
         List<DefaultModuleResolutionFilter> specs = new ArrayList<DefaultModuleResolutionFilter>();
         unpackUnion(specs);
-        ((DefaultModuleResolutionFilter) other).unpackUnion(specs);
+        other.unpackUnion(specs);
         for (int i = 0; i < specs.size();) {
             DefaultModuleResolutionFilter spec = specs.get(i);
             DefaultModuleResolutionFilter merged = null;
@@ -163,17 +189,62 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
             return other;
         }
 
-        List<DefaultModuleResolutionFilter> specs = new ArrayList<DefaultModuleResolutionFilter>();
-        unpackIntersection(specs);
-        ((DefaultModuleResolutionFilter) other).unpackIntersection(specs);
-
-        return new ExcludeRuleBackedSpec(specs);
+        DefaultModuleResolutionFilter otherSpec = (DefaultModuleResolutionFilter) other;
+        MergeCache mergeCache = getMergeCache();
+        DefaultModuleResolutionFilter intersection = mergeCache.getIntersection(otherSpec);
+        if (intersection == null) {
+            List<DefaultModuleResolutionFilter> specs = new ArrayList<DefaultModuleResolutionFilter>();
+            unpackIntersection(specs);
+            otherSpec.unpackIntersection(specs);
+            intersection = intern(new ExcludeRuleBackedSpec(specs));
+            mergeCache.putIntersection(otherSpec, intersection);
+        }
+        return intersection;
     }
 
     protected void unpackIntersection(Collection<DefaultModuleResolutionFilter> specs) {
         specs.add(this);
     }
 
+    private synchronized MergeCache getMergeCache() {
+        if (mergeCache == null) {
+            mergeCache = new MergeCache();
+        }
+        return mergeCache;
+    }
+
+    /**
+     * Remembers the results of merging a spec with other specs. Specs may be shared by concurrent resolves, so access is synchronized.
+     */
+    private static class MergeCache {
+        private static final int MAX_ENTRIES = 100;
+        private final Map<DefaultModuleResolutionFilter, DefaultModuleResolutionFilter> unions = new HashMap<DefaultModuleResolutionFilter, DefaultModuleResolutionFilter>();
+        private final Map<DefaultModuleResolutionFilter, DefaultModuleResolutionFilter> intersections = new HashMap<DefaultModuleResolutionFilter, DefaultModuleResolutionFilter>();
+
+        synchronized DefaultModuleResolutionFilter getUnion(DefaultModuleResolutionFilter other) {
+            return unions.get(other);
+        }
+
+        synchronized void putUnion(DefaultModuleResolutionFilter other, DefaultModuleResolutionFilter result) {
+            put(unions, other, result);
+        }
+
+        synchronized DefaultModuleResolutionFilter getIntersection(DefaultModuleResolutionFilter other) {
+            return intersections.get(other);
+        }
+
+        synchronized void putIntersection(DefaultModuleResolutionFilter other, DefaultModuleResolutionFilter result) {
+            put(intersections, other, result);
+        }
+
+        private static void put(Map<DefaultModuleResolutionFilter, DefaultModuleResolutionFilter> results, DefaultModuleResolutionFilter other, DefaultModuleResolutionFilter result) {
+            if (results.size() >= MAX_ENTRIES) {
+                results.clear();
+            }
+            results.put(other, result);
+        }
+    }
+
     private static class AcceptAllSpec extends DefaultModuleResolutionFilter {
         @Override
         public String toString() {
@@ -200,6 +271,8 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
     }
 
     private static abstract class CompositeSpec extends DefaultModuleResolutionFilter {
+        private int hashCode;
+
         abstract Collection<DefaultModuleResolutionFilter> getSpecs();
 
         @Override
@@ -230,12 +303,16 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
                 return false;
             }
             CompositeSpec other = (CompositeSpec) obj;
-            return getSpecs().equals(other.getSpecs());
+            return hashCode() == other.hashCode() && getSpecs().equals(other.getSpecs());
         }
 
         @Override
         public int hashCode() {
-            return getSpecs().hashCode();
+            // Composite specs are not changed once constructed
+            if (hashCode == 0) {
+                hashCode = getSpecs().hashCode();
+            }
+            return hashCode;
         }
 
         /**
@@ -260,6 +337,14 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
 
     private static class ExcludeRuleBackedSpec extends CompositeSpec {
         private final Set<DefaultModuleResolutionFilter> excludeSpecs = new HashSet<DefaultModuleResolutionFilter>();
+        // Exact match exclude specs, indexed for lookup
+        private final Set<ModuleIdentifier> excludedModules = new HashSet<ModuleIdentifier>();
+        private final Set<String> excludedModuleNames = new HashSet<String>();
+        private final Set<String> excludedGroups = new HashSet<String>();
+        private boolean excludesAllModules;
+        // The remaining specs that may not accept some module or artifact
+        private final List<DefaultModuleResolutionFilter> moduleSpecs = new ArrayList<DefaultModuleResolutionFilter>();
+        private final List<DefaultModuleResolutionFilter> artifactSpecs = new ArrayList<DefaultModuleResolutionFilter>();
 
         private ExcludeRuleBackedSpec(Iterable<ExcludeRule> excludeRules) {
             for (ExcludeRule rule : excludeRules) {
@@ -289,10 +374,31 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
                     excludeSpecs.add(new ArtifactExcludeSpec(rule));
                 }
             }
+            index();
         }
 
         public ExcludeRuleBackedSpec(Collection<DefaultModuleResolutionFilter> specs) {
             this.excludeSpecs.addAll(specs);
+            index();
+        }
+
+        private void index() {
+            for (DefaultModuleResolutionFilter excludeSpec : excludeSpecs) {
+                if (excludeSpec instanceof ModuleIdExcludeSpec) {
+                    excludedModules.add(((ModuleIdExcludeSpec) excludeSpec).moduleId);
+                } else if (excludeSpec instanceof ModuleNameExcludeSpec) {
+                    excludedModuleNames.add(((ModuleNameExcludeSpec) excludeSpec).module);
+                } else if (excludeSpec instanceof GroupNameExcludeSpec) {
+                    excludedGroups.add(((GroupNameExcludeSpec) excludeSpec).group);
+                } else if (excludeSpec instanceof ExcludeAllModulesSpec) {
+                    excludesAllModules = true;
+                } else if (!excludeSpec.acceptsAllModules()) {
+                    moduleSpecs.add(excludeSpec);
+                }
+                if (!excludeSpec.acceptsAllArtifacts()) {
+                    artifactSpecs.add(excludeSpec);
+                }
+            }
         }
 
         @Override
@@ -307,16 +413,23 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
 
         @Override
         protected boolean acceptsAllModules() {
-            for (DefaultModuleResolutionFilter excludeSpec : excludeSpecs) {
-                if (!excludeSpec.acceptsAllModules()) {
-                    return false;
-                }
-            }
-            return true;
+            return !excludesAllModules && excludedModules.isEmpty() && excludedModuleNames.isEmpty() && excludedGroups.isEmpty() && moduleSpecs.isEmpty();
         }
 
         public boolean acceptModule(ModuleIdentifier element) {
-            for (DefaultModuleResolutionFilter excludeSpec : excludeSpecs) {
+            if (excludesAllModules) {
+                return false;
+            }
+            if (!excludedModules.isEmpty() && excludedModules.contains(element)) {
+                return false;
+            }
+            if (!excludedModuleNames.isEmpty() && excludedModuleNames.contains(element.getName())) {
+                return false;
+            }
+            if (!excludedGroups.isEmpty() && excludedGroups.contains(element.getGroup())) {
+                return false;
+            }
+            for (DefaultModuleResolutionFilter excludeSpec : moduleSpecs) {
                 if (!excludeSpec.acceptModule(element)) {
                     return false;
                 }
@@ -325,7 +438,7 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
         }
 
         public boolean acceptArtifact(ModuleIdentifier module, IvyArtifactName artifact) {
-            for (DefaultModuleResolutionFilter excludeSpec : excludeSpecs) {
+            for (DefaultModuleResolutionFilter excludeSpec : artifactSpecs) {
                 if (!excludeSpec.acceptArtifact(module, artifact)) {
                     return false;
                 }
@@ -334,13 +447,7 @@ public abstract class DefaultModuleResolutionFilter implements ModuleResolutionF
         }
 
         public boolean acceptsAllArtifacts() {
-            for (DefaultModuleResolutionFilter spec : excludeSpecs) {
-                if (!spec.acceptsAllArtifacts()) {
-                    return false;
-                }
-            }
-
-            return true;
+            return artifactSpecs.isEmpty();
         }
 
         @Override
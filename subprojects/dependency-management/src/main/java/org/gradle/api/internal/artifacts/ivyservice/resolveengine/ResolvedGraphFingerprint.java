@@ -0,0 +1,206 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.ivy.core.module.descriptor.ExcludeRule;
+import org.apache.ivy.core.module.id.ArtifactId;
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.ClientModule;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConfiguredModuleComponentRepository;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.StrictConflictResolution;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.internal.component.local.model.DslOriginDependencyMetaData;
+import org.gradle.internal.component.model.ComponentResolveMetaData;
+import org.gradle.internal.component.model.ConfigurationMetaData;
+import org.gradle.internal.component.model.DependencyMetaData;
+import org.gradle.internal.component.model.IvyArtifactName;
+import org.gradle.util.GradleVersion;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calculates a key for the inputs to the resolution of a configuration, for use with a {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache}.
+ *
+ * <p>A key is only calculated when the result of resolution is fully determined by the declared dependencies, the repositories, the resolution strategy and the
+ * cached meta-data for fixed versions of modules. No key is calculated when the configuration has project, client module, dynamic or changing dependencies, when the
+ * dependency substitution, component selection or component meta-data rules are used, or when one of the repositories is local, as the meta-data for a local
+ * repository is never cached.</p>
+ */
+public class ResolvedGraphFingerprint {
+    private static final int FORMAT_VERSION = 1;
+
+    private final VersionSelectorScheme versionSelectorScheme;
+
+    public ResolvedGraphFingerprint(VersionSelectorScheme versionSelectorScheme) {
+        this.versionSelectorScheme = versionSelectorScheme;
+    }
+
+    /**
+     * Returns the key for the given configuration, or null when the resolution of the configuration cannot be cached.
+     */
+    @Nullable
+    public String calculate(ConfigurationInternal configuration, ComponentResolveMetaData rootComponent, List<? extends ResolutionAwareRepository> repositories, GlobalDependencyResolutionRules metadataHandler) {
+        ResolutionStrategyInternal resolutionStrategy = configuration.getResolutionStrategy();
+        if (repositories.isEmpty()
+            || resolutionStrategy.getDependencySubstitution().hasRules()
+            || !resolutionStrategy.getComponentSelection().getRules().isEmpty()
+            || metadataHandler.getComponentMetadataProcessor().hasRules()) {
+            return null;
+        }
+        ConfigurationMetaData rootConfiguration = rootComponent.getConfiguration(configuration.getName());
+        if (rootConfiguration == null) {
+            return null;
+        }
+
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putInt(FORMAT_VERSION);
+        putString(hasher, GradleVersion.current().getVersion());
+        putString(hasher, configuration.getPath());
+
+        putString(hasher, rootComponent.getComponentId().getDisplayName());
+        putString(hasher, rootComponent.getId().getGroup());
+        putString(hasher, rootComponent.getId().getName());
+        putString(hasher, rootComponent.getId().getVersion());
+        putString(hasher, rootComponent.getStatus());
+
+        putString(hasher, rootConfiguration.getName());
+        hasher.putBoolean(rootConfiguration.isTransitive());
+        Set<String> hierarchy = rootConfiguration.getHierarchy();
+        hasher.putInt(hierarchy.size());
+        for (String name : hierarchy) {
+            putString(hasher, name);
+        }
+        putExcludeRules(hasher, rootConfiguration.getExcludeRules().toArray(new ExcludeRule[0]));
+
+        List<DependencyMetaData> dependencies = rootConfiguration.getDependencies();
+        hasher.putInt(dependencies.size());
+        for (DependencyMetaData dependency : dependencies) {
+            if (!putDependency(hasher, dependency, rootConfiguration)) {
+                return null;
+            }
+        }
+
+        hasher.putBoolean(resolutionStrategy.getConflictResolution() instanceof StrictConflictResolution);
+        Set<ModuleVersionSelector> forcedModules = resolutionStrategy.getForcedModules();
+        hasher.putInt(forcedModules.size());
+        for (ModuleVersionSelector forcedModule : forcedModules) {
+            putString(hasher, forcedModule.getGroup());
+            putString(hasher, forcedModule.getName());
+            putString(hasher, forcedModule.getVersion());
+        }
+
+        hasher.putInt(repositories.size());
+        for (ResolutionAwareRepository repository : repositories) {
+            ConfiguredModuleComponentRepository resolver = repository.createResolver();
+            if (resolver.isLocal()) {
+                return null;
+            }
+            putString(hasher, resolver.getId());
+        }
+
+        return hasher.hash().toString();
+    }
+
+    private boolean putDependency(Hasher hasher, DependencyMetaData dependency, ConfigurationMetaData fromConfiguration) {
+        if (!(dependency instanceof DslOriginDependencyMetaData)) {
+            return false;
+        }
+        ModuleDependency source = ((DslOriginDependencyMetaData) dependency).getSource();
+        if (!(source instanceof ExternalModuleDependency) || source instanceof ClientModule) {
+            return false;
+        }
+        if (!(dependency.getSelector() instanceof ModuleComponentSelector) || dependency.isChanging()) {
+            return false;
+        }
+        ModuleComponentSelector selector = (ModuleComponentSelector) dependency.getSelector();
+        if (selector.getVersion() == null || versionSelectorScheme.parseSelector(selector.getVersion()).isDynamic()) {
+            return false;
+        }
+
+        putString(hasher, selector.getGroup());
+        putString(hasher, selector.getModule());
+        putString(hasher, selector.getVersion());
+        hasher.putBoolean(dependency.isTransitive());
+        hasher.putBoolean(dependency.isForce());
+
+        String[] moduleConfigurations = dependency.getModuleConfigurations();
+        hasher.putInt(moduleConfigurations.length);
+        for (String moduleConfiguration : moduleConfigurations) {
+            putString(hasher, moduleConfiguration);
+            putStrings(hasher, dependency.getDependencyConfigurations(moduleConfiguration, fromConfiguration.getName()));
+        }
+
+        Set<IvyArtifactName> artifacts = dependency.getArtifacts();
+        hasher.putInt(artifacts.size());
+        for (IvyArtifactName artifact : artifacts) {
+            putString(hasher, artifact.getName());
+            putString(hasher, artifact.getType());
+            putString(hasher, artifact.getExtension());
+            putString(hasher, artifact.getClassifier());
+            hasher.putInt(artifact.getAttributes().size());
+            for (Map.Entry<String, String> attribute : artifact.getAttributes().entrySet()) {
+                putString(hasher, attribute.getKey());
+                putString(hasher, attribute.getValue());
+            }
+        }
+
+        putExcludeRules(hasher, dependency.getExcludeRules(fromConfiguration.getHierarchy()));
+        return true;
+    }
+
+    private static void putExcludeRules(Hasher hasher, ExcludeRule[] excludeRules) {
+        hasher.putInt(excludeRules.length);
+        for (ExcludeRule excludeRule : excludeRules) {
+            ArtifactId id = excludeRule.getId();
+            putString(hasher, id.getModuleId().getOrganisation());
+            putString(hasher, id.getModuleId().getName());
+            putString(hasher, id.getName());
+            putString(hasher, id.getType());
+            putString(hasher, id.getExt());
+            putString(hasher, excludeRule.getMatcher().getName());
+            putStrings(hasher, excludeRule.getConfigurations());
+        }
+    }
+
+    private static void putStrings(Hasher hasher, String[] values) {
+        hasher.putInt(values.length);
+        for (String value : values) {
+            putString(hasher, value);
+        }
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        if (value == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(value.length());
+            hasher.putUnencodedChars(value);
+        }
+    }
+}
@@ -58,6 +58,27 @@ public class DefaultArtifactSet implements ArtifactSet {
         return id;
     }
 
+    public ModuleVersionIdentifier getOwnerId() {
+        return moduleVersionIdentifier;
+    }
+
+    public ModuleSource getModuleSource() {
+        return moduleSource;
+    }
+
+    /**
+     * Returns the meta-data for those artifacts of this set that are accepted by the selector.
+     */
+    public Set<ComponentArtifactMetaData> getAcceptedArtifacts() {
+        Set<ComponentArtifactMetaData> acceptedArtifacts = new LinkedHashSet<ComponentArtifactMetaData>(artifacts.size());
+        for (ComponentArtifactMetaData artifact : artifacts) {
+            if (selector.acceptArtifact(moduleVersionIdentifier.getModule(), artifact.getName())) {
+                acceptedArtifacts.add(artifact);
+            }
+        }
+        return acceptedArtifacts;
+    }
+
     public Set<ResolvedArtifact> getArtifacts() {
         Set<ResolvedArtifact> resolvedArtifacts = new LinkedHashSet<ResolvedArtifact>(artifacts.size());
         for (ComponentArtifactMetaData artifact : artifacts) {
@@ -189,6 +189,7 @@ public class DependencyGraphBuilder {
         private final ModuleResolutionFilter resolutionFilter;
         private final Set<ConfigurationNode> targetConfigurations = new LinkedHashSet<ConfigurationNode>();
         private ModuleVersionResolveState targetModuleRevision;
+        private ModuleResolutionFilter edgeFilter;
 
         public DependencyEdge(ConfigurationNode from, DependencyMetaData dependencyMetaData, ModuleResolutionFilter resolutionFilter, ResolveState resolveState) {
             this.from = from;
@@ -267,9 +268,13 @@ public class DependencyGraphBuilder {
         }
 
         public ModuleResolutionFilter getSelector() {
-            Set<String> hierarchy = from.metaData.getHierarchy();
-            ModuleResolutionFilter selector = DefaultModuleResolutionFilter.excludeAny(dependencyMetaData.getExcludeRules(hierarchy));
-            return selector.intersect(resolutionFilter);
+            // The filter depends only on the final state of this edge, so calculate it once
+            if (edgeFilter == null) {
+                Set<String> hierarchy = from.metaData.getHierarchy();
+                ModuleResolutionFilter selector = DefaultModuleResolutionFilter.excludeAny(dependencyMetaData.getExcludeRules(hierarchy));
+                edgeFilter = selector.intersect(resolutionFilter);
+            }
+            return edgeFilter;
         }
 
         public ComponentSelector getRequested() {
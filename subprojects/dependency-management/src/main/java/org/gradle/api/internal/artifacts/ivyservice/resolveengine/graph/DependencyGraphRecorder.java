@@ -0,0 +1,244 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.internal.artifacts.ModuleVersionIdentifierSerializer;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifierSerializer;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentSelectorSerializer;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ModuleVersionSelectionSerializer;
+import org.gradle.api.internal.artifacts.metadata.ModuleVersionArtifactIdentifierSerializer;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactMetaData;
+import org.gradle.internal.component.model.ComponentArtifactMetaData;
+import org.gradle.internal.component.model.ConfigurationMetaData;
+import org.gradle.internal.component.model.ModuleSource;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+
+/**
+ * Records a resolved dependency graph, along with the artifacts selected for each of its edges, so that the graph can later be replayed by a
+ * {@link RecordedDependencyGraph} without being resolved again. The recording uses the same encoding as the binary stores that hold the
+ * resolution results.
+ *
+ * <p>Only graphs made up entirely of external modules with fixed versions, which were resolved without failures, are recorded.</p>
+ */
+public class DependencyGraphRecorder implements DependencyGraphVisitor, DependencyArtifactsVisitor {
+    private final List<? extends Dependency> firstLevelDependencies;
+    private final ModuleReplacementsData moduleReplacements;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final List<DependencyGraphNode> nodes = new ArrayList<DependencyGraphNode>();
+    private final Map<ResolvedConfigurationIdentifier, Integer> nodeIndexes = new HashMap<ResolvedConfigurationIdentifier, Integer>();
+    private final List<ArtifactsVisited> artifacts = new ArrayList<ArtifactsVisited>();
+    private DependencyGraphNode root;
+    private boolean recordable = true;
+    private byte[] recording;
+
+    public DependencyGraphRecorder(List<? extends Dependency> firstLevelDependencies, ModuleReplacementsData moduleReplacements, VersionSelectorScheme versionSelectorScheme) {
+        this.firstLevelDependencies = firstLevelDependencies;
+        this.moduleReplacements = moduleReplacements;
+        this.versionSelectorScheme = versionSelectorScheme;
+    }
+
+    /**
+     * Returns the recorded graph, or null when the graph could not be recorded.
+     */
+    @Nullable
+    public byte[] getRecording() {
+        return recording;
+    }
+
+    public void start(DependencyGraphNode root) {
+        this.root = root;
+    }
+
+    public void visitNode(DependencyGraphNode node) {
+        nodeIndexes.put(node.getNodeId(), nodes.size());
+        nodes.add(node);
+        if (node != root) {
+            ConfigurationMetaData metaData = node.getMetaData();
+            if (!(node.getComponentId() instanceof ModuleComponentIdentifier) || metaData == null || metaData.getComponent().isChanging()
+                || moduleReplacements.getReplacementFor(node.toId().getModule()) != null) {
+                recordable = false;
+            }
+        }
+        for (DependencyGraphEdge edge : node.getOutgoingEdges()) {
+            if (edge.getFailure() != null || !(edge.getRequested() instanceof ModuleComponentSelector)) {
+                recordable = false;
+                continue;
+            }
+            String version = ((ModuleComponentSelector) edge.getRequested()).getVersion();
+            if (version == null || versionSelectorScheme.parseSelector(version).isDynamic()) {
+                recordable = false;
+            }
+            if (firstLevelDependencyIndex(edge) < 0) {
+                recordable = false;
+            }
+        }
+    }
+
+    public void visitEdge(DependencyGraphNode node) {
+    }
+
+    public void finish(DependencyGraphNode root) {
+    }
+
+    public void visitArtifacts(ResolvedConfigurationIdentifier parent, ResolvedConfigurationIdentifier child, ArtifactSet artifactSet) {
+        if (!(artifactSet instanceof DefaultArtifactSet)) {
+            recordable = false;
+            return;
+        }
+        for (ComponentArtifactMetaData artifact : ((DefaultArtifactSet) artifactSet).getAcceptedArtifacts()) {
+            if (artifact.getClass() != DefaultModuleComponentArtifactMetaData.class) {
+                recordable = false;
+                return;
+            }
+        }
+        artifacts.add(new ArtifactsVisited(parent, child, (DefaultArtifactSet) artifactSet));
+    }
+
+    public void finishArtifacts() {
+        if (recordable) {
+            try {
+                recording = encode();
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        nodes.clear();
+        nodeIndexes.clear();
+        artifacts.clear();
+        root = null;
+    }
+
+    /**
+     * Returns the index of the first level dependency that the given edge was created for, 0 for an edge that was not created for a first level dependency,
+     * or -1 when the edge does not match a first level dependency.
+     */
+    private int firstLevelDependencyIndex(DependencyGraphEdge edge) {
+        ModuleDependency moduleDependency = edge.getModuleDependency();
+        if (edge.getFrom() != root) {
+            return moduleDependency == null ? 0 : -1;
+        }
+        for (int i = 0; i < firstLevelDependencies.size(); i++) {
+            if (firstLevelDependencies.get(i) == moduleDependency) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Encodes the visited graph, or returns null when an edge of the graph does not start at a visited node.
+     */
+    @Nullable
+    private byte[] encode() throws Exception {
+        ResolvedConfigurationIdentifierSerializer nodeIdSerializer = new ResolvedConfigurationIdentifierSerializer();
+        ModuleVersionSelectionSerializer selectionSerializer = new ModuleVersionSelectionSerializer();
+        ComponentSelectorSerializer selectorSerializer = new ComponentSelectorSerializer();
+        ModuleVersionIdentifierSerializer idSerializer = new ModuleVersionIdentifierSerializer();
+        ModuleVersionArtifactIdentifierSerializer artifactIdSerializer = new ModuleVersionArtifactIdentifierSerializer();
+        Serializer<ModuleSource> moduleSourceSerializer = new DefaultSerializer<ModuleSource>(ModuleSource.class.getClassLoader());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+
+        // Nodes and their outgoing edges
+        Map<DependencyGraphEdge, Integer> edgeIndexes = new IdentityHashMap<DependencyGraphEdge, Integer>();
+        encoder.writeSmallInt(nodes.size());
+        encoder.writeSmallInt(nodeIndexes.get(root.getNodeId()));
+        for (DependencyGraphNode node : nodes) {
+            nodeIdSerializer.write(encoder, node.getNodeId());
+            selectionSerializer.write(encoder, node.getSelection());
+            encoder.writeSmallInt(node.getOutgoingEdges().size());
+            for (DependencyGraphEdge edge : node.getOutgoingEdges()) {
+                edgeIndexes.put(edge, edgeIndexes.size());
+                selectorSerializer.write(encoder, edge.getRequested());
+                idSerializer.write(encoder, edge.getSelected());
+                encoder.writeSmallInt(firstLevelDependencyIndex(edge));
+            }
+        }
+
+        // Incoming edges, as references to the outgoing edges written above
+        for (DependencyGraphNode node : nodes) {
+            encoder.writeSmallInt(node.getIncomingEdges().size());
+            for (DependencyGraphEdge edge : node.getIncomingEdges()) {
+                Integer edgeIndex = edgeIndexes.get(edge);
+                if (edgeIndex == null) {
+                    return null;
+                }
+                encoder.writeSmallInt(edgeIndex);
+            }
+        }
+
+        // Artifacts, in the order they were visited
+        Set<Long> writtenArtifactSets = new HashSet<Long>();
+        encoder.writeSmallInt(artifacts.size());
+        for (ArtifactsVisited visited : artifacts) {
+            encoder.writeSmallInt(nodeIndexes.get(visited.parent));
+            encoder.writeSmallInt(nodeIndexes.get(visited.child));
+            encoder.writeLong(visited.artifactSet.getId());
+            boolean firstVisit = writtenArtifactSets.add(visited.artifactSet.getId());
+            encoder.writeBoolean(firstVisit);
+            if (firstVisit) {
+                writeArtifactSet(encoder, visited.artifactSet, idSerializer, artifactIdSerializer, moduleSourceSerializer);
+            }
+        }
+
+        encoder.flush();
+        return outputStream.toByteArray();
+    }
+
+    private void writeArtifactSet(Encoder encoder, DefaultArtifactSet artifactSet, ModuleVersionIdentifierSerializer idSerializer,
+                                  ModuleVersionArtifactIdentifierSerializer artifactIdSerializer, Serializer<ModuleSource> moduleSourceSerializer) throws Exception {
+        idSerializer.write(encoder, artifactSet.getOwnerId());
+        moduleSourceSerializer.write(encoder, artifactSet.getModuleSource());
+        Set<ComponentArtifactMetaData> acceptedArtifacts = artifactSet.getAcceptedArtifacts();
+        encoder.writeSmallInt(acceptedArtifacts.size());
+        for (ComponentArtifactMetaData artifact : acceptedArtifacts) {
+            artifactIdSerializer.write(encoder, ((DefaultModuleComponentArtifactMetaData) artifact).getId());
+        }
+    }
+
+    private static class ArtifactsVisited {
+        final ResolvedConfigurationIdentifier parent;
+        final ResolvedConfigurationIdentifier child;
+        final DefaultArtifactSet artifactSet;
+
+        ArtifactsVisited(ResolvedConfigurationIdentifier parent, ResolvedConfigurationIdentifier child, DefaultArtifactSet artifactSet) {
+            this.parent = parent;
+            this.child = child;
+            this.artifactSet = artifactSet;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph;
+
+import com.google.common.base.Objects;
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.component.ComponentArtifactIdentifier;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.ComponentSelectionReason;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector;
+import org.gradle.api.internal.artifacts.ModuleVersionIdentifierSerializer;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifierSerializer;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.DefaultModuleResolutionFilter;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleResolutionFilter;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ComponentSelectorSerializer;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ModuleVersionSelection;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ModuleVersionSelectionSerializer;
+import org.gradle.api.internal.artifacts.metadata.ModuleVersionArtifactIdentifierSerializer;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactMetaData;
+import org.gradle.internal.component.model.ComponentArtifactMetaData;
+import org.gradle.internal.component.model.ConfigurationMetaData;
+import org.gradle.internal.component.model.ModuleSource;
+import org.gradle.internal.resolve.ModuleVersionResolveException;
+import org.gradle.internal.resolve.resolver.ArtifactResolver;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+
+/**
+ * A dependency graph recorded by a {@link DependencyGraphRecorder}, which can be visited in the same way as the graph assembled by a {@link DependencyGraphBuilder}.
+ *
+ * <p>The nodes of a recorded graph do not carry any meta-data. The artifacts of each edge are replayed as recorded, and their files are resolved on demand.</p>
+ */
+public class RecordedDependencyGraph {
+    private final List<RecordedNode> nodes;
+    private final RecordedNode root;
+    private final List<RecordedArtifacts> artifacts;
+
+    private RecordedDependencyGraph(List<RecordedNode> nodes, RecordedNode root, List<RecordedArtifacts> artifacts) {
+        this.nodes = nodes;
+        this.root = root;
+        this.artifacts = artifacts;
+    }
+
+    /**
+     * Reads a graph recorded by a {@link DependencyGraphRecorder}. Returns null when the recorded graph does not match the given first level dependencies.
+     */
+    @Nullable
+    public static RecordedDependencyGraph read(byte[] recording, List<? extends Dependency> firstLevelDependencies, ArtifactResolver artifactResolver) {
+        try {
+            return read(new KryoBackedDecoder(new ByteArrayInputStream(recording)), firstLevelDependencies, artifactResolver);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static RecordedDependencyGraph read(Decoder decoder, List<? extends Dependency> firstLevelDependencies, ArtifactResolver artifactResolver) throws Exception {
+        ResolvedConfigurationIdentifierSerializer nodeIdSerializer = new ResolvedConfigurationIdentifierSerializer();
+        ModuleVersionSelectionSerializer selectionSerializer = new ModuleVersionSelectionSerializer();
+        ComponentSelectorSerializer selectorSerializer = new ComponentSelectorSerializer();
+        ModuleVersionIdentifierSerializer idSerializer = new ModuleVersionIdentifierSerializer();
+        ModuleVersionArtifactIdentifierSerializer artifactIdSerializer = new ModuleVersionArtifactIdentifierSerializer();
+        Serializer<ModuleSource> moduleSourceSerializer = new DefaultSerializer<ModuleSource>(ModuleSource.class.getClassLoader());
+
+        int nodeCount = decoder.readSmallInt();
+        int rootIndex = decoder.readSmallInt();
+        List<RecordedNode> nodes = new ArrayList<RecordedNode>(nodeCount);
+        List<RecordedEdge> edges = new ArrayList<RecordedEdge>();
+        for (int i = 0; i < nodeCount; i++) {
+            RecordedNode node = new RecordedNode(nodeIdSerializer.read(decoder), selectionSerializer.read(decoder));
+            nodes.add(node);
+            int edgeCount = decoder.readSmallInt();
+            for (int j = 0; j < edgeCount; j++) {
+                ComponentSelector requested = selectorSerializer.read(decoder);
+                ModuleVersionIdentifier selected = idSerializer.read(decoder);
+                int firstLevelDependencyIndex = decoder.readSmallInt();
+                ModuleDependency moduleDependency = null;
+                if (firstLevelDependencyIndex > 0) {
+                    moduleDependency = firstLevelDependency(firstLevelDependencies, firstLevelDependencyIndex - 1, (ModuleComponentSelector) requested);
+                    if (moduleDependency == null) {
+                        return null;
+                    }
+                }
+                RecordedEdge edge = new RecordedEdge(node, (ModuleComponentSelector) requested, selected, moduleDependency);
+                node.outgoingEdges.add(edge);
+                edges.add(edge);
+            }
+        }
+        for (RecordedNode node : nodes) {
+            int edgeCount = decoder.readSmallInt();
+            for (int j = 0; j < edgeCount; j++) {
+                node.incomingEdges.add(edges.get(decoder.readSmallInt()));
+            }
+        }
+
+        ModuleResolutionFilter acceptAll = DefaultModuleResolutionFilter.all();
+        Map<ComponentArtifactIdentifier, ResolvedArtifact> allResolvedArtifacts = new HashMap<ComponentArtifactIdentifier, ResolvedArtifact>();
+        Map<Long, ArtifactSet> artifactSets = new HashMap<Long, ArtifactSet>();
+        int artifactsCount = decoder.readSmallInt();
+        List<RecordedArtifacts> artifacts = new ArrayList<RecordedArtifacts>(artifactsCount);
+        int previousChildIndex = 0;
+        for (int i = 0; i < artifactsCount; i++) {
+            RecordedNode parent = nodes.get(decoder.readSmallInt());
+            int childIndex = decoder.readSmallInt();
+            if (childIndex < previousChildIndex) {
+                // Artifacts are replayed along with the edges of each node, so must have been visited in node order
+                return null;
+            }
+            previousChildIndex = childIndex;
+            long id = decoder.readLong();
+            if (decoder.readBoolean()) {
+                ModuleVersionIdentifier ownerId = idSerializer.read(decoder);
+                ModuleSource moduleSource = moduleSourceSerializer.read(decoder);
+                int count = decoder.readSmallInt();
+                Set<ComponentArtifactMetaData> artifactMetaData = new LinkedHashSet<ComponentArtifactMetaData>(count);
+                for (int j = 0; j < count; j++) {
+                    artifactMetaData.add(new DefaultModuleComponentArtifactMetaData(artifactIdSerializer.read(decoder)));
+                }
+                artifactSets.put(id, new DefaultArtifactSet(ownerId, moduleSource, acceptAll, artifactMetaData, artifactResolver, allResolvedArtifacts, id));
+            }
+            artifacts.add(new RecordedArtifacts(parent, childIndex, artifactSets.get(id)));
+        }
+
+        return new RecordedDependencyGraph(nodes, nodes.get(rootIndex), artifacts);
+    }
+
+    @Nullable
+    private static ModuleDependency firstLevelDependency(List<? extends Dependency> firstLevelDependencies, int index, ModuleComponentSelector requested) {
+        if (index >= firstLevelDependencies.size() || !(firstLevelDependencies.get(index) instanceof ModuleDependency)) {
+            return null;
+        }
+        ModuleDependency dependency = (ModuleDependency) firstLevelDependencies.get(index);
+        if (!Objects.equal(dependency.getGroup(), requested.getGroup())
+            || !Objects.equal(dependency.getName(), requested.getModule())
+            || !Objects.equal(dependency.getVersion(), requested.getVersion())) {
+            return null;
+        }
+        return dependency;
+    }
+
+    /**
+     * Returns the identifiers of the components in this graph, other than the root component.
+     */
+    public Set<ModuleComponentIdentifier> getComponents() {
+        Set<ModuleComponentIdentifier> components = new LinkedHashSet<ModuleComponentIdentifier>();
+        for (RecordedNode node : nodes) {
+            if (node != root) {
+                components.add((ModuleComponentIdentifier) node.getComponentId());
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Visits this graph in the same order as it was visited when it was recorded.
+     */
+    public void visit(DependencyGraphVisitor graphVisitor, DependencyArtifactsVisitor artifactsVisitor) {
+        graphVisitor.start(root);
+        for (RecordedNode node : nodes) {
+            graphVisitor.visitNode(node);
+        }
+        int nextArtifacts = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            RecordedNode node = nodes.get(i);
+            graphVisitor.visitEdge(node);
+            while (nextArtifacts < artifacts.size() && artifacts.get(nextArtifacts).childIndex == i) {
+                RecordedArtifacts recordedArtifacts = artifacts.get(nextArtifacts++);
+                artifactsVisitor.visitArtifacts(recordedArtifacts.parent.getNodeId(), node.getNodeId(), recordedArtifacts.artifactSet);
+            }
+        }
+        graphVisitor.finish(root);
+        artifactsVisitor.finishArtifacts();
+    }
+
+    private static class RecordedNode implements DependencyGraphNode {
+        private final ResolvedConfigurationIdentifier id;
+        private final ModuleVersionSelection selection;
+        private final Set<DependencyGraphEdge> incomingEdges = new LinkedHashSet<DependencyGraphEdge>();
+        private final Set<DependencyGraphEdge> outgoingEdges = new LinkedHashSet<DependencyGraphEdge>();
+
+        RecordedNode(ResolvedConfigurationIdentifier id, ModuleVersionSelection selection) {
+            this.id = id;
+            this.selection = selection;
+        }
+
+        @Override
+        public String toString() {
+            return id.toString();
+        }
+
+        public ResolvedConfigurationIdentifier getNodeId() {
+            return id;
+        }
+
+        public ModuleVersionIdentifier toId() {
+            return selection.getId();
+        }
+
+        public ComponentIdentifier getComponentId() {
+            return selection.getComponentId();
+        }
+
+        public ModuleVersionSelection getSelection() {
+            return selection;
+        }
+
+        public Set<DependencyGraphEdge> getIncomingEdges() {
+            return incomingEdges;
+        }
+
+        public Set<DependencyGraphEdge> getOutgoingEdges() {
+            return outgoingEdges;
+        }
+
+        /**
+         * The meta-data is not recorded, and is never required as a recorded graph only contains external modules.
+         */
+        public ConfigurationMetaData getMetaData() {
+            return null;
+        }
+    }
+
+    private static class RecordedEdge implements DependencyGraphEdge {
+        private final RecordedNode from;
+        private final ModuleComponentSelector requested;
+        private final ModuleVersionIdentifier selected;
+        private final ModuleDependency moduleDependency;
+
+        RecordedEdge(RecordedNode from, ModuleComponentSelector requested, ModuleVersionIdentifier selected, @Nullable ModuleDependency moduleDependency) {
+            this.from = from;
+            this.requested = requested;
+            this.selected = selected;
+            this.moduleDependency = moduleDependency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s -> %s", from, requested);
+        }
+
+        public DependencyGraphNode getFrom() {
+            return from;
+        }
+
+        public ModuleVersionSelector getRequestedModuleVersion() {
+            return DefaultModuleVersionSelector.newSelector(requested.getGroup(), requested.getModule(), requested.getVersion());
+        }
+
+        public ModuleResolutionFilter getSelector() {
+            throw new UnsupportedOperationException("The selector is not available for a recorded edge.");
+        }
+
+        public Set<ComponentArtifactMetaData> getArtifacts(ConfigurationMetaData metaData) {
+            throw new UnsupportedOperationException("The artifacts are not available for a recorded edge.");
+        }
+
+        public ModuleDependency getModuleDependency() {
+            return moduleDependency;
+        }
+
+        public ComponentSelector getRequested() {
+            return requested;
+        }
+
+        public ModuleVersionResolveException getFailure() {
+            return null;
+        }
+
+        public ModuleVersionIdentifier getSelected() {
+            return selected;
+        }
+
+        public ComponentSelectionReason getReason() {
+            return null;
+        }
+    }
+
+    private static class RecordedArtifacts {
+        final RecordedNode parent;
+        final int childIndex;
+        final ArtifactSet artifactSet;
+
+        RecordedArtifacts(RecordedNode parent, int childIndex, ArtifactSet artifactSet) {
+            this.parent = parent;
+            this.childIndex = childIndex;
+            this.artifactSet = artifactSet;
+        }
+    }
+}
@@ -33,7 +33,6 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
-import static com.google.common.collect.Sets.newHashSet;
 import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
 
 //TODO SF unit coverage
@@ -128,7 +127,7 @@ public class TransientConfigurationResultsBuilder {
                 switch (type) {
                     case NEW_DEP:
                         id = resolvedConfigurationIdentifierSerializer.read(decoder);
-                        allDependencies.put(id, new DefaultResolvedDependency(id.getId(), id.getConfiguration()));
+                        allDependencies.put(id, new DefaultResolvedDependency(id));
                         break;
                     case ROOT:
                         id = resolvedConfigurationIdentifierSerializer.read(decoder);
@@ -159,7 +158,7 @@ public class TransientConfigurationResultsBuilder {
                             throw new IllegalStateException(String.format("Unexpected child dependency id %s. Seen ids: %s", childId, allDependencies.keySet()));
                         }
                         parent.addChild(child);
-                        child.addParentSpecificArtifacts(parent, newHashSet(mapping.getArtifacts(decoder.readLong())));
+                        child.addParentSpecificArtifacts(parent, mapping.getArtifacts(decoder.readLong()));
                         break;
                     default:
                         throw new IOException("Unknown value type read from stream: " + type);
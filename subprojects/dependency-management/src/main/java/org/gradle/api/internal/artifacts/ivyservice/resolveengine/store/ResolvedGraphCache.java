@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.util.BuildCommencedTimeProvider;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * A persistent cache of recorded dependency graphs, keyed by a {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.ResolvedGraphFingerprint}.
+ * The graphs are kept alongside the module meta-data, and so are discarded along with it.
+ */
+public class ResolvedGraphCache {
+    private final BuildCommencedTimeProvider timeProvider;
+    private final CacheLockingManager cacheLockingManager;
+    private PersistentIndexedCache<String, CachedGraph> cache;
+
+    public ResolvedGraphCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager) {
+        this.timeProvider = timeProvider;
+        this.cacheLockingManager = cacheLockingManager;
+    }
+
+    private PersistentIndexedCache<String, CachedGraph> getCache() {
+        if (cache == null) {
+            cache = initCache();
+        }
+        return cache;
+    }
+
+    private PersistentIndexedCache<String, CachedGraph> initCache() {
+        return cacheLockingManager.createCache("resolved-graphs", STRING_SERIALIZER, new CachedGraphSerializer());
+    }
+
+    @Nullable
+    public CachedGraph get(String key) {
+        return getCache().get(key);
+    }
+
+    public void store(String key, byte[] graph) {
+        getCache().put(key, new CachedGraph(graph, timeProvider.getCurrentTime()));
+    }
+
+    public void remove(String key) {
+        getCache().remove(key);
+    }
+
+    public long getAgeMillis(CachedGraph graph) {
+        return timeProvider.getCurrentTime() - graph.createTimestamp;
+    }
+
+    public static class CachedGraph {
+        private final byte[] graph;
+        private final long createTimestamp;
+
+        private CachedGraph(byte[] graph, long createTimestamp) {
+            this.graph = graph;
+            this.createTimestamp = createTimestamp;
+        }
+
+        public byte[] getGraph() {
+            return graph;
+        }
+    }
+
+    private static class CachedGraphSerializer implements Serializer<CachedGraph> {
+        public CachedGraph read(Decoder decoder) throws Exception {
+            long createTimestamp = decoder.readLong();
+            byte[] graph = decoder.readBinary();
+            return new CachedGraph(graph, createTimestamp);
+        }
+
+        public void write(Encoder encoder, CachedGraph value) throws Exception {
+            encoder.writeLong(value.createTimestamp);
+            encoder.writeBinary(value.graph);
+        }
+    }
+}
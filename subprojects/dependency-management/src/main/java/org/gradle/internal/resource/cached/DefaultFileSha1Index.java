@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.cached;
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.resource.local.DefaultLocallyAvailableResource;
+import org.gradle.internal.resource.local.FileSha1Index;
+import org.gradle.internal.resource.local.LocallyAvailableResource;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.io.File;
+
+/**
+ * A persistent {@link FileSha1Index}, stored in the artifact cache and shared by all builds that use it.
+ *
+ * <p>The index is maintained incrementally: a file is added when it is hashed as a candidate for reuse, or when it is stored in the filestore.
+ * An entry is only trusted while the length and last modified time of the file are unchanged. Any file that is reused is hashed again
+ * as it is copied, so a stale entry can cause a wasted copy but never a wrong result.</p>
+ */
+public class DefaultFileSha1Index implements FileSha1Index {
+    private static final String HASHES_BY_FILE = "file-sha1";
+    private static final String FILES_BY_HASH = "sha1-file";
+
+    private final CacheLockingManager cacheLockingManager;
+    private PersistentIndexedCache<String, FileHash> hashesByFile;
+    private PersistentIndexedCache<String, String> filesByHash;
+
+    public DefaultFileSha1Index(CacheLockingManager cacheLockingManager) {
+        this.cacheLockingManager = cacheLockingManager;
+    }
+
+    private PersistentIndexedCache<String, FileHash> getHashesByFile() {
+        if (hashesByFile == null) {
+            hashesByFile = cacheLockingManager.createCache(HASHES_BY_FILE, BaseSerializerFactory.STRING_SERIALIZER, new FileHashSerializer());
+        }
+        return hashesByFile;
+    }
+
+    private PersistentIndexedCache<String, String> getFilesByHash() {
+        if (filesByHash == null) {
+            filesByHash = cacheLockingManager.createCache(FILES_BY_HASH, BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER);
+        }
+        return filesByHash;
+    }
+
+    public HashValue getSha1(File file) {
+        final String path = file.getAbsolutePath();
+        long length = file.length();
+        long lastModified = file.lastModified();
+        FileHash indexed = cacheLockingManager.useCache(String.format("lookup SHA-1 of %s", path), new Factory<FileHash>() {
+            public FileHash create() {
+                return getHashesByFile().get(path);
+            }
+        });
+        if (indexed != null && indexed.isUnchanged(length, lastModified)) {
+            return indexed.sha1;
+        }
+
+        // Hash without holding the cache lock. The length and modification time were read beforehand, so a file that changes while it is being
+        // hashed is hashed again next time
+        HashValue sha1 = HashUtil.sha1(file);
+        store(path, new FileHash(length, lastModified, sha1));
+        return sha1;
+    }
+
+    public void record(File file, HashValue sha1) {
+        if (file.isFile()) {
+            store(file.getAbsolutePath(), new FileHash(file.length(), file.lastModified(), sha1));
+        }
+    }
+
+    private void store(final String path, final FileHash fileHash) {
+        cacheLockingManager.useCache(String.format("store SHA-1 of %s", path), new Runnable() {
+            public void run() {
+                getHashesByFile().put(path, fileHash);
+                getFilesByHash().put(fileHash.sha1.asHexString(), path);
+            }
+        });
+    }
+
+    public LocallyAvailableResource findByHashValue(final HashValue sha1) {
+        final String key = sha1.asHexString();
+        return cacheLockingManager.useCache(String.format("lookup file with SHA-1 %s", key), new Factory<LocallyAvailableResource>() {
+            public LocallyAvailableResource create() {
+                String path = getFilesByHash().get(key);
+                if (path == null) {
+                    return null;
+                }
+                File file = new File(path);
+                FileHash indexed = getHashesByFile().get(path);
+                if (indexed == null || !indexed.sha1.equals(sha1) || !file.isFile() || !indexed.isUnchanged(file.length(), file.lastModified())) {
+                    getFilesByHash().remove(key);
+                    return null;
+                }
+                return new DefaultLocallyAvailableResource(file, sha1);
+            }
+        });
+    }
+
+    private static class FileHash {
+        private final long length;
+        private final long lastModified;
+        private final HashValue sha1;
+
+        private FileHash(long length, long lastModified, HashValue sha1) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.sha1 = sha1;
+        }
+
+        boolean isUnchanged(long length, long lastModified) {
+            return this.length == length && this.lastModified == lastModified;
+        }
+    }
+
+    private static class FileHashSerializer implements Serializer<FileHash> {
+        public FileHash read(Decoder decoder) throws Exception {
+            long length = decoder.readSmallLong();
+            long lastModified = decoder.readLong();
+            HashValue sha1 = new HashValue(decoder.readBinary());
+            return new FileHash(length, lastModified, sha1);
+        }
+
+        public void write(Encoder encoder, FileHash value) throws Exception {
+            encoder.writeSmallLong(value.length);
+            encoder.writeLong(value.lastModified);
+            encoder.writeBinary(value.sha1.asByteArray());
+        }
+    }
+}
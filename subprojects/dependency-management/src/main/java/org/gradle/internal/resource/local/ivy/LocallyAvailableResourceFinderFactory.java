@@ -23,6 +23,8 @@ import org.gradle.api.internal.artifacts.repositories.resolver.IvyResourcePatter
 import org.gradle.api.internal.artifacts.repositories.resolver.M2ResourcePattern;
 import org.gradle.api.internal.artifacts.repositories.resolver.ResourcePattern;
 import org.gradle.internal.resource.local.CompositeLocallyAvailableResourceFinder;
+import org.gradle.internal.resource.local.FileSha1Index;
+import org.gradle.internal.resource.local.IndexedLocallyAvailableResourceFinder;
 import org.gradle.internal.resource.local.LocallyAvailableResourceCandidates;
 import org.gradle.internal.resource.local.LocallyAvailableResourceFinder;
 import org.gradle.internal.resource.local.LocallyAvailableResourceFinderSearchableFileStoreAdapter;
@@ -43,12 +45,14 @@ public class LocallyAvailableResourceFinderFactory implements Factory<LocallyAva
     private final File rootCachesDirectory;
     private final LocalMavenRepositoryLocator localMavenRepositoryLocator;
     private final FileStoreSearcher<ModuleComponentArtifactMetaData> fileStore;
+    private final FileSha1Index sha1Index;
 
     public LocallyAvailableResourceFinderFactory(
-            ArtifactCacheMetaData artifactCacheMetaData, LocalMavenRepositoryLocator localMavenRepositoryLocator, FileStoreSearcher<ModuleComponentArtifactMetaData> fileStore) {
+            ArtifactCacheMetaData artifactCacheMetaData, LocalMavenRepositoryLocator localMavenRepositoryLocator, FileStoreSearcher<ModuleComponentArtifactMetaData> fileStore, FileSha1Index sha1Index) {
         this.rootCachesDirectory = artifactCacheMetaData.getCacheDir().getParentFile();
         this.localMavenRepositoryLocator = localMavenRepositoryLocator;
         this.fileStore = fileStore;
+        this.sha1Index = sha1Index;
     }
 
     public LocallyAvailableResourceFinder<ModuleComponentArtifactMetaData> create() {
@@ -57,7 +61,7 @@ public class LocallyAvailableResourceFinderFactory implements Factory<LocallyAva
         // Order is important here, because they will be searched in that order
 
         // The current filestore
-        finders.add(new LocallyAvailableResourceFinderSearchableFileStoreAdapter<ModuleComponentArtifactMetaData>(fileStore));
+        finders.add(new LocallyAvailableResourceFinderSearchableFileStoreAdapter<ModuleComponentArtifactMetaData>(fileStore, sha1Index));
 
         // 1.8
         addForPattern(finders, "artifacts-26/filestore/[organisation]/[module](/[branch])/[revision]/[type]/*/[artifact]-[revision](-[classifier])(.[ext])");
@@ -99,7 +103,9 @@ public class LocallyAvailableResourceFinderFactory implements Factory<LocallyAva
         } catch (CannotLocateLocalMavenRepositoryException ex) {
             finders.add(new NoMavenLocalRepositoryResourceFinder(ex));
         }
-        return new CompositeLocallyAvailableResourceFinder<ModuleComponentArtifactMetaData>(finders);
+
+        // Any file that has been hashed or downloaded before can be found by its SHA-1 without searching the locations above
+        return new IndexedLocallyAvailableResourceFinder<ModuleComponentArtifactMetaData>(new CompositeLocallyAvailableResourceFinder<ModuleComponentArtifactMetaData>(finders), sha1Index);
     }
 
     private void addForPattern(List<LocallyAvailableResourceFinder<ModuleComponentArtifactMetaData>> finders, String pattern) {
@@ -123,7 +129,7 @@ public class LocallyAvailableResourceFinderFactory implements Factory<LocallyAva
 
     private void addForPattern(List<LocallyAvailableResourceFinder<ModuleComponentArtifactMetaData>> finders, File baseDir, ResourcePattern pattern) {
         if (baseDir.exists()) {
-            finders.add(new PatternBasedLocallyAvailableResourceFinder(baseDir, pattern));
+            finders.add(new PatternBasedLocallyAvailableResourceFinder(baseDir, pattern, sha1Index));
         }
     }
 
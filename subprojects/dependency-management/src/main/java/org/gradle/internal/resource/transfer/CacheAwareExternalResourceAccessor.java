@@ -32,6 +32,8 @@ public interface CacheAwareExternalResourceAccessor {
     interface ResourceFileStore {
         /**
          * Called when a resource is to be cached. Should *move* the given file into the appropriate location and return a handle to the file.
+         *
+         * <p>This method is called without holding the artifact cache lock, and possibly by several threads or processes at the same time.
          */
         LocallyAvailableResource moveIntoCache(File downloadedResource);
     }
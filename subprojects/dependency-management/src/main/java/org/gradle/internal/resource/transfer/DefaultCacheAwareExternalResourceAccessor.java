@@ -46,6 +46,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 
 public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExternalResourceAccessor {
 
@@ -56,14 +58,16 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
     private final BuildCommencedTimeProvider timeProvider;
     private final TemporaryFileProvider temporaryFileProvider;
     private final CacheLockingManager cacheLockingManager;
+    private final FileSha1Index sha1Index;
     private final ExternalResourceCachePolicy externalResourceCachePolicy = new DefaultExternalResourceCachePolicy();
 
-    public DefaultCacheAwareExternalResourceAccessor(ExternalResourceRepository delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex, BuildCommencedTimeProvider timeProvider, TemporaryFileProvider temporaryFileProvider, CacheLockingManager cacheLockingManager) {
+    public DefaultCacheAwareExternalResourceAccessor(ExternalResourceRepository delegate, CachedExternalResourceIndex<String> cachedExternalResourceIndex, BuildCommencedTimeProvider timeProvider, TemporaryFileProvider temporaryFileProvider, CacheLockingManager cacheLockingManager, FileSha1Index sha1Index) {
         this.delegate = delegate;
         this.cachedExternalResourceIndex = cachedExternalResourceIndex;
         this.timeProvider = timeProvider;
         this.temporaryFileProvider = temporaryFileProvider;
         this.cacheLockingManager = cacheLockingManager;
+        this.sha1Index = sha1Index;
     }
 
     public LocallyAvailableExternalResource getResource(final URI location, final ResourceFileStore fileStore, @Nullable LocallyAvailableResourceCandidates localCandidates) throws IOException {
@@ -166,7 +170,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
             if (!localChecksum.equals(remoteChecksum)) {
                 return null;
             }
-            return moveIntoCache(source, destination, fileStore, remoteMetaData);
+            return moveIntoCache(source, destination, fileStore, remoteMetaData, localChecksum);
         } finally {
             destination.delete();
         }
@@ -193,18 +197,20 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
             } catch (Exception e) {
                 throw ResourceException.failure(source, String.format("Failed to download resource '%s'.", source), e);
             }
-            return moveIntoCache(source, destination, fileStore, downloadAction.metaData);
+            return moveIntoCache(source, destination, fileStore, downloadAction.metaData, downloadAction.sha1);
         } finally {
             destination.delete();
         }
     }
 
-    private LocallyAvailableExternalResource moveIntoCache(final URI source, final File destination, final ResourceFileStore fileStore, final ExternalResourceMetaData metaData) {
+    private LocallyAvailableExternalResource moveIntoCache(final URI source, final File destination, final ResourceFileStore fileStore, final ExternalResourceMetaData metaData, final HashValue sha1) {
+        // The file store can be written to without holding the cache lock, only the indexes need to be updated while holding it
+        final LocallyAvailableResource cachedResource = fileStore.moveIntoCache(destination);
         return cacheLockingManager.useCache(String.format("Store %s", source), new Factory<LocallyAvailableExternalResource>() {
             public LocallyAvailableExternalResource create() {
-                LocallyAvailableResource cachedResource = fileStore.moveIntoCache(destination);
                 File fileInFileStore = cachedResource.getFile();
                 cachedExternalResourceIndex.store(source.toString(), fileInFileStore, metaData);
+                sha1Index.record(fileInFileStore, sha1);
                 return new DefaultLocallyAvailableExternalResource(source, cachedResource, metaData);
             }
         });
@@ -217,6 +223,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
     private static class DownloadToFileAction implements ExternalResource.ContentAction<Object> {
         private final File destination;
         private ExternalResourceMetaData metaData;
+        private HashValue sha1;
 
         public DownloadToFileAction(File destination) {
             this.destination = destination;
@@ -225,12 +232,15 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         @Override
         public Object execute(InputStream inputStream, ExternalResourceMetaData metaData) throws IOException {
             this.metaData = metaData;
+            // Hash the content as it is downloaded, so that the file can be indexed without reading it again
+            MessageDigest digest = HashUtil.createMessageDigest("SHA1");
             FileOutputStream outputStream = new FileOutputStream(destination);
             try {
-                IOUtils.copyLarge(inputStream, outputStream);
+                IOUtils.copyLarge(new DigestInputStream(inputStream, digest), outputStream);
             } finally {
                 outputStream.close();
             }
+            this.sha1 = new HashValue(digest.digest());
             return null;
         }
     }
@@ -80,6 +80,30 @@ class DefaultResolvedDependencySpec extends Specification {
         dependency.getParentArtifacts(parent) as List == [artifact1, artifact2, artifact3, artifact4, artifact5, artifact6, artifact7]
     }
 
+    def "leaf dependency has no children or artifacts"() {
+        expect:
+        dependency.name == "group:module:version"
+        dependency.toString() == "group:module:version;config"
+        dependency.children.empty
+        dependency.parents.empty
+        dependency.allModuleArtifacts.empty
+    }
+
+    def "tracks parents and children"() {
+        def child = new DefaultResolvedDependency(DefaultModuleVersionIdentifier.newId("group", "child", "version"), "config")
+        ResolvedArtifact artifact = artifact("child", null, "jar", "jar")
+
+        when:
+        dependency.addChild(child)
+        child.addParentSpecificArtifacts(dependency, [artifact] as Set)
+
+        then:
+        dependency.children == [child] as Set
+        child.parents == [dependency] as Set
+        child.getParentArtifacts(dependency) == [artifact] as Set
+        dependency.allModuleArtifacts == [artifact] as Set
+    }
+
     def artifact(String name, String classifier, String type, String extension) {
         ResolvedArtifact artifact = Mock()
         _ * artifact.toString() >> "$name-$classifier-$type.$extension"
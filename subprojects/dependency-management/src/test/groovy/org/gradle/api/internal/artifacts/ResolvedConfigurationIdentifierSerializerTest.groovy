@@ -34,4 +34,17 @@ class ResolvedConfigurationIdentifierSerializerTest extends SerializerSpec {
         out.configuration == "conf"
         out.id == id
     }
+
+    def "shares identifiers that are read more than once"() {
+        def id = newId("org", "foo", "2.0")
+
+        when:
+        def first = serialize(new ResolvedConfigurationIdentifier(id, "conf"), s)
+        def second = serialize(new ResolvedConfigurationIdentifier(newId("org", "foo", "2.0"), "conf"), s)
+        def other = serialize(new ResolvedConfigurationIdentifier(id, "other"), s)
+
+        then:
+        first.is(second)
+        other.id.is(first.id)
+    }
 }
@@ -18,6 +18,8 @@ package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
 
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier
 import org.gradle.api.internal.artifacts.ComponentMetadataProcessor
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector
 import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy
 import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.ModuleVersionsCache
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.ModuleArtifactsCache
@@ -48,8 +50,9 @@ class CachingModuleComponentRepositoryTest extends Specification {
     def artifactAtRepositoryCache = Mock(CachedArtifactIndex)
     def cachePolicy = Stub(CachePolicy)
     def metadataProcessor = Stub(ComponentMetadataProcessor)
+    def versionListingExecutor = Mock(VersionListingExecutor)
     def repo = new CachingModuleComponentRepository(realRepo, moduleResolutionCache, moduleDescriptorCache, moduleArtifactsCache, artifactAtRepositoryCache,
-            cachePolicy, new BuildCommencedTimeProvider(), metadataProcessor)
+            cachePolicy, new BuildCommencedTimeProvider(), metadataProcessor, versionListingExecutor)
 
     @Unroll
     def "artifact last modified date is cached - lastModified = #lastModified"() {
@@ -97,6 +100,65 @@ class CachingModuleComponentRepositoryTest extends Specification {
         0 * _
     }
 
+    def "refreshes cached module version listing in the background when it is about to expire"() {
+        def moduleVersionsCache = Mock(ModuleVersionsCache)
+        def repo = new CachingModuleComponentRepository(realRepo, moduleVersionsCache, moduleDescriptorCache, moduleArtifactsCache, artifactAtRepositoryCache,
+                cachePolicy, new BuildCommencedTimeProvider(), metadataProcessor, versionListingExecutor)
+        def moduleId = new DefaultModuleIdentifier("group", "name")
+        def dependency = Stub(DependencyMetaData) {
+            getRequested() >> new DefaultModuleVersionSelector("group", "name", "1.+")
+        }
+        def result = new DefaultBuildableModuleVersionListingResolveResult()
+        cachePolicy.mustRefreshVersionList(moduleId, _, 60) >> false
+        cachePolicy.mustRefreshVersionList(moduleId, _, 80) >> true
+
+        when:
+        repo.localAccess.listModuleVersions(dependency, result)
+
+        then:
+        1 * realLocalAccess.listModuleVersions(dependency, result)
+        1 * moduleVersionsCache.getCachedModuleResolution(realRepo, moduleId) >> Stub(ModuleVersionsCache.CachedModuleVersionList) {
+            getModuleVersions() >> (['1.0'] as Set)
+            getAgeMillis() >> 60
+        }
+        1 * versionListingExecutor.listInBackground("repo-id:group:name", _) >> { String key, Runnable listing -> listing.run() }
+        1 * realRemoteAccess.listModuleVersions(dependency, _) >> { DependencyMetaData d, BuildableModuleVersionListingResolveResult r ->
+            r.listed(['1.0', '1.1'])
+        }
+        1 * moduleVersionsCache.cacheModuleVersionList(realRepo, moduleId, ['1.0', '1.1'] as Set)
+        0 * _
+
+        and:
+        result.versions == ['1.0'] as Set
+        !result.authoritative
+    }
+
+    def "does not refresh cached module version listing that is not about to expire"() {
+        def moduleVersionsCache = Mock(ModuleVersionsCache)
+        def repo = new CachingModuleComponentRepository(realRepo, moduleVersionsCache, moduleDescriptorCache, moduleArtifactsCache, artifactAtRepositoryCache,
+                cachePolicy, new BuildCommencedTimeProvider(), metadataProcessor, versionListingExecutor)
+        def moduleId = new DefaultModuleIdentifier("group", "name")
+        def dependency = Stub(DependencyMetaData) {
+            getRequested() >> new DefaultModuleVersionSelector("group", "name", "1.+")
+        }
+        def result = new DefaultBuildableModuleVersionListingResolveResult()
+        cachePolicy.mustRefreshVersionList(moduleId, _, _) >> false
+
+        when:
+        repo.localAccess.listModuleVersions(dependency, result)
+
+        then:
+        1 * realLocalAccess.listModuleVersions(dependency, result)
+        1 * moduleVersionsCache.getCachedModuleResolution(realRepo, moduleId) >> Stub(ModuleVersionsCache.CachedModuleVersionList) {
+            getModuleVersions() >> (['1.0'] as Set)
+            getAgeMillis() >> 60
+        }
+        0 * _
+
+        and:
+        result.versions == ['1.0'] as Set
+    }
+
     def "does not use cache when component metadata can be determined locally"() {
         def componentId = Mock(ModuleComponentIdentifier)
         def prescribedMetaData = Mock(ComponentOverrideMetadata)
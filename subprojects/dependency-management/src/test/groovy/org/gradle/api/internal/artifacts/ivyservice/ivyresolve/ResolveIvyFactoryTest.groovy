@@ -22,6 +22,7 @@ import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal
 import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
 import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.ModuleVersionsCache
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache.InMemoryCachePolicy
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache.InMemoryCachedRepositoryFactory
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionComparator
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme
@@ -51,6 +52,7 @@ class ResolveIvyFactoryTest extends Specification {
     InMemoryCachedRepositoryFactory inMemoryCachedRepositoryFactory
     VersionSelectorScheme versionSelectorScheme
     VersionComparator versionComparator
+    VersionListingExecutor versionListingExecutor
 
     def setup() {
         moduleVersionsCache = Mock(ModuleVersionsCache)
@@ -63,14 +65,15 @@ class ResolveIvyFactoryTest extends Specification {
         }
         buildCommencedTimeProvider = Mock(BuildCommencedTimeProvider)
         inMemoryCachedRepositoryFactory = Mock(InMemoryCachedRepositoryFactory) {
-            _ * cached(_) >> { ModuleComponentRepository repository -> repository }
+            _ * cached(_, _) >> { ModuleComponentRepository repository, InMemoryCachePolicy policy -> repository }
         }
         versionSelectorScheme = Mock(VersionSelectorScheme)
         versionComparator = Mock(VersionComparator)
+        versionListingExecutor = Mock(VersionListingExecutor)
 
         resolveIvyFactory = new ResolveIvyFactory(moduleVersionsCache, moduleMetaDataCache, moduleArtifactsCache,
               cachedArtifactIndex, cacheLockingManager, startParameterResolutionOverride, buildCommencedTimeProvider,
-              inMemoryCachedRepositoryFactory, versionSelectorScheme, versionComparator)
+              inMemoryCachedRepositoryFactory, versionSelectorScheme, versionComparator, versionListingExecutor)
     }
 
     def "returns an empty resolver when no repositories are configured" () {
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class VersionListingExecutorTest extends Specification {
+    def executorFactory = new DefaultExecutorFactory()
+    def cacheLockingManager = Mock(CacheLockingManager) {
+        _ * useCache(_, _ as Runnable) >> { String displayName, Runnable action -> action.run() }
+        _ * longRunningOperation(_, _ as Factory) >> { String displayName, Factory action -> action.create() }
+    }
+    def executor = new VersionListingExecutor(executorFactory, cacheLockingManager)
+
+    def cleanup() {
+        executor.stop()
+        executorFactory.stop()
+    }
+
+    def "runs listings at the same time"() {
+        def started = new CountDownLatch(3)
+        def listings = (1..3).collect {
+            { ->
+                started.countDown()
+                assert started.await(20, TimeUnit.SECONDS)
+            } as Runnable
+        }
+
+        when:
+        executor.listConcurrently(listings)
+
+        then:
+        started.count == 0
+    }
+
+    def "runs a single listing on the calling thread"() {
+        def thread = null
+
+        when:
+        executor.listConcurrently([{ thread = Thread.currentThread() } as Runnable])
+
+        then:
+        thread == Thread.currentThread()
+        0 * cacheLockingManager._
+    }
+
+    def "completes all listings before rethrowing a failure"() {
+        def failure = new RuntimeException("broken")
+        def completed = new CopyOnWriteArrayList()
+
+        when:
+        executor.listConcurrently([{ throw failure } as Runnable, { completed << "two" } as Runnable, { completed << "three" } as Runnable])
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+        completed as Set == ["two", "three"] as Set
+    }
+
+    def "runs background listings and discards their failures"() {
+        def completed = new CopyOnWriteArrayList()
+        def finished = new CountDownLatch(2)
+
+        when:
+        executor.listInBackground("one", { completed << "one"; finished.countDown() } as Runnable)
+        executor.listInBackground("two", { finished.countDown(); throw new RuntimeException("broken") } as Runnable)
+
+        then:
+        finished.await(20, TimeUnit.SECONDS)
+        completed == ["one"]
+    }
+
+    def "abandons queued background listings and waits for running ones when stopped"() {
+        def completed = new CopyOnWriteArrayList()
+        def started = new CountDownLatch(VersionListingExecutor.MAX_BACKGROUND_LISTINGS)
+        def release = new CountDownLatch(1)
+
+        given:
+        VersionListingExecutor.MAX_BACKGROUND_LISTINGS.times { i ->
+            executor.listInBackground("running-$i", {
+                started.countDown()
+                release.await()
+                completed << "running"
+            } as Runnable)
+        }
+        executor.listInBackground("queued", { completed << "queued" } as Runnable)
+        assert started.await(20, TimeUnit.SECONDS)
+
+        when:
+        release.countDown()
+        executor.stop()
+
+        then:
+        completed == ["running"] * VersionListingExecutor.MAX_BACKGROUND_LISTINGS
+    }
+
+    def "does not finish stopping while a background listing is still using the cache"() {
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def stopped = new CountDownLatch(1)
+        def listingCompleted = false
+
+        given:
+        executor.listInBackground("key", {
+            started.countDown()
+            release.await()
+            listingCompleted = true
+        } as Runnable)
+        assert started.await(20, TimeUnit.SECONDS)
+
+        when:
+        def stopper = new Thread({
+            executor.stop()
+            stopped.countDown()
+        } as Runnable)
+        stopper.start()
+
+        then:
+        !stopped.await(200, TimeUnit.MILLISECONDS)
+
+        when:
+        release.countDown()
+
+        then:
+        stopped.await(20, TimeUnit.SECONDS)
+        listingCompleted
+
+        cleanup:
+        release.countDown()
+        stopper?.join()
+    }
+
+    def "does not start background listings once stopped"() {
+        def completed = new CopyOnWriteArrayList()
+
+        when:
+        executor.stop()
+        executor.listInBackground("key", { completed << "listing" } as Runnable)
+        executorFactory.stop()
+
+        then:
+        completed.empty
+    }
+
+    def "starts a background listing only once for a given key"() {
+        def completed = new CopyOnWriteArrayList()
+
+        when:
+        executor.listInBackground("key", { completed << "first" } as Runnable)
+        executor.listInBackground("key", { completed << "second" } as Runnable)
+        executorFactory.stop()
+
+        then:
+        completed == ["first"]
+    }
+}
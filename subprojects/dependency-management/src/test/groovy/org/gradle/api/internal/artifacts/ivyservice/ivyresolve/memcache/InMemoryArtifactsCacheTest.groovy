@@ -20,12 +20,18 @@ import org.gradle.internal.resolve.result.BuildableArtifactResolveResult
 import org.gradle.internal.resolve.result.DefaultBuildableArtifactResolveResult
 import org.gradle.internal.resolve.ArtifactResolveException
 import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier
+import org.gradle.util.BuildCommencedTimeProvider
 import spock.lang.Specification
 
 class InMemoryArtifactsCacheTest extends Specification {
 
     def stats = new InMemoryCacheStats()
     def cache = new InMemoryArtifactsCache(stats)
+    def policy = policyForBuildStartedAt(1000)
+
+    def policyForBuildStartedAt(long time, long buildId = time) {
+        return InMemoryCachePolicy.currentBuildOnly(buildId, Stub(BuildCommencedTimeProvider) { getCurrentTime() >> time })
+    }
 
     static componentId(String group, String module, String version) {
         return DefaultModuleComponentIdentifier.newId(group, module, version)
@@ -38,21 +44,21 @@ class InMemoryArtifactsCacheTest extends Specification {
         given:
         def originalResult = new DefaultBuildableArtifactResolveResult()
         originalResult.resolved(artifactFile)
-        cache.newArtifact(artifactId, originalResult)
+        cache.newArtifact(artifactId, originalResult, policy)
 
         def differentIdResult = Mock(BuildableArtifactResolveResult)
         def sameIdResult = Mock(BuildableArtifactResolveResult)
 
         when:
         def differentId = Stub(ModuleComponentArtifactIdentifier)
-        def differentIdFound = cache.supplyArtifact(differentId, differentIdResult)
+        def differentIdFound = cache.supplyArtifact(differentId, differentIdResult, policy)
 
         then:
         !differentIdFound
         0 * differentIdResult._
 
         when:
-        def sameIdFound = cache.supplyArtifact(artifactId, sameIdResult)
+        def sameIdFound = cache.supplyArtifact(artifactId, sameIdResult, policy)
 
         then:
         sameIdFound
@@ -62,15 +68,49 @@ class InMemoryArtifactsCacheTest extends Specification {
     def "does not cache failed artifact resolves"() {
         def artifactId = Stub(ModuleComponentArtifactIdentifier)
         def failedResult = Stub(BuildableArtifactResolveResult) { getFailure() >> new ArtifactResolveException("bad") }
-        cache.newArtifact(artifactId, failedResult)
+        cache.newArtifact(artifactId, failedResult, policy)
+
+        def result = Mock(BuildableArtifactResolveResult)
+
+        when:
+        def fromCache = cache.supplyArtifact(artifactId, result, policy)
+
+        then:
+        !fromCache
+        0 * result._
+    }
+
+    def "does not supply artifacts cached by an earlier build"() {
+        def artifactId = Stub(ModuleComponentArtifactIdentifier)
+        def originalResult = new DefaultBuildableArtifactResolveResult()
+        originalResult.resolved(new File("foo"))
+        cache.newArtifact(artifactId, originalResult, policy)
+
+        def result = Mock(BuildableArtifactResolveResult)
+
+        when:
+        def fromCache = cache.supplyArtifact(artifactId, result, policyForBuildStartedAt(2000))
+
+        then:
+        !fromCache
+        0 * result._
+        stats.artifactsServed == 0
+    }
+
+    def "does not supply artifacts cached by an earlier build that started at the same time"() {
+        def artifactId = Stub(ModuleComponentArtifactIdentifier)
+        def originalResult = new DefaultBuildableArtifactResolveResult()
+        originalResult.resolved(new File("foo"))
+        cache.newArtifact(artifactId, originalResult, policy)
 
         def result = Mock(BuildableArtifactResolveResult)
 
         when:
-        def fromCache = cache.supplyArtifact(artifactId, result)
+        def fromCache = cache.supplyArtifact(artifactId, result, policyForBuildStartedAt(1000, 2))
 
         then:
         !fromCache
         0 * result._
+        stats.artifactsServed == 0
     }
 }
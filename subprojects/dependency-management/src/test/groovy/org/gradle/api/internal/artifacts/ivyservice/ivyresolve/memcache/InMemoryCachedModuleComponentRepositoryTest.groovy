@@ -29,6 +29,7 @@ import org.gradle.internal.resolve.result.BuildableArtifactResolveResult
 import org.gradle.internal.resolve.result.BuildableArtifactSetResolveResult
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult
 import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult
+import org.gradle.util.BuildCommencedTimeProvider
 import spock.lang.Specification
 
 import static org.gradle.api.internal.artifacts.DefaultModuleVersionSelector.newSelector
@@ -47,7 +48,8 @@ class   InMemoryCachedModuleComponentRepositoryTest extends Specification {
         getLocalAccess() >> localDelegate
         getRemoteAccess() >> remoteDelegate
     }
-    def repo = new InMemoryCachedModuleComponentRepository(caches, delegate)
+    def policy = InMemoryCachePolicy.currentBuildOnly(1, Stub(BuildCommencedTimeProvider))
+    def repo = new InMemoryCachedModuleComponentRepository(caches, delegate, policy)
     def lib = Mock(ModuleComponentIdentifier)
     def selector = newSelector("org", "lib", "1.0")
     def dep = Stub(DependencyMetaData) { getRequested() >> selector }
@@ -74,18 +76,18 @@ class   InMemoryCachedModuleComponentRepositoryTest extends Specification {
         repo.localAccess.listModuleVersions(dep, listingResult)
 
         then:
-        1 * localMetaDataCache.supplyModuleVersions(selector, listingResult) >> false
+        1 * localMetaDataCache.supplyModuleVersions(selector, listingResult, policy) >> false
         1 * localDelegate.listModuleVersions(dep, listingResult)
-        1 * localMetaDataCache.newModuleVersions(selector, listingResult)
+        1 * localMetaDataCache.newModuleVersions(selector, listingResult, policy)
         0 * _
 
         when:
         repo.remoteAccess.listModuleVersions(dep, listingResult)
 
         then:
-        1 * remoteMetaDataCache.supplyModuleVersions(selector, listingResult) >> false
+        1 * remoteMetaDataCache.supplyModuleVersions(selector, listingResult, policy) >> false
         1 * remoteDelegate.listModuleVersions(dep, listingResult)
-        1 * remoteMetaDataCache.newModuleVersions(selector, listingResult)
+        1 * remoteMetaDataCache.newModuleVersions(selector, listingResult, policy)
         0 * _
     }
 
@@ -94,14 +96,14 @@ class   InMemoryCachedModuleComponentRepositoryTest extends Specification {
         repo.localAccess.listModuleVersions(dep, listingResult)
 
         then:
-        1 * localMetaDataCache.supplyModuleVersions(selector, listingResult) >> true
+        1 * localMetaDataCache.supplyModuleVersions(selector, listingResult, policy) >> true
         0 * _
 
         when:
         repo.remoteAccess.listModuleVersions(dep, listingResult)
 
         then:
-        1 * remoteMetaDataCache.supplyModuleVersions(selector, listingResult) >> true
+        1 * remoteMetaDataCache.supplyModuleVersions(selector, listingResult, policy) >> true
         0 * _
     }
 
@@ -110,9 +112,9 @@ class   InMemoryCachedModuleComponentRepositoryTest extends Specification {
         repo.localAccess.resolveComponentMetaData(lib, componentRequestMetaData, metaDataResult)
 
         then:
-        1 * localMetaDataCache.supplyMetaData(lib, metaDataResult) >> false
+        1 * localMetaDataCache.supplyMetaData(lib, componentRequestMetaData, metaDataResult, policy) >> false
         1 * localDelegate.resolveComponentMetaData(lib, componentRequestMetaData, metaDataResult)
-        1 * localMetaDataCache.newDependencyResult(lib, metaDataResult)
+        1 * localMetaDataCache.newDependencyResult(lib, metaDataResult, policy)
         0 * _
     }
 
@@ -121,7 +123,7 @@ class   InMemoryCachedModuleComponentRepositoryTest extends Specification {
         repo.localAccess.resolveComponentMetaData(lib, componentRequestMetaData, metaDataResult)
 
         then:
-        1 * localMetaDataCache.supplyMetaData(lib, metaDataResult) >> true
+        1 * localMetaDataCache.supplyMetaData(lib, componentRequestMetaData, metaDataResult, policy) >> true
         0 * _
     }
 
@@ -130,9 +132,9 @@ class   InMemoryCachedModuleComponentRepositoryTest extends Specification {
         repo.remoteAccess.resolveComponentMetaData(lib, componentRequestMetaData, metaDataResult)
 
         then:
-        1 * remoteMetaDataCache.supplyMetaData(lib, metaDataResult) >> false
+        1 * remoteMetaDataCache.supplyMetaData(lib, componentRequestMetaData, metaDataResult, policy) >> false
         1 * remoteDelegate.resolveComponentMetaData(lib, componentRequestMetaData, metaDataResult)
-        1 * remoteMetaDataCache.newDependencyResult(lib, metaDataResult)
+        1 * remoteMetaDataCache.newDependencyResult(lib, metaDataResult, policy)
         0 * _
     }
 
@@ -141,7 +143,7 @@ class   InMemoryCachedModuleComponentRepositoryTest extends Specification {
         repo.remoteAccess.resolveComponentMetaData(lib, componentRequestMetaData, metaDataResult)
 
         then:
-        1 * remoteMetaDataCache.supplyMetaData(lib, metaDataResult) >> true
+        1 * remoteMetaDataCache.supplyMetaData(lib, componentRequestMetaData, metaDataResult, policy) >> true
         0 * _
     }
 
@@ -197,18 +199,18 @@ class   InMemoryCachedModuleComponentRepositoryTest extends Specification {
         repo.localAccess.resolveArtifact(artifact, moduleSource, result)
 
         then:
-        1 * localArtifactsCache.supplyArtifact(artifactId, result) >> false
+        1 * localArtifactsCache.supplyArtifact(artifactId, result, policy) >> false
         1 * localDelegate.resolveArtifact(artifact, moduleSource, result)
-        1 * localArtifactsCache.newArtifact(artifactId, result)
+        1 * localArtifactsCache.newArtifact(artifactId, result, policy)
         0 * _
 
         when:
         repo.remoteAccess.resolveArtifact(artifact, moduleSource, result)
 
         then:
-        1 * remoteArtifactsCache.supplyArtifact(artifactId, result) >> false
+        1 * remoteArtifactsCache.supplyArtifact(artifactId, result, policy) >> false
         1 * remoteDelegate.resolveArtifact(artifact, moduleSource, result)
-        1 * remoteArtifactsCache.newArtifact(artifactId, result)
+        1 * remoteArtifactsCache.newArtifact(artifactId, result, policy)
         0 * _
     }
 
@@ -224,14 +226,14 @@ class   InMemoryCachedModuleComponentRepositoryTest extends Specification {
         repo.localAccess.resolveArtifact(artifact, moduleSource, result)
 
         then:
-        1 * localArtifactsCache.supplyArtifact(artifactId, result) >> true
+        1 * localArtifactsCache.supplyArtifact(artifactId, result, policy) >> true
         0 * _
 
         when:
         repo.remoteAccess.resolveArtifact(artifact, moduleSource, result)
 
         then:
-        1 * remoteArtifactsCache.supplyArtifact(artifactId, result) >> true
+        1 * remoteArtifactsCache.supplyArtifact(artifactId, result, policy) >> true
         0 * _
     }
 }
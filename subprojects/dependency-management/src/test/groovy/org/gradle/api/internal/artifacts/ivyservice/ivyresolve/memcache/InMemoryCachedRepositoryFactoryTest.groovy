@@ -17,6 +17,7 @@
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache
 
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.util.BuildCommencedTimeProvider
 import org.gradle.util.SetSystemProperties
 import org.junit.Rule
 import spock.lang.Specification
@@ -25,13 +26,14 @@ class InMemoryCachedRepositoryFactoryTest extends Specification {
 
     @Rule SetSystemProperties sysProp = new SetSystemProperties()
     def cache = new InMemoryCachedRepositoryFactory()
+    def policy = InMemoryCachePolicy.currentBuildOnly(1, Stub(BuildCommencedTimeProvider))
 
     def "can be turned off via system property"() {
         System.properties.setProperty(InMemoryCachedRepositoryFactory.TOGGLE_PROPERTY, "false")
         def repo = Mock(ModuleComponentRepository) { getId() >> "mavenCentral" }
 
         when:
-        def out = cache.cached(repo)
+        def out = cache.cached(repo, policy)
 
         then:
         out.is(repo)
@@ -43,14 +45,15 @@ class InMemoryCachedRepositoryFactoryTest extends Specification {
         def repo3 = Mock(ModuleComponentRepository) { getId() >> "mavenCentral" }
 
         when:
-        ModuleComponentRepository c1 = cache.cached(repo1)
-        ModuleComponentRepository c2 = cache.cached(repo2)
-        ModuleComponentRepository c3 = cache.cached(repo3)
+        ModuleComponentRepository c1 = cache.cached(repo1, policy)
+        ModuleComponentRepository c2 = cache.cached(repo2, policy)
+        ModuleComponentRepository c3 = cache.cached(repo3, policy)
 
         then:
         c1.delegate == repo1
         c2.delegate == repo2
         c3.delegate == repo3
+        c1.policy == policy
 
         // Caches are shared for same repository id
         c1.localAccess.artifactsCache == c3.localAccess.artifactsCache
@@ -68,10 +71,38 @@ class InMemoryCachedRepositoryFactoryTest extends Specification {
 
     def "cleans cache on close"() {
         when:
-        cache.cached(Mock(ModuleComponentRepository) { getId() >> "x"} )
+        cache.cached(Mock(ModuleComponentRepository) { getId() >> "x"}, policy)
         cache.stop()
 
         then:
-        cache.cachePerRepo.isEmpty()
+        cache.cachePerRepo.size() == 0
+    }
+
+    def "keeps caches across builds"() {
+        def laterBuildPolicy = InMemoryCachePolicy.currentBuildOnly(2, Stub(BuildCommencedTimeProvider))
+
+        when:
+        ModuleComponentRepository c1 = cache.cached(Mock(ModuleComponentRepository) { getId() >> "mavenCentral" }, policy)
+        ModuleComponentRepository c2 = cache.cached(Mock(ModuleComponentRepository) { getId() >> "mavenCentral" }, laterBuildPolicy)
+
+        then:
+        c2.policy == laterBuildPolicy
+        c1.remoteAccess.metaDataCache == c2.remoteAccess.metaDataCache
+        cache.stats.cacheInstances == 1
+    }
+
+    def "limits the number of cached repositories"() {
+        when:
+        (InMemoryCachedRepositoryFactory.MAX_REPOSITORIES + 10).times { index ->
+            cache.cached(Mock(ModuleComponentRepository) { getId() >> "repo-${index}" }, policy)
+        }
+
+        then:
+        cache.cachePerRepo.size() <= InMemoryCachedRepositoryFactory.MAX_REPOSITORIES
+    }
+
+    def "allocates a distinct id to each build"() {
+        expect:
+        cache.newBuildId() != cache.newBuildId()
     }
 }
@@ -16,18 +16,30 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache
 
+import org.gradle.api.internal.artifacts.ComponentMetadataProcessor
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
 import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetaData
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult
+import org.gradle.internal.component.model.ComponentOverrideMetadata
 import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult
+import org.gradle.util.BuildCommencedTimeProvider
 import spock.lang.Specification
 
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
 import static org.gradle.api.internal.artifacts.DefaultModuleVersionSelector.newSelector
 
 class InMemoryMetaDataCacheTest extends Specification {
 
     def stats = new InMemoryCacheStats()
     def cache = new InMemoryMetaDataCache(stats)
+    def cachePolicy = Mock(CachePolicy)
+    def policy = policyForBuildStartedAt(1000)
+    def request = Stub(ComponentOverrideMetadata)
+
+    def policyForBuildStartedAt(long time) {
+        return InMemoryCachePolicy.acrossBuilds(time, Stub(BuildCommencedTimeProvider) { getCurrentTime() >> time }, cachePolicy, Stub(ComponentMetadataProcessor))
+    }
 
     static componentId(String group, String module, String version) {
         return DefaultModuleComponentIdentifier.newId(group, module, version)
@@ -42,11 +54,11 @@ class InMemoryMetaDataCacheTest extends Specification {
         cache.newModuleVersions(newSelector("org", "foo-remote", "1.0"), Stub(BuildableModuleVersionListingResolveResult) {
             getState() >> BuildableModuleVersionListingResolveResult.State.Listed
             getVersions() >> versions
-        })
+        }, policy)
 
         when:
-        def found = cache.supplyModuleVersions(newSelector("org", "foo-remote", "1.0"), result)
-        def missing = cache.supplyModuleVersions(newSelector("org", "foo-local", "1.0"), missingResult)
+        def found = cache.supplyModuleVersions(newSelector("org", "foo-remote", "1.0"), result, policy)
+        def missing = cache.supplyModuleVersions(newSelector("org", "foo-local", "1.0"), missingResult, policy)
 
         then:
         found
@@ -61,12 +73,12 @@ class InMemoryMetaDataCacheTest extends Specification {
         def failedResult = Stub(BuildableModuleVersionListingResolveResult) {
             getState() >> BuildableModuleVersionListingResolveResult.State.Failed
         }
-        cache.newModuleVersions(newSelector("org", "lib", "1.0"), failedResult)
+        cache.newModuleVersions(newSelector("org", "lib", "1.0"), failedResult, policy)
 
         def result = Mock(BuildableModuleVersionListingResolveResult)
 
         when:
-        def foundInCache = cache.supplyModuleVersions(newSelector("org", "lib", "1.0"), result)
+        def foundInCache = cache.supplyModuleVersions(newSelector("org", "lib", "1.0"), result, policy)
 
         then:
         !foundInCache
@@ -85,10 +97,10 @@ class InMemoryMetaDataCacheTest extends Specification {
 
         given:
         _ * originalMetaData.copy() >> cachedCopy
-        cache.newDependencyResult(componentId("org", "foo", "1.0"), resolvedResult)
+        cache.newDependencyResult(componentId("org", "foo", "1.0"), resolvedResult, policy)
 
         when:
-        def differentSelector = cache.supplyMetaData(componentId("org", "XXX", "1.0"), result)
+        def differentSelector = cache.supplyMetaData(componentId("org", "XXX", "1.0"), request, result, policy)
 
         then:
         !differentSelector
@@ -96,7 +108,7 @@ class InMemoryMetaDataCacheTest extends Specification {
         0 * result._
 
         when:
-        def match = cache.supplyMetaData(componentId("org", "foo", "1.0"), result)
+        def match = cache.supplyMetaData(componentId("org", "foo", "1.0"), request, result, policy)
 
         then:
         match
@@ -115,10 +127,10 @@ class InMemoryMetaDataCacheTest extends Specification {
         def result = Mock(BuildableModuleComponentMetaDataResolveResult.class)
 
         given:
-        cache.newDependencyResult(componentId("org", "remote", "1.0"), resolvedResult)
+        cache.newDependencyResult(componentId("org", "remote", "1.0"), resolvedResult, policy)
 
         when:
-        def found = cache.supplyMetaData(componentId("org", "remote", "1.0"), result)
+        def found = cache.supplyMetaData(componentId("org", "remote", "1.0"), request, result, policy)
 
         then:
         found
@@ -128,15 +140,153 @@ class InMemoryMetaDataCacheTest extends Specification {
 
     def "does not cache failed resolves"() {
         def failedResult = Mock(BuildableModuleComponentMetaDataResolveResult.class) { getState() >> BuildableModuleComponentMetaDataResolveResult.State.Failed }
-        cache.newDependencyResult(componentId("org", "lib", "1.0"), failedResult)
+        cache.newDependencyResult(componentId("org", "lib", "1.0"), failedResult, policy)
 
         def result = Mock(BuildableModuleComponentMetaDataResolveResult.class)
 
         when:
-        def fromCache = cache.supplyMetaData(componentId("org", "lib", "1.0"), result)
+        def fromCache = cache.supplyMetaData(componentId("org", "lib", "1.0"), request, result, policy)
 
         then:
         !fromCache
         0 * result._
     }
+
+    def "reuses metadata cached by an earlier build when cache policy allows"() {
+        def id = componentId("org", "lib", "1.0")
+        def result = Mock(BuildableModuleComponentMetaDataResolveResult.class)
+
+        given:
+        cache.newDependencyResult(id, resolvedResult(true), policy)
+
+        when:
+        def found = cache.supplyMetaData(id, request, result, policyForBuildStartedAt(5000))
+
+        then:
+        found
+        1 * cachePolicy.mustRefreshModule(id, { it.id == newId("org", "lib", "1.0") }, 4000) >> false
+        1 * result.resolved(_)
+        1 * result.setAuthoritative(false)
+        stats.metadataServed == 1
+        stats.metadataServedFromEarlierBuilds == 1
+        stats.metadataRequests == 1
+    }
+
+    def "does not reuse metadata cached by an earlier build when cache policy requires refresh"() {
+        def id = componentId("org", "lib", "1.0")
+        def result = Mock(BuildableModuleComponentMetaDataResolveResult.class)
+        def changingRequest = Stub(ComponentOverrideMetadata) { isChanging() >> true }
+
+        given:
+        cache.newDependencyResult(id, resolvedResult(true), policy)
+
+        when:
+        def found = cache.supplyMetaData(id, changingRequest, result, policyForBuildStartedAt(5000))
+
+        then:
+        !found
+        1 * cachePolicy.mustRefreshChangingModule(id, _, 4000) >> true
+        0 * result._
+        stats.metadataServed == 0
+        stats.metadataHitRate == 0
+    }
+
+    def "uses unknown age for metadata that was not fresh when cached"() {
+        def id = componentId("org", "lib", "1.0")
+        def staleResult = resolvedResult(false)
+
+        given:
+        cache.newDependencyResult(id, staleResult, policy)
+
+        when:
+        def found = cache.supplyMetaData(id, request, Mock(BuildableModuleComponentMetaDataResolveResult), policyForBuildStartedAt(5000))
+
+        then:
+        !found
+        1 * cachePolicy.mustRefreshModule(id, _, Long.MAX_VALUE) >> true
+    }
+
+    def "reuses missing module cached by an earlier build when cache policy allows"() {
+        def id = componentId("org", "lib", "1.0")
+        def result = Mock(BuildableModuleComponentMetaDataResolveResult.class)
+
+        given:
+        cache.newDependencyResult(id, Stub(BuildableModuleComponentMetaDataResolveResult) {
+            getState() >> BuildableModuleComponentMetaDataResolveResult.State.Missing
+            isAuthoritative() >> true
+        }, policy)
+
+        when:
+        def found = cache.supplyMetaData(id, request, result, policyForBuildStartedAt(3000))
+
+        then:
+        found
+        1 * cachePolicy.mustRefreshMissingModule(id, 2000) >> false
+        1 * result.missing()
+        1 * result.setAuthoritative(false)
+    }
+
+    def "does not share results between builds when component metadata rules are present"() {
+        def id = componentId("org", "lib", "1.0")
+        def processorWithRules = Stub(ComponentMetadataProcessor) { hasRules() >> true }
+        def timeProvider = Stub(BuildCommencedTimeProvider) { getCurrentTime() >> 5000 }
+
+        given:
+        cache.newDependencyResult(id, resolvedResult(true), policy)
+
+        when:
+        def found = cache.supplyMetaData(id, request, Mock(BuildableModuleComponentMetaDataResolveResult), InMemoryCachePolicy.acrossBuilds(5000, timeProvider, cachePolicy, processorWithRules))
+
+        then:
+        !found
+        0 * cachePolicy._
+
+        when:
+        cache.newDependencyResult(id, resolvedResult(true), InMemoryCachePolicy.currentBuildOnly(5000, timeProvider))
+        found = cache.supplyMetaData(id, request, Mock(BuildableModuleComponentMetaDataResolveResult), policyForBuildStartedAt(8000))
+
+        then:
+        !found
+        0 * cachePolicy._
+    }
+
+    def "reuses module version listing cached by an earlier build when cache policy allows"() {
+        def selector = newSelector("org", "lib", "1.+")
+        def result = Mock(BuildableModuleVersionListingResolveResult)
+
+        given:
+        cache.newModuleVersions(selector, Stub(BuildableModuleVersionListingResolveResult) {
+            getState() >> BuildableModuleVersionListingResolveResult.State.Listed
+            getVersions() >> (['1.0', '1.1'] as Set)
+            isAuthoritative() >> true
+        }, policy)
+
+        when:
+        def found = cache.supplyModuleVersions(selector, result, policyForBuildStartedAt(2000))
+
+        then:
+        found
+        1 * cachePolicy.mustRefreshVersionList({ it.group == "org" && it.name == "lib" }, [newId("org", "lib", "1.0"), newId("org", "lib", "1.1")] as Set, 1000) >> false
+        1 * result.listed(['1.0', '1.1'] as Set)
+
+        when:
+        found = cache.supplyModuleVersions(selector, result, policyForBuildStartedAt(3000))
+
+        then:
+        !found
+        1 * cachePolicy.mustRefreshVersionList(_, _, 2000) >> true
+        0 * result._
+    }
+
+    private BuildableModuleComponentMetaDataResolveResult resolvedResult(boolean authoritative) {
+        def metaData = Stub(MutableModuleComponentResolveMetaData) {
+            getId() >> newId("org", "lib", "1.0")
+        }
+        metaData.copy() >> metaData
+        return Mock(BuildableModuleComponentMetaDataResolveResult) {
+            getState() >> BuildableModuleComponentMetaDataResolveResult.State.Resolved
+            getMetaData() >> metaData
+            isAuthoritative() >> authoritative
+        }
+    }
 }
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import org.apache.ivy.util.XMLHelper
+import org.w3c.dom.Element
+import org.w3c.dom.Node
+import org.xml.sax.EntityResolver
+import org.xml.sax.InputSource
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import javax.xml.stream.XMLStreamException
+
+class PomDomParserTest extends Specification {
+    static final String SYSTEM_ID = "file:/test/pom.xml"
+
+    @Unroll
+    def "reads the same elements as a DOM parser for #description"() {
+        when:
+        def element = parse(pom)
+
+        then:
+        assertSameElements(parseToDom(pom), element, [])
+
+        where:
+        description                         | pom
+        "minimal POM"                       | MINIMAL
+        "POM with parent and properties"    | WITH_PARENT
+        "BOM"                               | BOM
+        "POM with build and reporting"      | WITH_BUILD
+        "POM with profiles"                 | WITH_PROFILES
+        "POM with entities, CDATA, comments" | WITH_ENTITIES
+        "POM with XML declaration and BOM"  | "\uFEFF<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + MINIMAL
+        "legacy model POM"                  | MODEL
+    }
+
+    def "skips elements that are not used to resolve a module"() {
+        when:
+        def project = parse(WITH_BUILD)
+
+        then:
+        project.children*.name == ["groupId", "artifactId", "version", "dependencies"]
+    }
+
+    def "skips elements of profiles that are not used to resolve a module"() {
+        when:
+        def project = parse(WITH_PROFILES)
+        def profile = PomDomParser.getFirstChildElement(PomDomParser.getFirstChildElement(project, "profiles"), "profile")
+
+        then:
+        profile.children*.name == ["id", "activation", "properties", "dependencies"]
+    }
+
+    def "replaces entities defined for POMs"() {
+        when:
+        def project = parse(WITH_ENTITIES)
+
+        then:
+        PomDomParser.getFirstChildText(project, "description") == "Søren's <project> & more"
+    }
+
+    def "fails when POM is not well formed"() {
+        when:
+        parse("<project><groupId>broken</project>")
+
+        then:
+        thrown(XMLStreamException)
+    }
+
+    private static PomElement parse(String pom) {
+        return PomDomParser.parse(new ByteArrayInputStream(pom.getBytes("UTF-8")), SYSTEM_ID)
+    }
+
+    private static Element parseToDom(String pom) {
+        def entityResolver = new EntityResolver() {
+            InputSource resolveEntity(String publicId, String systemId) {
+                if (systemId != null && systemId.endsWith("m2-entities.ent")) {
+                    return new InputSource(org.apache.ivy.plugins.parser.m2.PomReader.getResourceAsStream("m2-entities.ent"))
+                }
+                return null
+            }
+        }
+        def stream = new PomDomParser.AddDTDFilterInputStream(new ByteArrayInputStream(pom.getBytes("UTF-8")))
+        return XMLHelper.getDocBuilder(entityResolver).parse(stream, SYSTEM_ID).documentElement
+    }
+
+    /**
+     * Checks that the given element matches the DOM element, and that its children are the DOM element's children that are retained by the parser.
+     */
+    private static void assertSameElements(Element expected, PomElement actual, List<String> path) {
+        assert actual.name == expected.nodeName
+        assert actual.text == directText(expected)
+        def expectedChildren = childElements(expected).findAll { isRetained(path + expected.nodeName, it.nodeName) }
+        assert actual.children*.name == expectedChildren*.nodeName
+        expectedChildren.eachWithIndex { Element child, int i ->
+            assertSameElements(child, actual.children[i], path + expected.nodeName)
+        }
+    }
+
+    private static boolean isRetained(List<String> path, String name) {
+        if (path.size() == 1) {
+            return name in ["parent", "groupId", "artifactId", "version", "packaging", "url", "description", "licenses", "distributionManagement",
+                            "dependencies", "dependencyManagement", "properties", "profiles"]
+        }
+        if (path.size() == 3 && path[1] == "profiles" && path[2] == "profile") {
+            return name in ["id", "activation", "properties", "dependencies", "dependencyManagement"]
+        }
+        return true
+    }
+
+    private static List<Element> childElements(Element element) {
+        def children = element.childNodes
+        return (0..<children.length).collect { children.item(it) }.findAll { it instanceof Element }
+    }
+
+    private static String directText(Element element) {
+        def children = element.childNodes
+        return (0..<children.length).collect { children.item(it) }
+            .findAll { it.nodeType == Node.TEXT_NODE || it.nodeType == Node.CDATA_SECTION_NODE }
+            .collect { it.nodeValue }
+            .join("")
+    }
+
+    static final String MINIMAL = """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+</project>
+"""
+
+    static final String MODEL = """
+<model>
+    <groupId>group-one</groupId>
+    <artifactId>artifact-one</artifactId>
+    <currentVersion>1.0</currentVersion>
+</model>
+"""
+
+    static final String WITH_PARENT = """<?xml version="1.0" encoding="UTF-8"?>
+<project xmlns="http://maven.apache.org/POM/4.0.0" xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xsi:schemaLocation="http://maven.apache.org/POM/4.0.0 http://maven.apache.org/maven-v4_0_0.xsd">
+    <modelVersion>4.0.0</modelVersion>
+    <parent>
+        <groupId>org.test</groupId>
+        <artifactId>parent</artifactId>
+        <version>1.2</version>
+        <relativePath>../parent/pom.xml</relativePath>
+    </parent>
+    <artifactId>child</artifactId>
+    <packaging>bundle</packaging>
+    <name>Child</name>
+    <url>http://example.org/child</url>
+    <licenses>
+        <license>
+            <name>The Apache Software License, Version 2.0</name>
+            <url>http://www.apache.org/licenses/LICENSE-2.0.txt</url>
+            <distribution>repo</distribution>
+        </license>
+    </licenses>
+    <properties>
+        <lib.version>3.1</lib.version>
+        <project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>
+        <empty/>
+    </properties>
+    <dependencies>
+        <dependency>
+            <groupId>org.test</groupId>
+            <artifactId>lib</artifactId>
+            <version>\${lib.version}</version>
+            <classifier>tests</classifier>
+            <type>test-jar</type>
+            <scope>test</scope>
+            <optional>true</optional>
+            <exclusions>
+                <exclusion>
+                    <groupId>org.excluded</groupId>
+                    <artifactId>excluded</artifactId>
+                </exclusion>
+            </exclusions>
+        </dependency>
+    </dependencies>
+    <distributionManagement>
+        <relocation>
+            <groupId>org.relocated</groupId>
+        </relocation>
+    </distributionManagement>
+</project>
+"""
+
+    static final String BOM = """<?xml version="1.0" encoding="UTF-8"?>
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>org.test</groupId>
+    <artifactId>bom</artifactId>
+    <version>2.0</version>
+    <packaging>pom</packaging>
+    <dependencyManagement>
+        <dependencies>
+${(1..50).collect { """            <dependency>
+                <groupId>org.test.group${it % 5}</groupId>
+                <artifactId>module-${it}</artifactId>
+                <version>2.0.${it}</version>
+            </dependency>""" }.join("\n")}
+            <dependency>
+                <groupId>org.imported</groupId>
+                <artifactId>imported-bom</artifactId>
+                <version>1.0</version>
+                <type>pom</type>
+                <scope>import</scope>
+            </dependency>
+        </dependencies>
+    </dependencyManagement>
+</project>
+"""
+
+    static final String WITH_BUILD = """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>org.test</groupId>
+    <artifactId>with-build</artifactId>
+    <version>1.0</version>
+    <dependencies>
+        <dependency>
+            <groupId>org.test</groupId>
+            <artifactId>lib</artifactId>
+            <version>1.0</version>
+        </dependency>
+    </dependencies>
+    <build>
+        <plugins>
+            <plugin>
+                <artifactId>maven-compiler-plugin</artifactId>
+                <dependencies>
+                    <dependency>
+                        <groupId>org.plugin</groupId>
+                        <artifactId>plugin-dep</artifactId>
+                        <version>1.0</version>
+                    </dependency>
+                </dependencies>
+                <configuration><source>1.6</source><target>1.6</target></configuration>
+            </plugin>
+        </plugins>
+    </build>
+    <reporting>
+        <plugins><plugin><artifactId>maven-javadoc-plugin</artifactId></plugin></plugins>
+    </reporting>
+    <repositories>
+        <repository><id>central</id><url>http://repo1.maven.org/maven2</url></repository>
+    </repositories>
+</project>
+"""
+
+    static final String WITH_PROFILES = """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>org.test</groupId>
+    <artifactId>with-profiles</artifactId>
+    <version>1.0</version>
+    <profiles>
+        <profile>
+            <id>profile-1</id>
+            <activation>
+                <activeByDefault>true</activeByDefault>
+                <property><name>!skip</name></property>
+            </activation>
+            <properties><lib.version>2.0</lib.version></properties>
+            <build><plugins><plugin><artifactId>ignored</artifactId></plugin></plugins></build>
+            <dependencies>
+                <dependency>
+                    <groupId>org.test</groupId>
+                    <artifactId>lib</artifactId>
+                    <version>\${lib.version}</version>
+                </dependency>
+            </dependencies>
+            <repositories><repository><id>ignored</id></repository></repositories>
+        </profile>
+        <profile>
+            <id>profile-2</id>
+            <dependencyManagement>
+                <dependencies>
+                    <dependency>
+                        <groupId>org.test</groupId>
+                        <artifactId>managed</artifactId>
+                        <version>3.0</version>
+                    </dependency>
+                </dependencies>
+            </dependencyManagement>
+        </profile>
+    </profiles>
+</project>
+"""
+
+    static final String WITH_ENTITIES = """
+<project>
+    <groupId>org.test</groupId>
+    <!-- a comment -->
+    <artifactId>with-<!-- split -->entities</artifactId>
+    <version>1.0</version>
+    <description>S&oslash;ren's <![CDATA[<project>]]> &amp; more</description>
+</project>
+"""
+}
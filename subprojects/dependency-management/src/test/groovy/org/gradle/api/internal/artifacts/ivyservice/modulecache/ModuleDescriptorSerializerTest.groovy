@@ -0,0 +1,184 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.apache.ivy.core.module.descriptor.DefaultArtifact
+import org.apache.ivy.core.module.descriptor.ExtendsDescriptor
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor
+import org.gradle.api.internal.artifacts.ivyservice.IvyXmlModuleDescriptorWriter
+import org.gradle.api.internal.artifacts.ivyservice.NamespaceId
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.DescriptorParseContext
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.ResolverStrategy
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ModuleDescriptorSerializerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder
+    def resolverStrategy = new ResolverStrategy()
+    def parser = new IvyXmlModuleDescriptorParser(resolverStrategy)
+    def serializer = new ModuleDescriptorSerializer(resolverStrategy)
+
+    def "reads minimal descriptor"() {
+        def parsed = parse("""
+<ivy-module version="2.0">
+    <info organisation="org" module="minimal" revision="1.0"/>
+</ivy-module>
+""")
+
+        expect:
+        serializer.canSerialize(parsed)
+        def read = roundTrip(parsed)
+        write(read) == write(parsed)
+        read.getArtifacts("default")*.name == ["minimal"]
+    }
+
+    def "reads descriptor that uses all of the features of ivy.xml"() {
+        def parsed = parse("""
+<ivy-module version="2.0" xmlns:e="http://ant.apache.org/ivy/extra" xmlns:m="http://ant.apache.org/ivy/maven">
+    <info organisation="org" module="full" branch="trunk" revision="1.2" status="release" publication="20150102030405" e:flavour="vanilla">
+        <license name="Apache" url="http://www.apache.org/licenses/LICENSE-2.0"/>
+        <description homepage="http://example.org">Some description</description>
+        <m:properties__some.property>value</m:properties__some.property>
+    </info>
+    <configurations>
+        <conf name="compile" description="compile classpath" e:kind="api"/>
+        <conf name="runtime" extends="compile" transitive="false"/>
+        <conf name="private" visibility="private" deprecated="do not use"/>
+        <conf name="default" extends="runtime,private"/>
+    </configurations>
+    <publications>
+        <artifact name="full" type="jar" ext="jar" conf="compile,runtime"/>
+        <artifact name="full" type="source" ext="jar" conf="default" e:classifier="sources"/>
+        <artifact name="other" type="zip" conf="runtime"/>
+    </publications>
+    <dependencies>
+        <dependency org="org" name="a" rev="1.0" conf="compile->default;runtime->runtime,default"/>
+        <dependency org="org" name="b" branch="stable" rev="2.0" revConstraint="2.+" force="true" changing="true" transitive="false" conf="runtime->*" e:extra="x">
+            <artifact name="b" type="jar" conf="runtime" e:classifier="jdk5"/>
+            <artifact name="b-tests" type="test-jar" ext="jar" conf="compile,runtime"/>
+            <include name="b*" type="jar" matcher="glob" conf="runtime"/>
+            <exclude org="org" module="excluded" conf="compile"/>
+            <exclude module="regexp.*" matcher="regexp" conf="runtime,compile"/>
+        </dependency>
+        <dependency name="c" rev="3.0" conf="*->default"/>
+        <dependency name="d" rev="4.0" conf="compile->default;%->runtime(*)"/>
+        <exclude org="org" module="globally-excluded" matcher="exact"/>
+        <exclude module="compile-excluded" conf="compile"/>
+    </dependencies>
+</ivy-module>
+""")
+
+        expect:
+        serializer.canSerialize(parsed)
+        def read = roundTrip(parsed)
+        write(read) == write(parsed)
+
+        and:
+        read.resolvedModuleRevisionId == parsed.resolvedModuleRevisionId
+        read.publicationDate == parsed.publicationDate
+        read.extraInfo == parsed.extraInfo
+        read.extraInfo.keySet().every { it instanceof NamespaceId }
+        read.configurationsNames.each { conf ->
+            assert read.getArtifacts(conf)*.id == parsed.getArtifacts(conf)*.id
+        }
+        read.allArtifacts*.configurations == parsed.allArtifacts*.configurations
+        [read.dependencies, parsed.dependencies].transpose().each { readDep, parsedDep ->
+            assert readDep.dynamicConstraintDependencyRevisionId == parsedDep.dynamicConstraintDependencyRevisionId
+            assert readDep.moduleConfigurations == parsedDep.moduleConfigurations
+            readDep.moduleConfigurations.each { conf ->
+                assert readDep.getDependencyConfigurations(conf) == parsedDep.getDependencyConfigurations(conf)
+                assert readDep.getDependencyArtifacts(conf)*.name == parsedDep.getDependencyArtifacts(conf)*.name
+                assert readDep.getIncludeRules(conf)*.id == parsedDep.getIncludeRules(conf)*.id
+                assert readDep.getExcludeRules(conf)*.id == parsedDep.getExcludeRules(conf)*.id
+            }
+        }
+        read.dependencies[1].allExcludeRules*.matcher == parsed.dependencies[1].allExcludeRules*.matcher
+        read.allExcludeRules*.configurations == parsed.allExcludeRules*.configurations
+    }
+
+    @Unroll
+    def "cannot serialize descriptor with dependency configuration mapping #mapping"() {
+        def parsed = parse("""
+<ivy-module version="2.0">
+    <info organisation="org" module="module" revision="1.0"/>
+    <configurations>
+        <conf name="compile"/>
+        <conf name="runtime" extends="compile"/>
+    </configurations>
+    <dependencies>
+        <dependency org="org" name="a" rev="1.0" conf="${mapping}"/>
+    </dependencies>
+</ivy-module>
+""")
+
+        expect:
+        !serializer.canSerialize(parsed)
+
+        where:
+        mapping << ["*->@", "%->@", "runtime->#"]
+    }
+
+    def "cannot serialize descriptor with inherited descriptors"() {
+        def parsed = parse("""
+<ivy-module version="2.0">
+    <info organisation="org" module="child" revision="1.0"/>
+</ivy-module>
+""")
+        parsed.addInheritedDescriptor(Stub(ExtendsDescriptor))
+
+        expect:
+        !serializer.canSerialize(parsed)
+    }
+
+    def "cannot serialize descriptor with artifacts that were not read from an ivy.xml"() {
+        def parsed = parse("""
+<ivy-module version="2.0">
+    <info organisation="org" module="module" revision="1.0"/>
+    <publications/>
+</ivy-module>
+""")
+        parsed.addArtifact("default", new DefaultArtifact(parsed.moduleRevisionId, null, "module", "jar", "jar", new URL("http://example.org/module.jar"), [:]))
+
+        expect:
+        !serializer.canSerialize(parsed)
+    }
+
+    private ModuleDescriptor parse(String ivyXml) {
+        def ivyFile = temporaryFolder.createFile("ivy.xml")
+        ivyFile.text = ivyXml
+        return parser.parseMetaData(Stub(DescriptorParseContext), ivyFile, false).descriptor
+    }
+
+    private ModuleDescriptor roundTrip(ModuleDescriptor descriptor) {
+        def outputStream = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(outputStream)
+        serializer.write(encoder, descriptor)
+        encoder.flush()
+        return serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(outputStream.toByteArray())))
+    }
+
+    private String write(ModuleDescriptor descriptor) {
+        def file = temporaryFolder.file("written/ivy.xml")
+        new IvyXmlModuleDescriptorWriter().write(descriptor, file)
+        return file.text
+    }
+}
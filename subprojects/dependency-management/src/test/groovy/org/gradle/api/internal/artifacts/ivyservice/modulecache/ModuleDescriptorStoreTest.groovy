@@ -19,8 +19,11 @@ package org.gradle.api.internal.artifacts.ivyservice.modulecache
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier
 import org.gradle.api.internal.artifacts.ivyservice.IvyModuleDescriptorWriter
+import org.gradle.api.internal.artifacts.ivyservice.IvyXmlModuleDescriptorWriter
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.DescriptorParseContext
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.ResolverStrategy
 
 import org.gradle.internal.resource.local.LocallyAvailableResource
 import org.gradle.internal.resource.local.PathKeyFileStore
@@ -39,9 +42,10 @@ class ModuleDescriptorStoreTest extends Specification {
     IvyModuleDescriptorWriter ivyModuleDescriptorWriter = Mock()
     IvyXmlModuleDescriptorParser ivyXmlModuleDescriptorParser = Mock()
     ModuleComponentIdentifier moduleComponentIdentifier = Mock()
+    ModuleDescriptorSerializer descriptorSerializer = Mock()
 
     def setup() {
-        store = new ModuleDescriptorStore(pathKeyFileStore, ivyModuleDescriptorWriter, ivyXmlModuleDescriptorParser);
+        store = new ModuleDescriptorStore(pathKeyFileStore, ivyModuleDescriptorWriter, ivyXmlModuleDescriptorParser, descriptorSerializer);
         _ * repository.getId() >> "repositoryId"
         _ * moduleComponentIdentifier.group >> "org.test"
         _ * moduleComponentIdentifier.module >> "testArtifact"
@@ -52,12 +56,12 @@ class ModuleDescriptorStoreTest extends Specification {
         when:
         pathKeyFileStore.get("org.test/testArtifact/1.0/repositoryId/ivy.xml") >> null
         then:
-        null == store.getModuleDescriptor(repository, moduleComponentIdentifier)
+        null == store.getModuleDescriptor(repository, moduleComponentIdentifier, BigInteger.ONE)
     }
 
     def "getModuleDescriptorFile uses PathKeyFileStore to get file"() {
         when:
-        store.getModuleDescriptor(repository, moduleComponentIdentifier);
+        store.getModuleDescriptor(repository, moduleComponentIdentifier, BigInteger.ONE);
         then:
         1 * pathKeyFileStore.get("org.test/testArtifact/1.0/repositoryId/ivy.xml") >> null
     }
@@ -73,4 +77,73 @@ class ModuleDescriptorStoreTest extends Specification {
         };
         1 * ivyModuleDescriptorWriter.write(moduleDescriptor, descriptorFile)
     }
-}
\ No newline at end of file
+
+    def "parses ivy.xml once and then reads the binary descriptor"() {
+        def resolverStrategy = new ResolverStrategy()
+        def parser = Spy(IvyXmlModuleDescriptorParser, constructorArgs: [resolverStrategy])
+        def store = new ModuleDescriptorStore(new PathKeyFileStore(temporaryFolder.createDir("store")), new IvyXmlModuleDescriptorWriter(), parser, new ModuleDescriptorSerializer(resolverStrategy))
+        def hash = store.putModuleDescriptor(repository, moduleComponentIdentifier, parse(parser)).sha1.asBigInteger()
+
+        when:
+        def parsed = store.getModuleDescriptor(repository, moduleComponentIdentifier, hash)
+
+        then:
+        1 * parser.parseMetaData(_, _, false)
+        temporaryFolder.file("store/org.test/testArtifact/1.0/repositoryId/descriptor.bin").file
+
+        when:
+        def read = store.getModuleDescriptor(repository, moduleComponentIdentifier, hash)
+
+        then:
+        0 * parser.parseMetaData(_, _, _)
+        read.moduleRevisionId == parsed.moduleRevisionId
+        read.configurationsNames == parsed.configurationsNames
+        read.dependencies*.dependencyRevisionId == parsed.dependencies*.dependencyRevisionId
+        read.getArtifacts("default")*.name == parsed.getArtifacts("default")*.name
+    }
+
+    def "parses ivy.xml when the binary descriptor was created from a different ivy.xml"() {
+        def resolverStrategy = new ResolverStrategy()
+        def parser = Spy(IvyXmlModuleDescriptorParser, constructorArgs: [resolverStrategy])
+        def store = new ModuleDescriptorStore(new PathKeyFileStore(temporaryFolder.createDir("store")), new IvyXmlModuleDescriptorWriter(), parser, new ModuleDescriptorSerializer(resolverStrategy))
+        def hash = store.putModuleDescriptor(repository, moduleComponentIdentifier, parse(parser)).sha1.asBigInteger()
+        store.getModuleDescriptor(repository, moduleComponentIdentifier, hash)
+
+        when:
+        store.getModuleDescriptor(repository, moduleComponentIdentifier, hash.add(BigInteger.ONE))
+
+        then:
+        1 * parser.parseMetaData(_, _, false)
+    }
+
+    def "parses ivy.xml when the binary descriptor cannot be read"() {
+        def resolverStrategy = new ResolverStrategy()
+        def parser = Spy(IvyXmlModuleDescriptorParser, constructorArgs: [resolverStrategy])
+        def store = new ModuleDescriptorStore(new PathKeyFileStore(temporaryFolder.createDir("store")), new IvyXmlModuleDescriptorWriter(), parser, new ModuleDescriptorSerializer(resolverStrategy))
+        def hash = store.putModuleDescriptor(repository, moduleComponentIdentifier, parse(parser)).sha1.asBigInteger()
+        temporaryFolder.file("store/org.test/testArtifact/1.0/repositoryId/descriptor.bin").text = "broken"
+
+        when:
+        def descriptor = store.getModuleDescriptor(repository, moduleComponentIdentifier, hash)
+
+        then:
+        1 * parser.parseMetaData(_, _, false)
+        descriptor.moduleRevisionId.name == "testArtifact"
+    }
+
+    private ModuleDescriptor parse(IvyXmlModuleDescriptorParser parser) {
+        def ivyFile = temporaryFolder.file("source/ivy.xml") << """
+<ivy-module version="2.0">
+    <info organisation="org.test" module="testArtifact" revision="1.0"/>
+    <configurations>
+        <conf name="default" extends="runtime"/>
+        <conf name="runtime"/>
+    </configurations>
+    <dependencies>
+        <dependency org="org.test" name="lib" rev="1.2" conf="runtime->default"/>
+    </dependencies>
+</ivy-module>
+"""
+        return parser.parseMetaData(Stub(DescriptorParseContext), ivyFile, false).descriptor
+    }
+}
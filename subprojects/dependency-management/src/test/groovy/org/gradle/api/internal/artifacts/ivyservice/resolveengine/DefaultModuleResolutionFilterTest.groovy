@@ -643,6 +643,47 @@ class DefaultModuleResolutionFilterTest extends Specification {
         spec.acceptArtifact(moduleId("other", "sample"), artifactName("regexp", "jar", "jar"))
     }
 
+    def "specs with the same exclude rules are the same instance"() {
+        def rule1 = excludeRule("org", "module")
+        def rule2 = regexpExcludeRule("org", "module2")
+
+        expect:
+        DefaultModuleResolutionFilter.excludeAny(rule1, rule2).is(DefaultModuleResolutionFilter.excludeAny(rule2, rule1))
+        !DefaultModuleResolutionFilter.excludeAny(rule1, rule2).is(DefaultModuleResolutionFilter.excludeAny(rule1))
+    }
+
+    def "reuses result of merging the same specs"() {
+        def spec1 = DefaultModuleResolutionFilter.excludeAny(regexpExcludeRule("org", "module"))
+        def spec2 = DefaultModuleResolutionFilter.excludeAny(excludeRule("org", "module2"))
+
+        expect:
+        spec1.union(spec2).is(spec1.union(spec2))
+        spec1.intersect(spec2).is(spec1.intersect(spec2))
+        spec1.intersect(spec2).is(spec2.intersect(spec1))
+    }
+
+    def "does not accept module that matches any exact or pattern exclude rule of merged specs"() {
+        def spec = DefaultModuleResolutionFilter.excludeAny(excludeRule("org", "module"))
+            .intersect(DefaultModuleResolutionFilter.excludeAny(excludeRule("org2", "*")))
+            .intersect(DefaultModuleResolutionFilter.excludeAny(excludeRule("*", "module2")))
+            .intersect(DefaultModuleResolutionFilter.excludeAny(regexpExcludeRule("regexp-\\d+", "module")))
+            .intersect(DefaultModuleResolutionFilter.excludeAny(excludeArtifactRule("a", "jar", "jar")))
+
+        expect:
+        !spec.acceptModule(moduleId("org", "module"))
+        !spec.acceptModule(moduleId("org2", "anything"))
+        !spec.acceptModule(moduleId("anything", "module2"))
+        !spec.acceptModule(moduleId("regexp-72", "module"))
+        spec.acceptModule(moduleId("org", "module3"))
+        spec.acceptModule(moduleId("org3", "module"))
+        spec.acceptModule(moduleId("regexp", "module"))
+
+        and:
+        !spec.acceptsAllArtifacts()
+        !spec.acceptArtifact(moduleId("org3", "module"), artifactName("a", "jar", "jar"))
+        spec.acceptArtifact(moduleId("org3", "module"), artifactName("b", "jar", "jar"))
+    }
+
     static specForRule(def spec, ExcludeRule rule) {
         return spec.moduleId.group == rule.id.moduleId.organisation && spec.moduleId.name == rule.id.moduleId.name
     }
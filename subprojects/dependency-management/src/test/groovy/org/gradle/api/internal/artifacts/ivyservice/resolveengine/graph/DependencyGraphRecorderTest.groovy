@@ -0,0 +1,273 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph
+
+import org.gradle.api.artifacts.ModuleDependency
+import org.gradle.api.artifacts.ModuleVersionIdentifier
+import org.gradle.api.artifacts.ModuleVersionSelector
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.artifacts.component.ModuleComponentSelector
+import org.gradle.api.artifacts.result.ComponentSelectionReason
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier
+import org.gradle.api.internal.artifacts.dependencies.DefaultExternalModuleDependency
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.DefaultModuleResolutionFilter
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleResolutionFilter
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ArtifactSet
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultArtifactSet
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ModuleVersionSelection
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.VersionSelectionReasons
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactMetaData
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.component.model.ComponentArtifactMetaData
+import org.gradle.internal.component.model.ComponentResolveMetaData
+import org.gradle.internal.component.model.ConfigurationMetaData
+import org.gradle.internal.component.model.DefaultIvyArtifactName
+import org.gradle.internal.component.model.ModuleSource
+import org.gradle.internal.resolve.ModuleVersionResolveException
+import org.gradle.internal.resolve.resolver.ArtifactResolver
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionSelector.newSelector
+
+class DependencyGraphRecorderTest extends Specification {
+    def artifactResolver = Stub(ArtifactResolver)
+    def versionSelectorScheme = new DefaultVersionSelectorScheme(new DefaultVersionComparator())
+    def dependencyA = new DefaultExternalModuleDependency("org", "a", "1.0")
+    def firstLevelDependencies = [dependencyA]
+    def recorder = new DependencyGraphRecorder(firstLevelDependencies, ModuleReplacementsData.NO_OP, versionSelectorScheme)
+
+    def root = node("root", null)
+    def a = node("a", metaData())
+    def b = node("b", metaData())
+
+    def "replays recorded graph"() {
+        def rootToA = edge(root, a, "1.0", dependencyA)
+        def aToB = edge(a, b, "2.0", null)
+        def artifactsA = artifactSet(a, 1, "a")
+        def artifactsB = artifactSet(b, 2, "b", "b-sources")
+        def graphVisitor = Mock(DependencyGraphVisitor)
+        def artifactsVisitor = Mock(DependencyArtifactsVisitor)
+
+        given:
+        record([root, a, b], [[root, a, artifactsA], [a, b, artifactsB]])
+
+        when:
+        def graph = RecordedDependencyGraph.read(recorder.recording, firstLevelDependencies, artifactResolver)
+        graph.visit(graphVisitor, artifactsVisitor)
+
+        then:
+        1 * graphVisitor.start({ it.nodeId == root.nodeId })
+
+        then:
+        1 * graphVisitor.visitNode({ it.nodeId == root.nodeId && it.outgoingEdges.size() == 1 && it.incomingEdges.empty })
+        1 * graphVisitor.visitNode({ it.nodeId == a.nodeId && it.toId() == a.toId() && it.componentId == a.componentId && it.selection.selectionReason == VersionSelectionReasons.REQUESTED })
+        1 * graphVisitor.visitNode({ it.nodeId == b.nodeId && it.incomingEdges*.requested == [aToB.requested] && it.incomingEdges*.moduleDependency == [null] })
+
+        then:
+        1 * graphVisitor.visitEdge({ it.nodeId == root.nodeId })
+
+        then:
+        1 * graphVisitor.visitEdge({ it.nodeId == a.nodeId && it.incomingEdges*.moduleDependency == [dependencyA] && it.incomingEdges*.selected == [rootToA.selected] })
+
+        then:
+        1 * artifactsVisitor.visitArtifacts(root.nodeId, a.nodeId, { it.id == 1 && it.artifacts*.name == ["a"] })
+
+        then:
+        1 * graphVisitor.visitEdge({ it.nodeId == b.nodeId })
+
+        then:
+        1 * artifactsVisitor.visitArtifacts(a.nodeId, b.nodeId, { it.id == 2 && it.artifacts*.name == ["b", "b-sources"] })
+
+        then:
+        1 * graphVisitor.finish({ it.nodeId == root.nodeId })
+
+        then:
+        1 * artifactsVisitor.finishArtifacts()
+        0 * _
+
+        and:
+        graph.components == [a.componentId, b.componentId] as Set
+    }
+
+    def "reuses artifact set that is visited for multiple edges"() {
+        def c = node("c", metaData())
+        edge(root, a, "1.0", dependencyA)
+        edge(a, c, "1.0", null)
+        edge(b, c, "1.0", null)
+        def artifactsC = artifactSet(c, 3, "c")
+        def visited = []
+        def artifactsVisitor = Stub(DependencyArtifactsVisitor) {
+            visitArtifacts(_, _, _) >> { ResolvedConfigurationIdentifier parent, ResolvedConfigurationIdentifier child, ArtifactSet artifacts -> visited << artifacts }
+        }
+
+        given:
+        record([root, a, b, c], [[a, c, artifactsC], [b, c, artifactsC]])
+
+        when:
+        def graph = RecordedDependencyGraph.read(recorder.recording, firstLevelDependencies, artifactResolver)
+        graph.visit(Stub(DependencyGraphVisitor), artifactsVisitor)
+
+        then:
+        visited.size() == 2
+        visited[0].is(visited[1])
+    }
+
+    def "does not record graph with failed edge"() {
+        edge(root, a, "1.0", dependencyA)
+        edge(a, b, "2.0", null).failure = new ModuleVersionResolveException(newSelector("org", "b", "2.0"), "broken")
+
+        when:
+        record([root, a, b], [])
+
+        then:
+        recorder.recording == null
+    }
+
+    def "does not record graph with dynamic version"() {
+        edge(root, a, "1.0", dependencyA)
+        edge(a, b, "1.+", null)
+
+        when:
+        record([root, a, b], [])
+
+        then:
+        recorder.recording == null
+    }
+
+    def "does not record graph with changing module"() {
+        def changing = node("changing", metaData(true))
+        edge(root, a, "1.0", dependencyA)
+        edge(a, changing, "1.0", null)
+
+        when:
+        record([root, a, changing], [])
+
+        then:
+        recorder.recording == null
+    }
+
+    def "does not record graph with edge that does not match a first level dependency"() {
+        edge(root, a, "1.0", new DefaultExternalModuleDependency("org", "a", "1.0"))
+
+        when:
+        record([root, a], [])
+
+        then:
+        recorder.recording == null
+    }
+
+    def "does not replay graph when first level dependencies have changed"() {
+        edge(root, a, "1.0", dependencyA)
+
+        given:
+        record([root, a], [])
+
+        expect:
+        RecordedDependencyGraph.read(recorder.recording, [dependencyA], artifactResolver) != null
+        RecordedDependencyGraph.read(recorder.recording, [new DefaultExternalModuleDependency("org", "a", "1.1")], artifactResolver) == null
+        RecordedDependencyGraph.read(recorder.recording, [], artifactResolver) == null
+    }
+
+    private void record(List<TestNode> nodes, List<List<?>> artifacts) {
+        recorder.start(nodes[0])
+        nodes.each { recorder.visitNode(it) }
+        nodes.each { recorder.visitEdge(it) }
+        artifacts.each { recorder.visitArtifacts(it[0].nodeId, it[1].nodeId, it[2]) }
+        recorder.finish(nodes[0])
+        recorder.finishArtifacts()
+    }
+
+    private TestNode node(String name, ConfigurationMetaData metaData) {
+        def id = newId("org", name, "1.0")
+        def selection = Stub(ModuleVersionSelection) {
+            getId() >> id
+            getSelectionReason() >> (metaData == null ? VersionSelectionReasons.ROOT : VersionSelectionReasons.REQUESTED)
+            getComponentId() >> DefaultModuleComponentIdentifier.newId(id)
+        }
+        return new TestNode(nodeId: new ResolvedConfigurationIdentifier(id, "default"), selection: selection, metaData: metaData)
+    }
+
+    private ConfigurationMetaData metaData(boolean changing = false) {
+        def component = Stub(ComponentResolveMetaData) {
+            isChanging() >> changing
+        }
+        return Stub(ConfigurationMetaData) {
+            getComponent() >> component
+        }
+    }
+
+    private static TestEdge edge(TestNode from, TestNode to, String version, ModuleDependency moduleDependency) {
+        def edge = new TestEdge(from: from, requested: DefaultModuleComponentSelector.newSelector(to.toId().group, to.toId().name, version), selected: to.toId(), moduleDependency: moduleDependency)
+        from.outgoingEdges << edge
+        to.incomingEdges << edge
+        return edge
+    }
+
+    private DefaultArtifactSet artifactSet(TestNode owner, long id, String... names) {
+        def artifacts = names.collect { new DefaultModuleComponentArtifactMetaData(owner.componentId, new DefaultIvyArtifactName(it, "jar", "jar")) } as LinkedHashSet
+        return new DefaultArtifactSet(owner.toId(), new TestModuleSource(), DefaultModuleResolutionFilter.all(), artifacts, artifactResolver, [:], id)
+    }
+
+    private static class TestNode implements DependencyGraphNode {
+        ResolvedConfigurationIdentifier nodeId
+        ModuleVersionSelection selection
+        ConfigurationMetaData metaData
+        Set<DependencyGraphEdge> incomingEdges = new LinkedHashSet<>()
+        Set<DependencyGraphEdge> outgoingEdges = new LinkedHashSet<>()
+
+        ModuleVersionIdentifier toId() {
+            selection.id
+        }
+
+        ComponentIdentifier getComponentId() {
+            selection.componentId
+        }
+    }
+
+    private static class TestEdge implements DependencyGraphEdge {
+        DependencyGraphNode from
+        ModuleComponentSelector requested
+        ModuleVersionIdentifier selected
+        ModuleDependency moduleDependency
+        ModuleVersionResolveException failure
+
+        ModuleVersionSelector getRequestedModuleVersion() {
+            newSelector(requested.group, requested.module, requested.version)
+        }
+
+        ModuleResolutionFilter getSelector() {
+            DefaultModuleResolutionFilter.all()
+        }
+
+        Set<ComponentArtifactMetaData> getArtifacts(ConfigurationMetaData metaData) {
+            [] as Set
+        }
+
+        ComponentSelectionReason getReason() {
+            VersionSelectionReasons.REQUESTED
+        }
+    }
+
+    private static class TestModuleSource implements ModuleSource {
+    }
+}
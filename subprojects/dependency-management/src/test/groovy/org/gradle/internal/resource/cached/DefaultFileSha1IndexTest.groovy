@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.cached
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.internal.hash.HashUtil
+import org.gradle.internal.serialize.Serializer
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.InMemoryIndexedCache
+import org.junit.Rule
+import spock.lang.Specification
+
+class DefaultFileSha1IndexTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def cacheLockingManager = Stub(CacheLockingManager) {
+        useCache(_, _) >> { displayName, action ->
+            if (action instanceof org.gradle.internal.Factory) {
+                return action.create()
+            } else {
+                action.run()
+            }
+        }
+
+        createCache(_, _, _) >> { String file, Serializer keySerializer, Serializer valueSerializer ->
+            return new InMemoryIndexedCache<>(valueSerializer)
+        }
+    }
+
+    def index = new DefaultFileSha1Index(cacheLockingManager)
+
+    def "hashes file and finds it by its sha1"() {
+        given:
+        def file = tmp.createFile("file") << "content"
+
+        when:
+        def sha1 = index.getSha1(file)
+
+        then:
+        sha1 == HashUtil.sha1(file)
+        index.findByHashValue(sha1).file == file
+        index.findByHashValue(sha1).sha1 == sha1
+        index.findByHashValue(HashUtil.sha1("other".bytes)) == null
+    }
+
+    def "does not hash file again when it has not changed"() {
+        given:
+        def file = tmp.createFile("file") << "content"
+        def recorded = HashUtil.sha1("something else".bytes)
+        index.record(file, recorded)
+
+        expect:
+        index.getSha1(file) == recorded
+    }
+
+    def "hashes file again when it has changed"() {
+        given:
+        def file = tmp.createFile("file") << "content"
+        def original = index.getSha1(file)
+
+        when:
+        file << "more content"
+        file.lastModified = file.lastModified() + 2000
+
+        then:
+        index.getSha1(file) == HashUtil.sha1(file)
+        index.findByHashValue(original) == null
+    }
+
+    def "does not find file that has changed or been removed since it was indexed"() {
+        given:
+        def changed = tmp.createFile("changed") << "changed"
+        def removed = tmp.createFile("removed") << "removed"
+        def changedSha1 = index.getSha1(changed)
+        def removedSha1 = index.getSha1(removed)
+
+        when:
+        changed << "more content"
+        removed.delete()
+
+        then:
+        index.findByHashValue(changedSha1) == null
+        index.findByHashValue(removedSha1) == null
+    }
+
+    def "finds recorded file"() {
+        given:
+        def file = tmp.createFile("file") << "content"
+        def sha1 = HashUtil.sha1(file)
+
+        when:
+        index.record(file, sha1)
+
+        then:
+        index.findByHashValue(sha1).file == file
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local
+
+import org.gradle.internal.hash.HashUtil
+import spock.lang.Specification
+
+class IndexedLocallyAvailableResourceFinderTest extends Specification {
+    def delegate = Mock(LocallyAvailableResourceFinder)
+    def candidates = Mock(LocallyAvailableResourceCandidates)
+    def sha1Index = Mock(FileSha1Index)
+    def finder = new IndexedLocallyAvailableResourceFinder<String>(delegate, sha1Index)
+    def hash = HashUtil.sha1("abc".bytes)
+
+    def "uses indexed resource without searching candidates"() {
+        def indexed = Mock(LocallyAvailableResource)
+
+        when:
+        def match = finder.findCandidates("abc").findByHashValue(hash)
+
+        then:
+        match == indexed
+
+        and:
+        1 * delegate.findCandidates("abc") >> candidates
+        1 * sha1Index.findByHashValue(hash) >> indexed
+        0 * _
+    }
+
+    def "searches candidates when no resource is indexed"() {
+        def found = Mock(LocallyAvailableResource)
+
+        when:
+        def match = finder.findCandidates("abc").findByHashValue(hash)
+
+        then:
+        match == found
+
+        and:
+        1 * delegate.findCandidates("abc") >> candidates
+        1 * sha1Index.findByHashValue(hash) >> null
+        1 * candidates.findByHashValue(hash) >> found
+        0 * _
+    }
+
+    def "has candidates when the delegate has candidates"() {
+        when:
+        def none = finder.findCandidates("abc").isNone()
+
+        then:
+        none == delegateNone
+
+        and:
+        1 * delegate.findCandidates("abc") >> candidates
+        1 * candidates.isNone() >> delegateNone
+        0 * _
+
+        where:
+        delegateNone << [true, false]
+    }
+}
@@ -51,6 +51,23 @@ class LazyLocallyAvailableResourceCandidatesTest extends Specification {
         0 * factory.create()
     }
     
+    def "uses index to hash candidates"() {
+        given:
+        def factory = Stub(Factory) {
+            create() >> [file("abc"), file("def")]
+        }
+        def sha1Index = Mock(FileSha1Index)
+        def hash = HashUtil.sha1("def".bytes)
+
+        when:
+        def candidate = new LazyLocallyAvailableResourceCandidates(factory, sha1Index).findByHashValue(hash)
+
+        then:
+        candidate.file.name == "def"
+        1 * sha1Index.getSha1({ it.name == "abc" }) >> HashUtil.sha1("abc".bytes)
+        1 * sha1Index.getSha1({ it.name == "def" }) >> hash
+    }
+
     File file(path) {
         tmp.createFile(path) << path
     }
@@ -24,6 +24,7 @@ import org.gradle.internal.resource.ExternalResource
 import org.gradle.internal.resource.cached.CachedExternalResource
 import org.gradle.internal.resource.cached.CachedExternalResourceIndex
 import org.gradle.internal.resource.local.DefaultLocallyAvailableResource
+import org.gradle.internal.resource.local.FileSha1Index
 import org.gradle.internal.resource.local.LocallyAvailableResource
 import org.gradle.internal.resource.local.LocallyAvailableResourceCandidates
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData
@@ -45,7 +46,8 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         createTemporaryFile(_, _, _) >> tempFile
     }
     final cacheLockingManager = Mock(CacheLockingManager)
-    final cache = new DefaultCacheAwareExternalResourceAccessor(repository, index, timeProvider, temporaryFileProvider, cacheLockingManager)
+    final sha1Index = Mock(FileSha1Index)
+    final cache = new DefaultCacheAwareExternalResourceAccessor(repository, index, timeProvider, temporaryFileProvider, cacheLockingManager, sha1Index)
 
     def "returns null when the request resource is not cached and does not exist in the remote repository"() {
         def uri = new URI("scheme:thing")
@@ -116,6 +118,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         }
         1 * fileStore.moveIntoCache(tempFile) >> localResource
         1 * index.store("scheme:thing", cachedFile, metaData)
+        1 * sha1Index.record(cachedFile, HashUtil.sha1(new byte[0]))
         0 * _._
     }
 
@@ -185,6 +188,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         }
         1 * fileStore.moveIntoCache(tempFile) >> localResource
         1 * index.store("scheme:thing", cachedFile, remoteMetaData)
+        1 * sha1Index.record(cachedFile, sha1)
         0 * _._
     }
 
@@ -232,6 +236,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         }
         1 * fileStore.moveIntoCache(tempFile) >> localResource
         1 * index.store("scheme:thing", cachedFile, remoteMetaData)
+        1 * sha1Index.record(cachedFile, sha1)
         0 * _._
     }
 
@@ -276,6 +281,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         }
         1 * fileStore.moveIntoCache(tempFile) >> localResource
         1 * index.store("scheme:thing", cachedFile, remoteMetaData)
+        1 * sha1Index.record(cachedFile, HashUtil.sha1(new byte[0]))
         0 * _._
     }
 
@@ -330,6 +336,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         }
         1 * fileStore.moveIntoCache(tempFile) >> localResource
         1 * index.store("scheme:thing", cachedFile, remoteMetaData)
+        1 * sha1Index.record(cachedFile, HashUtil.sha1(new byte[0]))
         0 * _._
     }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.progress.OperationIdentifier;
+import org.gradle.internal.serialize.ObjectWriter;
+import org.gradle.internal.serialize.Serializers;
+import org.gradle.launcher.daemon.protocol.DaemonMessageSerializer;
+import org.gradle.launcher.daemon.protocol.Message;
+import org.gradle.launcher.daemon.protocol.OutputMessage;
+import org.gradle.logging.internal.LogEvent;
+import org.gradle.logging.internal.OutputEvent;
+import org.gradle.logging.internal.ProgressCompleteEvent;
+import org.gradle.logging.internal.ProgressEvent;
+import org.gradle.logging.internal.ProgressStartEvent;
+import org.gradle.messaging.remote.internal.Connection;
+import org.gradle.messaging.remote.internal.KryoBackedMessageSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sending the output of a heavily logging build to the client one message per event with sending it through the batching {@link OutputEventForwarder}.
+ *
+ * <p>The messages are serialized and written to a loopback socket, as the daemon does, and the client end discards them. The number of messages sent for each
+ * build is printed after each iteration.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputEventForwarderBenchmark {
+    // The output of a build that runs this many tests with verbose test logging
+    private static final int TESTS = 5000;
+
+    private final List<OutputEvent> events = new ArrayList<OutputEvent>();
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+    private ServerSocket serverSocket;
+    private Socket clientSocket;
+    private Socket daemonSocket;
+    private SocketConnection connection;
+    private int builds;
+
+    @Setup
+    public void setup() throws Exception {
+        OperationIdentifier testOperation = new OperationIdentifier(1);
+        events.add(new ProgressStartEvent(testOperation, null, 0, "test", "Run tests", "Test", null, ""));
+        for (int i = 0; i < TESTS; i++) {
+            events.add(new LogEvent(0, "test", LogLevel.LIFECYCLE, "org.gradle.SomeTest > test" + i + " STARTED", null));
+            events.add(new ProgressEvent(testOperation, 0, "test", i + " tests completed"));
+            events.add(new LogEvent(0, "test", LogLevel.LIFECYCLE, "org.gradle.SomeTest > test" + i + " PASSED", null));
+        }
+        events.add(new ProgressCompleteEvent(testOperation, 0, "test", "Run tests", ""));
+
+        serverSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"));
+        daemonSocket = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+        clientSocket = serverSocket.accept();
+        executorFactory.create("Discard output").execute(new Runnable() {
+            public void run() {
+                byte[] buffer = new byte[8192];
+                try {
+                    InputStream inputStream = clientSocket.getInputStream();
+                    while (inputStream.read(buffer) >= 0) {
+                        // Discard
+                    }
+                } catch (IOException e) {
+                    // Closed
+                }
+            }
+        });
+        connection = new SocketConnection(daemonSocket);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        daemonSocket.close();
+        clientSocket.close();
+        serverSocket.close();
+        executorFactory.stop();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportMessages() {
+        System.out.println();
+        System.out.println("Messages sent per build: " + (builds == 0 ? 0 : connection.messages / builds));
+        connection.messages = 0;
+        builds = 0;
+    }
+
+    @Benchmark
+    public void sendEachEvent() {
+        for (OutputEvent event : events) {
+            connection.dispatch(new OutputMessage(event));
+        }
+        builds++;
+    }
+
+    @Benchmark
+    public void sendBatchedEvents() {
+        OutputEventForwarder forwarder = new OutputEventForwarder(connection, executorFactory);
+        for (OutputEvent event : events) {
+            forwarder.add(event);
+        }
+        forwarder.stop();
+        builds++;
+    }
+
+    /**
+     * Writes messages to a socket in the same way as the daemon's connection to the client, flushing after each message.
+     */
+    private static class SocketConnection implements Connection<Message> {
+        private final ObjectWriter<Message> writer;
+        private volatile int messages;
+
+        SocketConnection(Socket socket) throws IOException {
+            KryoBackedMessageSerializer<Message> serializer = new KryoBackedMessageSerializer<Message>(Serializers.stateful(DaemonMessageSerializer.create()));
+            writer = serializer.newWriter(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        public void dispatch(Message message) {
+            try {
+                writer.write(message);
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            messages++;
+        }
+
+        public Message receive() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void requestStop() {
+        }
+
+        public void stop() {
+        }
+    }
+}
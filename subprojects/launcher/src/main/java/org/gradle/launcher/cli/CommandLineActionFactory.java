@@ -203,7 +203,11 @@ public class CommandLineActionFactory {
             NativeServices.initialize(buildLayout.getGradleUserHomeDir());
             loggingManager.attachProcessConsole(loggingConfiguration.getConsoleOutput());
 
-            action.execute(executionListener);
+            try {
+                action.execute(executionListener);
+            } finally {
+                loggingManager.flush();
+            }
         }
     }
 
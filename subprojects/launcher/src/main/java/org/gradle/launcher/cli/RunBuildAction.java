@@ -17,6 +17,7 @@ package org.gradle.launcher.cli;
 
 import org.gradle.StartParameter;
 import org.gradle.initialization.*;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.launcher.exec.BuildActionExecuter;
 import org.gradle.launcher.exec.BuildActionParameters;
@@ -28,22 +29,31 @@ public class RunBuildAction implements Runnable {
     private final long startTime;
     private final BuildActionParameters buildActionParameters;
     private final ServiceRegistry sharedServices;
+    private final Stoppable stopOnCompletion;
 
+    /**
+     * @param stopOnCompletion Stopped once the build has completed, before the process exits. Used to wait for any work that the client does in the background.
+     */
     public RunBuildAction(BuildActionExecuter<BuildActionParameters> executer, StartParameter startParameter, BuildClientMetaData clientMetaData, long startTime,
-                          BuildActionParameters buildActionParameters, ServiceRegistry sharedServices) {
+                          BuildActionParameters buildActionParameters, ServiceRegistry sharedServices, Stoppable stopOnCompletion) {
         this.executer = executer;
         this.startParameter = startParameter;
         this.clientMetaData = clientMetaData;
         this.startTime = startTime;
         this.buildActionParameters = buildActionParameters;
         this.sharedServices = sharedServices;
+        this.stopOnCompletion = stopOnCompletion;
     }
 
     public void run() {
-        executer.execute(
-                new ExecuteBuildAction(startParameter),
-                new DefaultBuildRequestContext(new DefaultBuildRequestMetaData(clientMetaData, startTime), new DefaultBuildCancellationToken(), new NoOpBuildEventConsumer()),
-                buildActionParameters,
-                sharedServices);
+        try {
+            executer.execute(
+                    new ExecuteBuildAction(startParameter),
+                    new DefaultBuildRequestContext(new DefaultBuildRequestMetaData(clientMetaData, startTime), new DefaultBuildCancellationToken(), new NoOpBuildEventConsumer()),
+                    buildActionParameters,
+                    sharedServices);
+        } finally {
+            stopOnCompletion.stop();
+        }
     }
 }
@@ -35,6 +35,7 @@ import org.gradle.launcher.daemon.protocol.*;
 import org.gradle.launcher.daemon.server.api.DaemonStoppedException;
 import org.gradle.launcher.exec.BuildActionExecuter;
 import org.gradle.launcher.exec.BuildActionParameters;
+import org.gradle.logging.internal.OutputEvent;
 import org.gradle.logging.internal.OutputEventListener;
 import org.gradle.messaging.remote.internal.Connection;
 
@@ -50,7 +51,7 @@ import java.util.List;
  * <li>The client creates a connection to daemon.</li>
  * <li>The client sends exactly one {@link Build} message.</li>
  * <li>The daemon sends exactly one {@link BuildStarted}, {@link Failure} or {@link DaemonUnavailable} message.</li>
- * <li>If the build is started, the daemon may send zero or more {@link OutputMessage} messages.</li>
+ * <li>If the build is started, the daemon may send zero or more {@link OutputMessage} or {@link OutputMessageBatch} messages.</li>
  * <li>If the build is started, the daemon may send zero or more {@link BuildEvent} messages.</li>
  * <li>If the build is started, the client may send zero or more {@link ForwardInput} messages followed by exactly one {@link CloseInput} message.</li>
  * <li>If the build is started, the client may send {@link org.gradle.launcher.daemon.protocol.Cancel} message before {@link CloseInput} message.</li>
@@ -198,6 +199,10 @@ public class DaemonClient implements BuildActionExecuter<BuildActionParameters>
                     return handleDaemonDisappearance(build, diagnostics);
                 } else if (object instanceof OutputMessage) {
                     outputEventListener.onOutput(((OutputMessage) object).getEvent());
+                } else if (object instanceof OutputMessageBatch) {
+                    for (OutputEvent event : ((OutputMessageBatch) object).getEvents()) {
+                        outputEventListener.onOutput(event);
+                    }
                 } else if (object instanceof BuildEvent) {
                     buildEventConsumer.dispatch(((BuildEvent)object).getPayload());
                 } else {
@@ -84,7 +84,7 @@ abstract public class DaemonClientServicesSupport extends DefaultServiceRegistry
         return new TcpOutgoingConnector();
     }
 
-    DaemonConnector createDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector outgoingConnector, DaemonStarter daemonStarter) {
-        return new DefaultDaemonConnector(daemonRegistry, outgoingConnector, daemonStarter);
+    DaemonConnector createDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector outgoingConnector, DaemonStarter daemonStarter, ExecutorFactory executorFactory) {
+        return new DefaultDaemonConnector(daemonRegistry, outgoingConnector, daemonStarter, executorFactory);
     }
 }
\ No newline at end of file
@@ -19,6 +19,9 @@ import org.gradle.api.internal.specs.ExplainingSpec;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.internal.serialize.Serializers;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.context.DaemonInstanceDetails;
@@ -31,24 +34,31 @@ import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.messaging.remote.internal.*;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * Provides the mechanics of connecting to a daemon, starting one via a given runnable if no suitable daemons are already available.
  */
-public class DefaultDaemonConnector implements DaemonConnector {
+public class DefaultDaemonConnector implements DaemonConnector, Stoppable {
     private static final Logger LOGGER = Logging.getLogger(DefaultDaemonConnector.class);
     public static final int DEFAULT_CONNECT_TIMEOUT = 30000;
     public static final String STARTING_DAEMON_MESSAGE = "Starting a new Gradle Daemon for this build (subsequent builds will be faster).";
     public static final String DISABLE_STARTING_DAEMON_MESSAGE_PROPERTY = "org.gradle.daemon.disable-starting-message";
+    public static final String STANDBY_DAEMON_PROPERTY = "org.gradle.daemon.standby";
     private final DaemonRegistry daemonRegistry;
     protected final OutgoingConnector connector;
     private final DaemonStarter daemonStarter;
+    private final ExecutorFactory executorFactory;
     private long connectTimeout = DefaultDaemonConnector.DEFAULT_CONNECT_TIMEOUT;
+    private boolean startStandbyDaemon = Boolean.getBoolean(STANDBY_DAEMON_PROPERTY);
+    private StoppableExecutor standbyDaemonExecutor;
+    private Future<?> standbyDaemonStart;
 
-    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter) {
+    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, ExecutorFactory executorFactory) {
         this.daemonRegistry = daemonRegistry;
         this.connector = connector;
         this.daemonStarter = daemonStarter;
+        this.executorFactory = executorFactory;
     }
 
     public void setConnectTimeout(long connectTimeout) {
@@ -59,6 +69,14 @@ public class DefaultDaemonConnector implements DaemonConnector {
         return connectTimeout;
     }
 
+    /**
+     * When enabled, a standby daemon is started in the background whenever a build is handed to the last idle daemon that is compatible with it,
+     * so that the next build does not have to wait for a daemon to start. Ignored when the daemon starter cannot start standby daemons.
+     */
+    public void setStartStandbyDaemon(boolean startStandbyDaemon) {
+        this.startStandbyDaemon = startStandbyDaemon;
+    }
+
     public DaemonRegistry getDaemonRegistry() {
         return daemonRegistry;
     }
@@ -79,6 +97,8 @@ public class DefaultDaemonConnector implements DaemonConnector {
     public DaemonClientConnection connect(ExplainingSpec<DaemonContext> constraint) {
         DaemonClientConnection connection = findConnection(daemonRegistry.getIdle(), constraint);
         if (connection != null) {
+            // Only replace an idle daemon that has been used. When the builds are too far apart to reuse daemons, a standby daemon would expire unused
+            maybeStartStandbyDaemon(connection.getDaemon(), constraint);
             return connection;
         }
 
@@ -88,6 +108,51 @@ public class DefaultDaemonConnector implements DaemonConnector {
         return startDaemon(constraint);
     }
 
+    private void maybeStartStandbyDaemon(DaemonInstanceDetails connectedDaemon, ExplainingSpec<DaemonContext> constraint) {
+        if (!startStandbyDaemon || !(daemonStarter instanceof StandbyDaemonStarter)) {
+            return;
+        }
+        final StandbyDaemonStarter standbyDaemonStarter = (StandbyDaemonStarter) daemonStarter;
+        for (DaemonInfo daemon : daemonRegistry.getIdle()) {
+            if (!daemon.getUid().equals(connectedDaemon.getUid()) && constraint.isSatisfiedBy(daemon.getContext())) {
+                return;
+            }
+        }
+        synchronized (this) {
+            if (standbyDaemonStart != null && !standbyDaemonStart.isDone()) {
+                return;
+            }
+            if (standbyDaemonExecutor == null) {
+                standbyDaemonExecutor = executorFactory.create("Standby daemon starter");
+            }
+            LOGGER.info("No other compatible idle daemon is available. Starting a standby daemon in the background.");
+            standbyDaemonStart = standbyDaemonExecutor.submit(new Runnable() {
+                public void run() {
+                    try {
+                        DaemonStartupInfo startupInfo = standbyDaemonStarter.startStandbyDaemon();
+                        LOGGER.debug("Started standby Gradle daemon {}", startupInfo);
+                    } catch (Throwable e) {
+                        LOGGER.info("Could not start a standby daemon.", e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Waits for any standby daemon that is being started, so that it is not abandoned part way through its startup.
+     */
+    public void stop() {
+        StoppableExecutor executor;
+        synchronized (this) {
+            executor = standbyDaemonExecutor;
+            standbyDaemonExecutor = null;
+        }
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
     private DaemonClientConnection findConnection(List<DaemonInfo> daemons, ExplainingSpec<DaemonContext> constraint) {
         for (DaemonInfo daemon : daemons) {
             if (!constraint.isSatisfiedBy(daemon.getContext())) {
@@ -46,8 +46,9 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
-public class DefaultDaemonStarter implements DaemonStarter {
+public class DefaultDaemonStarter implements DaemonStarter, StandbyDaemonStarter {
 
     private static final Logger LOGGER = Logging.getLogger(DefaultDaemonStarter.class);
 
@@ -66,6 +67,14 @@ public class DefaultDaemonStarter implements DaemonStarter {
     }
 
     public DaemonStartupInfo startDaemon() {
+        return startDaemon(false);
+    }
+
+    public DaemonStartupInfo startStandbyDaemon() {
+        return startDaemon(true);
+    }
+
+    private DaemonStartupInfo startDaemon(boolean standby) {
         ModuleRegistry registry = new DefaultModuleRegistry();
         ClassPath classpath;
         List<File> searchClassPath;
@@ -112,7 +121,9 @@ public class DefaultDaemonStarter implements DaemonStarter {
             encoder.writeString(daemonParameters.getGradleUserHomeDir().getAbsolutePath());
             encoder.writeString(daemonDir.getBaseDir().getAbsolutePath());
             encoder.writeSmallInt(daemonParameters.getIdleTimeout());
-            encoder.writeString(daemonParameters.getUid());
+            // A standby daemon is not connected to by this client, so give it its own id
+            encoder.writeString(standby ? UUID.randomUUID().toString() : daemonParameters.getUid());
+            encoder.writeBoolean(standby);
             encoder.writeSmallInt(daemonOpts.size());
             for (String daemonOpt : daemonOpts) {
                 encoder.writeString(daemonOpt);
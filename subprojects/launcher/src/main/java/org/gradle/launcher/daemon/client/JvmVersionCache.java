@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.client;
+
+import org.gradle.api.JavaVersion;
+import org.gradle.api.Nullable;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * A cache of the Java versions of JVM installations, persisted to a file so that it can be shared by builds and processes.
+ *
+ * <p>An entry is keyed by the canonical path of the Java executable, and is used only while the executable has the same size and modification time as when the
+ * installation was probed. The file is replaced atomically when an entry is added, so readers never see a partially written file. Concurrent writers may lose
+ * each other's entries, which just means those installations are probed again.</p>
+ */
+public class JvmVersionCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JvmVersionCache.class);
+    private final File cacheFile;
+    private Properties entries;
+
+    public JvmVersionCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    @Nullable
+    public synchronized JavaVersion get(File javaExecutable) {
+        if (entries == null) {
+            entries = load();
+        }
+        String entry = entries.getProperty(key(javaExecutable));
+        if (entry == null) {
+            return null;
+        }
+        String[] fields = entry.split(",");
+        if (fields.length != 3 || !fields[0].equals(String.valueOf(javaExecutable.length())) || !fields[1].equals(String.valueOf(javaExecutable.lastModified()))) {
+            return null;
+        }
+        try {
+            return JavaVersion.toVersion(fields[2]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public synchronized void put(File javaExecutable, JavaVersion javaVersion) {
+        // Merge with any entries added by other processes
+        entries = load();
+        entries.setProperty(key(javaExecutable), javaExecutable.length() + "," + javaExecutable.lastModified() + "," + javaVersion);
+        store(entries);
+    }
+
+    private String key(File javaExecutable) {
+        return GFileUtils.canonicalise(javaExecutable).getPath();
+    }
+
+    private Properties load() {
+        Properties properties = new Properties();
+        if (!cacheFile.isFile()) {
+            return properties;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(cacheFile);
+            try {
+                properties.load(inputStream);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not read JVM version cache " + cacheFile + ".", e);
+            properties.clear();
+        }
+        return properties;
+    }
+
+    private void store(Properties properties) {
+        File tempFile = new File(cacheFile.getParentFile(), cacheFile.getName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            GFileUtils.mkdirs(cacheFile.getParentFile());
+            OutputStream outputStream = new FileOutputStream(tempFile);
+            try {
+                properties.store(outputStream, null);
+            } finally {
+                outputStream.close();
+            }
+            if (!tempFile.renameTo(cacheFile)) {
+                // Some platforms do not replace an existing file on rename
+                GFileUtils.deleteQuietly(cacheFile);
+                if (!tempFile.renameTo(cacheFile)) {
+                    LOGGER.debug("Could not write JVM version cache {}.", cacheFile);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not write JVM version cache " + cacheFile + ".", e);
+        } finally {
+            GFileUtils.deleteQuietly(tempFile);
+        }
+    }
+}
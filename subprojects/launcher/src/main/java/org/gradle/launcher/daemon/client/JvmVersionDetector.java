@@ -18,6 +18,7 @@ package org.gradle.launcher.daemon.client;
 
 import org.gradle.api.GradleException;
 import org.gradle.api.JavaVersion;
+import org.gradle.api.Nullable;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.internal.jvm.JavaInfo;
 import org.gradle.internal.jvm.Jvm;
@@ -34,17 +35,58 @@ import java.util.regex.Pattern;
  */
 public class JvmVersionDetector {
     private final Map<JavaInfo, JavaVersion> cachedResults = new HashMap<JavaInfo, JavaVersion>();
+    private final Map<File, JvmVersionCache> persistentCaches = new HashMap<File, JvmVersionCache>();
 
     public JvmVersionDetector() {
         cachedResults.put(Jvm.current(), JavaVersion.current());
     }
 
     public JavaVersion getJavaVersion(JavaInfo jvm) {
-        JavaVersion version = cachedResults.get(jvm);
+        return getJavaVersion(jvm, null);
+    }
+
+    /**
+     * Returns the Java version of the given JVM. When a Gradle user home directory is given, the versions probed are shared with other processes using
+     * a cache in that directory.
+     */
+    public JavaVersion getJavaVersion(JavaInfo jvm, @Nullable File gradleUserHomeDir) {
+        JavaVersion version;
+        synchronized (cachedResults) {
+            version = cachedResults.get(jvm);
+        }
         if (version != null) {
             return version;
         }
 
+        File javaExecutable = jvm.getJavaExecutable();
+        JvmVersionCache persistentCache = gradleUserHomeDir == null ? null : getPersistentCache(gradleUserHomeDir);
+        if (persistentCache != null) {
+            version = persistentCache.get(javaExecutable);
+        }
+        if (version == null) {
+            version = probe(jvm);
+            if (persistentCache != null) {
+                persistentCache.put(javaExecutable, version);
+            }
+        }
+        synchronized (cachedResults) {
+            cachedResults.put(jvm, version);
+        }
+        return version;
+    }
+
+    JvmVersionCache getPersistentCache(File gradleUserHomeDir) {
+        synchronized (persistentCaches) {
+            JvmVersionCache cache = persistentCaches.get(gradleUserHomeDir);
+            if (cache == null) {
+                cache = new JvmVersionCache(new File(gradleUserHomeDir, "caches/jvms-1/versions.properties"));
+                persistentCaches.put(gradleUserHomeDir, cache);
+            }
+            return cache;
+        }
+    }
+
+    private JavaVersion probe(JavaInfo jvm) {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
         ExecHandleBuilder builder = new ExecHandleBuilder();
@@ -54,9 +96,7 @@ public class JvmVersionDetector {
         builder.setErrorOutput(outputStream);
         builder.build().start().waitForFinish().assertNormalExitValue();
 
-        version = parseJavaVersionCommandOutput(jvm.getJavaExecutable().getPath(), new BufferedReader(new InputStreamReader(new ByteArrayInputStream(outputStream.toByteArray()))));
-        cachedResults.put(jvm, version);
-        return version;
+        return parseJavaVersionCommandOutput(jvm.getJavaExecutable().getPath(), new BufferedReader(new InputStreamReader(new ByteArrayInputStream(outputStream.toByteArray()))));
     }
 
     JavaVersion parseJavaVersionCommandOutput(String javaExecutable, BufferedReader reader) {
@@ -33,7 +33,7 @@ public class JvmVersionValidator {
             return;
         }
 
-        JavaVersion javaVersion = versionDetector.getJavaVersion(parameters.getEffectiveJvm());
+        JavaVersion javaVersion = versionDetector.getJavaVersion(parameters.getEffectiveJvm(), parameters.getGradleUserHomeDir());
         if (!javaVersion.isJava6Compatible()) {
             throw UnsupportedJavaRuntimeException.configuredWithUnsupportedVersion("Gradle", JavaVersion.VERSION_1_6, javaVersion);
         }
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.launcher.daemon.client;
+
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
+
+/**
+ * A {@link DaemonStarter} that can also start standby daemons. Not all daemon starters can do this.
+ */
+public interface StandbyDaemonStarter {
+    /**
+     * Starts a daemon that is not used by the current build, but waits idle for a later build. The standby daemon stops if it is not used within a short period.
+     */
+    DaemonStartupInfo startStandbyDaemon();
+}
@@ -27,5 +27,10 @@ public interface DaemonServerConfiguration {
 
     String getUid();
 
+    /**
+     * Returns true when this daemon was started ahead of time to wait for a later build, rather than for a particular client.
+     */
+    boolean isStandby();
+
     List<String> getJvmOptions();
 }
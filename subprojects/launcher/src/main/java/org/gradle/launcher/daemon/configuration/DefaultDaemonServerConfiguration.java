@@ -25,12 +25,18 @@ public class DefaultDaemonServerConfiguration implements DaemonServerConfigurati
     private final File daemonBaseDir;
     private final int idleTimeoutMs;
     private final List<String> jvmOptions;
+    private final boolean standby;
 
     public DefaultDaemonServerConfiguration(String daemonUid, File daemonBaseDir, int idleTimeoutMs, List<String> jvmOptions) {
+        this(daemonUid, daemonBaseDir, idleTimeoutMs, jvmOptions, false);
+    }
+
+    public DefaultDaemonServerConfiguration(String daemonUid, File daemonBaseDir, int idleTimeoutMs, List<String> jvmOptions, boolean standby) {
         this.daemonUid = daemonUid;
         this.daemonBaseDir = daemonBaseDir;
         this.idleTimeoutMs = idleTimeoutMs;
         this.jvmOptions = jvmOptions;
+        this.standby = standby;
     }
 
     public File getBaseDir() {
@@ -45,6 +51,10 @@ public class DefaultDaemonServerConfiguration implements DaemonServerConfigurati
         return daemonUid;
     }
 
+    public boolean isStandby() {
+        return standby;
+    }
+
     public List<String> getJvmOptions() {
         return jvmOptions;
     }
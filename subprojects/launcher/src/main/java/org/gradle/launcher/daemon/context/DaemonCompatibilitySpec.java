@@ -17,11 +17,14 @@ package org.gradle.launcher.daemon.context;
 
 import org.gradle.api.internal.specs.ExplainingSpec;
 
+import java.io.File;
+
 import static org.gradle.util.GFileUtils.canonicalise;
 
 public class DaemonCompatibilitySpec implements ExplainingSpec<DaemonContext> {
 
     private final DaemonContext desiredContext;
+    private File desiredJavaHome;
 
     public DaemonCompatibilitySpec(DaemonContext desiredContext) {
         this.desiredContext = desiredContext;
@@ -51,7 +54,11 @@ public class DaemonCompatibilitySpec implements ExplainingSpec<DaemonContext> {
     }
 
     private boolean javaHomeMatches(DaemonContext potentialContext) {
-        return canonicalise(potentialContext.getJavaHome()).equals(canonicalise(desiredContext.getJavaHome()));
+        // The spec is checked against each running daemon, so only canonicalise the desired Java home once
+        if (desiredJavaHome == null) {
+            desiredJavaHome = canonicalise(desiredContext.getJavaHome());
+        }
+        return canonicalise(potentialContext.getJavaHome()).equals(desiredJavaHome);
     }
 
     @Override
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.registry;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.launcher.daemon.context.DaemonContext;
+import org.gradle.launcher.daemon.context.DefaultDaemonContext;
+import org.gradle.messaging.remote.Address;
+import org.gradle.messaging.remote.internal.inet.MultiChoiceAddress;
+
+import java.io.File;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serializes the details of a daemon that are stored in the registry. The idle flag is not written, as the registry keeps it separately so that it can be updated in place.
+ *
+ * <p>The addresses and contexts created by the daemon are written in a compact form. Anything else falls back to Java serialization.</p>
+ */
+class DaemonInfoSerializer implements Serializer<DaemonInfo> {
+    private static final byte JAVA_SERIALIZED = 0;
+    private static final byte MULTI_CHOICE_ADDRESS = 1;
+    private static final byte DEFAULT_CONTEXT = 1;
+    private static final int IPV6_ADDRESS_LENGTH = 16;
+
+    private final Serializer<Object> javaSerializer = new DefaultSerializer<Object>(getClass().getClassLoader());
+
+    public DaemonInfo read(Decoder decoder) throws Exception {
+        Address address = readAddress(decoder);
+        DaemonContext context = readContext(decoder);
+        String password = decoder.readNullableString();
+        return new DaemonInfo(address, context, password, false);
+    }
+
+    public void write(Encoder encoder, DaemonInfo value) throws Exception {
+        writeAddress(encoder, value.getAddress());
+        writeContext(encoder, value.getContext());
+        encoder.writeNullableString(value.getPassword());
+    }
+
+    private Address readAddress(Decoder decoder) throws Exception {
+        byte tag = decoder.readByte();
+        if (tag == JAVA_SERIALIZED) {
+            return (Address) javaSerializer.read(decoder);
+        }
+        UUID canonicalAddress = new UUID(decoder.readLong(), decoder.readLong());
+        int port = decoder.readSmallInt();
+        int count = decoder.readSmallInt();
+        List<InetAddress> candidates = new ArrayList<InetAddress>(count);
+        for (int i = 0; i < count; i++) {
+            candidates.add(readInetAddress(decoder));
+        }
+        return new MultiChoiceAddress(canonicalAddress, port, candidates);
+    }
+
+    private InetAddress readInetAddress(Decoder decoder) throws Exception {
+        byte[] binAddress = new byte[decoder.readSmallInt()];
+        decoder.readBytes(binAddress);
+        if (binAddress.length != IPV6_ADDRESS_LENGTH) {
+            return InetAddress.getByAddress(binAddress);
+        }
+        int scopeId = decoder.readSmallInt();
+        String interfaceName = decoder.readNullableString();
+        if (interfaceName != null) {
+            NetworkInterface networkInterface = NetworkInterface.getByName(interfaceName);
+            if (networkInterface != null) {
+                try {
+                    return Inet6Address.getByAddress(null, binAddress, networkInterface);
+                } catch (UnknownHostException e) {
+                    // The interface no longer has an address in this scope, so use the scope id
+                }
+            }
+        }
+        return scopeId == 0 ? InetAddress.getByAddress(binAddress) : Inet6Address.getByAddress(null, binAddress, scopeId);
+    }
+
+    private void writeInetAddress(Encoder encoder, InetAddress address) throws Exception {
+        byte[] binAddress = address.getAddress();
+        encoder.writeSmallInt(binAddress.length);
+        encoder.writeBytes(binAddress);
+        if (binAddress.length != IPV6_ADDRESS_LENGTH) {
+            return;
+        }
+        // Link-local addresses are only usable with their scope, so keep it along with the interface name that the scope id refers to
+        Inet6Address inet6Address = (Inet6Address) address;
+        NetworkInterface networkInterface = inet6Address.getScopedInterface();
+        encoder.writeSmallInt(inet6Address.getScopeId());
+        encoder.writeNullableString(networkInterface == null ? null : networkInterface.getName());
+    }
+
+    private void writeAddress(Encoder encoder, Address address) throws Exception {
+        if (address instanceof MultiChoiceAddress && ((MultiChoiceAddress) address).getCanonicalAddress() instanceof UUID) {
+            MultiChoiceAddress multiChoiceAddress = (MultiChoiceAddress) address;
+            UUID canonicalAddress = (UUID) multiChoiceAddress.getCanonicalAddress();
+            encoder.writeByte(MULTI_CHOICE_ADDRESS);
+            encoder.writeLong(canonicalAddress.getMostSignificantBits());
+            encoder.writeLong(canonicalAddress.getLeastSignificantBits());
+            encoder.writeSmallInt(multiChoiceAddress.getPort());
+            encoder.writeSmallInt(multiChoiceAddress.getCandidates().size());
+            for (InetAddress candidate : multiChoiceAddress.getCandidates()) {
+                writeInetAddress(encoder, candidate);
+            }
+        } else {
+            encoder.writeByte(JAVA_SERIALIZED);
+            javaSerializer.write(encoder, address);
+        }
+    }
+
+    private DaemonContext readContext(Decoder decoder) throws Exception {
+        byte tag = decoder.readByte();
+        if (tag == JAVA_SERIALIZED) {
+            return (DaemonContext) javaSerializer.read(decoder);
+        }
+        String uid = decoder.readNullableString();
+        File javaHome = new File(decoder.readString());
+        File registryDir = new File(decoder.readString());
+        Long pid = decoder.readBoolean() ? decoder.readLong() : null;
+        Integer idleTimeout = decoder.readBoolean() ? decoder.readInt() : null;
+        int optCount = decoder.readSmallInt();
+        List<String> daemonOpts = new ArrayList<String>(optCount);
+        for (int i = 0; i < optCount; i++) {
+            daemonOpts.add(decoder.readString());
+        }
+        return new DefaultDaemonContext(uid, javaHome, registryDir, pid, idleTimeout, daemonOpts);
+    }
+
+    private void writeContext(Encoder encoder, DaemonContext context) throws Exception {
+        if (context.getClass() == DefaultDaemonContext.class) {
+            encoder.writeByte(DEFAULT_CONTEXT);
+            encoder.writeNullableString(context.getUid());
+            encoder.writeString(context.getJavaHome().getPath());
+            encoder.writeString(context.getDaemonRegistryDir().getPath());
+            encoder.writeBoolean(context.getPid() != null);
+            if (context.getPid() != null) {
+                encoder.writeLong(context.getPid());
+            }
+            encoder.writeBoolean(context.getIdleTimeout() != null);
+            if (context.getIdleTimeout() != null) {
+                encoder.writeInt(context.getIdleTimeout());
+            }
+            encoder.writeSmallInt(context.getDaemonOpts().size());
+            for (String daemonOpt : context.getDaemonOpts()) {
+                encoder.writeString(daemonOpt);
+            }
+        } else {
+            encoder.writeByte(JAVA_SERIALIZED);
+            javaSerializer.write(encoder, context);
+        }
+    }
+}
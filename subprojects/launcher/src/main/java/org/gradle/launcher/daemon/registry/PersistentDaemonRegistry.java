@@ -16,168 +16,448 @@
 
 package org.gradle.launcher.daemon.registry;
 
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
-import org.gradle.cache.PersistentStateCache;
-import org.gradle.cache.internal.FileIntegrityViolationSuppressingPersistentStateCacheDecorator;
+import org.gradle.cache.internal.FileLock;
 import org.gradle.cache.internal.FileLockManager;
-import org.gradle.cache.internal.OnDemandFileAccess;
-import org.gradle.cache.internal.SimpleStateCache;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.messaging.remote.Address;
-import org.gradle.internal.serialize.DefaultSerializer;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
 /**
  * Access to daemon registry files. Useful also for testing.
+ *
+ * <p>The registry file contains a header followed by a slot for each daemon. A slot holds a state byte followed by the length and the details of the daemon.
+ * Marking a daemon busy or idle, or removing a daemon, overwrites only the state byte of its slot. Storing a daemon appends a new slot, and compacts the file
+ * first when it contains many removed slots.</p>
+ *
+ * <p>Changes are made while holding an exclusive lock on the registry. Reads do not lock the registry. Instead, a change that adds or moves slots increments the
+ * sequence number in the header before and after it writes to the file, and a reader retries when it sees an odd sequence number or the sequence number changes
+ * while it reads. A reader that keeps failing falls back to reading while holding a shared lock. A change that was interrupted leaves an odd sequence number
+ * behind, and the registry is treated as empty.</p>
  */
 public class PersistentDaemonRegistry implements DaemonRegistry {
-    private final PersistentStateCache<DaemonRegistryContent> cache;
+    private static final Logger LOGGER = Logging.getLogger(PersistentDaemonRegistry.class);
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int SEQUENCE_OFFSET = 4;
+    private static final int HEADER_SIZE = 8;
+    private static final int SLOT_HEADER_SIZE = 5;
+    private static final byte REMOVED = 0;
+    private static final byte BUSY = 1;
+    private static final byte IDLE = 2;
+    private static final int MAX_UNLOCKED_READ_ATTEMPTS = 10;
+
+    private final DaemonInfoSerializer serializer = new DaemonInfoSerializer();
     private final Lock lock = new ReentrantLock();
     private final File registryFile;
-
-    private static final Logger LOGGER = Logging.getLogger(PersistentDaemonRegistry.class);
+    private final FileLockManager fileLockManager;
 
     public PersistentDaemonRegistry(File registryFile, FileLockManager fileLockManager) {
         this.registryFile = registryFile;
-        cache = new FileIntegrityViolationSuppressingPersistentStateCacheDecorator<DaemonRegistryContent>(
-                new SimpleStateCache<DaemonRegistryContent>(
-                        registryFile,
-                        new OnDemandFileAccess(
-                                registryFile,
-                                "daemon addresses registry",
-                                fileLockManager),
-                        new DefaultSerializer<DaemonRegistryContent>()
-                ));
+        this.fileLockManager = fileLockManager;
     }
 
     public List<DaemonInfo> getAll() {
-        lock.lock();
-        try {
-            DaemonRegistryContent content = cache.get();
-            if (content == null) {
-                //when no daemon process has started yet
-                return new LinkedList<DaemonInfo>();
+        List<DaemonInfo> infos = new LinkedList<DaemonInfo>();
+        for (Slot slot : read()) {
+            if (slot.state != REMOVED) {
+                infos.add(slot.info);
             }
-            return content.getInfos();
-        } finally {
-            lock.unlock();
         }
+        return infos;
     }
 
     public List<DaemonInfo> getIdle() {
-        lock.lock();
-        try {
-            List<DaemonInfo> out = new LinkedList<DaemonInfo>();
-            List<DaemonInfo> all = getAll();
-            for (DaemonInfo d : all) {
-                if (d.isIdle()) {
-                    out.add(d);
-                }
+        List<DaemonInfo> out = new LinkedList<DaemonInfo>();
+        for (DaemonInfo d : getAll()) {
+            if (d.isIdle()) {
+                out.add(d);
             }
-            return out;
-        } finally {
-            lock.unlock();
         }
+        return out;
     }
 
     public List<DaemonInfo> getBusy() {
-        lock.lock();
-        try {
-            List<DaemonInfo> out = new LinkedList<DaemonInfo>();
-            List<DaemonInfo> all = getAll();
-            for (DaemonInfo d : all) {
-                if (!d.isIdle()) {
-                    out.add(d);
-                }
+        List<DaemonInfo> out = new LinkedList<DaemonInfo>();
+        for (DaemonInfo d : getAll()) {
+            if (!d.isIdle()) {
+                out.add(d);
             }
-            return out;
-        } finally {
-            lock.unlock();
         }
+        return out;
     }
 
     public void remove(final Address address) {
-        lock.lock();
         LOGGER.debug("Removing daemon address: {}", address);
-        try {
-            cache.update(new PersistentStateCache.UpdateAction<DaemonRegistryContent>() {
-                public DaemonRegistryContent update(DaemonRegistryContent oldValue) {
-                    if (oldValue == null) {
-                        return oldValue;
+        setState(address, REMOVED);
+    }
+
+    public void markBusy(final Address address) {
+        LOGGER.debug("Marking busy by address: {}", address);
+        setState(address, BUSY);
+    }
+
+    public void markIdle(final Address address) {
+        LOGGER.debug("Marking idle by address: {}", address);
+        setState(address, IDLE);
+    }
+
+    public void store(final Address address, final DaemonContext daemonContext, final String password, final boolean idle) {
+        LOGGER.debug("Storing daemon address: {}, context: {}", address, daemonContext);
+        update(new UpdateAction() {
+            public void update(RegistryFile file, List<Slot> slots) throws IOException {
+                List<DaemonInfo> retained = new ArrayList<DaemonInfo>(slots.size() + 1);
+                int removed = 0;
+                for (Slot slot : slots) {
+                    if (slot.state == REMOVED) {
+                        removed++;
+                    } else if (slot.info.getAddress().equals(address)) {
+                        // Replaced by the new entry
+                        file.writeState(slot, REMOVED);
+                        removed++;
+                    } else {
+                        retained.add(slot.info);
                     }
-                    oldValue.removeInfo(address);
-                    return oldValue;
                 }
-            });
-        } finally {
-            lock.unlock();
+                DaemonInfo daemonInfo = new DaemonInfo(address, daemonContext, password, idle);
+                if (removed > 0 && removed >= retained.size()) {
+                    retained.add(daemonInfo);
+                    file.rewrite(retained);
+                } else {
+                    file.append(daemonInfo);
+                }
+            }
+        });
+    }
+
+    private void setState(final Address address, final byte state) {
+        update(new UpdateAction() {
+            public void update(RegistryFile file, List<Slot> slots) throws IOException {
+                for (Slot slot : slots) {
+                    if (slot.state != REMOVED && slot.info.getAddress().equals(address)) {
+                        file.writeState(slot, state);
+                    }
+                }
+                // Else, has been removed by something else - ignore
+            }
+        });
+    }
+
+    private List<Slot> read() {
+        try {
+            for (int attempt = 0; attempt < MAX_UNLOCKED_READ_ATTEMPTS; attempt++) {
+                List<Slot> slots = readUnlocked();
+                if (slots != null) {
+                    return slots;
+                }
+                Thread.yield();
+            }
+            LOGGER.debug("Registry is being changed. Waiting for the change to complete.");
+            return readLocked();
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not read daemon registry file '%s'.", registryFile), e);
         }
     }
 
-    public void markBusy(final Address address) {
-        lock.lock();
-        LOGGER.debug("Marking busy by address: {}", address);
+    /**
+     * Reads the registry without locking it. Returns null when the registry was changed while reading it.
+     */
+    private List<Slot> readUnlocked() throws IOException {
+        RegistryFile file = openFile(false);
+        if (file == null) {
+            //when no daemon process has started yet
+            return new ArrayList<Slot>();
+        }
         try {
-            cache.update(new PersistentStateCache.UpdateAction<DaemonRegistryContent>() {
-                public DaemonRegistryContent update(DaemonRegistryContent oldValue) {
-                    DaemonInfo daemonInfo = oldValue != null ? oldValue.getInfo(address) : null;
-                    if (daemonInfo != null) {
-                        daemonInfo.setIdle(false);
-                    }
-                    // Else, has been removed by something else - ignore
-                    return oldValue;
-                }});
+            int sequence = file.readSequence();
+            if (sequence < 0) {
+                return new ArrayList<Slot>();
+            }
+            if (sequence % 2 != 0) {
+                return null;
+            }
+            byte[] content;
+            try {
+                content = file.readContent();
+            } catch (EOFException e) {
+                // Truncated while reading
+                return null;
+            }
+            if (file.readSequence() != sequence) {
+                return null;
+            }
+            return parseOrEmpty(content);
         } finally {
-            lock.unlock();
+            file.close();
         }
     }
 
-    public void markIdle(final Address address) {
+    private List<Slot> readLocked() throws IOException {
         lock.lock();
-        LOGGER.debug("Marking idle by address: {}", address);
         try {
-            cache.update(new PersistentStateCache.UpdateAction<DaemonRegistryContent>() {
-                public DaemonRegistryContent update(DaemonRegistryContent oldValue) {
-                    DaemonInfo daemonInfo = oldValue != null ? oldValue.getInfo(address) : null;
-                    if (daemonInfo != null) {
-                        daemonInfo.setIdle(true);
+            FileLock fileLock = fileLockManager.lock(registryFile, mode(FileLockManager.LockMode.Shared), "daemon addresses registry");
+            try {
+                RegistryFile file = openFile(false);
+                if (file == null) {
+                    return new ArrayList<Slot>();
+                }
+                try {
+                    int sequence = file.readSequence();
+                    if (sequence < 0 || sequence % 2 != 0) {
+                        // Interrupted change - ignore
+                        return new ArrayList<Slot>();
                     }
-                    // Else, has been removed by something else - ignore
-                    return oldValue;
+                    return parseOrEmpty(file.readContent());
+                } finally {
+                    file.close();
                 }
-            });
+            } finally {
+                fileLock.close();
+            }
         } finally {
             lock.unlock();
         }
     }
 
-    public void store(final Address address, final DaemonContext daemonContext, final String password, final boolean idle) {
+    private void update(UpdateAction action) {
         lock.lock();
-        LOGGER.debug("Storing daemon address: {}, context: {}", address, daemonContext);
         try {
-            cache.update(new PersistentStateCache.UpdateAction<DaemonRegistryContent>() {
-                public DaemonRegistryContent update(DaemonRegistryContent oldValue) {
-                    if (oldValue == null) {
-                        //it means the registry didn't exist yet
-                        oldValue = new DaemonRegistryContent();
+            FileLock fileLock = fileLockManager.lock(registryFile, mode(FileLockManager.LockMode.Exclusive), "daemon addresses registry");
+            try {
+                RegistryFile file = openFile(true);
+                try {
+                    int sequence = file.readSequence();
+                    List<Slot> slots = sequence < 0 || sequence % 2 != 0 ? null : parse(file.readContent());
+                    if (slots == null) {
+                        LOGGER.debug("Daemon registry file '{}' is empty, was written by an interrupted change or is corrupt. Resetting it.", registryFile);
+                        file.rewrite(new ArrayList<DaemonInfo>());
+                        slots = new ArrayList<Slot>();
                     }
-                    DaemonInfo daemonInfo = new DaemonInfo(address, daemonContext, password, idle);
-                    oldValue.setStatus(address, daemonInfo);
-                    return oldValue;
+                    action.update(file, slots);
+                } finally {
+                    file.close();
                 }
-            });
+            } finally {
+                fileLock.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not update daemon registry file '%s'.", registryFile), e);
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Opens the registry file. Returns null when the file does not exist and is not to be created.
+     */
+    private RegistryFile openFile(boolean create) throws IOException {
+        if (!create && !registryFile.isFile()) {
+            return null;
+        }
+        try {
+            return new RegistryFile(new RandomAccessFile(registryFile, create ? "rw" : "r"));
+        } catch (FileNotFoundException e) {
+            if (create) {
+                throw e;
+            }
+            // Removed since checked
+            return null;
+        }
+    }
+
+    private List<Slot> parseOrEmpty(byte[] content) {
+        List<Slot> slots = parse(content);
+        if (slots == null) {
+            // Corrupt registry - ignore
+            return new ArrayList<Slot>();
+        }
+        return slots;
+    }
+
+    /**
+     * Parses the given registry content. Returns null when the content is corrupt.
+     */
+    private List<Slot> parse(byte[] content) {
+        List<Slot> slots = new ArrayList<Slot>();
+        int offset = HEADER_SIZE;
+        while (offset < content.length) {
+            if (offset + SLOT_HEADER_SIZE > content.length) {
+                return null;
+            }
+            byte state = content[offset];
+            int length = readInt(content, offset + 1);
+            int start = offset + SLOT_HEADER_SIZE;
+            if (length < 0 || start + length > content.length) {
+                return null;
+            }
+            DaemonInfo info = null;
+            if (state != REMOVED) {
+                try {
+                    info = serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(content, start, length)));
+                } catch (Exception e) {
+                    LOGGER.debug("Could not read daemon registry entry.", e);
+                    return null;
+                }
+                if (info == null) {
+                    return null;
+                }
+                info.setIdle(state == IDLE);
+            }
+            slots.add(new Slot(offset, state, info));
+            offset = start + length;
+        }
+        return slots;
+    }
+
+    private byte[] encode(DaemonInfo info, byte state) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(state);
+        outputStream.write(0);
+        outputStream.write(0);
+        outputStream.write(0);
+        outputStream.write(0);
+        KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+        try {
+            serializer.write(encoder, info);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        encoder.flush();
+        byte[] slot = outputStream.toByteArray();
+        writeInt(slot, 1, slot.length - SLOT_HEADER_SIZE);
+        return slot;
+    }
+
+    private static int readInt(byte[] buffer, int offset) {
+        return ((buffer[offset] & 0xff) << 24) | ((buffer[offset + 1] & 0xff) << 16) | ((buffer[offset + 2] & 0xff) << 8) | (buffer[offset + 3] & 0xff);
+    }
+
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
     public String toString() {
         return String.format("PersistentDaemonRegistry[file=%s]", registryFile);
     }
+
+    private interface UpdateAction {
+        void update(RegistryFile file, List<Slot> slots) throws IOException;
+    }
+
+    private static class Slot {
+        final int offset;
+        final byte state;
+        final DaemonInfo info;
+
+        Slot(int offset, byte state, DaemonInfo info) {
+            this.offset = offset;
+            this.state = state;
+            this.info = info;
+        }
+    }
+
+    private class RegistryFile {
+        private final RandomAccessFile file;
+        private int sequence;
+
+        private RegistryFile(RandomAccessFile file) {
+            this.file = file;
+        }
+
+        /**
+         * Returns the sequence number from the header, or -1 when there is no valid header.
+         */
+        int readSequence() throws IOException {
+            if (file.length() < HEADER_SIZE) {
+                return -1;
+            }
+            file.seek(0);
+            if (file.readInt() != FORMAT_VERSION) {
+                return -1;
+            }
+            sequence = file.readInt();
+            return sequence;
+        }
+
+        byte[] readContent() throws IOException {
+            long length = file.length();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Daemon registry file is too large.");
+            }
+            byte[] content = new byte[(int) length];
+            file.seek(0);
+            file.readFully(content);
+            return content;
+        }
+
+        void writeState(Slot slot, byte state) throws IOException {
+            file.seek(slot.offset);
+            file.writeByte(state);
+        }
+
+        void append(DaemonInfo info) throws IOException {
+            byte[] slot = encode(info, info.isIdle() ? IDLE : BUSY);
+            beginChange();
+            file.seek(file.length());
+            file.write(slot);
+            endChange();
+        }
+
+        void rewrite(List<DaemonInfo> infos) throws IOException {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            for (DaemonInfo info : infos) {
+                content.write(encode(info, info.isIdle() ? IDLE : BUSY));
+            }
+            beginChange();
+            file.seek(HEADER_SIZE);
+            file.write(content.toByteArray());
+            file.setLength(HEADER_SIZE + content.size());
+            endChange();
+        }
+
+        private void beginChange() throws IOException {
+            // Make the sequence number odd, so that readers know the file is changing
+            sequence = sequence % 2 == 0 ? sequence + 1 : sequence + 2;
+            writeHeader();
+        }
+
+        private void endChange() throws IOException {
+            sequence++;
+            writeHeader();
+        }
+
+        private void writeHeader() throws IOException {
+            byte[] header = new byte[HEADER_SIZE];
+            writeInt(header, 0, FORMAT_VERSION);
+            writeInt(header, SEQUENCE_OFFSET, sequence);
+            file.seek(0);
+            file.write(header);
+        }
+
+        void close() throws IOException {
+            file.close();
+        }
+    }
 }
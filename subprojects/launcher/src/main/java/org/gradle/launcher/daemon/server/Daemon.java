@@ -175,7 +175,16 @@ public class Daemon implements Stoppable {
      * <p>May return earlier if the daemon is stopped before the idle timeout is reached.</p>
      */
     public void requestStopOnIdleTimeout(int idleTimeout, TimeUnit idleTimeoutUnits) {
-        LOGGER.debug("requestStopOnIdleTimeout({} {}) called on daemon", idleTimeout, idleTimeoutUnits);
+        requestStopOnIdleTimeout(idleTimeout, idleTimeout, idleTimeoutUnits);
+    }
+
+    /**
+     * Waits for the daemon to be idle for the specified period, then requests that the daemon stop. Uses the given standby timeout until the daemon has run its first command.
+     *
+     * <p>May return earlier if the daemon is stopped before the idle timeout is reached.</p>
+     */
+    public void requestStopOnIdleTimeout(int idleTimeout, int standbyTimeout, TimeUnit idleTimeoutUnits) {
+        LOGGER.debug("requestStopOnIdleTimeout({} {}, standby {} {}) called on daemon", idleTimeout, idleTimeoutUnits, standbyTimeout, idleTimeoutUnits);
         DaemonStateCoordinator stateCoordinator;
         lifecyleLock.lock();
         try {
@@ -187,6 +196,6 @@ public class Daemon implements Stoppable {
             lifecyleLock.unlock();
         }
 
-        stateCoordinator.stopOnIdleTimeout(idleTimeout, idleTimeoutUnits);
+        stateCoordinator.stopOnIdleTimeout(idleTimeout, standbyTimeout, idleTimeoutUnits);
     }
 }
@@ -54,6 +54,7 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private State state = State.Running;
     private long lastActivityAt = -1;
     private String currentCommandExecution;
+    private boolean hasRunCommand;
     private Object result;
     private volatile DefaultBuildCancellationToken cancellationToken;
 
@@ -79,12 +80,13 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         condition.signalAll();
     }
 
-    private boolean awaitStop(long timeoutMs) {
+    private boolean awaitStop(long idleTimeoutMs, long standbyTimeoutMs) {
         lock.lock();
         try {
-            LOGGER.debug("Idle timeout: waiting for daemon to stop or be idle for {}ms", timeoutMs);
+            LOGGER.debug("Idle timeout: waiting for daemon to stop or be idle for {}ms ({}ms before the first command)", idleTimeoutMs, standbyTimeoutMs);
             while (true) {
                 try {
+                    long timeoutMs = hasRunCommand ? idleTimeoutMs : standbyTimeoutMs;
                     switch (state) {
                         case Running:
                             if (isBusy()) {
@@ -120,7 +122,14 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     }
 
     public void stopOnIdleTimeout(int timeout, TimeUnit timeoutUnits) {
-        awaitStop(timeoutUnits.toMillis(timeout));
+        stopOnIdleTimeout(timeout, timeout, timeoutUnits);
+    }
+
+    /**
+     * Same as {@link #stopOnIdleTimeout(int, TimeUnit)}, but uses the given standby timeout until the first command has been run.
+     */
+    public void stopOnIdleTimeout(int timeout, int standbyTimeout, TimeUnit timeoutUnits) {
+        awaitStop(timeoutUnits.toMillis(timeout), timeoutUnits.toMillis(standbyTimeout));
     }
 
     public void requestStop() {
@@ -325,6 +334,7 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
             try {
                 onStartCommand.run();
                 currentCommandExecution = commandDisplayName;
+                hasRunCommand = true;
                 result = null;
                 updateActivityTimestamp();
                 updateCancellationToken();
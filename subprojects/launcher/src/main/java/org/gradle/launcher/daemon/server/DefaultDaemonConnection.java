@@ -45,6 +45,7 @@ public class DefaultDaemonConnection implements DaemonConnection {
     private final DisconnectQueue disconnectQueue;
     private final CancelQueue cancelQueue;
     private final ReceiveQueue receiveQueue;
+    private final OutputEventForwarder outputForwarder;
 
     public DefaultDaemonConnection(final Connection<Message> connection, ExecutorFactory executorFactory) {
         this.connection = connection;
@@ -52,6 +53,7 @@ public class DefaultDaemonConnection implements DaemonConnection {
         disconnectQueue = new DisconnectQueue();
         cancelQueue = new CancelQueue(executorFactory);
         receiveQueue = new ReceiveQueue();
+        outputForwarder = new OutputEventForwarder(connection, executorFactory);
         executor = executorFactory.create("Handler for " + connection.toString());
         executor.execute(new Runnable() {
             public void run() {
@@ -109,33 +111,40 @@ public class DefaultDaemonConnection implements DaemonConnection {
     }
 
     public void daemonUnavailable(DaemonUnavailable unavailable) {
-        connection.dispatch(unavailable);
+        dispatch(unavailable);
     }
 
     public void buildStarted(BuildStarted buildStarted) {
-        connection.dispatch(buildStarted);
+        dispatch(buildStarted);
     }
 
     public void logEvent(OutputEvent logEvent) {
-        connection.dispatch(new OutputMessage(logEvent));
+        outputForwarder.add(logEvent);
     }
 
     @Override
     public void event(Object event) {
-        connection.dispatch(new BuildEvent(event));
+        dispatch(new BuildEvent(event));
     }
 
     public void completed(Result result) {
-        connection.dispatch(result);
+        dispatch(result);
+    }
+
+    private void dispatch(Message message) {
+        // Send any output generated before this message first, so that the client sees the messages in the order they were generated
+        outputForwarder.flush();
+        connection.dispatch(message);
     }
 
     public void stop() {
+        // 0. Stop forwarding output. Blocks until any queued output has been dispatched.
         // 1. Stop handling disconnects. Blocks until the handler has finished.
         // 2. Stop the connection. This means that the thread receiving from the connection will receive a null and finish up.
         // 3. Stop receiving incoming messages. Blocks until the receive thread has finished. This will notify the stdin and receive queues to signal end of input.
         // 4. Stop the receive queue, to unblock any threads blocked in receive().
         // 5. Stop handling stdin. Blocks until the handler has finished. Discards any queued input.
-        CompositeStoppable.stoppable(disconnectQueue, connection, executor, receiveQueue, stdinQueue, cancelQueue).stop();
+        CompositeStoppable.stoppable(outputForwarder, disconnectQueue, connection, executor, receiveQueue, stdinQueue, cancelQueue).stop();
     }
 
     private static abstract class CommandQueue<C extends Message, H> implements Stoppable {
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.progress.OperationIdentifier;
+import org.gradle.launcher.daemon.protocol.Message;
+import org.gradle.launcher.daemon.protocol.OutputMessage;
+import org.gradle.launcher.daemon.protocol.OutputMessageBatch;
+import org.gradle.logging.internal.OutputEvent;
+import org.gradle.logging.internal.ProgressCompleteEvent;
+import org.gradle.logging.internal.ProgressEvent;
+import org.gradle.messaging.remote.internal.Connection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Forwards output events to the client in batches, so that the threads generating output do not have to wait for the client.
+ *
+ * <p>Events are queued and dispatched from a worker thread at most {@link #FLUSH_INTERVAL_MILLIS} after they were queued. A progress event that is superseded by a later
+ * progress event for the same operation before it is dispatched is discarded. Events are otherwise dispatched in the order they were queued.</p>
+ */
+public class OutputEventForwarder implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutputEventForwarder.class);
+    static final long FLUSH_INTERVAL_MILLIS = 10;
+    static final int MAX_BATCH_SIZE = 500;
+    // When this many events are queued, the thread generating output dispatches them itself, so that a slow client applies back-pressure
+    static final int MAX_QUEUED_EVENTS = 20000;
+
+    private final Connection<Message> connection;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final Object dispatchLock = new Object();
+    private final StoppableExecutor executor;
+    private List<OutputEvent> queue = new ArrayList<OutputEvent>();
+    private final Map<OperationIdentifier, Integer> queuedProgress = new HashMap<OperationIdentifier, Integer>();
+    private int queued;
+    private boolean stopped;
+    private boolean failed;
+
+    public OutputEventForwarder(Connection<Message> connection, ExecutorFactory executorFactory) {
+        this.connection = connection;
+        executor = executorFactory.create("Output forwarder for " + connection);
+        executor.execute(new Runnable() {
+            public void run() {
+                while (waitForEvents()) {
+                    flush();
+                }
+                flush();
+            }
+        });
+    }
+
+    public void add(OutputEvent event) {
+        boolean full;
+        lock.lock();
+        try {
+            if (failed) {
+                return;
+            }
+            if (event instanceof ProgressEvent) {
+                Integer superseded = queuedProgress.put(((ProgressEvent) event).getOperationId(), queue.size());
+                if (superseded != null) {
+                    queue.set(superseded, null);
+                    queued--;
+                }
+            } else if (event instanceof ProgressCompleteEvent) {
+                queuedProgress.remove(((ProgressCompleteEvent) event).getOperationId());
+            }
+            queue.add(event);
+            queued++;
+            full = stopped || queued >= MAX_QUEUED_EVENTS;
+            if (queued == 1 || queued == MAX_BATCH_SIZE) {
+                condition.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Dispatches all queued events. Blocks until the events have been dispatched, including those that are being dispatched by another thread.
+     */
+    public void flush() {
+        synchronized (dispatchLock) {
+            List<OutputEvent> events;
+            lock.lock();
+            try {
+                if (queued == 0) {
+                    return;
+                }
+                events = queue;
+                queue = new ArrayList<OutputEvent>();
+                queuedProgress.clear();
+                queued = 0;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                dispatch(events);
+            } catch (Exception e) {
+                LOGGER.debug("Could not forward output to client. Discarding further output.", e);
+                lock.lock();
+                try {
+                    failed = true;
+                    queue.clear();
+                    queuedProgress.clear();
+                    queued = 0;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void dispatch(List<OutputEvent> events) {
+        List<OutputEvent> batch = new ArrayList<OutputEvent>(Math.min(events.size(), MAX_BATCH_SIZE));
+        for (OutputEvent event : events) {
+            if (event == null) {
+                continue;
+            }
+            batch.add(event);
+            if (batch.size() == MAX_BATCH_SIZE) {
+                dispatchBatch(batch);
+                batch = new ArrayList<OutputEvent>(MAX_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            dispatchBatch(batch);
+        }
+    }
+
+    private void dispatchBatch(List<OutputEvent> batch) {
+        if (batch.size() == 1) {
+            connection.dispatch(new OutputMessage(batch.get(0)));
+        } else {
+            connection.dispatch(new OutputMessageBatch(batch));
+        }
+    }
+
+    /**
+     * Waits until there are events to dispatch, then gives further events a chance to arrive so that they can be dispatched together.
+     *
+     * @return false when stopped.
+     */
+    private boolean waitForEvents() {
+        lock.lock();
+        try {
+            while (!stopped && queued == 0) {
+                condition.await();
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MILLIS);
+            while (!stopped && queued < MAX_BATCH_SIZE) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                condition.awaitNanos(remaining);
+            }
+            return !stopped;
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Dispatches any queued events and stops forwarding. Blocks until the events have been dispatched.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        executor.stop();
+    }
+}
@@ -21,9 +21,13 @@ import org.gradle.api.logging.Logging;
 import org.gradle.launcher.daemon.server.api.DaemonCommandAction;
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
 
+import static java.lang.String.format;
+
 class DaemonHealthTracker implements DaemonCommandAction {
 
     private final static Logger LOG = Logging.getLogger(DaemonHealthTracker.class);
+    static final String GC_PRESSURE_MESSAGE = "This Gradle daemon spent %s%% of the build in garbage collection and %s%% of its old generation is still in use after garbage collection. "
+        + "The daemon will stop after this build, and a different daemon will be used for the next build.";
 
     private final DaemonStats stats;
     private final DaemonStatus status;
@@ -51,6 +55,9 @@ class DaemonHealthTracker implements DaemonCommandAction {
 
         if(status.isDaemonTired(stats)) {
             execution.getDaemonStateControl().requestStop();
+        } else if (status.isUnderGcPressure(stats)) {
+            LOG.lifecycle(format(GC_PRESSURE_MESSAGE, stats.getCurrentBuildCollectionTime(), stats.getTenuredUsedAfterCollection()));
+            execution.getDaemonStateControl().requestStop();
         }
     }
 }
@@ -33,6 +33,8 @@ class DaemonStats {
     private long currentBuildStart;
     private long allBuildsTime;
     private int currentPerformance;
+    private long collectionTimeAtBuildStart;
+    private int currentBuildCollectionTime;
 
     DaemonStats() {
         this(new Clock(), new TrueTimeProvider(), new MemoryInfo());
@@ -50,6 +52,7 @@ class DaemonStats {
     void buildStarted() {
         ++buildCount;
         currentBuildStart = timeProvider.getCurrentTime();
+        collectionTimeAtBuildStart = memory.getCollectionTime();
     }
 
     /**
@@ -59,6 +62,8 @@ class DaemonStats {
         long buildTime = Math.max(timeProvider.getCurrentTime() - currentBuildStart, 1);
         allBuildsTime += buildTime;
         currentPerformance = performance(allBuildsTime, memory);
+        long buildCollectionTime = Math.max(memory.getCollectionTime() - collectionTimeAtBuildStart, 0);
+        currentBuildCollectionTime = NumberUtil.percentOf(Math.min(buildCollectionTime, buildTime), buildTime);
     }
 
     private static int performance(long totalTime, MemoryInfo memoryInfo) {
@@ -77,6 +82,25 @@ class DaemonStats {
         return currentPerformance;
     }
 
+    /**
+     * 0-100, the percentage of the most recent build's time that was spent in gc
+     */
+    int getCurrentBuildCollectionTime() {
+        return currentBuildCollectionTime;
+    }
+
+    /**
+     * 0-100, the percentage of the old generation that was still used after the most recent gc, or -1 if unknown
+     */
+    int getTenuredUsedAfterCollection() {
+        long used = memory.getTenuredUsedAfterCollection();
+        long max = memory.getTenuredMax();
+        if (used < 0 || max <= 0) {
+            return -1;
+        }
+        return NumberUtil.percentOf(Math.min(used, max), max);
+    }
+
     /**
      * elegant description of daemon's health
      */
@@ -23,26 +23,41 @@ import static java.lang.String.format;
 class DaemonStatus {
 
     public static final String EXPIRE_AT_PROPERTY = "org.gradle.daemon.performance.expire-at";
+    public static final String GC_TIME_THRESHOLD_PROPERTY = "org.gradle.daemon.health.gc-time-threshold";
+    public static final String TENURED_USAGE_THRESHOLD_PROPERTY = "org.gradle.daemon.health.tenured-usage-threshold";
     static final int DEFAULT_EXPIRE_AT = 0;
+    static final int DEFAULT_GC_TIME_THRESHOLD = 25;
+    static final int DEFAULT_TENURED_USAGE_THRESHOLD = 90;
 
     boolean isDaemonTired(DaemonStats stats) {
-        String expireAt = System.getProperty(EXPIRE_AT_PROPERTY);
-        int threshold = parseValue(expireAt, DEFAULT_EXPIRE_AT);
+        int threshold = parseValue(EXPIRE_AT_PROPERTY, DEFAULT_EXPIRE_AT);
         return threshold != 0 //zero means the feature is off
                 && stats.getMemoryUsed() > 85 //the daemon is not tired if the memory is not sufficiently exhausted
                 && stats.getCurrentPerformance() <= threshold; //performance below threshold
     }
 
-    private static int parseValue(String expireAt, int defaultValue) {
-        if (expireAt == null) {
+    /**
+     * The daemon is under gc pressure when its old generation stays nearly full after collection and the last build spent a large share of its time in gc.
+     */
+    boolean isUnderGcPressure(DaemonStats stats) {
+        int gcTimeThreshold = parseValue(GC_TIME_THRESHOLD_PROPERTY, DEFAULT_GC_TIME_THRESHOLD);
+        int tenuredUsageThreshold = parseValue(TENURED_USAGE_THRESHOLD_PROPERTY, DEFAULT_TENURED_USAGE_THRESHOLD);
+        return gcTimeThreshold != 0 && tenuredUsageThreshold != 0 //zero means the feature is off
+                && stats.getTenuredUsedAfterCollection() >= tenuredUsageThreshold
+                && stats.getCurrentBuildCollectionTime() >= gcTimeThreshold;
+    }
+
+    private static int parseValue(String property, int defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null) {
             return defaultValue;
         }
         try {
-            return Integer.parseInt(expireAt);
+            return Integer.parseInt(value);
         } catch (Exception e) {
             throw new GradleException(format(
                     "System property '%s' has incorrect value: '%s'. The value needs to be integer.",
-                    EXPIRE_AT_PROPERTY, expireAt));
+                    property, value));
         }
     }
 }
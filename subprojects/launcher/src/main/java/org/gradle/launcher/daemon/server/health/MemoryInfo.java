@@ -18,13 +18,25 @@ package org.gradle.launcher.daemon.server.health;
 
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
 
 class MemoryInfo {
 
     private final long totalMemory; //this does not change
+    private final List<MemoryPoolMXBean> tenuredPools = new ArrayList<MemoryPoolMXBean>();
 
     MemoryInfo() {
         totalMemory = Runtime.getRuntime().maxMemory();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            String name = pool.getName().toLowerCase();
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && (name.contains("old") || name.contains("tenured"))) {
+                tenuredPools.add(pool);
+            }
+        }
     }
 
     /**
@@ -58,4 +70,35 @@ class MemoryInfo {
         //querying runtime for each invocation
         return Runtime.getRuntime().totalMemory();
     }
+
+    /**
+     * Bytes of the old generation (tenured space) that were still in use after the most recent collection, or -1 if unknown.
+     * See {@link MemoryPoolMXBean#getCollectionUsage()}
+     */
+    long getTenuredUsedAfterCollection() {
+        long used = -1;
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                used = Math.max(used, 0) + usage.getUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Max size of the old generation (tenured space) in bytes, or -1 if unknown.
+     */
+    long getTenuredMax() {
+        long max = -1;
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            MemoryUsage usage = pool.getUsage();
+            if (usage == null) {
+                continue;
+            }
+            long poolMax = usage.getMax() >= 0 ? usage.getMax() : usage.getCommitted();
+            max = Math.max(max, 0) + poolMax;
+        }
+        return max;
+    }
 }
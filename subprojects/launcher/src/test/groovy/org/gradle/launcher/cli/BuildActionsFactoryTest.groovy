@@ -21,6 +21,7 @@ import org.gradle.cli.SystemPropertiesCommandLineConverter
 import org.gradle.initialization.DefaultCommandLineConverter
 import org.gradle.initialization.LayoutCommandLineConverter
 import org.gradle.integtests.fixtures.AvailableJavaHomes
+import org.gradle.internal.concurrent.CompositeStoppable
 import org.gradle.internal.invocation.BuildActionRunner
 import org.gradle.internal.service.ServiceRegistry
 import org.gradle.internal.service.scopes.PluginServiceRegistry
@@ -151,15 +152,18 @@ class BuildActionsFactoryTest extends Specification {
     void isDaemon(def action) {
         assert action instanceof RunBuildAction
         assert action.executer instanceof DaemonClient
+        assert action.stopOnCompletion instanceof CompositeStoppable
     }
 
     void isInProcess(def action) {
         assert action instanceof RunBuildAction
         assert action.executer instanceof DaemonUsageSuggestingBuildActionExecuter
+        assert action.stopOnCompletion == CompositeStoppable.NO_OP_STOPPABLE
     }
 
     void isSingleUseDaemon(def action) {
         assert action instanceof RunBuildAction
         assert action.executer instanceof SingleUseDaemonClient
+        assert action.stopOnCompletion instanceof CompositeStoppable
     }
 }
@@ -17,6 +17,7 @@ package org.gradle.launcher.daemon.client
 
 import org.gradle.api.internal.specs.ExplainingSpec
 import org.gradle.api.internal.specs.ExplainingSpecs
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.launcher.daemon.context.DaemonContext
 import org.gradle.launcher.daemon.context.DefaultDaemonContext
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo
@@ -28,11 +29,17 @@ import org.gradle.messaging.remote.internal.OutgoingConnector
 import org.gradle.messaging.remote.internal.RemoteConnection
 import spock.lang.Specification
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 class DefaultDaemonConnectorTest extends Specification {
 
     def javaHome = new File("tmp")
     def connectTimeoutSecs = 1
     def daemonCounter = 0
+    def standbyDaemonStarted = new CountDownLatch(1)
+    def executorFactory = new DefaultExecutorFactory()
+    def supportsStandby = true
 
     class OutgoingConnectorStub implements OutgoingConnector {
         ConnectCompletion connect(Address address) throws ConnectException {
@@ -51,11 +58,23 @@ class DefaultDaemonConnectorTest extends Specification {
         }
     }
 
+    class StandbyDaemonStarterStub implements DaemonStarter, StandbyDaemonStarter {
+        DaemonStartupInfo startDaemon() {
+            return startBusyDaemon()
+        }
+
+        DaemonStartupInfo startStandbyDaemon() {
+            return DefaultDaemonConnectorTest.this.startStandbyDaemon()
+        }
+    }
+
     def createConnector() {
+        def daemonStarter = supportsStandby ? new StandbyDaemonStarterStub() : ({ startBusyDaemon() } as DaemonStarter)
         def connector = Spy(DefaultDaemonConnector, constructorArgs: [
                 new EmbeddedDaemonRegistry(),
                 Spy(OutgoingConnectorStub),
-                { startBusyDaemon() } as DaemonStarter]
+                daemonStarter,
+                executorFactory]
         )
         connector.connectTimeout = connectTimeoutSecs * 1000
         connector
@@ -77,8 +96,18 @@ class DefaultDaemonConnectorTest extends Specification {
         registry.store(address, context, "password", true)
     }
 
+    def startStandbyDaemon() {
+        startIdleDaemon()
+        standbyDaemonStarted.countDown()
+        return new DaemonStartupInfo((daemonCounter - 1).toString(), null, null)
+    }
+
     def theConnector
 
+    def cleanup() {
+        executorFactory.stop()
+    }
+
     def DefaultDaemonConnector getConnector() {
         if (theConnector == null) {
             theConnector = createConnector()
@@ -174,6 +203,93 @@ class DefaultDaemonConnectorTest extends Specification {
         thrown(DaemonConnectionException)
     }
 
+    def "connect() starts a standby daemon when connecting to the last compatible idle daemon"() {
+        given:
+        connector.startStandbyDaemon = true
+        startIdleDaemon()
+        startIdleDaemon()
+
+        when:
+        def connection = connector.connect({it.pid == 0} as DummyExplainingSpec)
+
+        then:
+        connection && connection.connection.num == 0
+        standbyDaemonStarted.await(5, TimeUnit.SECONDS)
+        numAllDaemons == 3
+    }
+
+    def "connect() does not start a standby daemon after starting a new daemon"() {
+        given:
+        connector.startStandbyDaemon = true
+
+        when:
+        def connection = connector.connect({true} as DummyExplainingSpec)
+        connector.stop()
+
+        then:
+        connection && connection.connection.num == 0
+        standbyDaemonStarted.count == 1
+        numAllDaemons == 1
+    }
+
+    def "connect() does not start a standby daemon when the daemon starter does not support it"() {
+        given:
+        supportsStandby = false
+        connector.startStandbyDaemon = true
+        startIdleDaemon()
+
+        when:
+        def connection = connector.connect({true} as DummyExplainingSpec)
+        connector.stop()
+
+        then:
+        connection && connection.connection.num == 0
+        standbyDaemonStarted.count == 1
+        numAllDaemons == 1
+    }
+
+    def "stop() waits for the standby daemon to start"() {
+        given:
+        connector.startStandbyDaemon = true
+        startIdleDaemon()
+
+        when:
+        connector.connect({true} as DummyExplainingSpec)
+        connector.stop()
+
+        then:
+        standbyDaemonStarted.count == 0
+        numAllDaemons == 2
+    }
+
+    def "connect() does not start a standby daemon when another compatible idle daemon is available"() {
+        given:
+        connector.startStandbyDaemon = true
+        startIdleDaemon()
+        startIdleDaemon()
+
+        when:
+        connector.connect({true} as DummyExplainingSpec)
+        connector.stop()
+
+        then:
+        standbyDaemonStarted.count == 1
+        numAllDaemons == 2
+    }
+
+    def "connect() does not start a standby daemon by default"() {
+        given:
+        startIdleDaemon()
+
+        when:
+        connector.connect({true} as DummyExplainingSpec)
+        connector.stop()
+
+        then:
+        standbyDaemonStarted.count == 1
+        numAllDaemons == 1
+    }
+
     def "suspect address is removed from the registry on connect failure"() {
         given:
         startIdleDaemon()
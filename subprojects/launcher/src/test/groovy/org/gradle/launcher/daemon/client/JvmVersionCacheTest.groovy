@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.client
+
+import org.gradle.api.JavaVersion
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class JvmVersionCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def cacheFile = tmpDir.file("caches/versions.properties")
+    def java = tmpDir.createFile("jdk/bin/java")
+
+    def "returns null for unknown installation"() {
+        expect:
+        new JvmVersionCache(cacheFile).get(java) == null
+    }
+
+    def "shares versions between cache instances"() {
+        java.text = "java"
+
+        when:
+        new JvmVersionCache(cacheFile).put(java, JavaVersion.VERSION_1_7)
+
+        then:
+        cacheFile.file
+        new JvmVersionCache(cacheFile).get(java) == JavaVersion.VERSION_1_7
+    }
+
+    def "does not lose entries added by another cache instance"() {
+        def otherJava = tmpDir.createFile("other-jdk/bin/java")
+        def cache1 = new JvmVersionCache(cacheFile)
+        def cache2 = new JvmVersionCache(cacheFile)
+
+        when:
+        cache1.get(java)
+        cache2.put(otherJava, JavaVersion.VERSION_1_8)
+        cache1.put(java, JavaVersion.VERSION_1_7)
+
+        then:
+        def cache = new JvmVersionCache(cacheFile)
+        cache.get(java) == JavaVersion.VERSION_1_7
+        cache.get(otherJava) == JavaVersion.VERSION_1_8
+    }
+
+    def "ignores entry when Java executable has changed"() {
+        java.text = "java"
+        def cache = new JvmVersionCache(cacheFile)
+        cache.put(java, JavaVersion.VERSION_1_7)
+
+        when:
+        java.text = "a different java"
+
+        then:
+        cache.get(java) == null
+    }
+
+    def "ignores unreadable cache file"() {
+        cacheFile.createDir()
+
+        expect:
+        new JvmVersionCache(cacheFile).get(java) == null
+    }
+}
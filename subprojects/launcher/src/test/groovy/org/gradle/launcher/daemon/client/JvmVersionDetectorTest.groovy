@@ -17,6 +17,7 @@
 package org.gradle.launcher.daemon.client
 
 import org.gradle.api.JavaVersion
+import org.gradle.internal.jvm.JavaInfo
 import org.gradle.internal.jvm.Jvm
 import spock.lang.Specification
 
@@ -28,6 +29,62 @@ class JvmVersionDetectorTest extends Specification {
         detector.getJavaVersion(Jvm.current()) == JavaVersion.current()
     }
 
+    def "uses version from persistent cache in given user home directory"() {
+        def cache = Mock(JvmVersionCache)
+        def userHome = new File("user-home")
+        def detector = detectorWithCache(userHome, cache)
+        def jvm = Mock(JavaInfo)
+        def java = new File("jdk/bin/java")
+
+        when:
+        def version = detector.getJavaVersion(jvm, userHome)
+
+        then:
+        version == JavaVersion.VERSION_1_7
+        _ * jvm.javaExecutable >> java
+        1 * cache.get(java) >> JavaVersion.VERSION_1_7
+        0 * cache._
+
+        when:
+        version = detector.getJavaVersion(jvm, userHome)
+
+        then:
+        version == JavaVersion.VERSION_1_7
+        0 * cache._
+    }
+
+    def "does not use persistent cache for current jvm"() {
+        def cache = Mock(JvmVersionCache)
+        def userHome = new File("user-home")
+        def detector = detectorWithCache(userHome, cache)
+
+        when:
+        def version = detector.getJavaVersion(Jvm.current(), userHome)
+
+        then:
+        version == JavaVersion.current()
+        0 * cache._
+    }
+
+    def "uses a persistent cache for each user home directory"() {
+        def userHome1 = new File("user-home-1").absoluteFile
+        def userHome2 = new File("user-home-2").absoluteFile
+
+        expect:
+        detector.getPersistentCache(userHome1).is(detector.getPersistentCache(userHome1))
+        !detector.getPersistentCache(userHome1).is(detector.getPersistentCache(userHome2))
+    }
+
+    def detectorWithCache(File userHome, JvmVersionCache cache) {
+        return new JvmVersionDetector() {
+            @Override
+            JvmVersionCache getPersistentCache(File gradleUserHomeDir) {
+                assert gradleUserHomeDir == userHome
+                return cache
+            }
+        }
+    }
+
     def "can parse version number"() {
         expect:
         detector.parseJavaVersionCommandOutput("/usr/bin/java", new BufferedReader(new StringReader(output))) == JavaVersion.toVersion(version)
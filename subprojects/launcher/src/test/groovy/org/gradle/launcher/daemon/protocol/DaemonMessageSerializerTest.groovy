@@ -157,6 +157,22 @@ class DaemonMessageSerializerTest extends SerializerSpec {
         messageResult instanceof CloseInput
     }
 
+    def "can serialize OutputMessageBatch messages"() {
+        expect:
+        def message = new OutputMessageBatch([
+            new LogEvent(1234, "category", LogLevel.LIFECYCLE, "message", null),
+            new ProgressEvent(new OperationIdentifier(1234L), 321L, "category", "status")
+        ])
+        def result = serialize(message, serializer)
+        result instanceof OutputMessageBatch
+        result.events.size() == 2
+        result.events[0] instanceof LogEvent
+        result.events[0].message == "message"
+        result.events[1] instanceof ProgressEvent
+        result.events[1].operationId == new OperationIdentifier(1234L)
+        result.events[1].status == "status"
+    }
+
     def "can serialize ForwardInput messages"() {
         expect:
         def message = new ForwardInput("greetings".bytes)
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.registry
+
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.launcher.daemon.context.DefaultDaemonContext
+import org.gradle.messaging.remote.Address
+import org.gradle.messaging.remote.internal.inet.MultiChoiceAddress
+import org.junit.Assume
+
+class DaemonInfoSerializerTest extends SerializerSpec {
+    def serializer = new DaemonInfoSerializer()
+    def context = new DefaultDaemonContext("uid", new File("java-home"), new File("registry"), 123L, 5000, ["-Xmx1g", "-Dfoo=bar"])
+
+    def "serializes daemon info"() {
+        def address = new MultiChoiceAddress(UUID.randomUUID(), 1234, [InetAddress.getByName("127.0.0.1"), InetAddress.getByName("::1")])
+        def info = new DaemonInfo(address, context, "password", true)
+
+        when:
+        def result = usesEfficientSerialization(info, serializer)
+
+        then:
+        result.address == address
+        result.address.port == 1234
+        result.address.candidates == address.candidates
+        result.context.uid == "uid"
+        result.context.javaHome == new File("java-home")
+        result.context.daemonRegistryDir == new File("registry")
+        result.context.pid == 123L
+        result.context.idleTimeout == 5000
+        result.context.daemonOpts == ["-Xmx1g", "-Dfoo=bar"]
+        result.password == "password"
+        !result.idle
+    }
+
+    def "serializes scope of link-local addresses"() {
+        def linkLocal = [(byte) 0xfe, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1] as byte[]
+        def scoped = Inet6Address.getByAddress(null, linkLocal, 3)
+        def unscoped = InetAddress.getByAddress(linkLocal)
+        def address = new MultiChoiceAddress(UUID.randomUUID(), 1234, [scoped, unscoped])
+
+        when:
+        def result = serialize(new DaemonInfo(address, context, "password", false), serializer)
+
+        then:
+        result.address.candidates*.scopeId == [3, 0]
+        result.address.candidates*.hostAddress == [scoped.hostAddress, unscoped.hostAddress]
+    }
+
+    def "serializes scope of addresses scoped to a network interface"() {
+        def networkInterface = NetworkInterface.networkInterfaces.toList().find { it.inetAddresses.toList().any { it instanceof Inet6Address && it.linkLocalAddress } }
+        Assume.assumeNotNull(networkInterface)
+        def linkLocal = [(byte) 0xfe, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1] as byte[]
+        def scoped = Inet6Address.getByAddress(null, linkLocal, networkInterface)
+        def address = new MultiChoiceAddress(UUID.randomUUID(), 1234, [scoped])
+
+        when:
+        def result = serialize(new DaemonInfo(address, context, "password", false), serializer)
+
+        then:
+        result.address.candidates*.scopedInterface == [networkInterface]
+        result.address.candidates*.hostAddress == [scoped.hostAddress]
+    }
+
+    def "serializes context with missing values"() {
+        def address = new MultiChoiceAddress(UUID.randomUUID(), 1234, [])
+        def context = new DefaultDaemonContext("uid", new File("java-home"), new File("registry"), null, null, [])
+
+        when:
+        def result = serialize(new DaemonInfo(address, context, null, false), serializer)
+
+        then:
+        result.context.pid == null
+        result.context.idleTimeout == null
+        result.context.daemonOpts.empty
+        result.password == null
+    }
+
+    def "serializes other addresses"() {
+        def address = new TestAddress("address")
+
+        when:
+        def result = serialize(new DaemonInfo(address, context, "password", false), serializer)
+
+        then:
+        result.address == address
+        result.context.uid == "uid"
+    }
+
+    private static class TestAddress implements Address {
+        final String displayName
+
+        TestAddress(String displayName) {
+            this.displayName = displayName
+        }
+
+        boolean equals(o) {
+            displayName == o.displayName
+        }
+
+        int hashCode() {
+            displayName.hashCode()
+        }
+    }
+}
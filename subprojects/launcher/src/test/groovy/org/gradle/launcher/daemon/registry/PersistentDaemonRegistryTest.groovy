@@ -16,14 +16,23 @@
 
 package org.gradle.launcher.daemon.registry
 
+import org.gradle.internal.jvm.Jvm
 import org.gradle.internal.nativeintegration.ProcessEnvironment
 import org.gradle.launcher.daemon.context.DaemonContext
 import org.gradle.launcher.daemon.context.DaemonContextBuilder
+import org.gradle.launcher.daemon.context.DefaultDaemonContext
 import org.gradle.messaging.remote.Address
+import org.gradle.process.internal.ExecHandleBuilder
+import org.gradle.process.internal.ExecHandleState
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.Callable
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicBoolean
+
 import static org.gradle.cache.internal.DefaultFileLockManagerTestHelper.createDefaultFileLockManager
 import static org.gradle.cache.internal.DefaultFileLockManagerTestHelper.unlockUncleanly
 
@@ -44,10 +53,212 @@ class PersistentDaemonRegistryTest extends Specification {
         registry.all.size() == 1
 
         when:
-        unlockUncleanly(file)
+        interruptChange(file)
+
+        then:
+        registry.all.empty
+
+        when:
+        registry.store(address(), daemonContext(), "password", true)
 
         then:
+        registry.all.size() == 1
+    }
+
+    def "registry file with unexpected content is ignored"() {
+        given:
+        file.text = "not a registry"
+
+        expect:
         registry.all.empty
+
+        when:
+        registry.store(address(), daemonContext(), "password", true)
+
+        then:
+        registry.all.size() == 1
+    }
+
+    def "ignores unclean release of the registry lock"() {
+        given:
+        registry.store(address(), daemonContext(), "password", true)
+        unlockUncleanly(file)
+
+        when:
+        registry.store(address(), daemonContext(), "password", true)
+
+        then:
+        registry.all.size() == 2
+    }
+
+    def "stores and reads daemons"() {
+        given:
+        def address1 = address()
+        def address2 = address()
+
+        when:
+        registry.store(address1, daemonContext(), "password-1", true)
+        registry.store(address2, daemonContext(), "password-2", false)
+
+        then:
+        registry.all*.address == [address1, address2]
+        registry.idle*.address == [address1]
+        registry.busy*.address == [address2]
+        registry.all*.password == ["password-1", "password-2"]
+
+        and: "can be read by another registry instance"
+        new PersistentDaemonRegistry(file, lockManager).all*.address == [address1, address2]
+    }
+
+    def "replaces daemon stored with the same address"() {
+        given:
+        def address = address()
+        registry.store(address, daemonContext(), "password-1", false)
+
+        when:
+        registry.store(address, daemonContext(), "password-2", true)
+
+        then:
+        registry.all.size() == 1
+        registry.idle*.password == ["password-2"]
+    }
+
+    def "marks daemons busy and idle without growing the registry file"() {
+        given:
+        def address1 = address()
+        def address2 = address()
+        registry.store(address1, daemonContext(), "password", true)
+        registry.store(address2, daemonContext(), "password", true)
+        def length = file.length()
+
+        when:
+        registry.markBusy(address1)
+
+        then:
+        registry.busy*.address == [address1]
+        registry.idle*.address == [address2]
+
+        when:
+        registry.markIdle(address1)
+        registry.markBusy(address2)
+
+        then:
+        registry.idle*.address == [address1]
+        registry.busy*.address == [address2]
+        file.length() == length
+    }
+
+    def "reuses space of removed daemons"() {
+        given:
+        def address = address()
+        registry.store(address, daemonContext(), "password", true)
+        def length = file.length()
+
+        when:
+        20.times {
+            registry.remove(address)
+            address = address()
+            registry.store(address, daemonContext(), "password", true)
+        }
+
+        then:
+        registry.all*.address == [address]
+        file.length() <= length * 2
+    }
+
+    def "can read while daemons are stored and removed by other threads"() {
+        given:
+        def executor = Executors.newFixedThreadPool(6)
+        def failures = new CopyOnWriteArrayList<Throwable>()
+        def done = new AtomicBoolean()
+        def addresses = (0..<4).collect { address() }
+        def context = daemonContext()
+
+        when:
+        def writers = addresses.collect { address ->
+            executor.submit({
+                try {
+                    50.times {
+                        registry.store(address, context, "password", true)
+                        registry.markBusy(address)
+                        registry.markIdle(address)
+                        registry.remove(address)
+                    }
+                    registry.store(address, context, "password", true)
+                } catch (Throwable t) {
+                    failures << t
+                }
+            } as Callable)
+        }
+        def readers = (0..<2).collect {
+            executor.submit({
+                try {
+                    while (!done.get()) {
+                        def all = registry.all
+                        assert all.size() <= addresses.size()
+                        assert all.every { it.context != null && it.password == "password" }
+                    }
+                } catch (Throwable t) {
+                    failures << t
+                }
+            } as Callable)
+        }
+        writers*.get()
+        done.set(true)
+        readers*.get()
+
+        then:
+        failures.empty
+        registry.all*.address as Set == addresses as Set
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    def "can read while daemons are stored and removed by other processes"() {
+        given:
+        def processes = (0..<4).collect { index ->
+            new ExecHandleBuilder()
+                .executable(Jvm.current().javaExecutable.absolutePath)
+                .args("-cp", System.getProperty("java.class.path"), RegistryChanges.name, file.absolutePath, index.toString())
+                .workingDir(tmp.testDirectory)
+                .setTimeout(60000)
+                .build()
+        }
+        def reads = 0
+
+        when:
+        processes*.start()
+        while (processes.any { it.state == ExecHandleState.STARTED || it.state == ExecHandleState.STARTING }) {
+            def all = registry.all
+            assert all.size() <= processes.size()
+            assert all.every { it.context != null && it.password == "password" }
+            reads++
+        }
+
+        then:
+        processes*.waitForFinish()*.assertNormalExitValue()
+        registry.all*.address as Set == (0..<4).collect { new TestAddress(it.toString()) } as Set
+        reads > 0
+    }
+
+    /**
+     * Stores, marks and removes a daemon in a registry that is shared with other processes.
+     */
+    static class RegistryChanges {
+        static void main(String[] args) {
+            def file = new File(args[0])
+            def registry = new PersistentDaemonRegistry(file, createDefaultFileLockManager())
+            def address = new TestAddress(args[1])
+            def context = new DefaultDaemonContext(args[1], new File("java-home"), file.parentFile, null, null, [])
+            50.times {
+                registry.store(address, context, "password", true)
+                registry.markBusy(address)
+                registry.markIdle(address)
+                registry.remove(address)
+            }
+            registry.store(address, context, "password", true)
+        }
     }
 
     def "safely removes from registry file"() {
@@ -100,6 +311,21 @@ class PersistentDaemonRegistryTest extends Specification {
         registry.all.empty
     }
 
+    /**
+     * Simulates a change to the registry that did not complete, by leaving the sequence number in the header odd.
+     */
+    void interruptChange(File file) {
+        def raf = new RandomAccessFile(file, "rw")
+        try {
+            raf.seek(4)
+            def sequence = raf.readInt()
+            raf.seek(4)
+            raf.writeInt(sequence + 1)
+        } finally {
+            raf.close()
+        }
+    }
+
     DaemonContext daemonContext() {
         new DaemonContextBuilder([maybeGetPid: {null}] as ProcessEnvironment).with {
             daemonRegistryDir = tmp.createDir("daemons")
@@ -69,6 +69,34 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         0 * _._
     }
 
+    def "await idle timeout uses standby timeout when no command has been run"() {
+        when:
+        operation.waitForIdle {
+            coordinator.stopOnIdleTimeout(10000, 100, TimeUnit.MILLISECONDS)
+        }
+
+        then:
+        coordinator.stopped
+        operation.waitForIdle.duration in approx(100)
+
+        and:
+        0 * _._
+    }
+
+    def "await idle timeout ignores standby timeout once a command has been run"() {
+        given:
+        coordinator.runCommand(Mock(Runnable), "command")
+
+        when:
+        operation.waitForIdle {
+            coordinator.stopOnIdleTimeout(300, 10, TimeUnit.MILLISECONDS)
+        }
+
+        then:
+        coordinator.stopped
+        operation.waitForIdle.duration in approx(300)
+    }
+
     def "runs actions when command is run"() {
         Runnable command = Mock()
 
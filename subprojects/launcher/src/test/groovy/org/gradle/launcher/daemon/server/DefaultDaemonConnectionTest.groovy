@@ -16,12 +16,17 @@
 
 package org.gradle.launcher.daemon.server
 
+import org.gradle.api.logging.LogLevel
 import org.gradle.launcher.daemon.protocol.CloseInput
 import org.gradle.launcher.daemon.protocol.ForwardInput
+import org.gradle.launcher.daemon.protocol.OutputMessage
+import org.gradle.launcher.daemon.protocol.Success
 import org.gradle.launcher.daemon.server.api.StdinHandler
+import org.gradle.logging.internal.LogEvent
 import org.gradle.messaging.remote.internal.Connection
 import org.gradle.util.ConcurrentSpecification
 
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
 
@@ -346,15 +351,32 @@ class DefaultDaemonConnectionTest extends ConcurrentSpecification {
         result == ["incoming1", "incoming2"]
     }
 
+    def "dispatches queued output events before other messages"() {
+        def event1 = new LogEvent(0, "category", LogLevel.LIFECYCLE, "message 1", null)
+        def event2 = new LogEvent(0, "category", LogLevel.LIFECYCLE, "message 2", null)
+        def result = new Success("result")
+
+        when:
+        daemonConnection.logEvent(event1)
+        daemonConnection.logEvent(event2)
+        daemonConnection.completed(result)
+
+        then:
+        connection.dispatched.last() == result
+        connection.dispatched.subList(0, connection.dispatched.size() - 1).collectMany { it instanceof OutputMessage ? [it.event] : it.events } == [event1, event2]
+    }
+
     static class TestConnection implements Connection<Object> {
         final Object lock = new Object()
         final Object endInput = new Object()
         final LinkedList<Object> receiveQueue = new LinkedList<Object>()
+        final List<Object> dispatched = new CopyOnWriteArrayList<Object>()
 
         void requestStop() {
         }
 
         void dispatch(Object message) {
+            dispatched << message
         }
 
         void queueIncoming(Object message) {
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
+import org.gradle.internal.progress.OperationIdentifier
+import org.gradle.launcher.daemon.protocol.Message
+import org.gradle.launcher.daemon.protocol.OutputMessage
+import org.gradle.launcher.daemon.protocol.OutputMessageBatch
+import org.gradle.logging.internal.LogEvent
+import org.gradle.logging.internal.OutputEvent
+import org.gradle.logging.internal.ProgressCompleteEvent
+import org.gradle.logging.internal.ProgressEvent
+import org.gradle.logging.internal.ProgressStartEvent
+import org.gradle.messaging.remote.internal.Connection
+import org.gradle.util.ConcurrentSpecification
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class OutputEventForwarderTest extends ConcurrentSpecification {
+    final Connection<Message> connection = Mock()
+    final List<Message> dispatched = new CopyOnWriteArrayList<Message>()
+
+    def setup() {
+        _ * connection.dispatch(_) >> { Message message -> dispatched << message }
+    }
+
+    def "dispatches queued events in order when flushed"() {
+        def forwarder = forwarderWithoutWorker()
+        def events = (1..5).collect { log("message ${it}") }
+
+        when:
+        events.each { forwarder.add(it) }
+
+        then:
+        dispatched.empty
+
+        when:
+        forwarder.flush()
+
+        then:
+        dispatched.size() == 1
+        dispatched[0] instanceof OutputMessageBatch
+        dispatched[0].events == events
+    }
+
+    def "dispatches a single queued event as an output message"() {
+        def forwarder = forwarderWithoutWorker()
+        def event = log("message")
+
+        when:
+        forwarder.add(event)
+        forwarder.flush()
+
+        then:
+        dispatched.size() == 1
+        dispatched[0] instanceof OutputMessage
+        dispatched[0].event == event
+    }
+
+    def "does nothing when flushed with no queued events"() {
+        def forwarder = forwarderWithoutWorker()
+
+        when:
+        forwarder.flush()
+
+        then:
+        dispatched.empty
+    }
+
+    def "splits large numbers of queued events into multiple batches"() {
+        def forwarder = forwarderWithoutWorker()
+        def events = (1..(OutputEventForwarder.MAX_BATCH_SIZE + 1)).collect { log("message ${it}") }
+
+        when:
+        events.each { forwarder.add(it) }
+        forwarder.flush()
+
+        then:
+        dispatched.size() == 2
+        dispatched[0].events.size() == OutputEventForwarder.MAX_BATCH_SIZE
+        eventsOf(dispatched) == events
+    }
+
+    def "discards progress events that are superseded before they are dispatched"() {
+        def forwarder = forwarderWithoutWorker()
+        def id = new OperationIdentifier(1)
+        def start = new ProgressStartEvent(id, null, 0, "category", "description", null, null, "")
+        def progress1 = new ProgressEvent(id, 1, "category", "status 1")
+        def message = log("message")
+        def progress2 = new ProgressEvent(id, 2, "category", "status 2")
+        def progress3 = new ProgressEvent(id, 3, "category", "status 3")
+        def complete = new ProgressCompleteEvent(id, 4, "category", "description", "done")
+
+        when:
+        [start, progress1, message, progress2, progress3, complete].each { forwarder.add(it) }
+        forwarder.flush()
+
+        then:
+        eventsOf(dispatched) == [start, message, progress3, complete]
+    }
+
+    def "does not discard progress events for other operations or for operations that have completed"() {
+        def forwarder = forwarderWithoutWorker()
+        def id1 = new OperationIdentifier(1)
+        def id2 = new OperationIdentifier(2)
+        def progress1 = new ProgressEvent(id1, 1, "category", "status 1")
+        def progress2 = new ProgressEvent(id2, 2, "category", "status 2")
+        def complete1 = new ProgressCompleteEvent(id1, 3, "category", "description", "done")
+        def start1 = new ProgressStartEvent(id1, null, 4, "category", "description", null, null, "")
+        def progress3 = new ProgressEvent(id1, 5, "category", "status 3")
+
+        when:
+        [progress1, progress2, complete1, start1, progress3].each { forwarder.add(it) }
+        forwarder.flush()
+
+        then:
+        eventsOf(dispatched) == [progress1, progress2, complete1, start1, progress3]
+    }
+
+    def "does not discard progress events that have already been dispatched"() {
+        def forwarder = forwarderWithoutWorker()
+        def id = new OperationIdentifier(1)
+        def progress1 = new ProgressEvent(id, 1, "category", "status 1")
+        def progress2 = new ProgressEvent(id, 2, "category", "status 2")
+
+        when:
+        forwarder.add(progress1)
+        forwarder.flush()
+        forwarder.add(progress2)
+        forwarder.flush()
+
+        then:
+        eventsOf(dispatched) == [progress1, progress2]
+    }
+
+    def "discards further events when events cannot be dispatched"() {
+        def forwarder = forwarderWithoutWorker()
+        def failure = new RuntimeException("broken")
+
+        when:
+        forwarder.add(log("message 1"))
+        forwarder.flush()
+        forwarder.add(log("message 2"))
+        forwarder.flush()
+
+        then:
+        1 * connection.dispatch(_) >> { throw failure }
+        0 * connection._
+    }
+
+    def "dispatches queued events from worker thread"() {
+        def forwarder = new OutputEventForwarder(connection, executorFactory)
+        def events = (1..3).collect { log("message ${it}") }
+
+        when:
+        events.each { forwarder.add(it) }
+        poll {
+            assert eventsOf(dispatched) == events
+        }
+        forwarder.stop()
+
+        then:
+        eventsOf(dispatched) == events
+    }
+
+    def "dispatches queued events on stop"() {
+        def forwarder = new OutputEventForwarder(connection, executorFactory)
+        def events = (1..3).collect { log("message ${it}") }
+
+        when:
+        events.each { forwarder.add(it) }
+        forwarder.stop()
+
+        then:
+        eventsOf(dispatched) == events
+    }
+
+    def "dispatches events added after stop immediately"() {
+        def forwarder = new OutputEventForwarder(connection, executorFactory)
+        def event = log("message")
+
+        when:
+        forwarder.stop()
+        forwarder.add(event)
+
+        then:
+        eventsOf(dispatched) == [event]
+    }
+
+    private OutputEventForwarder forwarderWithoutWorker() {
+        def executorFactory = Stub(ExecutorFactory) {
+            create(_) >> Stub(StoppableExecutor)
+        }
+        return new OutputEventForwarder(connection, executorFactory)
+    }
+
+    private static LogEvent log(String message) {
+        return new LogEvent(0, "category", LogLevel.LIFECYCLE, message, null)
+    }
+
+    private static List<OutputEvent> eventsOf(List<Message> messages) {
+        return messages.collectMany { it instanceof OutputMessage ? [it.event] : it.events }
+    }
+}
@@ -66,4 +66,24 @@ class DaemonHealthTrackerTest extends Specification {
         then:
         0 * control.requestStop()
     }
+
+    def "stops after the build when under gc pressure"() {
+        1 * status.isDaemonTired(stats) >> false
+        1 * status.isUnderGcPressure(stats) >> true
+
+        when: tracker.execute(exec)
+
+        then:
+        1 * control.requestStop()
+    }
+
+    def "does not stop after the build when not under gc pressure"() {
+        1 * status.isDaemonTired(stats) >> false
+        1 * status.isUnderGcPressure(stats) >> false
+
+        when: tracker.execute(exec)
+
+        then:
+        0 * control.requestStop()
+    }
 }
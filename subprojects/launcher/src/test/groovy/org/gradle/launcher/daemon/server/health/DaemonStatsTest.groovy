@@ -89,4 +89,51 @@ class DaemonStatsTest extends Specification {
         then:
         stats.healthInfo == String.format("Starting 2nd build in daemon [uptime: %s, performance: 98%%, memory: 50%% of %.1f MB]", Clock.prettyTime(1), 10.0)
     }
+
+    def "tracks time spent in gc during the most recent build"() {
+        def currentTime = new AtomicLong()
+        def collectionTime = new AtomicLong()
+        time.getCurrentTime() >> { currentTime.get() }
+        memory.getCollectionTime() >> { collectionTime.get() }
+
+        def stats = new DaemonStats(clock, time, memory)
+
+        when:
+        collectionTime.set(100)
+        stats.buildStarted()
+        currentTime.set(1000)
+        collectionTime.set(400)
+        stats.buildFinished()
+
+        then:
+        stats.currentBuildCollectionTime == 30
+
+        when:
+        currentTime.set(2000)
+        stats.buildStarted()
+        currentTime.set(3000)
+        collectionTime.set(1500)
+        stats.buildFinished()
+
+        then:
+        stats.currentBuildCollectionTime == 100
+    }
+
+    def "reports usage of old generation after gc"() {
+        def stats = new DaemonStats(clock, time, memory)
+
+        when:
+        memory.getTenuredUsedAfterCollection() >> used
+        memory.getTenuredMax() >> max
+
+        then:
+        stats.tenuredUsedAfterCollection == percent
+
+        where:
+        used | max  | percent
+        900  | 1000 | 90
+        0    | 1000 | 0
+        -1   | 1000 | -1
+        900  | -1   | -1
+    }
 }
@@ -24,6 +24,8 @@ import spock.lang.Subject
 import spock.lang.Unroll
 
 import static org.gradle.launcher.daemon.server.health.DaemonStatus.EXPIRE_AT_PROPERTY
+import static org.gradle.launcher.daemon.server.health.DaemonStatus.GC_TIME_THRESHOLD_PROPERTY
+import static org.gradle.launcher.daemon.server.health.DaemonStatus.TENURED_USAGE_THRESHOLD_PROPERTY
 
 class DaemonStatusTest extends Specification {
 
@@ -73,4 +75,46 @@ class DaemonStatusTest extends Specification {
         then:
         !status.isDaemonTired(stats)
     }
+
+    def "validates supplied gc pressure threshold values"() {
+        System.setProperty(GC_TIME_THRESHOLD_PROPERTY, "foo")
+
+        when:
+        status.isUnderGcPressure(stats)
+
+        then:
+        def ex = thrown(GradleException)
+        ex.message == "System property 'org.gradle.daemon.health.gc-time-threshold' has incorrect value: 'foo'. The value needs to be integer."
+    }
+
+    @Unroll
+    def "knows when daemon is under gc pressure"() {
+        when:
+        System.setProperty(GC_TIME_THRESHOLD_PROPERTY, gcThreshold.toString())
+        System.setProperty(TENURED_USAGE_THRESHOLD_PROPERTY, tenuredThreshold.toString())
+        stats.getCurrentBuildCollectionTime() >> gcTime
+        stats.getTenuredUsedAfterCollection() >> tenured
+
+        then:
+        status.isUnderGcPressure(stats) == underPressure
+
+        where:
+        gcThreshold | tenuredThreshold | gcTime | tenured | underPressure
+        25          | 90               | 25     | 90      | true
+        25          | 90               | 60     | 99      | true
+        25          | 90               | 24     | 99      | false
+        25          | 90               | 60     | 89      | false
+        25          | 90               | 60     | -1      | false
+        0           | 90               | 100    | 100     | false
+        25          | 0                | 100    | 100     | false
+    }
+
+    def "gc pressure check is enabled by default"() {
+        when:
+        stats.getCurrentBuildCollectionTime() >> 30
+        stats.getTenuredUsedAfterCollection() >> 95
+
+        then:
+        status.isUnderGcPressure(stats)
+    }
 }
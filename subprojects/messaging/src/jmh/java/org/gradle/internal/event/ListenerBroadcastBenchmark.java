@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.event;
+
+import org.gradle.messaging.dispatch.ProxyDispatchAdapter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares delivering events through the generated broadcast source of a {@link ListenerBroadcast} with delivering them through a proxy, and measures delivering
+ * them through the broadcaster of a {@link DefaultListenerManager}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListenerBroadcastBenchmark {
+    @Param({"1", "5", "20", "50"})
+    public int listenerCount;
+
+    private BenchmarkListener generatedSource;
+    private BenchmarkListener proxySource;
+    private BenchmarkListener managerSource;
+    private CountingListener[] listeners;
+
+    @Setup
+    public void setup() {
+        ListenerBroadcast<BenchmarkListener> broadcast = new ListenerBroadcast<BenchmarkListener>(BenchmarkListener.class);
+        BroadcastDispatch<BenchmarkListener> dispatch = new BroadcastDispatch<BenchmarkListener>(BenchmarkListener.class);
+        DefaultListenerManager listenerManager = new DefaultListenerManager();
+        listeners = new CountingListener[listenerCount];
+        for (int i = 0; i < listenerCount; i++) {
+            listeners[i] = new CountingListener();
+            broadcast.add(listeners[i]);
+            dispatch.add(listeners[i]);
+            listenerManager.addListener(listeners[i]);
+        }
+        generatedSource = broadcast.getSource();
+        proxySource = new ProxyDispatchAdapter<BenchmarkListener>(dispatch, BenchmarkListener.class).getSource();
+        managerSource = listenerManager.getBroadcaster(BenchmarkListener.class);
+    }
+
+    @Benchmark
+    public long generated() {
+        generatedSource.event("event", 1);
+        return listeners[0].count;
+    }
+
+    @Benchmark
+    public long proxy() {
+        proxySource.event("event", 1);
+        return listeners[0].count;
+    }
+
+    @Benchmark
+    public long listenerManager() {
+        managerSource.event("event", 1);
+        return listeners[0].count;
+    }
+
+    public interface BenchmarkListener {
+        void event(String name, int value);
+    }
+
+    private static class CountingListener implements BenchmarkListener {
+        long count;
+
+        public void event(String name, int value) {
+            count += value + name.length();
+        }
+    }
+}
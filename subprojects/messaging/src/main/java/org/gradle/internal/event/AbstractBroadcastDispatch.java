@@ -20,6 +20,7 @@ import org.gradle.internal.UncheckedException;
 import org.gradle.messaging.dispatch.Dispatch;
 import org.gradle.messaging.dispatch.MethodInvocation;
 
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -37,22 +38,43 @@ public abstract class AbstractBroadcastDispatch<T> implements Dispatch<MethodInv
     }
 
     protected void dispatch(MethodInvocation invocation, Iterator<? extends Dispatch<MethodInvocation>> handlers) {
-        List<Throwable> failures = new ArrayList<Throwable>();
+        List<Throwable> failures = null;
         while (handlers.hasNext()) {
             Dispatch<MethodInvocation> handler = handlers.next();
             try {
                 handler.dispatch(invocation);
-            } catch (UncheckedException e) {
-                failures.add(e.getCause());
             } catch (Throwable t) {
-                failures.add(t);
+                failures = addFailure(failures, t);
             }
         }
+        rethrowFailures(failures);
+    }
+
+    /**
+     * Collects a failure to notify a listener. The list of failures is only created when the first failure happens.
+     */
+    static List<Throwable> addFailure(List<Throwable> failures, Throwable failure) {
+        if (failures == null) {
+            failures = new ArrayList<Throwable>(2);
+        }
+        if (failure instanceof UncheckedException) {
+            failures.add(failure.getCause());
+        } else if (failure instanceof UndeclaredThrowableException) {
+            // Thrown by a proxy when the dispatch behind it fails with a checked exception
+            failures.add(((UndeclaredThrowableException) failure).getUndeclaredThrowable());
+        } else {
+            failures.add(failure);
+        }
+        return failures;
+    }
+
+    void rethrowFailures(List<Throwable> failures) {
+        if (failures == null) {
+            return;
+        }
         if (failures.size() == 1 && failures.get(0) instanceof RuntimeException) {
             throw (RuntimeException) failures.get(0);
         }
-        if (!failures.isEmpty()) {
-            throw new ListenerNotificationException(getErrorMessage(), failures);
-        }
+        throw new ListenerNotificationException(getErrorMessage(), failures);
     }
 }
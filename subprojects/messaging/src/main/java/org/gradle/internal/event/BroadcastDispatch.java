@@ -19,16 +19,22 @@ package org.gradle.internal.event;
 import org.gradle.api.Action;
 import org.gradle.messaging.dispatch.Dispatch;
 import org.gradle.messaging.dispatch.MethodInvocation;
+import org.gradle.messaging.dispatch.ProxyDispatchAdapter;
 import org.gradle.messaging.dispatch.ReflectionDispatch;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
-public class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T> {
+public class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T> implements BroadcastListeners {
+    private static final Object[] NO_LISTENERS = new Object[0];
     private final Map<Object, Dispatch<MethodInvocation>> handlers = new LinkedHashMap<Object, Dispatch<MethodInvocation>>();
+    // Snapshots of the handlers, taken on each change, so that events are not delivered to handlers added while delivering the event
+    private volatile List<Dispatch<MethodInvocation>> dispatchSnapshot = Collections.emptyList();
+    private volatile Object[] listenerSnapshot = NO_LISTENERS;
 
     public BroadcastDispatch(Class<T> type) {
         super(type);
@@ -44,15 +50,18 @@ public class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T> {
 
     public void add(Dispatch<MethodInvocation> dispatch) {
         handlers.put(dispatch, dispatch);
+        changed();
     }
 
     public void add(T listener) {
         handlers.put(listener, new ReflectionDispatch(listener));
+        changed();
     }
 
     public void add(String methodName, Action<?> action) {
         assertIsMethod(methodName);
         handlers.put(action, new ActionInvocationHandler(methodName, action));
+        changed();
     }
 
     private void assertIsMethod(String methodName) {
@@ -66,17 +75,51 @@ public class BroadcastDispatch<T> extends AbstractBroadcastDispatch<T> {
     }
 
     public void remove(Object listener) {
-        handlers.remove(listener);
+        if (handlers.remove(listener) != null) {
+            changed();
+        }
     }
 
     public void removeAll() {
         handlers.clear();
+        changed();
+    }
+
+    /**
+     * Takes new snapshots of the handlers. Called by the thread that changed the handlers, so that a thread delivering an event never caches a stale snapshot.
+     */
+    private void changed() {
+        Object[] listeners = new Object[handlers.size()];
+        int i = 0;
+        for (Map.Entry<Object, Dispatch<MethodInvocation>> entry : handlers.entrySet()) {
+            if (entry.getValue() instanceof ReflectionDispatch && type.isInstance(entry.getKey())) {
+                listeners[i++] = entry.getKey();
+            } else {
+                listeners[i++] = new ProxyDispatchAdapter<T>(entry.getValue(), type).getSource();
+            }
+        }
+        dispatchSnapshot = new ArrayList<Dispatch<MethodInvocation>>(handlers.values());
+        listenerSnapshot = listeners;
     }
 
     @Override
     public void dispatch(MethodInvocation message) {
-        Iterator<Dispatch<MethodInvocation>> iterator = new ArrayList<Dispatch<MethodInvocation>>(handlers.values()).iterator();
-        dispatch(message, iterator);
+        dispatch(message, dispatchSnapshot.iterator());
+    }
+
+    /**
+     * Returns the current handlers, each as an implementation of the listener type. A listener is returned as is, other handlers are adapted to the listener type.
+     */
+    public Object[] startNotification() {
+        return listenerSnapshot;
+    }
+
+    public Object getListener(Object[] listeners, int index) {
+        return listeners[index];
+    }
+
+    public void endNotification(Object[] listeners, List<Throwable> failures) {
+        rethrowFailures(failures);
     }
 
     private class ActionInvocationHandler implements Dispatch<MethodInvocation> {
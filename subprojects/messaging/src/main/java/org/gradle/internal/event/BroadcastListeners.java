@@ -0,0 +1,42 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.event;
+
+import java.util.List;
+
+/**
+ * Provides the listeners that a {@link GeneratedBroadcastSource} notifies of each event.
+ */
+public interface BroadcastListeners {
+    /**
+     * Starts the notification of an event, and returns the listeners to notify.
+     */
+    Object[] startNotification();
+
+    /**
+     * Returns the listener at the given index of the listeners returned by {@link #startNotification()}, or null when the listener should not be notified.
+     * The listener implements the listener type.
+     */
+    Object getListener(Object[] listeners, int index);
+
+    /**
+     * Finishes the notification of an event, and rethrows the failures of the listeners, if any.
+     *
+     * @param failures The failures of the listeners, or null when none failed.
+     */
+    void endNotification(Object[] listeners, List<Throwable> failures);
+}
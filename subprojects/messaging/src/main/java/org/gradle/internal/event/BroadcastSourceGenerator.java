@@ -0,0 +1,253 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.event;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.reflect.JavaMethod;
+import org.gradle.internal.reflect.JavaReflectionUtil;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates the broadcast source for a listener interface. For each method of the interface, the generated class contains code equivalent to:
+ *
+ * <pre>
+ * public void event(A a, B b) {
+ *     Object[] listeners = startNotification();
+ *     List&lt;Throwable&gt; failures = null;
+ *     for (int i = 0; i &lt; listeners.length; i++) {
+ *         Object listener = getListener(listeners, i);
+ *         if (listener != null) {
+ *             try {
+ *                 ((Listener) listener).event(a, b);
+ *             } catch (Throwable t) {
+ *                 failures = addFailure(failures, t);
+ *             }
+ *         }
+ *     }
+ *     endNotification(listeners, failures);
+ * }
+ * </pre>
+ *
+ * <p>A class is only generated for an interface whose methods all return void, and which is loaded by a class loader that can see this class. Otherwise, the caller
+ * should use a proxy instead.</p>
+ */
+class BroadcastSourceGenerator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastSourceGenerator.class);
+    private static final JavaMethod<ClassLoader, Class> DEFINE_CLASS_METHOD = JavaReflectionUtil.method(ClassLoader.class, Class.class, "defineClass", String.class, byte[].class, Integer.TYPE, Integer.TYPE);
+    private static final String GENERATED_CLASS_SUFFIX = "$$Broadcast";
+    private static final String SUPER_CLASS_NAME = GeneratedBroadcastSource.class.getName().replace('.', '/');
+    private static final String CONSTRUCTOR_DESCRIPTOR = "(L" + BroadcastListeners.class.getName().replace('.', '/') + ";)V";
+    // Stands for a listener type that is not supported, as the cache cannot hold null values
+    private static final Class<?> UNSUPPORTED = Void.class;
+    // The generated classes are strongly referenced by their class loader, which is also the class loader of the listener type
+    private static final Cache<Class<?>, Class<?>> GENERATED_CLASSES = CacheBuilder.newBuilder().weakKeys().weakValues().build();
+
+    /**
+     * Creates a broadcast source for the given listener type, or returns null when a source cannot be generated for this type.
+     */
+    static <T> T newSource(final Class<T> type, BroadcastListeners listeners) {
+        Class<?> generatedClass;
+        try {
+            generatedClass = GENERATED_CLASSES.get(type, new Callable<Class<?>>() {
+                public Class<?> call() {
+                    return generate(type);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+        if (generatedClass == UNSUPPORTED) {
+            return null;
+        }
+        try {
+            return type.cast(generatedClass.getConstructor(BroadcastListeners.class).newInstance(listeners));
+        } catch (LinkageError e) {
+            // The generated class cannot be loaded, do not try again
+            LOGGER.debug("Could not load generated broadcast source for {}. Falling back to a proxy.", type.getName(), e);
+            GENERATED_CLASSES.put(type, UNSUPPORTED);
+            return null;
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static Class<?> generate(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (!type.isInterface() || classLoader == null || !canSee(classLoader, GeneratedBroadcastSource.class) || !canSee(classLoader, BroadcastListeners.class)) {
+            return UNSUPPORTED;
+        }
+        try {
+            Collection<Method> methods = getListenerMethods(type);
+            if (methods == null) {
+                return UNSUPPORTED;
+            }
+            String generatedTypeName = type.getName() + GENERATED_CLASS_SUFFIX;
+            byte[] bytecode = generateBytecode(type, generatedTypeName.replace('.', '/'), methods);
+            return DEFINE_CLASS_METHOD.invoke(classLoader, generatedTypeName, bytecode, 0, bytecode.length);
+        } catch (LinkageError e) {
+            // ASM is not available in this process
+            LOGGER.debug("Could not generate broadcast source for {}. Falling back to a proxy.", type.getName(), e);
+            return UNSUPPORTED;
+        } catch (Exception e) {
+            // For example, the listener type is in a package where classes cannot be defined
+            LOGGER.debug("Could not generate broadcast source for {}. Falling back to a proxy.", type.getName(), e);
+            return UNSUPPORTED;
+        }
+    }
+
+    private static boolean canSee(ClassLoader classLoader, Class<?> type) {
+        try {
+            return classLoader.loadClass(type.getName()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static Collection<Method> getListenerMethods(Class<?> type) {
+        Map<String, Method> methods = new LinkedHashMap<String, Method>();
+        for (Method method : type.getMethods()) {
+            if (method.getReturnType() != void.class) {
+                return null;
+            }
+            // The same method may be inherited from several interfaces
+            methods.put(method.getName() + Type.getMethodDescriptor(method), method);
+        }
+        return methods.values();
+    }
+
+    private static byte[] generateBytecode(Class<?> type, String generatedTypeName, Collection<Method> methods) {
+        ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        String typeName = Type.getInternalName(type);
+        visitor.visit(V1_6, ACC_PUBLIC | ACC_SYNTHETIC, generatedTypeName, null, SUPER_CLASS_NAME, new String[]{typeName});
+
+        MethodVisitor constructor = visitor.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ALOAD, 1);
+        constructor.visitMethodInsn(INVOKESPECIAL, SUPER_CLASS_NAME, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        for (Method method : methods) {
+            addBroadcastMethod(visitor, typeName, method);
+        }
+
+        visitor.visitEnd();
+        return visitor.toByteArray();
+    }
+
+    private static void addBroadcastMethod(ClassWriter visitor, String typeName, Method method) {
+        String descriptor = Type.getMethodDescriptor(method);
+        Type[] argumentTypes = Type.getArgumentTypes(method);
+        int listenersVar = 1;
+        for (Type argumentType : argumentTypes) {
+            listenersVar += argumentType.getSize();
+        }
+        int failuresVar = listenersVar + 1;
+        int indexVar = listenersVar + 2;
+        int listenerVar = listenersVar + 3;
+        int failureVar = listenersVar + 4;
+
+        MethodVisitor methodVisitor = visitor.visitMethod(ACC_PUBLIC, method.getName(), descriptor, null, null);
+        methodVisitor.visitCode();
+        Label loop = new Label();
+        Label tryStart = new Label();
+        Label tryEnd = new Label();
+        Label handler = new Label();
+        Label next = new Label();
+        Label end = new Label();
+        methodVisitor.visitTryCatchBlock(tryStart, tryEnd, handler, "java/lang/Throwable");
+
+        // Object[] listeners = startNotification(); List<Throwable> failures = null; int i = 0;
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitMethodInsn(INVOKEVIRTUAL, SUPER_CLASS_NAME, "startNotification", "()[Ljava/lang/Object;", false);
+        methodVisitor.visitVarInsn(ASTORE, listenersVar);
+        methodVisitor.visitInsn(ACONST_NULL);
+        methodVisitor.visitVarInsn(ASTORE, failuresVar);
+        methodVisitor.visitInsn(ICONST_0);
+        methodVisitor.visitVarInsn(ISTORE, indexVar);
+
+        // while (i < listeners.length)
+        methodVisitor.visitLabel(loop);
+        methodVisitor.visitVarInsn(ILOAD, indexVar);
+        methodVisitor.visitVarInsn(ALOAD, listenersVar);
+        methodVisitor.visitInsn(ARRAYLENGTH);
+        methodVisitor.visitJumpInsn(IF_ICMPGE, end);
+
+        // Object listener = getListener(listeners, i); if (listener != null)
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitVarInsn(ALOAD, listenersVar);
+        methodVisitor.visitVarInsn(ILOAD, indexVar);
+        methodVisitor.visitMethodInsn(INVOKEVIRTUAL, SUPER_CLASS_NAME, "getListener", "([Ljava/lang/Object;I)Ljava/lang/Object;", false);
+        methodVisitor.visitVarInsn(ASTORE, listenerVar);
+        methodVisitor.visitVarInsn(ALOAD, listenerVar);
+        methodVisitor.visitJumpInsn(IFNULL, next);
+
+        // try { ((Listener) listener).event(args) }
+        methodVisitor.visitLabel(tryStart);
+        methodVisitor.visitVarInsn(ALOAD, listenerVar);
+        methodVisitor.visitTypeInsn(CHECKCAST, typeName);
+        int argumentVar = 1;
+        for (Type argumentType : argumentTypes) {
+            methodVisitor.visitVarInsn(argumentType.getOpcode(ILOAD), argumentVar);
+            argumentVar += argumentType.getSize();
+        }
+        methodVisitor.visitMethodInsn(INVOKEINTERFACE, typeName, method.getName(), descriptor, true);
+        methodVisitor.visitLabel(tryEnd);
+        methodVisitor.visitJumpInsn(GOTO, next);
+
+        // catch (Throwable t) { failures = addFailure(failures, t); }
+        methodVisitor.visitLabel(handler);
+        methodVisitor.visitVarInsn(ASTORE, failureVar);
+        methodVisitor.visitVarInsn(ALOAD, failuresVar);
+        methodVisitor.visitVarInsn(ALOAD, failureVar);
+        methodVisitor.visitMethodInsn(INVOKESTATIC, SUPER_CLASS_NAME, "addFailure", "(Ljava/util/List;Ljava/lang/Throwable;)Ljava/util/List;", false);
+        methodVisitor.visitVarInsn(ASTORE, failuresVar);
+
+        // i++
+        methodVisitor.visitLabel(next);
+        methodVisitor.visitIincInsn(indexVar, 1);
+        methodVisitor.visitJumpInsn(GOTO, loop);
+
+        // endNotification(listeners, failures);
+        methodVisitor.visitLabel(end);
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitVarInsn(ALOAD, listenersVar);
+        methodVisitor.visitVarInsn(ALOAD, failuresVar);
+        methodVisitor.visitMethodInsn(INVOKEVIRTUAL, SUPER_CLASS_NAME, "endNotification", "([Ljava/lang/Object;Ljava/util/List;)V", false);
+        methodVisitor.visitInsn(RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+    }
+}
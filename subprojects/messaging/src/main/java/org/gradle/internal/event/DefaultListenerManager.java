@@ -19,7 +19,6 @@ package org.gradle.internal.event;
 import org.gradle.internal.UncheckedException;
 import org.gradle.messaging.dispatch.Dispatch;
 import org.gradle.messaging.dispatch.MethodInvocation;
-import org.gradle.messaging.dispatch.ProxyDispatchAdapter;
 import org.gradle.messaging.dispatch.ReflectionDispatch;
 
 import java.util.*;
@@ -84,7 +83,7 @@ public class DefaultListenerManager implements ListenerManager {
 
     public <T> ListenerBroadcast<T> createAnonymousBroadcaster(Class<T> listenerClass) {
         ListenerBroadcast<T> broadcast = new ListenerBroadcast(listenerClass);
-        broadcast.add(getBroadcasterInternal(listenerClass).getDispatch(true));
+        broadcast.add(getBroadcasterInternal(listenerClass).getSource(true));
         return broadcast;
     }
 
@@ -111,32 +110,32 @@ public class DefaultListenerManager implements ListenerManager {
 
     private class EventBroadcast<T> {
         private final Class<T> type;
-        private final ProxyDispatchAdapter<T> source;
-        private final ListenerDispatch dispatch;
-        private final ListenerDispatch dispatchNoLogger;
+        private final T source;
+        private final T sourceNoLogger;
 
         // The following state is protected by lock
         private final Set<ListenerDetails> listeners = new LinkedHashSet<ListenerDetails>();
         private ListenerDetails logger;
-        private Dispatch<MethodInvocation> parentDispatch;
+        private T parentSource;
         private Thread owner;
 
         EventBroadcast(Class<T> type) {
             this.type = type;
-            dispatch = new ListenerDispatch(type, true);
-            dispatchNoLogger = new ListenerDispatch(type, false);
+            ListenerDispatch dispatch = new ListenerDispatch(type, true);
+            ListenerDispatch dispatchNoLogger = new ListenerDispatch(type, false);
+            source = ListenerBroadcast.createSource(type, dispatch, dispatch);
+            sourceNoLogger = ListenerBroadcast.createSource(type, dispatchNoLogger, dispatchNoLogger);
             if (parent != null) {
-                parentDispatch = parent.getBroadcasterInternal(type).getDispatch(true);
+                parentSource = parent.getBroadcasterInternal(type).getSource(true);
             }
-            source = new ProxyDispatchAdapter<T>(dispatch, type);
         }
 
-        Dispatch<MethodInvocation> getDispatch(boolean includeLogger) {
-            return includeLogger ? dispatch : dispatchNoLogger;
+        T getSource(boolean includeLogger) {
+            return includeLogger ? source : sourceNoLogger;
         }
 
         T getBroadcaster() {
-            return source.getSource();
+            return source;
         }
 
         // Must be holding lock
@@ -156,13 +155,13 @@ public class DefaultListenerManager implements ListenerManager {
         void maybeSetLogger(ListenerDetails candidate) {
             if (type.isInstance(candidate.listener)) {
                 if (logger == null && parent != null) {
-                    parentDispatch = parent.getBroadcasterInternal(type).getDispatch(false);
+                    parentSource = parent.getBroadcasterInternal(type).getSource(false);
                 }
                 logger = candidate;
             }
         }
 
-        private List<Dispatch<MethodInvocation>> startNotification(boolean includeLogger) {
+        private Object[] startNotification(boolean includeLogger) {
             synchronized (lock) {
                 // Mark this listener type as being notified
                 while (owner != null) {
@@ -178,26 +177,28 @@ public class DefaultListenerManager implements ListenerManager {
                 owner = Thread.currentThread();
 
                 // Take a snapshot while holding lock
-                List<Dispatch<MethodInvocation>> dispatchers = new ArrayList<Dispatch<MethodInvocation>>(listeners.size() + 2);
-                if (includeLogger && logger != null) {
-                    dispatchers.add(logger);
+                boolean notifyLogger = includeLogger && logger != null;
+                Object[] snapshot = new Object[listeners.size() + (notifyLogger ? 1 : 0) + (parentSource != null ? 1 : 0)];
+                int i = 0;
+                if (notifyLogger) {
+                    snapshot[i++] = logger;
                 }
-                if (parentDispatch != null) {
-                    dispatchers.add(parentDispatch);
+                if (parentSource != null) {
+                    snapshot[i++] = parentSource;
                 }
                 for (ListenerDetails listener : listeners) {
                     listener.startNotification(owner);
-                    dispatchers.add(listener);
+                    snapshot[i++] = listener;
                 }
-                return dispatchers;
+                return snapshot;
             }
         }
 
-        private void endNotification(List<Dispatch<MethodInvocation>> dispatchers) {
+        private void endNotification(Object[] snapshot) {
             synchronized (lock) {
-                for (Dispatch<MethodInvocation> dispatcher : dispatchers) {
-                    if (dispatcher instanceof ListenerDetails) {
-                        ListenerDetails listener = (ListenerDetails) dispatcher;
+                for (Object element : snapshot) {
+                    if (element instanceof ListenerDetails) {
+                        ListenerDetails listener = (ListenerDetails) element;
                         listener.endNotification(owner);
                     }
                 }
@@ -206,7 +207,11 @@ public class DefaultListenerManager implements ListenerManager {
             }
         }
 
-        private class ListenerDispatch extends AbstractBroadcastDispatch<T> {
+        /**
+         * Notifies the listeners of this type. The snapshot taken for each event contains the logger and the listeners, which are notified unless they have been
+         * removed in the meantime, and the broadcaster of the parent.
+         */
+        private class ListenerDispatch extends AbstractBroadcastDispatch<T> implements BroadcastListeners {
             private final boolean includeLogger;
 
             public ListenerDispatch(Class<T> type, boolean includeLogger) {
@@ -214,13 +219,38 @@ public class DefaultListenerManager implements ListenerManager {
                 this.includeLogger = includeLogger;
             }
 
+            public Object[] startNotification() {
+                return EventBroadcast.this.startNotification(includeLogger);
+            }
+
+            public Object getListener(Object[] snapshot, int index) {
+                Object element = snapshot[index];
+                if (element instanceof ListenerDetails) {
+                    ListenerDetails listener = (ListenerDetails) element;
+                    return listener.removed.get() ? null : listener.listener;
+                }
+                return element;
+            }
+
+            public void endNotification(Object[] snapshot, List<Throwable> failures) {
+                EventBroadcast.this.endNotification(snapshot);
+                rethrowFailures(failures);
+            }
+
+            /**
+             * Used when the broadcaster is a proxy rather than a generated class.
+             */
             @Override
             public void dispatch(MethodInvocation invocation) {
-                List<Dispatch<MethodInvocation>> dispatchers = startNotification(includeLogger);
+                Object[] snapshot = startNotification();
+                List<Dispatch<MethodInvocation>> dispatchers = new ArrayList<Dispatch<MethodInvocation>>(snapshot.length);
+                for (Object element : snapshot) {
+                    dispatchers.add(element instanceof ListenerDetails ? (ListenerDetails) element : new ReflectionDispatch(element));
+                }
                 try {
                     dispatch(invocation, dispatchers.iterator());
                 } finally {
-                    endNotification(dispatchers);
+                    EventBroadcast.this.endNotification(snapshot);
                 }
             }
         }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.event;
+
+import java.util.List;
+
+/**
+ * The base class of the broadcast sources generated by {@link BroadcastSourceGenerator}. A generated subclass implements each method of the listener type by calling
+ * the method directly on each listener, so that an event is delivered without reflection and without creating a {@link org.gradle.messaging.dispatch.MethodInvocation}.
+ */
+public abstract class GeneratedBroadcastSource {
+    private final BroadcastListeners listeners;
+
+    protected GeneratedBroadcastSource(BroadcastListeners listeners) {
+        this.listeners = listeners;
+    }
+
+    protected final Object[] startNotification() {
+        return listeners.startNotification();
+    }
+
+    protected final Object getListener(Object[] listeners, int index) {
+        return this.listeners.getListener(listeners, index);
+    }
+
+    protected static List<Throwable> addFailure(List<Throwable> failures, Throwable failure) {
+        return AbstractBroadcastDispatch.addFailure(failures, failure);
+    }
+
+    protected final void endNotification(Object[] listeners, List<Throwable> failures) {
+        this.listeners.endNotification(listeners, failures);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s broadcast", getClass().getInterfaces()[0].getSimpleName());
+    }
+}
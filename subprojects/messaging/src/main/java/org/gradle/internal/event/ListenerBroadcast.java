@@ -20,6 +20,8 @@ import org.gradle.api.Action;
 import org.gradle.messaging.dispatch.Dispatch;
 import org.gradle.messaging.dispatch.MethodInvocation;
 import org.gradle.messaging.dispatch.ProxyDispatchAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * <p>Manages a set of listeners of type T. Provides an implementation of T which can be used to broadcast to all
@@ -28,17 +30,37 @@ import org.gradle.messaging.dispatch.ProxyDispatchAdapter;
  * <p>Ordering is maintained for events, so that events are delivered to listeners in the order they are generated.
  * Events are delivered to listeners in the order that listeners are added to this broadcaster.</p>
  *
+ * <p>Where possible, the broadcaster is an instance of a generated class that calls each listener directly. Otherwise, it is a proxy that
+ * delivers a {@link MethodInvocation} to each listener using reflection.</p>
+ *
  * @param <T> The listener type.
  */
 public class ListenerBroadcast<T> implements Dispatch<MethodInvocation> {
-    private final ProxyDispatchAdapter<T> source;
+    private static final Logger LOGGER = LoggerFactory.getLogger(ListenerBroadcast.class);
+    private final T source;
     private final BroadcastDispatch<T> broadcast;
     private final Class<T> type;
 
     public ListenerBroadcast(Class<T> type) {
         this.type = type;
         broadcast = new BroadcastDispatch<T>(type);
-        source = new ProxyDispatchAdapter<T>(broadcast, type);
+        source = createSource(type, broadcast, broadcast);
+    }
+
+    /**
+     * Creates a broadcast source that notifies the given listeners directly, where possible. Otherwise, creates a proxy that delivers each event to the given dispatch.
+     */
+    static <T> T createSource(Class<T> type, BroadcastListeners listeners, Dispatch<MethodInvocation> dispatch) {
+        try {
+            T source = BroadcastSourceGenerator.newSource(type, listeners);
+            if (source != null) {
+                return source;
+            }
+        } catch (LinkageError e) {
+            // Cannot generate classes in this process, for example as ASM is not available
+            LOGGER.debug("Could not create broadcast source for {}. Falling back to a proxy.", type.getName(), e);
+        }
+        return new ProxyDispatchAdapter<T>(dispatch, type).getSource();
     }
 
     /**
@@ -47,7 +69,7 @@ public class ListenerBroadcast<T> implements Dispatch<MethodInvocation> {
      * @return The broadcaster.
      */
     public T getSource() {
-        return source.getSource();
+        return source;
     }
 
     /**
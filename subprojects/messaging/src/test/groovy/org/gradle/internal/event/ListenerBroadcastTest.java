@@ -28,6 +28,8 @@ import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.lang.reflect.Proxy;
+
 import static org.gradle.util.Matchers.strictlyEqual;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -46,6 +48,32 @@ public class ListenerBroadcastTest {
         assertThat(broadcast.getSource().toString(), equalTo("TestListener broadcast"));
     }
 
+    @Test
+    public void sourceObjectIsGeneratedForListenerType() {
+        assertThat(broadcast.getSource(), instanceOf(GeneratedBroadcastSource.class));
+    }
+
+    @Test
+    public void usesProxyForListenerTypeWithMethodsThatReturnValues() {
+        ListenerBroadcast<ValueListener> broadcast = new ListenerBroadcast<ValueListener>(ValueListener.class);
+
+        assertTrue(Proxy.isProxyClass(broadcast.getSource().getClass()));
+        assertThat(broadcast.getSource().toString(), equalTo("ValueListener broadcast"));
+    }
+
+    @Test
+    public void sourceObjectPassesPrimitiveParametersToListeners() {
+        ListenerBroadcast<PrimitiveListener> broadcast = new ListenerBroadcast<PrimitiveListener>(PrimitiveListener.class);
+        final PrimitiveListener listener = context.mock(PrimitiveListener.class);
+
+        context.checking(new Expectations() {{
+            one(listener).event(12L, 1.5d, true, 'c', "param");
+        }});
+
+        broadcast.add(listener);
+        broadcast.getSource().event(12L, 1.5d, true, 'c', "param");
+    }
+
     @Test
     public void getTypeIsCorrect() {
         assertThat(broadcast.getType(), equalTo(TestListener.class));
@@ -258,6 +286,14 @@ public class ListenerBroadcastTest {
         }
     }
 
+    public interface ValueListener {
+        String value();
+    }
+
+    public interface PrimitiveListener {
+        void event(long longValue, double doubleValue, boolean booleanValue, char charValue, String other);
+    }
+
     public interface TestListener {
         void event1(String param);
 
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance
+
+import org.gradle.performance.categories.BasicPerformanceTest
+import org.junit.experimental.categories.Category
+import spock.lang.Unroll
+
+import static org.gradle.performance.measure.Duration.millis
+
+@Category(BasicPerformanceTest)
+class JvmStartupPerformanceTest extends AbstractCrossVersionPerformanceTest {
+    @Unroll("Project '#testProject' daemon client startup")
+    def "daemon client startup"() {
+        given:
+        runner.testId = "daemon client startup $testProject"
+        runner.testProject = testProject
+        // A build that does almost nothing in a warm daemon, so that the time is dominated by the client finding and connecting to the daemon
+        runner.tasksToRun = ['help']
+        runner.args = ['-q']
+        runner.maxExecutionTimeRegression = maxExecutionTimeRegression
+        runner.targetVersions = ['2.8', 'last']
+        runner.useDaemon = true
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject | maxExecutionTimeRegression
+        "small"     | millis(100)
+    }
+}
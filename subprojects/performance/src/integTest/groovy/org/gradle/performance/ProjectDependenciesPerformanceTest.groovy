@@ -19,6 +19,7 @@ package org.gradle.performance
 import org.gradle.performance.categories.BasicPerformanceTest
 import org.junit.experimental.categories.Category
 
+import static org.gradle.performance.measure.DataAmount.mbytes
 import static org.gradle.performance.measure.Duration.millis
 
 @Category(BasicPerformanceTest)
@@ -39,4 +40,26 @@ class ProjectDependenciesPerformanceTest extends AbstractCrossVersionPerformance
         then:
         result.assertCurrentVersionHasNotRegressed()
     }
+
+    def "resolving a large dependency graph"() {
+        given:
+        runner.testId = "resolving dependencies largeDependencyGraph"
+        runner.testProject = "largeDependencyGraph"
+        runner.tasksToRun = ['resolveDependencies']
+        runner.useDaemon = true
+        runner.gradleOpts = ["-Xms1g", "-Xmx1g", "-XX:MaxPermSize=256m"]
+        runner.targetVersions = ['last']
+        runner.maxExecutionTimeRegression = millis(1000)
+        runner.maxMemoryRegression = mbytes(100)
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+
+        and:
+        // Every project resolves the same graph, so interned identifiers and softly held results should retain less of the heap than the last release
+        result.baselineVersions.every { result.current.maxUncollectedHeap.average < it.results.maxUncollectedHeap.average }
+    }
 }
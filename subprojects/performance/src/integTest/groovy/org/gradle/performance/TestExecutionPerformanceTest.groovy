@@ -48,4 +48,28 @@ class TestExecutionPerformanceTest extends AbstractCrossVersionPerformanceTest {
         "withVerboseTestNG" | millis(500)
         "withVerboseJUnit"  | millis(500)
     }
+
+    @Unroll("Project '#testProject' verbose test output")
+    def "verbose test output"() {
+        given:
+        runner.testId = "verbose test output $testProject"
+        runner.testProject = testProject
+        runner.tasksToRun = ['cleanTest', 'test']
+        // Logs the output of the tests, so that the daemon sends every line to the client
+        runner.args = ['-i']
+        runner.maxExecutionTimeRegression = maxExecutionTimeRegression
+        runner.targetVersions = ['2.8', 'last']
+        runner.useDaemon = true
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject         | maxExecutionTimeRegression
+        "withVerboseTestNG" | millis(500)
+        "withVerboseJUnit"  | millis(500)
+    }
 }
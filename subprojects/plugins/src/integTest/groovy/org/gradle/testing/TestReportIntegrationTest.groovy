@@ -211,6 +211,59 @@ public class SubClassTests extends SuperClassTests {
         new HtmlTestExecutionResult(testDirectory, "build/reports/tr").assertTestClassesExecuted("Thing")
     }
 
+    @IgnoreIf({GradleContextualExecuter.parallel})
+    def "aggregated report reuses class pages of test tasks that did not run again"() {
+        given:
+        buildScript """
+            apply plugin: 'java'
+
+            $junitSetup
+
+            test {
+                exclude '**/OtherThing*'
+                systemProperty 'message', project.property('message')
+            }
+
+            task otherTests(type: Test) {
+                include '**/OtherThing*'
+            }
+
+            task testReport(type: TestReport) {
+                reportOn test, otherTests
+                destinationDir reporting.file("tr")
+            }
+        """
+
+        and:
+        file("src/test/java/Thing.java") << """
+            public class Thing {
+                @org.junit.Test
+                public void test() {
+                    System.out.println(System.getProperty("message"));
+                }
+            }
+        """
+        testClass("OtherThing")
+
+        when:
+        executer.withArguments("-Pmessage=first")
+        succeeds "testReport"
+        def otherThingPage = file("build/reports/tr/classes/OtherThing.html")
+        otherThingPage << "<!-- reused -->"
+
+        and:
+        executer.withArguments("-Pmessage=second")
+        succeeds "testReport"
+
+        then:
+        ":test" in nonSkippedTasks
+        ":otherTests" in skippedTasks
+        otherThingPage.text.endsWith("<!-- reused -->")
+        def htmlReport = new HtmlTestExecutionResult(testDirectory, "build/reports/tr")
+        htmlReport.assertTestClassesExecuted("Thing", "OtherThing")
+        htmlReport.testClass("Thing").assertStdout(equalTo("second\n"))
+    }
+
     @Issue("https://issues.gradle.org//browse/GRADLE-2915")
     def "test report task can handle tests tasks not having been executed"() {
         when:
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.report;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.testing.junit.result.TestFailure;
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GradleVersion;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records a key for the content of each class page of an HTML test report, so that a page whose results have not changed since the report was last
+ * generated does not need to be rendered again. The key is calculated from the test results of the class and the key of its output, so that the
+ * output itself is not read.
+ *
+ * <p>The key includes the durations of the tests, and the output is identified by its file rather than its content, so a page is only reused for results
+ * that have not been produced again. This is the case when a {@link org.gradle.api.tasks.testing.TestReport} aggregates the results of test tasks that
+ * did not run again, but not for the report of a test task, whose results are all new each time it runs.</p>
+ *
+ * <p>The index is discarded when it was written for a different report directory or by a different Gradle version.</p>
+ */
+class ClassPageIndex {
+    private static final Logger LOG = Logging.getLogger(ClassPageIndex.class);
+    private static final int INDEX_VERSION = 1;
+
+    private final File indexFile;
+    private final File reportDir;
+    private final Map<String, String> previous;
+    private final Map<String, String> current = new ConcurrentHashMap<String, String>();
+
+    private ClassPageIndex(File indexFile, File reportDir, Map<String, String> previous) {
+        this.indexFile = indexFile;
+        this.reportDir = reportDir;
+        this.previous = previous;
+    }
+
+    /**
+     * Loads the index from the given file. The file is removed, and is only written again by {@link #store()}, so that the pages of a report
+     * that failed part way through are never treated as up-to-date.
+     */
+    static ClassPageIndex load(File indexFile, File reportDir) {
+        Map<String, String> previous = new HashMap<String, String>();
+        if (indexFile.isFile()) {
+            try {
+                read(indexFile, reportDir, previous);
+            } catch (Exception e) {
+                LOG.debug(String.format("Could not read HTML test report index '%s'. Rendering all class pages.", indexFile), e);
+                previous.clear();
+            }
+            if (!indexFile.delete()) {
+                throw new UncheckedIOException(String.format("Could not delete HTML test report index '%s'.", indexFile));
+            }
+        }
+        return new ClassPageIndex(indexFile, reportDir, previous);
+    }
+
+    private static void read(File indexFile, File reportDir, Map<String, String> entries) throws IOException {
+        InputStream inputStream = new FileInputStream(indexFile);
+        try {
+            Decoder decoder = new KryoBackedDecoder(inputStream);
+            if (decoder.readSmallInt() != INDEX_VERSION
+                || !decoder.readString().equals(GradleVersion.current().getVersion())
+                || !decoder.readString().equals(reportDir.getAbsolutePath())) {
+                return;
+            }
+            int count = decoder.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                entries.put(decoder.readString(), decoder.readString());
+            }
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Returns true when the given page was rendered for the given key by the previous report, and still exists.
+     */
+    boolean isUpToDate(String pageUrl, String key) {
+        return key.equals(previous.get(pageUrl)) && new File(reportDir, pageUrl).isFile();
+    }
+
+    /**
+     * Records that the given page is now up-to-date for the given key. Can be called from multiple threads.
+     */
+    void rendered(String pageUrl, String key) {
+        current.put(pageUrl, key);
+    }
+
+    /**
+     * Writes the pages recorded by {@link #rendered(String, String)} to the index file.
+     */
+    void store() {
+        try {
+            indexFile.getParentFile().mkdirs();
+            OutputStream outputStream = new FileOutputStream(indexFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(INDEX_VERSION);
+                encoder.writeString(GradleVersion.current().getVersion());
+                encoder.writeString(reportDir.getAbsolutePath());
+                encoder.writeSmallInt(current.size());
+                for (Map.Entry<String, String> entry : current.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeString(entry.getValue());
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Calculates the key for the page of the given class, from everything that is rendered on that page. The output of the class is identified by
+     * {@link TestResultsProvider#getOutputKey(long)} rather than read.
+     */
+    static String keyFor(ClassTestResults classResults, TestResultsProvider resultsProvider) {
+        Hasher hasher = Hashing.md5().newHasher();
+        putString(hasher, classResults.getName());
+        hasher.putInt(classResults.getTestResults().size());
+        for (TestResult test : classResults.getTestResults()) {
+            putString(hasher, test.getName());
+            hasher.putLong(test.getDuration());
+            hasher.putBoolean(test.isIgnored());
+            hasher.putInt(test.getFailures().size());
+            for (TestFailure failure : test.getFailures()) {
+                putString(hasher, failure.getExceptionType());
+                putString(hasher, failure.getMessage());
+                putString(hasher, failure.getStackTrace());
+            }
+        }
+        putString(hasher, resultsProvider.getOutputKey(classResults.getId()));
+        return hasher.hash().toString();
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        if (value == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(value.length());
+            hasher.putUnencodedChars(value);
+        }
+    }
+}
@@ -17,12 +17,17 @@ package org.gradle.api.internal.tasks.testing.junit.report;
 
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestFailure;
 import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.operations.BuildOperation;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationWorker;
 import org.gradle.reporting.HtmlReportBuilder;
 import org.gradle.reporting.HtmlReportRenderer;
 import org.gradle.reporting.ReportRenderer;
@@ -35,8 +40,25 @@ import java.util.List;
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
 
 public class DefaultTestReport implements TestReporter {
+    private final BuildOperationProcessor buildOperationProcessor;
+    private final File indexFile;
     private final static Logger LOG = Logging.getLogger(DefaultTestReport.class);
 
+    public DefaultTestReport(BuildOperationProcessor buildOperationProcessor) {
+        this(buildOperationProcessor, null);
+    }
+
+    /**
+     * Creates a report that only renders those class pages whose results have changed since the report was last generated. This is only useful when
+     * some of the results are the same as those of the previous report, as when aggregating the results of several test tasks.
+     *
+     * @param indexFile The file to record the class pages that have been rendered in.
+     */
+    public DefaultTestReport(BuildOperationProcessor buildOperationProcessor, @Nullable File indexFile) {
+        this.buildOperationProcessor = buildOperationProcessor;
+        this.indexFile = indexFile;
+    }
+
     public void generateReport(TestResultsProvider resultsProvider, File reportDir) {
         LOG.info("Generating HTML test report...");
 
@@ -69,25 +91,91 @@ public class DefaultTestReport implements TestReporter {
     }
 
     private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, File reportDir) {
+        final ClassPageIndex classPageIndex = indexFile == null ? null : ClassPageIndex.load(indexFile, reportDir);
         try {
             HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
             htmlRenderer.render(model, new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
                 @Override
                 public void render(AllTestResults model, HtmlReportBuilder output) throws IOException {
-                    PackagePageRenderer packagePageRenderer = new PackagePageRenderer();
-                    ClassPageRenderer classPageRenderer = new ClassPageRenderer(resultsProvider);
-
                     output.renderHtmlPage("index.html", model, new OverviewPageRenderer());
+
+                    // Each remaining page is independent of the others, so generate them concurrently
+                    BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>> queue = buildOperationProcessor.newQueue(new HtmlReportFileGeneratorWorker(), null);
                     for (PackageTestResults packageResults : model.getPackages()) {
-                        output.renderHtmlPage(packageResults.getBaseUrl(), packageResults, packagePageRenderer);
+                        queue.add(new HtmlReportFileGenerator<PackageTestResults>(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer(), output));
                         for (ClassTestResults classResults : packageResults.getClasses()) {
-                            output.renderHtmlPage(classResults.getBaseUrl(), classResults, classPageRenderer);
+                            if (classPageIndex == null) {
+                                queue.add(new HtmlReportFileGenerator<ClassTestResults>(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider), output));
+                            } else {
+                                queue.add(new IndexedClassPageGenerator(classResults, resultsProvider, output, classPageIndex));
+                            }
                         }
                     }
+                    queue.waitForCompletion();
                 }
             }, reportDir);
+            if (classPageIndex != null) {
+                classPageIndex.store();
+            }
         } catch (Exception e) {
             throw new GradleException(String.format("Could not generate test report to '%s'.", reportDir), e);
         }
     }
+
+    private static class HtmlReportFileGenerator<T extends CompositeTestResults> implements BuildOperation {
+        private final String fileUrl;
+        private final T results;
+        private final PageRenderer<T> renderer;
+        private final HtmlReportBuilder output;
+
+        HtmlReportFileGenerator(String fileUrl, T results, PageRenderer<T> renderer, HtmlReportBuilder output) {
+            this.fileUrl = fileUrl;
+            this.results = results;
+            this.renderer = renderer;
+            this.output = output;
+        }
+
+        public String getDescription() {
+            return "Generate HTML test report page " + fileUrl;
+        }
+
+        void generate() {
+            output.renderHtmlPage(fileUrl, results, renderer);
+        }
+    }
+
+    /**
+     * Renders a class page, unless the page has already been rendered for the same results.
+     */
+    private static class IndexedClassPageGenerator extends HtmlReportFileGenerator<ClassTestResults> {
+        private final ClassTestResults results;
+        private final TestResultsProvider resultsProvider;
+        private final ClassPageIndex classPageIndex;
+
+        IndexedClassPageGenerator(ClassTestResults results, TestResultsProvider resultsProvider, HtmlReportBuilder output, ClassPageIndex classPageIndex) {
+            super(results.getBaseUrl(), results, new ClassPageRenderer(resultsProvider), output);
+            this.results = results;
+            this.resultsProvider = resultsProvider;
+            this.classPageIndex = classPageIndex;
+        }
+
+        @Override
+        void generate() {
+            String key = ClassPageIndex.keyFor(results, resultsProvider);
+            if (!classPageIndex.isUpToDate(results.getBaseUrl(), key)) {
+                super.generate();
+            }
+            classPageIndex.rendered(results.getBaseUrl(), key);
+        }
+    }
+
+    private static class HtmlReportFileGeneratorWorker implements BuildOperationWorker<HtmlReportFileGenerator<? extends CompositeTestResults>> {
+        public String getDisplayName() {
+            return "HTML test report generator";
+        }
+
+        public void execute(HtmlReportFileGenerator<? extends CompositeTestResults> fileGenerator) {
+            fileGenerator.generate();
+        }
+    }
 }
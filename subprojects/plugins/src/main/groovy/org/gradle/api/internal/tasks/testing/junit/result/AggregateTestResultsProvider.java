@@ -106,6 +106,14 @@ public class AggregateTestResultsProvider implements TestResultsProvider {
                 });
     }
 
+    public String getOutputKey(long id) {
+        StringBuilder key = new StringBuilder();
+        for (DelegateProvider delegateProvider : classOutputProviders.get(id)) {
+            key.append(delegateProvider.provider.getOutputKey(delegateProvider.id)).append(';');
+        }
+        return key.toString();
+    }
+
     public void writeAllOutput(long id, TestOutputEvent.Destination destination, Writer writer) {
         for (DelegateProvider delegateProvider : classOutputProviders.get(id)) {
             delegateProvider.provider.writeAllOutput(delegateProvider.id, destination, writer);
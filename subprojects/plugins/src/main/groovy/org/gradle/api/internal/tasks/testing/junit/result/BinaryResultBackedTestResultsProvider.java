@@ -36,6 +36,10 @@ public class BinaryResultBackedTestResultsProvider implements TestResultsProvide
         return outputReader.hasOutput(id, destination);
     }
 
+    public String getOutputKey(long id) {
+        return outputReader.getOutputKey(id);
+    }
+
     public void writeAllOutput(long id, TestOutputEvent.Destination destination, Writer writer) {
         outputReader.writeAllOutput(id, destination, writer);
     }
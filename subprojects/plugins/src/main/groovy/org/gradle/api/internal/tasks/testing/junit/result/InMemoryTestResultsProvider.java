@@ -35,6 +35,10 @@ public class InMemoryTestResultsProvider implements TestResultsProvider {
         return outputReader.hasOutput(id, destination);
     }
 
+    public String getOutputKey(long id) {
+        return outputReader.getOutputKey(id);
+    }
+
     public void writeAllOutput(long id, TestOutputEvent.Destination destination, Writer writer) {
         outputReader.writeAllOutput(id, destination, writer);
     }
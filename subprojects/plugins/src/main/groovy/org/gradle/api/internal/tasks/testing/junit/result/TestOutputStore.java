@@ -21,7 +21,7 @@ import com.esotericsoftware.kryo.io.Output;
 import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
+import org.gradle.internal.io.PositionalFileChannelInputStream;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
@@ -216,9 +216,13 @@ public class TestOutputStore {
         }
     }
 
+    /**
+     * Reads the output of tests. Multiple threads can read from a reader concurrently.
+     */
     public class Reader implements Closeable {
         private final Index index;
         private final RandomAccessFile dataFile;
+        private final String dataFileKey;
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -266,6 +270,7 @@ public class TestOutputStore {
                 } catch (FileNotFoundException e) {
                     throw new UncheckedIOException(e);
                 }
+                dataFileKey = outputsFile.getAbsolutePath() + ":" + outputsFile.length() + ":" + outputsFile.lastModified();
             } else { // no outputs file
                 if (indexFile.exists()) {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' does not exist but the index file '%s' does", outputsFile, indexFile));
@@ -273,6 +278,7 @@ public class TestOutputStore {
 
                 index = null;
                 dataFile = null;
+                dataFileKey = null;
             }
         }
 
@@ -296,6 +302,20 @@ public class TestOutputStore {
             }
         }
 
+        /**
+         * Returns a key that identifies the output of the given class, without reading the output. The key changes when the outputs file is written again.
+         */
+        public String getOutputKey(long classId) {
+            if (dataFile == null) {
+                return "";
+            }
+            Index classIndex = index.children.get(classId);
+            if (classIndex == null) {
+                return "";
+            }
+            return dataFileKey + ":" + classIndex.stdOut.start + "-" + classIndex.stdOut.stop + ":" + classIndex.stdErr.start + "-" + classIndex.stdErr.stop;
+        }
+
         public void writeAllOutput(long classId, TestOutputEvent.Destination destination, java.io.Writer writer) {
             doRead(classId, 0, true, destination, writer);
         }
@@ -333,9 +353,8 @@ public class TestOutputStore {
             boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
             try {
-                dataFile.seek(region.start);
                 long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
+                KryoBackedDecoder decoder = new KryoBackedDecoder(new PositionalFileChannelInputStream(dataFile.getChannel(), region.start));
                 while (decoder.getReadPosition() <= maxPos) {
                     boolean readStdout = decoder.readBoolean();
                     long readClassId = decoder.readSmallLong();
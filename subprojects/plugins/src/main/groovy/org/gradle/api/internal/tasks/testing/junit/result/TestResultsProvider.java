@@ -46,5 +46,11 @@ public interface TestResultsProvider extends Closeable {
 
     boolean hasOutput(long id, TestOutputEvent.Destination destination);
 
+    /**
+     * Returns a key that identifies the output of the given test class, without reading the output. The key changes when the output may have changed.
+     * This method must be called only after {@link #visitClasses(org.gradle.api.Action)}.
+     */
+    String getOutputKey(long id);
+
     boolean isHasResults();
 }
@@ -18,6 +18,8 @@ package org.gradle.api.internal.tasks.testing.junit.report
 import org.gradle.api.internal.tasks.testing.BuildableTestResultsProvider
 import org.gradle.api.internal.tasks.testing.junit.result.AggregateTestResultsProvider
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.ConfigureUtil
@@ -27,11 +29,16 @@ import spock.lang.Specification
 class DefaultTestReportTest extends Specification {
     @Rule
     public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
-    final DefaultTestReport report = new DefaultTestReport()
+    final DefaultBuildOperationProcessor buildOperationProcessor = new DefaultBuildOperationProcessor(new DefaultExecutorFactory(), 4)
+    final DefaultTestReport report = new DefaultTestReport(buildOperationProcessor)
     final TestFile reportDir = tmpDir.file('report')
     final TestFile indexFile = reportDir.file('index.html')
     final TestResultsProvider testResultProvider = Mock()
 
+    def cleanup() {
+        buildOperationProcessor.stop()
+    }
+
     def generatesReportWhenThereAreNoTestResults() {
         given:
         emptyResultSet()
@@ -477,6 +484,45 @@ class DefaultTestReportTest extends Specification {
         testClassFile.assertHasStandardError('err:\u0102')
     }
 
+    def rendersOnlyClassPagesWhoseResultsHaveChanged() {
+        given:
+        def indexedReport = new DefaultTestReport(buildOperationProcessor, tmpDir.file("index.bin"))
+        indexedReport.generateReport(aggregatedBuildResultsRun1(), reportDir)
+        def fooClassFile = reportDir.file('classes/org.gradle.aggregation.FooTest.html')
+        def barClassFile = reportDir.file('classes/org.gradle.aggregation.BarTest.html')
+        fooClassFile.text = "unchanged"
+        barClassFile.text = "unchanged"
+
+        when:
+        indexedReport.generateReport(aggregatedBuildResultsRun2(), reportDir)
+
+        then:
+        fooClassFile.text == "unchanged"
+        def mixedClassFile = results(barClassFile)
+        mixedClassFile.assertHasTests(1)
+        mixedClassFile.assertHasFailures(1)
+        mixedClassFile.assertHasDuration("1.100s")
+
+        def packageFile = results(reportDir.file('packages/org.gradle.aggregation.html'))
+        packageFile.assertHasFailures(1)
+    }
+
+    def rendersClassPageAgainWhenItHasBeenRemoved() {
+        given:
+        def indexedReport = new DefaultTestReport(buildOperationProcessor, tmpDir.file("index.bin"))
+        indexedReport.generateReport(passingBuildResults(), reportDir)
+        def classFile = reportDir.file('classes/org.gradle.passing.Passed.html')
+        classFile.delete()
+
+        when:
+        indexedReport.generateReport(passingBuildResults(), reportDir)
+
+        then:
+        def passedClassFile = results(classFile)
+        passedClassFile.assertHasTests(1)
+        passedClassFile.assertHasDuration("1.000s")
+    }
+
     TestResultsProvider buildResults(Closure closure) {
         ConfigureUtil.configure(closure, new BuildableTestResultsProvider())
     }
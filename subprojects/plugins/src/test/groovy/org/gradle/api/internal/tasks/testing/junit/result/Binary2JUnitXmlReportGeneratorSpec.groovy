@@ -17,7 +17,9 @@
 package org.gradle.api.internal.tasks.testing.junit.result
 
 import org.gradle.api.Action
-import org.gradle.api.GradleException
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.internal.operations.MultipleBuildOperationFailures
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
@@ -26,12 +28,17 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
 
     @Rule private TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
     private resultsProvider = Mock(TestResultsProvider)
-    private generator = new Binary2JUnitXmlReportGenerator(temp.testDirectory, resultsProvider, TestOutputAssociation.WITH_SUITE)
+    private buildOperationProcessor = new DefaultBuildOperationProcessor(new DefaultExecutorFactory(), 4)
+    private generator = new Binary2JUnitXmlReportGenerator(temp.testDirectory, resultsProvider, TestOutputAssociation.WITH_SUITE, buildOperationProcessor)
 
     def setup() {
         generator.saxWriter = Mock(JUnitXmlResultWriter)
     }
 
+    def cleanup() {
+        buildOperationProcessor.stop()
+    }
+
     def "writes results"() {
         def fooTest = new TestClassResult(1, 'FooTest', 100)
             .add(new TestMethodResult(1, "foo"))
@@ -67,8 +74,9 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
         generator.generate()
 
         then:
-        def ex = thrown(GradleException)
-        ex.message.startsWith('Could not write XML test results for FooTest')
-        ex.cause.message == "Boo!"
+        def ex = thrown(MultipleBuildOperationFailures)
+        ex.causes.size() == 1
+        ex.causes[0].message.startsWith('Could not write XML test results for FooTest')
+        ex.causes[0].cause.message == "Boo!"
     }
 }
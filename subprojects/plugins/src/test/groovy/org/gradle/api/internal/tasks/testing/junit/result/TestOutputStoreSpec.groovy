@@ -20,6 +20,9 @@ import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
 import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.test.fixtures.file.WorkspaceTest
 
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
 
@@ -98,6 +101,32 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "output key identifies output of class without reading it"() {
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, output(StdOut, "[out-1]"))
+        writer.onOutput(2, 1, output(StdErr, "[out-2]"))
+        writer.close()
+        def reader = output.reader()
+        def key1 = reader.getOutputKey(1)
+        def key2 = reader.getOutputKey(2)
+        reader.close()
+
+        then:
+        key1 != key2
+        reader.getOutputKey(3) == ""
+
+        when:
+        output.outputsFile.setLastModified(output.outputsFile.lastModified() - 10000)
+        reader = output.reader()
+
+        then:
+        reader.getOutputKey(1) != key1
+
+        cleanup:
+        reader.close()
+    }
+
     def DefaultTestOutputEvent output(TestOutputEvent.Destination destination, String msg) {
         new DefaultTestOutputEvent(destination, msg)
     }
@@ -145,6 +174,33 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "output can be read concurrently"() {
+        when:
+        def writer = output.writer()
+        100.times { classId ->
+            20.times { testId ->
+                writer.onOutput(classId, testId + 1, output(StdOut, "[out-$classId-$testId]"))
+                writer.onOutput(classId, testId + 1, output(StdErr, "[err-$classId-$testId]"))
+            }
+        }
+        writer.close()
+        def reader = output.reader()
+        def executor = Executors.newFixedThreadPool(8)
+        def results = executor.invokeAll((0..<100).collect { classId ->
+            { -> collectAllOutput(reader, classId, StdOut) + collectAllOutput(reader, classId, StdErr) } as Callable<String>
+        })*.get()
+
+        then:
+        results.size() == 100
+        results.eachWithIndex { String result, int classId ->
+            assert result == (0..<20).collect { "[out-$classId-$it]" }.join("") + (0..<20).collect { "[err-$classId-$it]" }.join("")
+        }
+
+        cleanup:
+        executor?.shutdown()
+        reader?.close()
+    }
+
     def "can open empty reader"() {
         // neither file
         expect:
@@ -75,6 +75,10 @@ class BuildableTestResultsProvider implements TestResultsProvider {
         testClasses[classId]?.outputEvents?.find { it.testOutputEvent.destination == destination }
     }
 
+    String getOutputKey(long classId) {
+        testClasses[classId].outputEvents.collect { "${it.testId}:${it.testOutputEvent.destination}:${it.testOutputEvent.message}" }.join("\n")
+    }
+
     static class BuildableOutputEvent {
         long testId
         TestOutputEvent testOutputEvent
@@ -21,6 +21,7 @@ import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.impl.client.DecompressingHttpClient;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
@@ -28,6 +29,7 @@ import org.apache.http.impl.client.SystemDefaultHttpClient;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.util.EntityUtils;
 import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.concurrent.Stoppable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,15 +38,45 @@ import java.io.IOException;
 /**
  * Provides some convenience and unified logging.
  */
-public class HttpClientHelper {
+public class HttpClientHelper implements Stoppable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientHelper.class);
     private final HttpClient client;
-    private final BasicHttpContext httpContext = new BasicHttpContext();
+    private final HttpConnectionPool connectionPool;
+    private final boolean ownsConnectionPool;
+    private final ThreadLocal<BasicHttpContext> httpContext = new ThreadLocal<BasicHttpContext>() {
+        @Override
+        protected BasicHttpContext initialValue() {
+            return new BasicHttpContext();
+        }
+    };
 
+    /**
+     * Creates a helper with its own connection pool, which is closed when the helper is stopped. Prefer sharing a pool between helpers, using
+     * {@link #HttpClientHelper(HttpSettings, HttpConnectionPool)}.
+     */
     public HttpClientHelper(HttpSettings settings) {
+        this(settings, new HttpConnectionPool(), true);
+    }
+
+    /**
+     * Creates a helper whose requests use connections from the given pool. The helper may be used by several threads at the same time. The pool is
+     * not closed when the helper is stopped.
+     */
+    public HttpClientHelper(HttpSettings settings, HttpConnectionPool connectionPool) {
+        this(settings, connectionPool, false);
+    }
+
+    private HttpClientHelper(HttpSettings settings, final HttpConnectionPool connectionPool, boolean ownsConnectionPool) {
+        this.connectionPool = connectionPool;
+        this.ownsConnectionPool = ownsConnectionPool;
         alwaysUseKeepAliveConnections();
-        DefaultHttpClient client = new SystemDefaultHttpClient();
+        DefaultHttpClient client = new SystemDefaultHttpClient() {
+            @Override
+            protected ClientConnectionManager createClientConnectionManager() {
+                return connectionPool.getConnectionManager();
+            }
+        };
         client.setRedirectStrategy(new AlwaysRedirectRedirectStrategy());
         new HttpClientConfigurer(settings).configure(client);
         this.client = new DecompressingHttpClient(client);
@@ -108,9 +140,11 @@ public class HttpClientHelper {
 
     public HttpResponse performHttpRequest(HttpRequestBase request) throws IOException {
         // Without this, HTTP Client prohibits multiple redirects to the same location within the same context
-        httpContext.removeAttribute(DefaultRedirectStrategy.REDIRECT_LOCATIONS);
+        BasicHttpContext context = httpContext.get();
+        context.removeAttribute(DefaultRedirectStrategy.REDIRECT_LOCATIONS);
+        connectionPool.evictIdleConnections();
         LOGGER.debug("Performing HTTP {}: {}", request.getMethod(), request.getURI());
-        return client.execute(request, httpContext);
+        return client.execute(request, context);
     }
 
     private HttpResponse processResponse(String source, String method, HttpResponse response) {
@@ -126,4 +160,10 @@ public class HttpClientHelper {
 
         return response;
     }
+
+    public void stop() {
+        if (ownsConnectionPool) {
+            connectionPool.stop();
+        }
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe pool of keep-alive HTTP connections, shared by all of the HTTP clients created by an {@link HttpClientHelper}. A single pool is held for the lifetime
+ * of the process, so that connections, and their TLS sessions, are reused across repositories and across the builds run by a daemon.
+ *
+ * <p>The trust store and key store used for HTTPS connections are read from the {@code javax.net.ssl} system properties, which a build may change, for
+ * example using {@code systemProp} entries in gradle.properties. Connections are pooled separately for each combination of these settings, so that a
+ * client always uses the settings that were in effect when it was created.</p>
+ *
+ * <p>Connections that have been idle for longer than {@link #IDLE_TIMEOUT_MILLIS}, or whose keep-alive has expired, are closed as the pool is used.</p>
+ */
+public class HttpConnectionPool implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpConnectionPool.class);
+
+    public static final String MAX_CONNECTIONS_PER_ROUTE_PROPERTY = "http.maxConnections";
+    static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    static final int MAX_CONNECTIONS = 200;
+    static final long IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(3);
+    private static final long EVICTION_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final String[] SSL_PROPERTIES = {
+        "javax.net.ssl.trustStore", "javax.net.ssl.trustStorePassword", "javax.net.ssl.trustStoreType", "javax.net.ssl.trustStoreProvider",
+        "javax.net.ssl.keyStore", "javax.net.ssl.keyStorePassword", "javax.net.ssl.keyStoreType", "javax.net.ssl.keyStoreProvider"
+    };
+
+    private final Map<List<String>, PoolingClientConnectionManager> connectionManagers = new LinkedHashMap<List<String>, PoolingClientConnectionManager>();
+    private final AtomicLong nextEviction = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    /**
+     * Returns the connection manager that HTTP clients should use to obtain their connections from this pool, for the SSL settings that are currently in effect.
+     */
+    public ClientConnectionManager getConnectionManager() {
+        List<String> sslSettings = new ArrayList<String>(SSL_PROPERTIES.length);
+        for (String property : SSL_PROPERTIES) {
+            sslSettings.add(System.getProperty(property));
+        }
+        synchronized (connectionManagers) {
+            PoolingClientConnectionManager connectionManager = connectionManagers.get(sslSettings);
+            if (connectionManager == null) {
+                connectionManager = new StatisticsCollectingConnectionManager();
+                int maxPerRoute = Integer.getInteger(MAX_CONNECTIONS_PER_ROUTE_PROPERTY, DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+                connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+                connectionManager.setMaxTotal(Math.max(MAX_CONNECTIONS, maxPerRoute));
+                connectionManagers.put(sslSettings, connectionManager);
+            }
+            return connectionManager;
+        }
+    }
+
+    private List<PoolingClientConnectionManager> getConnectionManagers() {
+        synchronized (connectionManagers) {
+            return new ArrayList<PoolingClientConnectionManager>(connectionManagers.values());
+        }
+    }
+
+    /**
+     * Closes the connections that have been idle for too long, if this has not been done recently.
+     */
+    public void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        long due = nextEviction.get();
+        if (now < due || !nextEviction.compareAndSet(due, now + EVICTION_INTERVAL_MILLIS)) {
+            return;
+        }
+        for (PoolingClientConnectionManager connectionManager : getConnectionManagers()) {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns the number of connections that have been opened by this pool.
+     */
+    public long getOpenedConnections() {
+        return opened.get();
+    }
+
+    /**
+     * Returns the number of times that an open connection has been reused for a request.
+     */
+    public long getReusedConnections() {
+        return reused.get();
+    }
+
+    public void stop() {
+        LOGGER.debug("Closing HTTP connection pool. Connections opened: {}, connections reused: {}.", opened.get(), reused.get());
+        for (PoolingClientConnectionManager connectionManager : getConnectionManagers()) {
+            connectionManager.shutdown();
+        }
+    }
+
+    private class StatisticsCollectingConnectionManager extends PoolingClientConnectionManager {
+        StatisticsCollectingConnectionManager() {
+            super(SchemeRegistryFactory.createSystemDefault());
+        }
+
+        @Override
+        public ClientConnectionRequest requestConnection(final HttpRoute route, Object state) {
+            final ClientConnectionRequest request = super.requestConnection(route, state);
+            return new ClientConnectionRequest() {
+                public ManagedClientConnection getConnection(long timeout, TimeUnit timeUnit) throws InterruptedException, ConnectionPoolTimeoutException {
+                    ManagedClientConnection connection = request.getConnection(timeout, timeUnit);
+                    if (connection.isOpen()) {
+                        reused.incrementAndGet();
+                        LOGGER.debug("Reusing HTTP connection to {}", route);
+                    } else {
+                        opened.incrementAndGet();
+                    }
+                    return connection;
+                }
+
+                public void abortRequest() {
+                    request.abortRequest();
+                }
+            };
+        }
+    }
+}
@@ -44,8 +44,12 @@ public class HttpResourcesPluginServiceRegistry implements PluginServiceRegistry
     }
 
     private static class GlobalScopeServices {
-        ResourceConnectorFactory createHttpConnectorFactory() {
-            return new HttpConnectorFactory();
+        HttpConnectionPool createHttpConnectionPool() {
+            return new HttpConnectionPool();
+        }
+
+        ResourceConnectorFactory createHttpConnectorFactory(HttpConnectionPool connectionPool) {
+            return new HttpConnectorFactory(connectionPool);
         }
     }
 
@@ -47,12 +47,23 @@ class HttpClientHelperTest extends Specification {
         System.setProperty("http.keepAlive", "false")
 
         when:
-        new HttpClientHelper(httpSettings)
+        new HttpClientHelper(httpSettings).stop()
 
         then:
         System.getProperty("http.keepAlive", "true")
     }
 
+    def "does not close a shared connection pool when stopped"() {
+        def pool = Mock(HttpConnectionPool)
+        def client = new HttpClientHelper(httpSettings, pool)
+
+        when:
+        client.stop()
+
+        then:
+        0 * pool._
+    }
+
     private HttpSettings getHttpSettings() {
         return Stub(HttpSettings) {
             getCredentials() >> Stub(PasswordCredentials)
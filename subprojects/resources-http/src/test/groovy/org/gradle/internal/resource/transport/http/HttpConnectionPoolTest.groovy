@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpHandler
+import com.sun.net.httpserver.HttpServer
+import org.apache.http.util.EntityUtils
+import org.gradle.authentication.Authentication
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class HttpConnectionPoolTest extends Specification {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
+    def pool = new HttpConnectionPool()
+    HttpServer server
+    String uri
+
+    def setup() {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+        server.createContext("/", new HttpHandler() {
+            void handle(HttpExchange exchange) {
+                def content = "content".bytes
+                exchange.sendResponseHeaders(200, content.length)
+                exchange.responseBody.write(content)
+                exchange.close()
+            }
+        })
+        server.executor = Executors.newCachedThreadPool()
+        server.start()
+        uri = "http://localhost:${server.address.port}/"
+    }
+
+    def cleanup() {
+        pool.stop()
+        server.stop(0)
+        server.executor.shutdown()
+    }
+
+    def "reuses connections for requests made by the same client"() {
+        def http = new HttpClientHelper(httpSettings, pool)
+
+        when:
+        3.times { get(http, "file-${it}") }
+
+        then:
+        pool.openedConnections == 1
+        pool.reusedConnections == 2
+    }
+
+    def "shares connections between clients"() {
+        when:
+        get(new HttpClientHelper(httpSettings, pool), "one")
+        get(new HttpClientHelper(httpSettings, pool), "two")
+
+        then:
+        pool.openedConnections == 1
+        pool.reusedConnections == 1
+    }
+
+    def "can be used by multiple threads concurrently"() {
+        def http = new HttpClientHelper(httpSettings, pool)
+        def executor = Executors.newFixedThreadPool(4)
+
+        when:
+        def results = executor.invokeAll((1..20).collect { index -> { -> get(http, "file-${index}") } as Callable<String> })*.get()
+
+        then:
+        results.every { it == "content" }
+        pool.openedConnections <= HttpConnectionPool.DEFAULT_MAX_CONNECTIONS_PER_ROUTE
+        pool.openedConnections + pool.reusedConnections == 20
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "clients that do not share a pool do not share connections"() {
+        def otherPool = new HttpConnectionPool()
+
+        when:
+        get(new HttpClientHelper(httpSettings, pool), "one")
+        get(new HttpClientHelper(httpSettings, otherPool), "two")
+
+        then:
+        pool.openedConnections == 1
+        otherPool.openedConnections == 1
+
+        cleanup:
+        otherPool.stop()
+    }
+
+    def "does not share connections between clients created with different SSL settings"() {
+        when:
+        get(new HttpClientHelper(httpSettings, pool), "one")
+        System.setProperty("javax.net.ssl.keyStorePassword", "changed")
+        get(new HttpClientHelper(httpSettings, pool), "two")
+
+        then:
+        pool.openedConnections == 2
+        pool.reusedConnections == 0
+
+        when:
+        System.clearProperty("javax.net.ssl.keyStorePassword")
+        get(new HttpClientHelper(httpSettings, pool), "three")
+
+        then:
+        pool.openedConnections == 2
+        pool.reusedConnections == 1
+    }
+
+    def "reads the SSL settings when a client is created"() {
+        expect:
+        pool.connectionManager.is(pool.connectionManager)
+
+        when:
+        def original = pool.connectionManager
+        System.setProperty("javax.net.ssl.keyStorePassword", "changed")
+
+        then:
+        !pool.connectionManager.is(original)
+    }
+
+    private String get(HttpClientHelper http, String path) {
+        def response = http.performGet(uri + path)
+        return EntityUtils.toString(response.entity)
+    }
+
+    private HttpSettings getHttpSettings() {
+        return Stub(HttpSettings) {
+            getAuthenticationSettings() >> ([] as Set<Authentication>)
+            getProxySettings() >> Stub(HttpProxySettings)
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.internal.resource.local;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.Transformer;
 import org.gradle.internal.Factory;
 
@@ -25,13 +26,19 @@ import java.util.List;
 public class AbstractLocallyAvailableResourceFinder<C> implements LocallyAvailableResourceFinder<C> {
 
     private final Transformer<Factory<List<File>>, C> producer;
+    private final FileSha1Index sha1Index;
 
     public AbstractLocallyAvailableResourceFinder(Transformer<Factory<List<File>>, C> producer) {
+        this(producer, null);
+    }
+
+    public AbstractLocallyAvailableResourceFinder(Transformer<Factory<List<File>>, C> producer, @Nullable FileSha1Index sha1Index) {
         this.producer = producer;
+        this.sha1Index = sha1Index;
     }
 
     public LocallyAvailableResourceCandidates findCandidates(C criterion) {
-        return new LazyLocallyAvailableResourceCandidates(producer.transform(criterion));
+        return new LazyLocallyAvailableResourceCandidates(producer.transform(criterion), sha1Index);
     }
 
 }
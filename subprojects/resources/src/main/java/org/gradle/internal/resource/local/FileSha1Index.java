@@ -0,0 +1,46 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.File;
+
+/**
+ * An index of the SHA-1 of local files. Allows a file that has not changed since it was last hashed to be hashed again without reading it,
+ * and allows a file with a given SHA-1 to be found without searching and hashing candidate files.
+ */
+public interface FileSha1Index {
+    /**
+     * Returns the SHA-1 of the given file. The file is only read when it has changed since it was last indexed.
+     */
+    HashValue getSha1(File file);
+
+    /**
+     * Records the SHA-1 of a file whose content is already known, for example because the file was hashed as it was downloaded.
+     */
+    void record(File file, HashValue sha1);
+
+    /**
+     * Locates an indexed file with the given SHA-1, which has not changed since it was indexed.
+     *
+     * @return The file, or null if no such file is known.
+     */
+    @Nullable
+    LocallyAvailableResource findByHashValue(HashValue sha1);
+}
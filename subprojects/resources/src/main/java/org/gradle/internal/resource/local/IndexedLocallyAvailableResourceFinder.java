@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.local;
+
+import org.gradle.internal.hash.HashValue;
+
+/**
+ * Looks up a resource with the requested SHA-1 in a {@link FileSha1Index} before falling back to searching and hashing the candidates of another finder.
+ */
+public class IndexedLocallyAvailableResourceFinder<C> implements LocallyAvailableResourceFinder<C> {
+
+    private final LocallyAvailableResourceFinder<C> delegate;
+    private final FileSha1Index sha1Index;
+
+    public IndexedLocallyAvailableResourceFinder(LocallyAvailableResourceFinder<C> delegate, FileSha1Index sha1Index) {
+        this.delegate = delegate;
+        this.sha1Index = sha1Index;
+    }
+
+    public LocallyAvailableResourceCandidates findCandidates(C criterion) {
+        return new IndexedLocallyAvailableResourceCandidates(delegate.findCandidates(criterion));
+    }
+
+    private class IndexedLocallyAvailableResourceCandidates implements LocallyAvailableResourceCandidates {
+        private final LocallyAvailableResourceCandidates candidates;
+
+        public IndexedLocallyAvailableResourceCandidates(LocallyAvailableResourceCandidates candidates) {
+            this.candidates = candidates;
+        }
+
+        /**
+         * Every indexed file was recorded as a candidate of the delegate or as an entry of the filestore that the delegate searches, so when the delegate
+         * has no candidates the index cannot hold a match either. Listing the candidates of the delegate does not hash them.
+         */
+        public boolean isNone() {
+            return candidates.isNone();
+        }
+
+        public LocallyAvailableResource findByHashValue(HashValue hashValue) {
+            LocallyAvailableResource indexed = sha1Index.findByHashValue(hashValue);
+            if (indexed != null) {
+                return indexed;
+            }
+            return candidates.findByHashValue(hashValue);
+        }
+    }
+}
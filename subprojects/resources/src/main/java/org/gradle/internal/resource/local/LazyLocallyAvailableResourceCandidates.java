@@ -16,6 +16,7 @@
 
 package org.gradle.internal.resource.local;
 
+import org.gradle.api.Nullable;
 import org.gradle.internal.Factory;
 import org.gradle.internal.hash.HashUtil;
 import org.gradle.internal.hash.HashValue;
@@ -26,10 +27,16 @@ import java.util.List;
 public class LazyLocallyAvailableResourceCandidates implements LocallyAvailableResourceCandidates {
 
     private final Factory<List<File>> filesFactory;
+    private final FileSha1Index sha1Index;
     private List<File> files;
 
     public LazyLocallyAvailableResourceCandidates(Factory<List<File>> filesFactory) {
-        this.filesFactory = filesFactory;        
+        this(filesFactory, null);
+    }
+
+    public LazyLocallyAvailableResourceCandidates(Factory<List<File>> filesFactory, @Nullable FileSha1Index sha1Index) {
+        this.filesFactory = filesFactory;
+        this.sha1Index = sha1Index;
     }
 
     protected List<File> getFiles() {
@@ -46,7 +53,7 @@ public class LazyLocallyAvailableResourceCandidates implements LocallyAvailableR
     public LocallyAvailableResource findByHashValue(HashValue targetHash) {
         HashValue thisHash;
         for (File file : getFiles()) {
-            thisHash = HashUtil.sha1(file);
+            thisHash = sha1Index == null ? HashUtil.sha1(file) : sha1Index.getSha1(file);
             if (thisHash.equals(targetHash)) {
                 return new DefaultLocallyAvailableResource(file, thisHash);
             }
@@ -16,6 +16,7 @@
 
 package org.gradle.internal.resource.local;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.Transformer;
 import org.gradle.internal.Factory;
 import org.gradle.util.CollectionUtils;
@@ -32,6 +33,10 @@ import java.util.Set;
 public class LocallyAvailableResourceFinderSearchableFileStoreAdapter<C> extends AbstractLocallyAvailableResourceFinder<C> {
 
     public LocallyAvailableResourceFinderSearchableFileStoreAdapter(final FileStoreSearcher<C> fileStore) {
+        this(fileStore, null);
+    }
+
+    public LocallyAvailableResourceFinderSearchableFileStoreAdapter(final FileStoreSearcher<C> fileStore, @Nullable FileSha1Index sha1Index) {
         super(new Transformer<Factory<List<File>>, C>() {
             public Factory<List<File>> transform(final C criterion) {
                 return new Factory<List<File>>() {
@@ -45,8 +50,6 @@ public class LocallyAvailableResourceFinderSearchableFileStoreAdapter<C> extends
                     }
                 };
             }
-        });
+        }, sha1Index);
     }
-
-    
 }